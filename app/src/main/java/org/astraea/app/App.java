@@ -27,6 +27,7 @@ import org.astraea.app.admin.TopicExplorer;
 import org.astraea.app.automation.Automation;
 import org.astraea.app.cost.topic.PartitionScore;
 import org.astraea.app.metrics.MetricExplorer;
+import org.astraea.app.performance.DispatcherSimulator;
 import org.astraea.app.performance.Performance;
 import org.astraea.app.web.WebService;
 
@@ -40,7 +41,8 @@ public class App {
           "performance", Performance.class,
           "monitor", ReplicaSyncingMonitor.class,
           "automation", Automation.class,
-          "web", WebService.class);
+          "web", WebService.class,
+          "simulator", DispatcherSimulator.class);
 
   static void execute(Map<String, Class<?>> mains, List<String> args) throws Throwable {
 
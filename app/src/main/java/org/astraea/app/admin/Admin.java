@@ -214,6 +214,13 @@ public interface Admin extends Closeable {
    */
   Map<String, Transaction> transactions(Set<String> transactionIds);
 
+  /**
+   * remove the topics and all their records. The non-existent topics are ignored.
+   *
+   * @param topicNames to remove
+   */
+  void removeTopics(Set<String> topicNames);
+
   /**
    * remove an empty group. It causes error if the group has memebrs.
    *
@@ -541,6 +541,13 @@ public class Builder {
                       Collectors.toMap(Map.Entry::getKey, e -> Transaction.from(e.getValue()))));
     }
 
+    @Override
+    public void removeTopics(Set<String> topicNames) {
+      var existent = topicNames().stream().filter(topicNames::contains).collect(Collectors.toSet());
+      if (!existent.isEmpty())
+        Utils.packException(() -> admin.deleteTopics(existent).all().get());
+    }
+
     @Override
     public void removeGroup(String groupId) {
       Utils.packException(() -> admin.deleteConsumerGroups(Set.of(groupId)).all().get());
@@ -16,13 +16,20 @@
  */
 package org.astraea.app.admin;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.astraea.app.metrics.HasBeanObject;
+import org.astraea.app.metrics.broker.HasCount;
+import org.astraea.app.metrics.collector.TimeSeriesStore;
 
 /** Used to get beanObject using a variety of different keys . */
 public interface ClusterBean {
@@ -36,7 +43,66 @@ public interface ClusterBean {
     return x1;
   }
 
+  /**
+   * @param allBeans the beans of each broker. The rates of counters are computed by the history of
+   *     {@link HasCount} beans
+   * @return cluster bean
+   */
   static ClusterBean of(Map<Integer, Collection<HasBeanObject>> allBeans) {
+    var timeSeries = lazy(() -> counters(allBeans));
+    return of(
+        allBeans,
+        timeSeries,
+        allBeans.keySet().stream().collect(Collectors.toMap(id -> id, String::valueOf)));
+  }
+
+  /**
+   * @param allBeans the beans of each broker
+   * @param timeSeries the series recorded by the collector of beans
+   * @param nodes the node of series of each broker
+   * @return cluster bean whose rates of counters are computed by the series
+   */
+  static ClusterBean of(
+      Map<Integer, Collection<HasBeanObject>> allBeans,
+      TimeSeriesStore timeSeries,
+      Map<Integer, String> nodes) {
+    return of(allBeans, () -> timeSeries, nodes);
+  }
+
+  /** @return the series of "Count" of the counters in the beans */
+  private static TimeSeriesStore counters(Map<Integer, Collection<HasBeanObject>> allBeans) {
+    var capacity = allBeans.values().stream().mapToInt(Collection::size).max().orElse(1);
+    var timeSeries = TimeSeriesStore.builder().capacity(Math.max(1, capacity)).build();
+    allBeans.forEach(
+        (id, beans) ->
+            beans.stream()
+                .filter(bean -> bean instanceof HasCount)
+                .map(bean -> (HasCount) bean)
+                // the older samples are dropped by the series, so the beans are sorted by time
+                .sorted(Comparator.comparingLong(HasBeanObject::createdTimestamp))
+                .forEach(
+                    bean ->
+                        timeSeries.record(
+                            TimeSeriesStore.Key.of(
+                                String.valueOf(id),
+                                TimeSeriesStore.metric(
+                                    bean.beanObject().domainName(),
+                                    bean.beanObject().properties()),
+                                "Count"),
+                            bean.createdTimestamp(),
+                            bean.count())));
+    return timeSeries;
+  }
+
+  private static <T> Supplier<T> lazy(Supplier<T> supplier) {
+    var value = new AtomicReference<T>();
+    return () -> value.updateAndGet(v -> v == null ? supplier.get() : v);
+  }
+
+  private static ClusterBean of(
+      Map<Integer, Collection<HasBeanObject>> allBeans,
+      Supplier<TimeSeriesStore> timeSeries,
+      Map<Integer, String> nodes) {
     Map<TopicPartition, Collection<HasBeanObject>> beanObjectByPartition =
         allBeans.entrySet().stream()
             .flatMap(
@@ -102,6 +168,13 @@ public interface ClusterBean {
       public Map<TopicPartitionReplica, Collection<HasBeanObject>> mapByReplica() {
         return beanObjectByReplica;
       }
+
+      @Override
+      public OptionalDouble rate(int brokerId, String metric, Duration window) {
+        var node = nodes.get(brokerId);
+        if (node == null) return OptionalDouble.empty();
+        return timeSeries.get().rate(TimeSeriesStore.Key.of(node, metric, "Count"), window);
+      }
     };
   }
 
@@ -124,4 +197,16 @@ public interface ClusterBean {
    *     beanObjects.
    */
   Map<TopicPartitionReplica, Collection<HasBeanObject>> mapByReplica();
+
+  /**
+   * The rate is computed by the timestamps of samples rather than the frequency of calling this
+   * method, so the cost functions using it don't need to keep any state.
+   *
+   * @param brokerId the broker having the counter
+   * @param metric the identity of counter mbean. See {@link TimeSeriesStore#metric(String, Map)}
+   * @param window the length of time counted back from now
+   * @return the average increase per second of "Count" in the window, or empty if there are not two
+   *     samples in the window. The counter reset caused by restarting broker is not a decrease.
+   */
+  OptionalDouble rate(int brokerId, String metric, Duration window);
 }
@@ -17,10 +17,8 @@
 package org.astraea.app.admin;
 
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public interface ClusterInfo {
   ClusterInfo EMPTY =
@@ -65,54 +63,22 @@ public interface ClusterInfo {
    * @return astraea ClusterInfo
    */
   static ClusterInfo of(org.apache.kafka.common.Cluster cluster) {
-    var nodes = cluster.nodes().stream().map(NodeInfo::of).collect(Collectors.toUnmodifiableList());
-    var topics = cluster.topics();
-    var replicas =
-        topics.stream()
-            .flatMap(t -> cluster.availablePartitionsForTopic(t).stream())
-            .flatMap(p -> ReplicaInfo.of(p).stream())
-            .collect(Collectors.toUnmodifiableList());
-    var availableReplicas = replicas.stream().collect(Collectors.groupingBy(ReplicaInfo::topic));
-    var availableReplicaLeaders =
-        availableReplicas.entrySet().stream()
-            .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey,
-                    e ->
-                        e.getValue().stream()
-                            .filter(ReplicaInfo::isLeader)
-                            .collect(Collectors.toUnmodifiableList())));
-    return new ClusterInfo() {
-      @Override
-      public List<NodeInfo> nodes() {
-        return nodes;
-      }
-
-      @Override
-      public Set<String> dataDirectories(int brokerId) {
-        // org.apache.kafka.common.Cluster doesn't have such information.
-        throw new UnsupportedOperationException("This information is not available");
-      }
-
-      public Set<String> topics() {
-        return topics;
-      }
-
-      @Override
-      public List<ReplicaInfo> availableReplicaLeaders(String topic) {
-        return availableReplicaLeaders.getOrDefault(topic, List.of());
-      }
-
-      @Override
-      public List<ReplicaInfo> availableReplicas(String topic) {
-        return availableReplicas.getOrDefault(topic, List.of());
-      }
-
-      @Override
-      public List<ReplicaInfo> replicas(String topic) {
-        return replicas;
-      }
-    };
+    return KafkaClusterInfo.of(cluster, null);
+  }
+
+  /**
+   * convert the kafka Cluster to our ClusterInfo incrementally. The nodes and topics which have the
+   * same metadata as previous conversion are reused rather than converted again. It is useful to
+   * the producer which gets a new Cluster on each metadata update.
+   *
+   * @param cluster kafka ClusterInfo
+   * @param previous the result of earlier conversion. It is ignored if it is not converted from
+   *     kafka Cluster
+   * @return astraea ClusterInfo
+   */
+  static ClusterInfo of(org.apache.kafka.common.Cluster cluster, ClusterInfo previous) {
+    return KafkaClusterInfo.of(
+        cluster, previous instanceof KafkaClusterInfo ? (KafkaClusterInfo) previous : null);
   }
 
   /**
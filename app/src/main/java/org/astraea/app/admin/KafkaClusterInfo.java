@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.admin;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+
+/**
+ * The {@link ClusterInfo} converted from kafka {@link Cluster}. The replicas are grouped by topic,
+ * so the topics which are not changed can be reused by the conversion of next cluster.
+ */
+final class KafkaClusterInfo implements ClusterInfo {
+
+  /** The converted replicas of a topic and the source partitions used to detect changes. */
+  private static final class Topic {
+    private final List<PartitionInfo> partitions;
+    private final List<ReplicaInfo> availableReplicas;
+    private final List<ReplicaInfo> availableReplicaLeaders;
+
+    private Topic(List<PartitionInfo> partitions) {
+      this.partitions = partitions;
+      this.availableReplicas =
+          partitions.stream()
+              .flatMap(p -> ReplicaInfo.of(p).stream())
+              .collect(Collectors.toUnmodifiableList());
+      this.availableReplicaLeaders =
+          availableReplicas.stream()
+              .filter(ReplicaInfo::isLeader)
+              .collect(Collectors.toUnmodifiableList());
+    }
+  }
+
+  /**
+   * @param cluster to convert
+   * @param previous the conversion of earlier cluster. It can be null
+   * @return cluster info which reuses the nodes and topics having same metadata as previous one
+   */
+  static KafkaClusterInfo of(Cluster cluster, KafkaClusterInfo previous) {
+    var sourceNodes = cluster.nodes();
+    var nodes =
+        previous != null && previous.sourceNodes.equals(sourceNodes)
+            ? previous.nodes
+            : sourceNodes.stream().map(NodeInfo::of).collect(Collectors.toUnmodifiableList());
+    var topics = new HashMap<String, Topic>();
+    for (var topic : cluster.topics()) {
+      var partitions = cluster.availablePartitionsForTopic(topic);
+      var old = previous == null ? null : previous.topics.get(topic);
+      topics.put(
+          topic, old != null && old.partitions.equals(partitions) ? old : new Topic(partitions));
+    }
+    return new KafkaClusterInfo(sourceNodes, nodes, cluster.topics(), topics);
+  }
+
+  private final List<Node> sourceNodes;
+  private final List<NodeInfo> nodes;
+  private final Set<String> topicNames;
+  private final Map<String, Topic> topics;
+  private volatile List<ReplicaInfo> replicas;
+
+  private KafkaClusterInfo(
+      List<Node> sourceNodes,
+      List<NodeInfo> nodes,
+      Set<String> topicNames,
+      Map<String, Topic> topics) {
+    this.sourceNodes = sourceNodes;
+    this.nodes = nodes;
+    this.topicNames = topicNames;
+    this.topics = topics;
+  }
+
+  @Override
+  public List<NodeInfo> nodes() {
+    return nodes;
+  }
+
+  @Override
+  public Set<String> dataDirectories(int brokerId) {
+    // org.apache.kafka.common.Cluster doesn't have such information.
+    throw new UnsupportedOperationException("This information is not available");
+  }
+
+  @Override
+  public Set<String> topics() {
+    return topicNames;
+  }
+
+  @Override
+  public List<ReplicaInfo> availableReplicaLeaders(String topic) {
+    var t = topics.get(topic);
+    return t == null ? List.of() : t.availableReplicaLeaders;
+  }
+
+  @Override
+  public List<ReplicaInfo> availableReplicas(String topic) {
+    var t = topics.get(topic);
+    return t == null ? List.of() : t.availableReplicas;
+  }
+
+  @Override
+  public List<ReplicaInfo> replicas(String topic) {
+    // the replicas of all topics are collected lazily since most callers don't need them
+    var result = replicas;
+    if (result == null) {
+      result =
+          topics.values().stream()
+              .flatMap(t -> t.availableReplicas.stream())
+              .collect(Collectors.toUnmodifiableList());
+      replicas = result;
+    }
+    return result;
+  }
+}
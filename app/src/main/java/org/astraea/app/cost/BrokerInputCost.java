@@ -16,16 +16,14 @@
  */
 package org.astraea.app.cost;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.metrics.KafkaMetrics;
-import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
 import org.astraea.app.metrics.collector.Fetcher;
 
 /**
@@ -33,91 +31,30 @@ import org.astraea.app.metrics.collector.Fetcher;
  * throughput of brokers.
  *
  * <ol>
- *   <li>We normalize the metric as score(by T-score).
- *   <li>We record these data of each second.
- *   <li>We only keep the last ten seconds of data.
- *   <li>The final result is the average of the ten-second data.
+ *   <li>We compute the increase of count per second in the last ten seconds. The counter reset
+ *       caused by restarting broker is handled by {@link ClusterBean#rate(int, String, Duration)}.
+ *   <li>The broker having not enough samples gets zero.
  * </ol>
  */
 public class BrokerInputCost implements HasBrokerCost {
-  private final Map<Integer, BrokerMetric> brokersMetric = new HashMap<>();
+  static final Duration WINDOW = Duration.ofSeconds(10);
 
   @Override
   public BrokerCost brokerCost(ClusterInfo clusterInfo, ClusterBean clusterBean) {
-    var costMetrics =
-        clusterBean.all().entrySet().stream()
+    var metric = KafkaMetrics.BrokerTopic.BytesInPerSec.identity();
+    var rates =
+        clusterBean.all().keySet().stream()
             .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey,
-                    entry ->
-                        entry.getValue().stream()
-                            .filter(
-                                hasBeanObject ->
-                                    KafkaMetrics.BrokerTopic.BytesInPerSec.metricName()
-                                        .equals(
-                                            hasBeanObject.beanObject().properties().get("name")))
-                            .findAny()
-                            .orElseThrow()))
-            .entrySet()
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey,
-                    entry -> {
-                      if (!brokersMetric.containsKey(entry.getKey())) {
-                        brokersMetric.put(entry.getKey(), new BrokerMetric());
-                      }
-                      var broker = brokersMetric.get(entry.getKey());
-                      var inBean = (BrokerTopicMetricsResult) entry.getValue();
-                      var count = (double) (inBean.count() - broker.accumulateCount);
-                      broker.accumulateCount = inBean.count();
-                      return count;
-                    }));
-    costMetrics.forEach((broker, v) -> brokersMetric.get(broker).updateLoad(v));
-
-    return this::computeLoad;
-  }
-
-  Map<Integer, Double> computeLoad() {
-    return brokersMetric.entrySet().stream()
-        .collect(
-            Collectors.toMap(
-                Map.Entry::getKey,
-                e ->
-                    Math.round(
-                            e.getValue().load.stream()
-                                    .filter(aDouble -> !aDouble.equals(-1.0))
-                                    .mapToDouble(i -> i)
-                                    .average()
-                                    .orElse(0.5)
-                                * 100)
-                        / 100.0));
+                Collectors.toMap(id -> id, id -> clusterBean.rate(id, metric, WINDOW).orElse(0)));
+    return () -> rates;
   }
 
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(client -> List.of(KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client)));
-  }
-
-  private static class BrokerMetric {
-    // mbean data.  BytesInPerSec.count
-    private long accumulateCount = 0L;
-
-    // Record the latest 10 numbers only.
-    private final List<Double> load =
-        IntStream.range(0, 10).mapToObj(i -> -1.0).collect(Collectors.toList());
-    private int loadIndex = 0;
-
-    private BrokerMetric() {}
-
-    /**
-     * This method record input data into a list. This list contains the latest 10 record. Each time
-     * it is called, the current index, "loadIndex", is increased by 1.
-     */
-    void updateLoad(Double load) {
-      var cLoad = load.isNaN() ? 0.5 : load;
-      this.load.set(loadIndex, cLoad);
-      loadIndex = (loadIndex + 1) % 10;
-    }
+    // the rate is computed by the counter recorded by time series
+    return Optional.of(
+        Fetcher.of(
+            client -> List.of(KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client)),
+            Set.of("Count")));
   }
 }
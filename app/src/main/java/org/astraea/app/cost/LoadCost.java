@@ -16,34 +16,37 @@
  */
 package org.astraea.app.cost;
 
-import java.util.Collection;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.admin.ClusterInfo;
-import org.astraea.app.metrics.HasBeanObject;
 import org.astraea.app.metrics.KafkaMetrics;
-import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
 import org.astraea.app.metrics.collector.Fetcher;
 import org.astraea.app.partitioner.PartitionerUtils;
 
 public class LoadCost implements HasBrokerCost {
-  private final Map<Integer, BrokerMetric> brokersMetric = new HashMap<>();
+  /** the windows used to compute the historical load. The recent load is counted by all windows */
+  static final List<Duration> WINDOWS =
+      IntStream.rangeClosed(1, 10)
+          .mapToObj(i -> Duration.ofSeconds(10L * i))
+          .collect(Collectors.toUnmodifiableList());
+
   private final Map<String, Double> metricNameAndWeight =
       Map.of(
-          KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(),
+          KafkaMetrics.BrokerTopic.BytesInPerSec.identity(),
           0.5,
-          KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(),
+          KafkaMetrics.BrokerTopic.BytesOutPerSec.identity(),
           0.5);
 
   /** Do "Poisson" and "weightPoisson" calculation on "load". And change output to double. */
   @Override
   public BrokerCost brokerCost(ClusterInfo clusterInfo, ClusterBean clusterBean) {
-    var load = computeLoad(clusterBean.all());
+    var load = computeLoad(clusterBean);
 
     // Poisson calculation (-> Poisson -> throughputAbility -> to double)
     var brokerScore =
@@ -54,19 +57,19 @@ public class LoadCost implements HasBrokerCost {
   }
 
   /**
-   * The result is computed by "BytesInPerSec.count" and "BytesOutPerSec.count".
+   * The result is computed by the rates of "BytesInPerSec.count" and "BytesOutPerSec.count".
    *
    * <ol>
    *   <li>We normalize the two metric (by divide sum of each metric).
    *   <li>We compute the sum on the two metric with a specific weight.
    *   <li>Compare the weighted sum with two boundary(0.5*avg and 1.5*avg) to get the "load" {0,1,2}
-   *   <li>Sum up the historical "load" and divide by 20 the get the score.
+   *   <li>Sum up the "load" of each window in {@link #WINDOWS} to get the score.
    * </ol>
    *
    * <p>e.g. We have 3 brokers with information:<br>
-   * broker1: BytesInPerSec.count=50, BytesOutPerSec.count=15 (<1,50000,21000>)<br>
-   * broker2: BytesInPerSec.count=100, BytesOutPerSec.count=2 (<2,100000,2000>)<br>
-   * broker3: BytesInPerSec.count=200, BytesOutPerSec.count=1 (<3,200000,1000>)<br>
+   * broker1: BytesInPerSec.rate=50, BytesOutPerSec.rate=15 (<1,50000,21000>)<br>
+   * broker2: BytesInPerSec.rate=100, BytesOutPerSec.rate=2 (<2,100000,2000>)<br>
+   * broker3: BytesInPerSec.rate=200, BytesOutPerSec.rate=1 (<3,200000,1000>)<br>
    *
    * <ol>
    *   <li>Normalize: about <1, 1/7, 7/8> <2, 2/7, 1/12> <3, 4/7, 1/24>
@@ -74,129 +77,78 @@ public class LoadCost implements HasBrokerCost {
    *   <li>Load:<1,2><2,1><3,1>
    * </ol>
    *
-   * broker1 score: 2<br>
-   * broker2 score: 1<br>
-   * broker3 score: 1<br>
+   * broker1 score: 2 * 10<br>
+   * broker2 score: 1 * 10<br>
+   * broker3 score: 1 * 10<br>
    *
    * @return brokerID with "(sum of load)".
    */
-  Map<Integer, Integer> computeLoad(Map<Integer, Collection<HasBeanObject>> allBeans) {
-    // Store mbean data into local stat("brokersMetric").
-    allBeans.forEach(
-        (brokerID, value) -> {
-          if (!brokersMetric.containsKey(brokerID))
-            brokersMetric.put(brokerID, new BrokerMetric(brokerID));
-          value.stream()
-              .filter(hasBeanObject -> hasBeanObject instanceof BrokerTopicMetricsResult)
-              .map(hasBeanObject -> (BrokerTopicMetricsResult) hasBeanObject)
-              .forEach(
-                  result ->
-                      brokersMetric
-                          .get(brokerID)
-                          .updateCount(
-                              result.beanObject().properties().get("name"), result.count()));
-        });
+  Map<Integer, Integer> computeLoad(ClusterBean clusterBean) {
+    return WINDOWS.stream()
+        .flatMap(window -> computeLoad(clusterBean, window).entrySet().stream())
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Integer::sum));
+  }
 
-    // Sum all count with the same mbean name
+  private Map<Integer, Integer> computeLoad(ClusterBean clusterBean, Duration window) {
+    var brokers = clusterBean.all().keySet();
+    // the rate of each metric. The broker having not enough samples is counted as idle
+    var rates =
+        metricNameAndWeight.keySet().stream()
+            .collect(
+                Collectors.toMap(
+                    metric -> metric,
+                    metric ->
+                        brokers.stream()
+                            .collect(
+                                Collectors.toMap(
+                                    id -> id,
+                                    id -> clusterBean.rate(id, metric, window).orElse(0)))));
     var total =
-        brokersMetric.values().stream()
-            .map(brokerMetric -> brokerMetric.currentCount)
-            .reduce(
-                new HashMap<>(),
-                (accumulate, currentCount) -> {
-                  currentCount.forEach(
-                      (name, count) ->
-                          accumulate.put(name, accumulate.getOrDefault(name, 0L) + count));
-                  return accumulate;
-                });
+        rates.entrySet().stream()
+            .collect(
+                Collectors.toMap(
+                    Map.Entry::getKey,
+                    e -> e.getValue().values().stream().mapToDouble(d -> d).sum()));
 
-    // Reduce all count for all brokers' mbean current count by "divide total" (current/total). And
-    // then get the weighted sum according to predefined wights "metricNameAndWeight".
+    // Reduce all rates for all brokers by "divide total" (current/total). And then get the
+    // weighted sum according to predefined wights "metricNameAndWeight".
     // It is called "brokerSituation" in original name.
     var weightedSum =
-        brokersMetric.entrySet().stream()
+        brokers.stream()
             .collect(
                 Collectors.toMap(
-                    Map.Entry::getKey,
-                    entry ->
-                        entry.getValue().currentCount.entrySet().stream()
+                    id -> id,
+                    id ->
+                        rates.entrySet().stream()
                             .mapToDouble(
-                                nameAndCount ->
-                                    (double) (nameAndCount.getValue() + 1)
-                                        / (total.getOrDefault(nameAndCount.getKey(), 1L) + 1)
-                                        * metricNameAndWeight.getOrDefault(
-                                            nameAndCount.getKey(), 0.0))
+                                e ->
+                                    (e.getValue().get(id) + 1)
+                                        / (total.get(e.getKey()) + 1)
+                                        * metricNameAndWeight.get(e.getKey()))
                             .sum()));
 
-    var avgWeightedSum =
-        weightedSum.values().stream().mapToDouble(d -> d).sum() / brokersMetric.size();
+    var avgWeightedSum = weightedSum.values().stream().mapToDouble(d -> d).sum() / brokers.size();
 
-    // Record the "load" into local stat("brokersMetric").
-    weightedSum.forEach(
-        (brokerID, theWeightedSum) -> {
-          if (theWeightedSum < avgWeightedSum * 0.5) brokersMetric.get(brokerID).updateLoad(0);
-          else if (theWeightedSum < avgWeightedSum * 1.5) brokersMetric.get(brokerID).updateLoad(1);
-          else brokersMetric.get(brokerID).updateLoad(2);
-        });
-
-    // The sum of historical and current load.
-    return brokersMetric.entrySet().stream()
+    return weightedSum.entrySet().stream()
         .collect(
             Collectors.toMap(
-                Map.Entry::getKey, entry -> entry.getValue().load.stream().mapToInt(i -> i).sum()));
+                Map.Entry::getKey,
+                e -> {
+                  if (e.getValue() < avgWeightedSum * 0.5) return 0;
+                  if (e.getValue() < avgWeightedSum * 1.5) return 1;
+                  return 2;
+                }));
   }
 
   /** @return the metrics getters. Those getters are used to fetch mbeans. */
   @Override
   public Optional<Fetcher> fetcher() {
     return Optional.of(
-        client ->
-            List.of(
-                KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client),
-                KafkaMetrics.BrokerTopic.BytesOutPerSec.fetch(client)));
-  }
-
-  private static class BrokerMetric {
-    private final int brokerID;
-
-    // mbean data. They are:
-    // ("BytesInPerSec", BytesInPerSec.count), ("BytesOutPerSec", ByteOutPerSec.count)
-    private final Map<String, Long> accumulateCount = new HashMap<>();
-    private final Map<String, Long> currentCount = new HashMap<>();
-
-    // Record the latest 10 numbers only.
-    private final List<Integer> load =
-        IntStream.range(0, 10).mapToObj(i -> 0).collect(Collectors.toList());
-    private int loadIndex = 0;
-
-    BrokerMetric(int brokerID) {
-      this.brokerID = brokerID;
-    }
-
-    /**
-     * This method records the difference between last update and current given "count" e.g.
-     *
-     * <p>At time 1: updateCount("ByteInPerSec", 100);<br>
-     * At time 3: updateCount("ByteOutPerSec", 20);<br>
-     * At time 20: updateCount("ByteInPerSec", 150);<br>
-     * At time 22: updateCount("ByteOutPerSec", 90);<br>
-     * At time 35: updateCount("ByteInPerSec", 170)<br>
-     * Then in time [20, 35), currentCount.get("ByteInPerSec") is 50
-     *
-     * <p>
-     */
-    void updateCount(String domainName, Long count) {
-      currentCount.put(domainName, count - accumulateCount.getOrDefault(domainName, 0L));
-      accumulateCount.put(domainName, count);
-    }
-
-    /**
-     * This method record input data into a list. This list contains the latest 10 record. Each time
-     * it is called, the current index, "loadIndex", is increased by 1.
-     */
-    void updateLoad(Integer load) {
-      this.load.set(loadIndex, load);
-      loadIndex = (loadIndex + 1) % 10;
-    }
+        Fetcher.of(
+            client ->
+                List.of(
+                    KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client),
+                    KafkaMetrics.BrokerTopic.BytesOutPerSec.fetch(client)),
+            Set.of("Count")));
   }
 }
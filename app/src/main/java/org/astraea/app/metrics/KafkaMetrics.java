@@ -24,11 +24,13 @@ import java.util.stream.Collectors;
 import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
 import org.astraea.app.metrics.broker.HasValue;
 import org.astraea.app.metrics.broker.TotalTimeMs;
+import org.astraea.app.metrics.collector.TimeSeriesStore;
 import org.astraea.app.metrics.jmx.BeanObject;
 import org.astraea.app.metrics.jmx.BeanQuery;
 import org.astraea.app.metrics.jmx.MBeanClient;
 import org.astraea.app.metrics.platform.JvmMemory;
 import org.astraea.app.metrics.platform.OperatingSystemInfo;
+import org.astraea.app.metrics.producer.HasProducerMetrics;
 import org.astraea.app.metrics.producer.HasProducerNodeMetrics;
 import org.astraea.app.metrics.producer.HasProducerTopicMetrics;
 
@@ -94,6 +96,15 @@ public final class KafkaMetrics {
       return metricName;
     }
 
+    /**
+     * @return the identity of mbean used by {@link org.astraea.app.admin.ClusterBean#rate(int,
+     *     String, java.time.Duration)}
+     */
+    public String identity() {
+      return TimeSeriesStore.metric(
+          "kafka.server", Map.of("type", "BrokerTopicMetrics", "name", this.metricName()));
+    }
+
     public BrokerTopicMetricsResult fetch(MBeanClient mBeanClient) {
       return new BrokerTopicMetricsResult(
           mBeanClient.queryBean(
@@ -431,6 +442,25 @@ public final class KafkaMetrics {
                           .collect(Collectors.toUnmodifiableList())));
     }
 
+    /**
+     * the metrics of whole producer, such as the average size of batches.
+     *
+     * @param mBeanClient to query beans
+     * @return key is client id used by producer, and value is metrics of each producer
+     */
+    public static Map<String, HasProducerMetrics> producers(MBeanClient mBeanClient) {
+      return mBeanClient
+          .queryBeans(
+              BeanQuery.builder()
+                  .domainName("kafka.producer")
+                  .property("type", "producer-metrics")
+                  .property("client-id", "*")
+                  .build())
+          .stream()
+          .collect(
+              Collectors.toUnmodifiableMap(b -> b.properties().get("client-id"), b -> () -> b));
+    }
+
     /**
      * topic metrics traced by producer
      *
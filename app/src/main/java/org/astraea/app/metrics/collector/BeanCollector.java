@@ -17,23 +17,44 @@
 package org.astraea.app.metrics.collector;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.common.Utils;
 import org.astraea.app.metrics.HasBeanObject;
 import org.astraea.app.metrics.KafkaMetrics;
 import org.astraea.app.metrics.jmx.MBeanClient;
 
+/**
+ * Collect the mbeans of registered JMX servers by a small pool of background threads. Each node
+ * (JMX server) is scraped every `interval`, and the schedule of each node is jittered so the nodes
+ * are not scraped at the same time. A scrape taking longer than `timeout` is aborted by closing
+ * its connection. {@link Receiver#current()} reads the latest published mbeans without blocking,
+ * so the thread sending records or serving requests never waits for the JMX servers. The lock of
+ * node is not held by the remote calls, so registering or closing a receiver never waits for a
+ * slow scrape.
+ *
+ * <p>A receiver keeps the mbeans of the latest scrape only. The history is kept by {@link
+ * #timeSeries()}, which records the attributes declared by {@link Fetcher#series()}. Its samples
+ * are much smaller than the mbeans.
+ */
 public class BeanCollector {
 
   public static Builder builder() {
@@ -43,7 +64,9 @@ public class BeanCollector {
   public static class Builder {
     private BiFunction<String, Integer, MBeanClient> clientCreator = MBeanClient::jndi;
     private Duration interval = Duration.ofSeconds(3);
-    private int numberOfObjectsPerNode = 300;
+    private Duration timeout = Duration.ofSeconds(3);
+    private int threads = 2;
+    private TimeSeriesStore timeSeries = TimeSeriesStore.builder().build();
 
     private Builder() {}
 
@@ -57,19 +80,49 @@ public class BeanCollector {
       return this;
     }
 
-    public Builder numberOfObjectsPerNode(int numberOfObjectsPerNode) {
-      this.numberOfObjectsPerNode = Utils.requirePositive(numberOfObjectsPerNode);
+    /**
+     * @param timeout the max time of scraping a node. The slow scrape is aborted and counted as a
+     *     failure
+     * @return this builder
+     */
+    public Builder timeout(Duration timeout) {
+      this.timeout = Objects.requireNonNull(timeout);
+      return this;
+    }
+
+    /**
+     * @param threads the number of threads scraping the nodes
+     * @return this builder
+     */
+    public Builder threads(int threads) {
+      this.threads = Utils.requirePositive(threads);
+      return this;
+    }
+
+    /**
+     * @param timeSeries records the numeric attributes of scraped mbeans
+     * @return this builder
+     */
+    public Builder timeSeries(TimeSeriesStore timeSeries) {
+      this.timeSeries = Objects.requireNonNull(timeSeries);
       return this;
     }
 
     public BeanCollector build() {
-      return new BeanCollector(clientCreator, interval, numberOfObjectsPerNode);
+      return new BeanCollector(clientCreator, interval, timeout, threads, timeSeries);
     }
   }
 
+  /** the schedule of each node is randomly shifted by up to 10% of interval */
+  private static final double JITTER = 0.1;
+
   private final BiFunction<String, Integer, MBeanClient> clientCreator;
   private final Duration interval;
-  private final int numberOfObjectsPerNode;
+  private final Duration timeout;
+  private final TimeSeriesStore timeSeries;
+  private final ScheduledThreadPoolExecutor executor;
+  // the timeouts are not handled by the scrape threads since they may be all blocked
+  private final ScheduledThreadPoolExecutor timer;
 
   // visible for testing
   final ConcurrentMap<String, Node> nodes = new ConcurrentSkipListMap<>();
@@ -77,10 +130,60 @@ public class BeanCollector {
   private BeanCollector(
       BiFunction<String, Integer, MBeanClient> clientCreator,
       Duration interval,
-      int numberOfObjectsPerNode) {
+      Duration timeout,
+      int threads,
+      TimeSeriesStore timeSeries) {
     this.clientCreator = clientCreator;
     this.interval = interval;
-    this.numberOfObjectsPerNode = numberOfObjectsPerNode;
+    this.timeout = timeout;
+    this.timeSeries = timeSeries;
+    this.executor = executor(threads, "astraea-bean-collector");
+    this.timer = executor(1, "astraea-bean-collector-timer");
+  }
+
+  private static ScheduledThreadPoolExecutor executor(int threads, String name) {
+    var executor =
+        new ScheduledThreadPoolExecutor(
+            threads,
+            r -> {
+              var thread = new Thread(r, name);
+              thread.setDaemon(true);
+              return thread;
+            });
+    // the idle threads are released after all receivers are closed
+    executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+    executor.allowCoreThreadTimeOut(true);
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+
+  /**
+   * @return the numeric attributes of scraped mbeans. The node of series is "host:port" of the JMX
+   *     server
+   */
+  public TimeSeriesStore timeSeries() {
+    return timeSeries;
+  }
+
+  /**
+   * @param receivers the receivers of each broker. They must be registered to this collector
+   * @return the current beans of receivers. The rates of counters are computed by {@link
+   *     #timeSeries()}
+   */
+  public ClusterBean clusterBean(Map<Integer, Receiver> receivers) {
+    return ClusterBean.of(
+        receivers.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().current())),
+        timeSeries,
+        receivers.entrySet().stream()
+            .collect(
+                Collectors.toMap(
+                    Map.Entry::getKey, e -> e.getValue().host() + ":" + e.getValue().port())));
+  }
+
+  /** @return the scrape status of all registered nodes */
+  public List<NodeStatistics> statistics() {
+    return List.copyOf(nodes.values());
   }
 
   public Register register() {
@@ -119,94 +222,287 @@ public class BeanCollector {
       @Override
       public Receiver build() {
         var nodeKey = host + ":" + port;
-        var node = nodes.computeIfAbsent(nodeKey, ignored -> new Node(host, port));
-        var receiver =
-            new Receiver() {
-              private final Map<Long, HasBeanObject> objects = new ConcurrentSkipListMap<>();
-
-              @Override
-              public String host() {
-                return host;
-              }
-
-              @Override
-              public int port() {
-                return port;
-              }
-
-              @Override
-              public Collection<HasBeanObject> current() {
-                tryUpdate();
-                return Collections.unmodifiableCollection(objects.values());
-              }
-
-              @Override
-              public void close() {
-                node.lock.lock();
-                try {
-                  node.receivers.remove(this);
-                  if (node.receivers.isEmpty() && node.mBeanClient != null)
-                    Utils.swallowException(node.mBeanClient::close);
-                  node.mBeanClient = null;
-                } finally {
-                  node.lock.unlock();
-                }
-              }
-
-              private synchronized void tryUpdate() {
-                var needUpdate =
-                    objects.keySet().stream()
-                        .max((Long::compare))
-                        .map(last -> last + interval.toMillis() <= System.currentTimeMillis())
-                        .orElse(true);
-                if (needUpdate && node.lock.tryLock()) {
-                  try {
-                    if (node.mBeanClient == null)
-                      node.mBeanClient =
-                          local ? MBeanClient.local() : clientCreator.apply(host, port);
-                    var beans = fetcher.fetch(node.mBeanClient);
-                    // remove old beans if the queue is full
-                    for (var t : objects.keySet()) {
-                      if (objects.size() + beans.size() <= numberOfObjectsPerNode) break;
-                      objects.remove(t);
-                    }
-                    long now =
-                        beans.stream()
-                            .mapToLong(HasBeanObject::createdTimestamp)
-                            .min()
-                            .orElse(System.currentTimeMillis());
-                    for (var bean : beans) objects.put(now++, bean);
-                  } finally {
-                    node.lock.unlock();
-                  }
-                }
-              }
-            };
+        var node = nodes.computeIfAbsent(nodeKey, ignored -> new Node(host, port, local));
+        var receiver = new NodeReceiver(node, fetcher);
 
         // add receiver
         node.lock.lock();
         try {
           node.receivers.add(receiver);
+          if (node.schedule == null) schedule(node, ++node.generation);
         } finally {
           node.lock.unlock();
         }
+
+        // the receiver has no mbeans until the first scrape is done in the background
+        executor.execute(() -> scrape(node, List.of(receiver)));
         return receiver;
       }
     };
   }
 
+  /** schedule the next periodic scrape of node. It must be called with the lock of node. */
+  private void schedule(Node node, long generation) {
+    var jitter = ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+    var delay = (long) (interval.toMillis() * (1 + jitter));
+    node.schedule =
+        executor.schedule(
+            () -> {
+              scrape(node, null);
+              node.lock.lock();
+              try {
+                // the receivers are closed, or the node is re-scheduled by another registration
+                if (node.generation == generation && !node.receivers.isEmpty())
+                  schedule(node, generation);
+              } finally {
+                node.lock.unlock();
+              }
+            },
+            Math.max(0, delay),
+            TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * fetch the mbeans of receivers from the node, and then publish them to the receivers. The lock
+   * of node is held only when the client and the results are swapped.
+   *
+   * @param node to scrape
+   * @param targets the receivers to update, or null if all receivers of the node should be updated
+   */
+  private void scrape(Node node, Collection<NodeReceiver> targets) {
+    List<NodeReceiver> receivers;
+    MBeanClient client;
+    node.lock.lock();
+    try {
+      receivers = new ArrayList<>(targets == null ? node.receivers : targets);
+      receivers.retainAll(node.receivers);
+      client = node.mBeanClient;
+    } finally {
+      node.lock.unlock();
+    }
+    if (receivers.isEmpty()) return;
+    var start = System.nanoTime();
+    var scrape = new Scrape(client);
+    var watchdog = timer.schedule(scrape::abort, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    try {
+      if (client == null) client = scrape.client(connect(node));
+      for (var receiver : receivers) {
+        var beans = receiver.fetcher.fetch(client);
+        node.lock.lock();
+        try {
+          // the closed receiver and node get no more mbeans
+          if (!node.receivers.contains(receiver)) continue;
+          var series = receiver.fetcher.series();
+          for (var bean : beans) timeSeries.record(node.toString(), bean.beanObject(), series);
+          receiver.current = List.copyOf(beans);
+        } finally {
+          node.lock.unlock();
+        }
+      }
+      var elapsed = System.nanoTime() - start;
+      if (elapsed > timeout.toNanos())
+        node.fail(elapsed, new TimeoutException("scraping " + node + " took " + elapsed + "ns"));
+      else node.succeed(elapsed);
+    } catch (Exception e) {
+      node.fail(System.nanoTime() - start, e);
+      // the connection may be broken, so it is rebuilt by next scrape
+      if (client != null) {
+        node.lock.lock();
+        try {
+          if (node.mBeanClient == client) node.mBeanClient = null;
+        } finally {
+          node.lock.unlock();
+        }
+        Utils.swallowException(client::close);
+      }
+    } finally {
+      watchdog.cancel(false);
+      scrape.end();
+    }
+  }
+
+  /**
+   * @return the client shared by the scrapes of node. The client created by a racing scrape is
+   *     closed, and so is the client created after all receivers are closed.
+   */
+  private MBeanClient connect(Node node) {
+    var client = node.local ? MBeanClient.local() : clientCreator.apply(node.host, node.port);
+    node.lock.lock();
+    try {
+      if (node.receivers.isEmpty()) {
+        Utils.swallowException(client::close);
+        throw new IllegalStateException(node + " is closed");
+      }
+      if (node.mBeanClient != null) {
+        Utils.swallowException(client::close);
+        return node.mBeanClient;
+      }
+      node.mBeanClient = client;
+      return client;
+    } finally {
+      node.lock.unlock();
+    }
+  }
+
+  /** A running scrape. It is aborted by closing its client if it gets timeout. */
+  private static final class Scrape {
+    private final Thread thread = Thread.currentThread();
+    private MBeanClient client;
+    private boolean done = false;
+
+    private Scrape(MBeanClient client) {
+      this.client = client;
+    }
+
+    private synchronized MBeanClient client(MBeanClient client) {
+      this.client = client;
+      return client;
+    }
+
+    private synchronized void end() {
+      done = true;
+      // clear the interrupt from the timeout, so the pooled thread is not affected
+      Thread.interrupted();
+    }
+
+    /** The blocked remote call fails after the client is closed */
+    private void abort() {
+      MBeanClient client;
+      synchronized (this) {
+        if (done) return;
+        thread.interrupt();
+        client = this.client;
+      }
+      if (client != null) Utils.swallowException(client::close);
+    }
+  }
+
+  private final class NodeReceiver implements Receiver {
+    private final Node node;
+    private final Fetcher fetcher;
+    // the mbeans of latest scrape. It is replaced by the scrape threads
+    private volatile Collection<HasBeanObject> current = List.of();
+
+    private NodeReceiver(Node node, Fetcher fetcher) {
+      this.node = node;
+      this.fetcher = fetcher;
+    }
+
+    @Override
+    public String host() {
+      return node.host;
+    }
+
+    @Override
+    public int port() {
+      return node.port;
+    }
+
+    @Override
+    public Collection<HasBeanObject> current() {
+      return current;
+    }
+
+    @Override
+    public void close() {
+      MBeanClient client = null;
+      node.lock.lock();
+      try {
+        node.receivers.remove(this);
+        if (node.receivers.isEmpty()) {
+          // stop the periodic scrape
+          node.generation++;
+          if (node.schedule != null) node.schedule.cancel(false);
+          node.schedule = null;
+          client = node.mBeanClient;
+          node.mBeanClient = null;
+          timeSeries.remove(node.toString());
+        }
+      } finally {
+        node.lock.unlock();
+      }
+      // the running scrape fails after the client is closed
+      if (client != null) Utils.swallowException(client::close);
+    }
+  }
+
   // visible for testing
-  static final class Node {
-    private final Set<Receiver> receivers = new HashSet<>();
+  static final class Node implements NodeStatistics {
+    private final Set<NodeReceiver> receivers = new HashSet<>();
     private final Lock lock = new ReentrantLock();
+    private final boolean local;
+    private final long createdTime = System.currentTimeMillis();
+    // the periodic scrape, and the generation is increased when it is cancelled
+    private ScheduledFuture<?> schedule;
+    private long generation = 0;
+    private volatile long latency = 0;
+    private volatile long successes = 0;
+    private volatile long failures = 0;
+    private volatile long lastSuccess = -1;
+    private volatile Exception lastError;
     // visible for testing
-    MBeanClient mBeanClient;
+    volatile MBeanClient mBeanClient;
     public final String host;
     public final int port;
 
-    Node(String host, int port) {
+    Node(String host, int port, boolean local) {
       this.host = host;
       this.port = port;
+      this.local = local;
+    }
+
+    // the first scrape of a receiver may run with the periodic scrape
+    private synchronized void succeed(long elapsedNanos) {
+      latency = elapsedNanos;
+      lastSuccess = System.currentTimeMillis();
+      successes = successes + 1;
+    }
+
+    private synchronized void fail(long elapsedNanos, Exception e) {
+      latency = elapsedNanos;
+      lastError = e;
+      failures = failures + 1;
+    }
+
+    @Override
+    public String host() {
+      return host;
+    }
+
+    @Override
+    public int port() {
+      return port;
+    }
+
+    @Override
+    public Duration latency() {
+      return Duration.ofNanos(latency);
+    }
+
+    @Override
+    public long successes() {
+      return successes;
+    }
+
+    @Override
+    public long failures() {
+      return failures;
+    }
+
+    @Override
+    public Optional<Exception> lastError() {
+      return Optional.ofNullable(lastError);
+    }
+
+    @Override
+    public Duration staleness() {
+      var last = lastSuccess;
+      return Duration.ofMillis(System.currentTimeMillis() - (last < 0 ? createdTime : last));
+    }
+
+    @Override
+    public String toString() {
+      return host + ":" + port;
     }
   }
 }
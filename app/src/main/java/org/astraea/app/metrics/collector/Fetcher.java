@@ -18,6 +18,7 @@ package org.astraea.app.metrics.collector;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.astraea.app.cost.CostFunction;
 import org.astraea.app.metrics.HasBeanObject;
@@ -41,10 +42,34 @@ public interface Fetcher {
             .collect(Collectors.toUnmodifiableList());
     if (fs.isEmpty()) return Optional.empty();
     return Optional.of(
-        client ->
+        of(
+            client ->
+                fs.stream()
+                    .flatMap(f -> f.fetch(client).stream())
+                    .collect(Collectors.toUnmodifiableList()),
             fs.stream()
-                .flatMap(f -> f.fetch(client).stream())
-                .collect(Collectors.toUnmodifiableList()));
+                .flatMap(f -> f.series().stream())
+                .collect(Collectors.toUnmodifiableSet())));
+  }
+
+  /**
+   * @param fetcher to fetch the mbeans
+   * @param series the numeric attributes of fetched mbeans recorded as time series
+   * @return a fetcher whose mbeans are recorded by {@link BeanCollector#timeSeries()}
+   */
+  static Fetcher of(Fetcher fetcher, Set<String> series) {
+    var attributes = Set.copyOf(series);
+    return new Fetcher() {
+      @Override
+      public Collection<HasBeanObject> fetch(MBeanClient client) {
+        return fetcher.fetch(client);
+      }
+
+      @Override
+      public Set<String> series() {
+        return attributes;
+      }
+    };
   }
 
   /**
@@ -54,4 +79,12 @@ public interface Fetcher {
    * @return java metrics
    */
   Collection<HasBeanObject> fetch(MBeanClient client);
+
+  /**
+   * @return the numeric attributes of fetched mbeans recorded as time series. The default is none,
+   *     since most mbeans are read from {@link Receiver#current()} only
+   */
+  default Set<String> series() {
+    return Set.of();
+  }
 }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.collector;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/** The scrape status of a JMX server. It is updated by the scrape threads of BeanCollector. */
+public interface NodeStatistics {
+
+  /** @return host of jmx server */
+  String host();
+
+  /** @return port of jmx server */
+  int port();
+
+  /** @return the time spent by the latest scrape, or zero if the node is not scraped yet */
+  Duration latency();
+
+  /** @return the number of successful scrapes */
+  long successes();
+
+  /** @return the number of failed (including timed-out) scrapes */
+  long failures();
+
+  /** @return the error of latest failed scrape */
+  Optional<Exception> lastError();
+
+  /**
+   * @return the age of latest successful scrape. It is counted from the registration if the node
+   *     has never been scraped successfully
+   */
+  Duration staleness();
+}
@@ -32,9 +32,10 @@ public interface Receiver extends AutoCloseable {
   int port();
 
   /**
-   * This method may request the latest mbeans if the current mbeans are out-of-date.
+   * The mbeans are fetched by the background threads, so this method never blocks. The older
+   * samples are kept by {@link BeanCollector#timeSeries()}.
    *
-   * @return current mbeans.
+   * @return the mbeans of latest scrape. It is empty until the first scrape is done
    */
   Collection<HasBeanObject> current();
 
@@ -0,0 +1,558 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.collector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.astraea.app.common.Utils;
+import org.astraea.app.metrics.jmx.BeanObject;
+
+/**
+ * Keep the numeric attributes of mbeans as time series. Each series is identified by (node, metric,
+ * attribute) and stores its samples in primitive ring buffers, so a sample costs 16 bytes (a long
+ * timestamp and a double value) instead of a whole {@link BeanObject}. The rings grow with their
+ * samples, so the short-lived series don't take the full capacity.
+ *
+ * <p>The optional rollups keep the average of each fixed-size bucket, so the long windows can be
+ * queried without keeping all raw samples. A window query uses the finest resolution covering the
+ * window.
+ *
+ * <p>The series are written by the scrape threads and read by any thread. Each series is guarded
+ * by its own lock.
+ */
+public final class TimeSeriesStore {
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private int capacity = 300;
+    private final List<Map.Entry<Duration, Integer>> rollups = new ArrayList<>();
+
+    private Builder() {}
+
+    /**
+     * @param capacity the max number of raw samples kept by each series
+     * @return this builder
+     */
+    public Builder capacity(int capacity) {
+      this.capacity = Utils.requirePositive(capacity);
+      return this;
+    }
+
+    /**
+     * add a rollup keeping the average of each bucket
+     *
+     * @param resolution the size of bucket
+     * @param capacity the max number of buckets kept by each series
+     * @return this builder
+     */
+    public Builder rollup(Duration resolution, int capacity) {
+      if (resolution.toMillis() <= 0)
+        throw new IllegalArgumentException("resolution must be positive, but it is " + resolution);
+      rollups.add(Map.entry(resolution, Utils.requirePositive(capacity)));
+      return this;
+    }
+
+    public TimeSeriesStore build() {
+      return new TimeSeriesStore(capacity, rollups);
+    }
+  }
+
+  /** the identity of a series */
+  public static final class Key {
+    private final String node;
+    private final String metric;
+    private final String attribute;
+    private final int hash;
+
+    /**
+     * @param node the source of metrics, such as "host:port"
+     * @param metric the identity of mbean. See {@link #metric(String, Map)}
+     * @param attribute the name of attribute
+     * @return the key of series
+     */
+    public static Key of(String node, String metric, String attribute) {
+      return new Key(node, metric, attribute);
+    }
+
+    private Key(String node, String metric, String attribute) {
+      this.node = Objects.requireNonNull(node);
+      this.metric = Objects.requireNonNull(metric);
+      this.attribute = Objects.requireNonNull(attribute);
+      this.hash = Objects.hash(node, metric, attribute);
+    }
+
+    public String node() {
+      return node;
+    }
+
+    public String metric() {
+      return metric;
+    }
+
+    public String attribute() {
+      return attribute;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      var key = (Key) o;
+      return node.equals(key.node) && metric.equals(key.metric) && attribute.equals(key.attribute);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return node + "/" + metric + "/" + attribute;
+    }
+  }
+
+  /** A sample of series. */
+  public static final class Sample {
+    private final long timestamp;
+    private final double value;
+
+    private Sample(long timestamp, double value) {
+      this.timestamp = timestamp;
+      this.value = value;
+    }
+
+    public long timestamp() {
+      return timestamp;
+    }
+
+    public double value() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return timestamp + "=" + value;
+    }
+  }
+
+  /**
+   * @param domain of mbean
+   * @param properties of mbean
+   * @return the metric identity, which is "domain:k1=v1,k2=v2" with sorted property keys
+   */
+  public static String metric(String domain, Map<String, String> properties) {
+    var sorted =
+        new TreeMap<>(properties)
+            .entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(","));
+    return domain + ":" + sorted;
+  }
+
+  private final int capacity;
+  private final List<Map.Entry<Duration, Integer>> rollups;
+  private final Map<Key, Series> series = new ConcurrentHashMap<>();
+
+  private TimeSeriesStore(int capacity, List<Map.Entry<Duration, Integer>> rollups) {
+    this.capacity = capacity;
+    // the finer rollups are preferred by the window queries
+    this.rollups =
+        rollups.stream()
+            .sorted(Map.Entry.comparingByKey())
+            .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * record all numeric attributes of the mbean. The other attributes are ignored.
+   *
+   * @param node the source of mbean
+   * @param bean to record
+   */
+  public void record(String node, BeanObject bean) {
+    record(node, bean, bean.attributes().keySet());
+  }
+
+  /**
+   * record the numeric attributes of the mbean. The other attributes are ignored.
+   *
+   * @param node the source of mbean
+   * @param bean to record
+   * @param attributes the names of attributes to record
+   */
+  public void record(String node, BeanObject bean, Collection<String> attributes) {
+    if (attributes.isEmpty()) return;
+    var metric = metric(bean.domainName(), bean.properties());
+    for (var attribute : attributes) {
+      var value = bean.attributes().get(attribute);
+      if (value instanceof Number)
+        record(
+            Key.of(node, metric, attribute),
+            bean.createdTimestamp(),
+            ((Number) value).doubleValue());
+    }
+  }
+
+  /**
+   * record a sample. The sample older than the latest one is dropped, and the sample having the
+   * same timestamp as the latest one replaces it.
+   *
+   * @param key of series
+   * @param timestamp of sample in milliseconds
+   * @param value of sample
+   */
+  public void record(Key key, long timestamp, double value) {
+    series.computeIfAbsent(key, k -> new Series(capacity, rollups)).add(timestamp, value);
+  }
+
+  /** @return the keys of all series */
+  public Set<Key> keys() {
+    return Collections.unmodifiableSet(series.keySet());
+  }
+
+  /**
+   * @param node the source of series
+   * @return the keys of series of the node
+   */
+  public Set<Key> keys(String node) {
+    return series.keySet().stream().filter(k -> k.node.equals(node)).collect(Collectors.toSet());
+  }
+
+  /**
+   * remove all series of the node
+   *
+   * @param node the source of series
+   */
+  public void remove(String node) {
+    series.keySet().removeIf(k -> k.node.equals(node));
+  }
+
+  /**
+   * @param key of series
+   * @return the value of latest sample
+   */
+  public OptionalDouble latest(Key key) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    synchronized (s) {
+      return s.raw.size == 0 ? OptionalDouble.empty() : OptionalDouble.of(s.raw.value(-1));
+    }
+  }
+
+  /**
+   * @param key of series
+   * @param window the length of time counted back from now
+   * @return the raw samples in the window, from the oldest to the latest
+   */
+  public List<Sample> samples(Key key, Duration window) {
+    var s = series.get(key);
+    if (s == null) return List.of();
+    var from = System.currentTimeMillis() - window.toMillis();
+    synchronized (s) {
+      var result = new ArrayList<Sample>();
+      for (var i = s.raw.search(from); i < s.raw.size; i++)
+        result.add(new Sample(s.raw.time(i), s.raw.value(i)));
+      return result;
+    }
+  }
+
+  /**
+   * @param key of series
+   * @param window the length of time counted back from now
+   * @return the average of raw samples in the window, or empty if there is no sample
+   */
+  public OptionalDouble average(Key key, Duration window) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    var from = System.currentTimeMillis() - window.toMillis();
+    synchronized (s) {
+      var start = s.raw.search(from);
+      if (start == s.raw.size) return OptionalDouble.empty();
+      var sum = 0D;
+      for (var i = start; i < s.raw.size; i++) sum += s.raw.value(i);
+      return OptionalDouble.of(sum / (s.raw.size - start));
+    }
+  }
+
+  /**
+   * @param key of series
+   * @param window the length of time counted back from now
+   * @return the change of value in the window, or empty if there are not two samples in the window
+   */
+  public OptionalDouble delta(Key key, Duration window) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    var from = System.currentTimeMillis() - window.toMillis();
+    synchronized (s) {
+      var first = s.first(from);
+      if (first == null || first.timestamp >= s.raw.time(-1)) return OptionalDouble.empty();
+      return OptionalDouble.of(s.raw.value(-1) - first.value);
+    }
+  }
+
+  /**
+   * Compute the increase of a counter, such as the total bytes in. The counter is reset to zero
+   * when the broker restarts, so a decrease of value is counted as a reset rather than a negative
+   * increase.
+   *
+   * @param key of series
+   * @param window the length of time counted back from now
+   * @return the increase of counter in the window, or empty if there are not two samples in the
+   *     window
+   */
+  public OptionalDouble increase(Key key, Duration window) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    var from = System.currentTimeMillis() - window.toMillis();
+    synchronized (s) {
+      var first = s.first(from);
+      if (first == null || first.timestamp >= s.raw.time(-1)) return OptionalDouble.empty();
+      return OptionalDouble.of(s.increase(first));
+    }
+  }
+
+  /**
+   * It is used to compute the throughput from a counter. The rate is divided by the time between
+   * samples rather than the window, so the irregular scrapes don't bias it. See {@link
+   * #increase(Key, Duration)} for the counter reset.
+   *
+   * @param key of series
+   * @param window the length of time counted back from now
+   * @return the increase of counter per second in the window, or empty if there are not two samples
+   *     in the window
+   */
+  public OptionalDouble rate(Key key, Duration window) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    var from = System.currentTimeMillis() - window.toMillis();
+    synchronized (s) {
+      var first = s.first(from);
+      if (first == null || first.timestamp >= s.raw.time(-1)) return OptionalDouble.empty();
+      return OptionalDouble.of(s.increase(first) / (s.raw.time(-1) - first.timestamp) * 1000);
+    }
+  }
+
+  /**
+   * Compute the exponentially weighted moving average of raw samples. The weight of a sample is
+   * halved for every half-life since it is taken, so the irregular intervals are handled.
+   *
+   * @param key of series
+   * @param halfLife the time taken to halve the weight of a sample
+   * @return the moving average, or empty if there is no sample
+   */
+  public OptionalDouble ewma(Key key, Duration halfLife) {
+    var s = series.get(key);
+    if (s == null) return OptionalDouble.empty();
+    var decay = Math.log(2) / Math.max(1, halfLife.toMillis());
+    synchronized (s) {
+      if (s.raw.size == 0) return OptionalDouble.empty();
+      var average = s.raw.value(0);
+      for (var i = 1; i < s.raw.size; i++) {
+        var alpha = 1 - Math.exp(-decay * (s.raw.time(i) - s.raw.time(i - 1)));
+        average += alpha * (s.raw.value(i) - average);
+      }
+      return OptionalDouble.of(average);
+    }
+  }
+
+  /** The raw samples and rollups of a series. It is guarded by its own monitor. */
+  private static final class Series {
+    private final Ring raw;
+    private final Rollup[] rollups;
+
+    private Series(int capacity, List<Map.Entry<Duration, Integer>> rollups) {
+      this.raw = new Ring(capacity);
+      this.rollups =
+          rollups.stream()
+              .map(e -> new Rollup(e.getKey().toMillis(), e.getValue()))
+              .toArray(Rollup[]::new);
+    }
+
+    private synchronized void add(long timestamp, double value) {
+      if (raw.size > 0) {
+        var latest = raw.time(-1);
+        if (timestamp < latest) return;
+        if (timestamp == latest) {
+          raw.replaceLatest(value);
+          return;
+        }
+      }
+      raw.add(timestamp, value);
+      for (var rollup : rollups) rollup.add(timestamp, value);
+    }
+
+    /**
+     * @param from the beginning of window
+     * @return the first sample in the window. The raw samples are used if they cover the window.
+     *     Otherwise, the finest rollup covering the window is used. If no one covers the window,
+     *     the oldest sample is returned
+     */
+    private Sample first(long from) {
+      if (raw.size == 0) return null;
+      if (raw.time(0) <= from) return raw.sample(raw.search(from));
+      Ring oldest = raw;
+      for (var rollup : rollups) {
+        var ring = rollup.ring;
+        if (ring.size == 0) continue;
+        if (ring.time(0) <= from) {
+          var index = ring.search(from);
+          // the bucket after the window start may be newer than the oldest raw sample
+          return index < ring.size && ring.time(index) < raw.time(0)
+              ? ring.sample(index)
+              : raw.sample(0);
+        }
+        if (ring.time(0) < oldest.time(0)) oldest = ring;
+      }
+      return oldest.sample(0);
+    }
+
+    /**
+     * @param first the sample returned by {@link #first(long)}
+     * @return the sum of increases from the first sample to the latest one. The counter restarts
+     *     from zero after a decrease, so the value after the decrease is the increase.
+     */
+    private double increase(Sample first) {
+      var previous = first.value;
+      var increase = 0D;
+      // the first sample may come from a rollup which is older than all raw samples
+      for (var i = raw.search(first.timestamp + 1); i < raw.size; i++) {
+        var value = raw.value(i);
+        increase += value >= previous ? value - previous : value;
+        previous = value;
+      }
+      return increase;
+    }
+  }
+
+  /** The average of each bucket. The open bucket is appended to the ring when it is closed. */
+  private static final class Rollup {
+    private final long resolution;
+    private final Ring ring;
+    private long bucket;
+    private double timeSum;
+    private double valueSum;
+    private int count = 0;
+
+    private Rollup(long resolution, int capacity) {
+      this.resolution = resolution;
+      this.ring = new Ring(capacity);
+    }
+
+    private void add(long timestamp, double value) {
+      var b = Math.floorDiv(timestamp, resolution);
+      if (count > 0 && b != bucket) {
+        ring.add(Math.round(timeSum / count), valueSum / count);
+        timeSum = 0;
+        valueSum = 0;
+        count = 0;
+      }
+      bucket = b;
+      timeSum += timestamp;
+      valueSum += value;
+      count++;
+    }
+  }
+
+  /**
+   * A ring of (timestamp, value). The timestamps are in ascending order. The arrays are doubled
+   * until they reach the capacity, and then the oldest sample is overwritten.
+   */
+  private static final class Ring {
+    private static final int INITIAL_CAPACITY = 8;
+    private final int capacity;
+    private long[] times = new long[0];
+    private double[] values = new double[0];
+    // the index of next write
+    private int head = 0;
+    private int size = 0;
+
+    private Ring(int capacity) {
+      this.capacity = capacity;
+    }
+
+    private void grow() {
+      var length = Math.min(capacity, Math.max(INITIAL_CAPACITY, times.length * 2));
+      var newTimes = new long[length];
+      var newValues = new double[length];
+      for (var i = 0; i < size; i++) {
+        newTimes[i] = time(i);
+        newValues[i] = value(i);
+      }
+      times = newTimes;
+      values = newValues;
+      head = size;
+    }
+
+    private void add(long timestamp, double value) {
+      if (size == times.length && size < capacity) grow();
+      times[head] = timestamp;
+      values[head] = value;
+      head = (head + 1) % times.length;
+      if (size < times.length) size++;
+    }
+
+    private void replaceLatest(double value) {
+      values[offset(-1)] = value;
+    }
+
+    /**
+     * @param index from the oldest sample. The negative index is counted from the latest sample
+     * @return the index of array
+     */
+    private int offset(int index) {
+      var i = index < 0 ? size + index : index;
+      return Math.floorMod(head - size + i, times.length);
+    }
+
+    private long time(int index) {
+      return times[offset(index)];
+    }
+
+    private double value(int index) {
+      return values[offset(index)];
+    }
+
+    private Sample sample(int index) {
+      return index < size ? new Sample(time(index), value(index)) : null;
+    }
+
+    /** @return the index of first sample not older than the timestamp, or size if there is none */
+    private int search(long timestamp) {
+      var low = 0;
+      var high = size;
+      while (low < high) {
+        var mid = (low + high) >>> 1;
+        if (time(mid) < timestamp) low = mid + 1;
+        else high = mid;
+      }
+      return low;
+    }
+  }
+}
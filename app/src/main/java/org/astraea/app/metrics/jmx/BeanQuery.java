@@ -117,7 +117,8 @@ public class BeanQuery {
     return Map.copyOf(properties);
   }
 
-  ObjectName objectName() {
+  /** @return the object name used to match mbeans. It may be a pattern */
+  public ObjectName objectName() {
     return this.objectName;
   }
 
@@ -22,47 +22,88 @@ import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanFeatureInfo;
 import javax.management.MBeanServerConnection;
-import javax.management.ObjectInstance;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
 import javax.management.ReflectionException;
+import javax.management.relation.MBeanServerNotificationFilter;
+import javax.management.remote.JMXConnectionNotification;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 import org.astraea.app.common.Utils;
 
+/**
+ * The remote client caches the names matched by each query and the attribute names of each mbean,
+ * so a query costs a round trip per matched mbean rather than three. The caches are updated by the
+ * registration notifications of mbean server, and the attributes of matched mbeans are fetched
+ * concurrently by a bounded pool.
+ */
 abstract class MBeanClientImpl implements MBeanClient {
 
+  /** the max number of concurrent requests sent to a remote server by a query */
+  static final int FETCH_THREADS = 4;
+
   static MBeanClientImpl remote(JMXServiceURL jmxServiceURL) {
     try {
       var jmxConnector = JMXConnectorFactory.connect(jmxServiceURL);
-      return new MBeanClientImpl(jmxConnector.getMBeanServerConnection()) {
-        @Override
-        public String host() {
-          return jmxServiceURL.getHost();
-        }
-
-        @Override
-        public int port() {
-          return jmxServiceURL.getPort();
-        }
-
-        @Override
-        public void close() {
-          Utils.packException(jmxConnector::close);
-        }
-      };
+      var executor = fetchExecutor();
+      var client =
+          new MBeanClientImpl(jmxConnector.getMBeanServerConnection(), executor, true) {
+            @Override
+            public String host() {
+              return jmxServiceURL.getHost();
+            }
+
+            @Override
+            public int port() {
+              return jmxServiceURL.getPort();
+            }
+
+            @Override
+            public void close() {
+              shutdown(executor);
+              Utils.packException(jmxConnector::close);
+            }
+          };
+      // the caches may miss some changes if the notifications are lost
+      jmxConnector.addConnectionNotificationListener(
+          (notification, handback) -> {
+            if (JMXConnectionNotification.NOTIFS_LOST.equals(notification.getType()))
+              client.clearCache();
+          },
+          null,
+          null);
+      return client;
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
   static MBeanClientImpl local() {
-    return new MBeanClientImpl(ManagementFactory.getPlatformMBeanServer()) {
+    // the local calls are cheap, so there is no cache and pool
+    return new MBeanClientImpl(ManagementFactory.getPlatformMBeanServer(), null, false) {
       @Override
       public String host() {
         return Utils.hostname();
@@ -78,26 +119,128 @@ abstract class MBeanClientImpl implements MBeanClient {
     };
   }
 
+  /**
+   * Stop accepting the fetches and cancel the queued ones, so the queries waiting for them fail
+   * rather than hang. The running fetches are failed by closing the connection.
+   */
+  static void shutdown(ThreadPoolExecutor executor) {
+    executor.shutdown();
+    executor.getQueue().forEach(task -> ((Future<?>) task).cancel(false));
+  }
+
+  private static ThreadPoolExecutor fetchExecutor() {
+    var executor =
+        new ThreadPoolExecutor(
+            FETCH_THREADS,
+            FETCH_THREADS,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              var thread = new Thread(r, "astraea-mbean-client");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private final MBeanServerConnection connection;
+  // null if the attributes are fetched by the caller thread
+  private final ExecutorService executor;
+  private final boolean cacheEnabled;
+  // the query pattern -> the names of matched mbeans
+  private final Map<ObjectName, Set<ObjectName>> names = new ConcurrentHashMap<>();
+  // the mbean name -> the names of its attributes
+  private final Map<ObjectName, List<String>> attributeNames = new ConcurrentHashMap<>();
+  // it is increased by each change of mbeans, so the result of a racing query is not cached
+  private final AtomicLong version = new AtomicLong();
+  // visible for testing
+  final NotificationListener listener = this::onNotification;
 
-  MBeanClientImpl(MBeanServerConnection connection) {
+  MBeanClientImpl(MBeanServerConnection connection, ExecutorService executor, boolean cache) {
     this.connection = connection;
+    this.executor = executor;
+    this.cacheEnabled = cache && addListener();
   }
 
-  @Override
-  public BeanObject queryBean(BeanQuery beanQuery) {
+  /** @return true if the client can receive the registration notifications */
+  private boolean addListener() {
     try {
-      // ask for MBeanInfo
-      var mBeanInfo = connection.getMBeanInfo(beanQuery.objectName());
+      var filter = new MBeanServerNotificationFilter();
+      filter.enableAllObjectNames();
+      connection.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, listener, filter, null);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
 
-      // create a list builder all available attributes name
-      var attributeName =
-          Arrays.stream(mBeanInfo.getAttributes())
-              .map(MBeanFeatureInfo::getName)
-              .collect(Collectors.toList());
+  private void onNotification(Notification notification, Object handback) {
+    if (!(notification instanceof MBeanServerNotification)) return;
+    var name = ((MBeanServerNotification) notification).getMBeanName();
+    var registered =
+        MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(notification.getType());
+    version.incrementAndGet();
+    attributeNames.remove(name);
+    names.forEach(
+        (pattern, matched) -> {
+          if (!pattern.apply(name)) return;
+          if (registered) matched.add(name);
+          else matched.remove(name);
+        });
+  }
+
+  // visible for testing
+  void clearCache() {
+    version.incrementAndGet();
+    names.clear();
+    attributeNames.clear();
+  }
 
-      // query the result
-      return queryBean(beanQuery, attributeName);
+  /** @return the names of mbeans matched by the pattern */
+  private Collection<ObjectName> names(ObjectName pattern) throws IOException {
+    if (cacheEnabled) {
+      var cached = names.get(pattern);
+      if (cached != null) return List.copyOf(cached);
+    }
+    var v = version.get();
+    var result = connection.queryNames(pattern, null);
+    if (cacheEnabled) {
+      Set<ObjectName> matched = ConcurrentHashMap.newKeySet();
+      matched.addAll(result);
+      names.put(pattern, matched);
+      // the mbeans are changed during the query, so the result may be out-of-date
+      if (version.get() != v) names.remove(pattern, matched);
+    }
+    return result;
+  }
+
+  /** @return the names of all attributes of the mbean */
+  private List<String> attributeNames(ObjectName name)
+      throws InstanceNotFoundException, IntrospectionException, ReflectionException,
+          IOException {
+    if (cacheEnabled) {
+      var cached = attributeNames.get(name);
+      if (cached != null) return cached;
+    }
+    var v = version.get();
+    var result =
+        Arrays.stream(connection.getMBeanInfo(name).getAttributes())
+            .map(MBeanFeatureInfo::getName)
+            .collect(Collectors.toUnmodifiableList());
+    if (cacheEnabled) {
+      attributeNames.put(name, result);
+      if (version.get() != v) attributeNames.remove(name, result);
+    }
+    return result;
+  }
+
+  @Override
+  public BeanObject queryBean(BeanQuery beanQuery) {
+    try {
+      // query the result with all available attributes
+      return queryBean(beanQuery, attributeNames(beanQuery.objectName()));
     } catch (ReflectionException | IntrospectionException e) {
       throw new RuntimeException(e);
     } catch (IOException e) {
@@ -142,6 +285,7 @@ abstract class MBeanClientImpl implements MBeanClient {
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     } catch (InstanceNotFoundException e) {
+      attributeNames.remove(beanQuery.objectName());
       throw new NoSuchElementException(e.getMessage());
     }
   }
@@ -169,17 +313,46 @@ abstract class MBeanClientImpl implements MBeanClient {
   @Override
   public Collection<BeanObject> queryBeans(BeanQuery beanQuery) {
     try {
-      return connection.queryMBeans(beanQuery.objectName(), null).stream()
-          .map(ObjectInstance::getObjectName)
-          .map(BeanQuery::fromObjectName)
-          .map(this::queryBean)
-          .collect(Collectors.toSet());
-
+      var names = names(beanQuery.objectName());
+      if (executor == null || names.size() <= 1)
+        return names.stream()
+            .map(this::tryQueryBean)
+            .flatMap(Optional::stream)
+            .collect(Collectors.toSet());
+      var futures =
+          names.stream()
+              .map(name -> executor.submit(() -> tryQueryBean(name)))
+              .collect(Collectors.toList());
+      try {
+        var beans = new HashSet<BeanObject>();
+        for (var future : futures) future.get().ifPresent(beans::add);
+        return beans;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (CancellationException e) {
+        throw new IllegalStateException("the client is closed", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        throw new RuntimeException(e.getCause());
+      } finally {
+        // the remaining fetches are useless if this query is failed or interrupted
+        futures.forEach(future -> future.cancel(true));
+      }
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
+  /** @return the mbean, or empty if it is unregistered after the names are resolved */
+  private Optional<BeanObject> tryQueryBean(ObjectName name) {
+    try {
+      return Optional.of(queryBean(BeanQuery.fromObjectName(name)));
+    } catch (NoSuchElementException e) {
+      return Optional.empty();
+    }
+  }
+
   @Override
   public List<String> listDomains() {
     try {
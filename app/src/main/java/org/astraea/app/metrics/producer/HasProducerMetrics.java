@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.producer;
+
+import org.astraea.app.metrics.HasBeanObject;
+
+public interface HasProducerMetrics extends HasBeanObject {
+
+  default double batchSizeAvg() {
+    return (double) beanObject().attributes().get("batch-size-avg");
+  }
+
+  default double batchSizeMax() {
+    return (double) beanObject().attributes().get("batch-size-max");
+  }
+
+  default double compressionRateAvg() {
+    return (double) beanObject().attributes().get("compression-rate-avg");
+  }
+
+  default double recordsPerRequestAvg() {
+    return (double) beanObject().attributes().get("records-per-request-avg");
+  }
+
+  default double recordQueueTimeAvg() {
+    return (double) beanObject().attributes().get("record-queue-time-avg");
+  }
+
+  default double recordSendRate() {
+    return (double) beanObject().attributes().get("record-send-rate");
+  }
+
+  default double requestRate() {
+    return (double) beanObject().attributes().get("request-rate");
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.app.metrics.KafkaMetrics;
+
+/**
+ * The reverse of jmx exporter config "kafka-2_0_0.yml". The config converts the mbeans to:
+ *
+ * <ul>
+ *   <li>kafka.X:type=T,name=NPerSec Count -> kafka_X_T_N_total
+ *   <li>kafka.X:type=T,name=N Count -> kafka_X_T_N_count
+ *   <li>kafka.X:type=T,name=N 99thPercentile -> kafka_X_T_N{quantile="0.99"}
+ *   <li>kafka.X:type=T,name=N Value -> kafka_X_T_N
+ * </ul>
+ *
+ * Other properties are converted to labels. The names are lowercased by the config, so the case of
+ * known types and names is restored by dictionaries built from {@link KafkaMetrics}.
+ */
+final class KafkaMapping implements Mapping {
+
+  private static final String PREFIX = "kafka_";
+
+  private static final Map<String, String> TYPES =
+      dictionary(
+          Stream.of(
+              "BrokerTopicMetrics",
+              "DelayedOperationPurgatory",
+              "KafkaController",
+              "KafkaServer",
+              "Log",
+              "ReplicaManager",
+              "RequestMetrics"));
+
+  private static final Map<String, String> NAMES =
+      dictionary(
+          Stream.of(
+                  Arrays.stream(KafkaMetrics.BrokerTopic.values())
+                      .map(KafkaMetrics.BrokerTopic::metricName),
+                  Arrays.stream(KafkaMetrics.ReplicaManager.values())
+                      .map(KafkaMetrics.ReplicaManager::metricName),
+                  Arrays.stream(KafkaMetrics.TopicPartition.values())
+                      .map(KafkaMetrics.TopicPartition::metricName),
+                  Stream.of(
+                      "GlobalPartitionCount",
+                      "PurgatorySize",
+                      "TotalTimeMs",
+                      "UnderReplicatedPartitions",
+                      "linux-disk-read-bytes",
+                      "linux-disk-write-bytes"))
+              .flatMap(s -> s));
+
+  /** the gauges whose values are int in kafka. Other integral gauges are long */
+  private static final Set<String> INT_GAUGES =
+      Stream.concat(
+              Arrays.stream(KafkaMetrics.ReplicaManager.values())
+                  .map(KafkaMetrics.ReplicaManager::metricName),
+              Stream.of(
+                  "GlobalPartitionCount",
+                  "NumLogSegments",
+                  "PurgatorySize",
+                  "UnderReplicatedPartitions"))
+          .collect(Collectors.toUnmodifiableSet());
+
+  private static Map<String, String> dictionary(Stream<String> names) {
+    return names.collect(Collectors.toUnmodifiableMap(KafkaMapping::safeName, n -> n, (a, b) -> a));
+  }
+
+  /**
+   * @param name of mbean type or name
+   * @return the name converted by jmx exporter. It is lowercased and the invalid characters are
+   *     replaced by an underscore
+   */
+  static String safeName(String name) {
+    var result = new StringBuilder(name.length());
+    for (var c : name.toLowerCase().toCharArray()) {
+      var valid = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == ':' || c == '_';
+      var safe = valid ? c : '_';
+      // jmx exporter never produces consecutive underscores
+      if (safe != '_' || result.length() == 0 || result.charAt(result.length() - 1) != '_')
+        result.append(safe);
+    }
+    return result.toString();
+  }
+
+  @Override
+  public String prefix() {
+    return PREFIX;
+  }
+
+  @Override
+  public Optional<Attribute> map(String name, Map<String, String> labels, double value) {
+    if (!name.startsWith(PREFIX)) return Optional.empty();
+    var body = name.substring(PREFIX.length());
+    var properties = new HashMap<>(labels);
+    var quantile = properties.remove("quantile");
+    var counter = false;
+    String attribute;
+    if (quantile != null) {
+      // quantile "0.99" is converted from "99thPercentile"
+      if (!quantile.startsWith("0.")) return Optional.empty();
+      attribute = quantile.substring(2) + "thPercentile";
+    } else if (body.endsWith("_total")) {
+      body = body.substring(0, body.length() - "_total".length());
+      attribute = "Count";
+      counter = true;
+    } else if (body.endsWith("_count")) {
+      body = body.substring(0, body.length() - "_count".length());
+      attribute = "Count";
+    } else attribute = "Value";
+
+    var domainEnd = body.indexOf('_');
+    if (domainEnd <= 0) return Optional.empty();
+    var rest = body.substring(domainEnd + 1);
+    // the type may have underscores, so the known types are tried first
+    var typeEnd =
+        TYPES.keySet().stream()
+            .filter(t -> rest.startsWith(t + "_"))
+            .findFirst()
+            .map(String::length)
+            .orElse(rest.indexOf('_'));
+    if (typeEnd <= 0) return Optional.empty();
+    var metric = rest.substring(typeEnd + 1);
+    // the suffix "PerSec" of counters is removed by the config
+    var metricName =
+        counter
+            ? NAMES.getOrDefault(metric + "persec", metric + "PerSec")
+            : NAMES.getOrDefault(metric, metric);
+    var type = rest.substring(0, typeEnd);
+    properties.put("type", TYPES.getOrDefault(type, type));
+    properties.put("name", metricName);
+    return Optional.of(
+        Attribute.of(
+            "kafka." + body.substring(0, domainEnd),
+            properties,
+            attribute,
+            value(attribute, metricName, value)));
+  }
+
+  private static Object value(String attribute, String metricName, double value) {
+    if (attribute.equals("Count")) return (long) value;
+    if (!attribute.equals("Value")) return value;
+    if (INT_GAUGES.contains(metricName)) return (int) value;
+    return value == Math.rint(value) && !Double.isInfinite(value) ? (Object) (long) value : value;
+  }
+}
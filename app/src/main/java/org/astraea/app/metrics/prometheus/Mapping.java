@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/** Convert the samples of Prometheus to the attributes of mbeans. */
+@FunctionalInterface
+public interface Mapping {
+
+  /**
+   * The reverse of jmx exporter config "kafka-2_0_0.yml", which is used by docker/start_broker.sh.
+   * The counters, gauges and percentiles of kafka mbeans are converted.
+   */
+  Mapping KAFKA = new KafkaMapping();
+
+  /**
+   * @return the prefix of sample names converted by this mapping. The other samples are skipped
+   *     without being parsed
+   */
+  default String prefix() {
+    return "";
+  }
+
+  /**
+   * @param name of sample
+   * @param labels of sample
+   * @param value of sample
+   * @return the attribute of mbean, or empty if the sample is not converted
+   */
+  Optional<Attribute> map(String name, Map<String, String> labels, double value);
+
+  final class Attribute {
+
+    /**
+     * @param domainName of mbean
+     * @param properties of mbean
+     * @param name of attribute
+     * @param value of attribute. It should have the same type as the mbean attribute, since the
+     *     metrics getters cast the values.
+     * @return attribute
+     */
+    public static Attribute of(
+        String domainName, Map<String, String> properties, String name, Object value) {
+      return new Attribute(domainName, properties, name, value);
+    }
+
+    private final String domainName;
+    private final Map<String, String> properties;
+    private final String name;
+    private final Object value;
+
+    private Attribute(
+        String domainName, Map<String, String> properties, String name, Object value) {
+      this.domainName = Objects.requireNonNull(domainName);
+      this.properties = Map.copyOf(properties);
+      this.name = Objects.requireNonNull(name);
+      this.value = Objects.requireNonNull(value);
+    }
+
+    public String domainName() {
+      return domainName;
+    }
+
+    public Map<String, String> properties() {
+      return properties;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    public Object value() {
+      return value;
+    }
+  }
+}
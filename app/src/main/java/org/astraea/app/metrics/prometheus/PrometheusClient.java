@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.astraea.app.common.Utils;
+import org.astraea.app.metrics.jmx.BeanObject;
+import org.astraea.app.metrics.jmx.BeanQuery;
+import org.astraea.app.metrics.jmx.MBeanClient;
+
+/**
+ * A {@link MBeanClient} which scrapes the metrics from a Prometheus endpoint, such as the jmx
+ * exporter, rather than the remote JMX. The samples are converted to {@link BeanObject} by {@link
+ * Mapping}, so the metrics getters and cost functions work without changes. For example:
+ *
+ * <pre>{@code
+ * BeanCollector.builder().clientCreator(PrometheusClient::kafka).build();
+ * }</pre>
+ *
+ * <p>All samples are fetched by a single http request, and the queries in {@link
+ * Builder#maxAge(Duration)} reuse the latest scrape.
+ */
+public final class PrometheusClient implements MBeanClient {
+
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+  /**
+   * @param host of jmx exporter
+   * @param port of jmx exporter
+   * @return a client converting the metrics of kafka broker. See {@link Mapping#KAFKA}
+   */
+  public static PrometheusClient kafka(String host, int port) {
+    return builder().host(host).port(port).build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private String host;
+    private int port = -1;
+    private String path = "/metrics";
+    private Mapping mapping = Mapping.KAFKA;
+    private Duration maxAge = Duration.ofSeconds(1);
+    private Duration timeout = Duration.ofSeconds(3);
+
+    private Builder() {}
+
+    public Builder host(String host) {
+      this.host = Objects.requireNonNull(host);
+      return this;
+    }
+
+    public Builder port(int port) {
+      this.port = Utils.requirePositive(port);
+      return this;
+    }
+
+    public Builder path(String path) {
+      this.path = Objects.requireNonNull(path);
+      return this;
+    }
+
+    public Builder mapping(Mapping mapping) {
+      this.mapping = Objects.requireNonNull(mapping);
+      return this;
+    }
+
+    /**
+     * @param maxAge the queries in this duration reuse the latest scrape
+     * @return this builder
+     */
+    public Builder maxAge(Duration maxAge) {
+      this.maxAge = Objects.requireNonNull(maxAge);
+      return this;
+    }
+
+    /**
+     * @param timeout of each http request
+     * @return this builder
+     */
+    public Builder timeout(Duration timeout) {
+      this.timeout = Objects.requireNonNull(timeout);
+      return this;
+    }
+
+    public PrometheusClient build() {
+      return new PrometheusClient(
+          Objects.requireNonNull(host, "host is required"),
+          Utils.requirePositive(port),
+          path,
+          mapping,
+          maxAge,
+          timeout);
+    }
+  }
+
+  private final String host;
+  private final int port;
+  private final URI uri;
+  private final Mapping mapping;
+  private final Duration maxAge;
+  private final Duration timeout;
+
+  // guarded by this
+  private byte[] buffer = new byte[64 * 1024];
+  private Map<ObjectName, BeanObject> beans = Map.of();
+  private long lastScrape = -1;
+
+  private PrometheusClient(
+      String host, int port, String path, Mapping mapping, Duration maxAge, Duration timeout) {
+    this.host = host;
+    this.port = port;
+    this.uri = URI.create("http://" + host + ":" + port + path);
+    this.mapping = mapping;
+    this.maxAge = maxAge;
+    this.timeout = timeout;
+  }
+
+  /** @return the beans of the latest scrape. It scrapes again if the latest one is expired */
+  private synchronized Map<ObjectName, BeanObject> beans() {
+    if (lastScrape < 0 || Utils.isExpired(lastScrape, maxAge)) {
+      beans = scrape();
+      lastScrape = System.currentTimeMillis();
+    }
+    return beans;
+  }
+
+  private Map<ObjectName, BeanObject> scrape() {
+    var request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+    var length = 0;
+    try {
+      var response = CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      try (var input = response.body()) {
+        if (response.statusCode() != 200)
+          throw new IOException("failed to scrape " + uri + ": " + response.statusCode());
+        // the buffer is reused by the following scrapes
+        for (var count = input.read(buffer, 0, buffer.length);
+            count >= 0;
+            count = input.read(buffer, length, buffer.length - length)) {
+          length += count;
+          if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    var now = System.currentTimeMillis();
+    var attributes = new HashMap<Map.Entry<String, Map<String, String>>, Map<String, Object>>();
+    var timestamps = new HashMap<Map.Entry<String, Map<String, String>>, Long>();
+    TextParser.parse(
+        buffer,
+        length,
+        mapping.prefix(),
+        (name, labels, value, timestamp) ->
+            mapping
+                .map(name, labels, value)
+                .ifPresent(
+                    attribute -> {
+                      var key = Map.entry(attribute.domainName(), attribute.properties());
+                      attributes
+                          .computeIfAbsent(key, ignored -> new HashMap<>())
+                          .put(attribute.name(), attribute.value());
+                      timestamps.merge(key, timestamp < 0 ? now : timestamp, Math::max);
+                    }));
+
+    var result = new HashMap<ObjectName, BeanObject>();
+    attributes.forEach(
+        (key, values) -> {
+          try {
+            result.put(
+                ObjectName.getInstance(key.getKey(), new Hashtable<>(key.getValue())),
+                new BeanObject(key.getKey(), key.getValue(), values, timestamps.get(key)));
+          } catch (MalformedObjectNameException e) {
+            // the labels which can't be a part of object name are never queried
+          }
+        });
+    return Map.copyOf(result);
+  }
+
+  @Override
+  public BeanObject queryBean(BeanQuery beanQuery) {
+    var bean = beans().get(beanQuery.objectName());
+    if (bean == null) throw new NoSuchElementException(beanQuery.objectName() + " is not found");
+    return bean;
+  }
+
+  @Override
+  public BeanObject queryBean(BeanQuery beanQuery, Collection<String> attributeNameCollection) {
+    var bean = queryBean(beanQuery);
+    var attributes = new HashMap<String, Object>();
+    attributeNameCollection.forEach(
+        name ->
+            attributes.put(
+                name,
+                bean.attributes().containsKey(name)
+                    ? bean.attributes().get(name)
+                    : new NoSuchElementException(name + " is not found")));
+    return new BeanObject(
+        bean.domainName(), bean.properties(), attributes, bean.createdTimestamp());
+  }
+
+  @Override
+  public Collection<BeanObject> queryBeans(BeanQuery beanQuery) {
+    var pattern = beanQuery.objectName();
+    return beans().entrySet().stream()
+        .filter(e -> pattern.apply(e.getKey()))
+        .map(Map.Entry::getValue)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public List<String> listDomains() {
+    return beans().values().stream()
+        .map(BeanObject::domainName)
+        .distinct()
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public String host() {
+    return host;
+  }
+
+  @Override
+  public int port() {
+    return port;
+  }
+
+  @Override
+  public void close() {
+    // the shared http client has nothing to close
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A streaming parser of the Prometheus text format (and the OpenMetrics text format). It works on
+ * the bytes of response directly, so no string is created for the comments, the lines skipped by
+ * prefix and the common numbers.
+ */
+final class TextParser {
+
+  private TextParser() {}
+
+  @FunctionalInterface
+  interface Listener {
+    /**
+     * @param name of sample
+     * @param labels of sample
+     * @param value of sample
+     * @param timestamp of sample in milliseconds, or -1 if the sample has no timestamp
+     */
+    void sample(String name, Map<String, String> labels, double value, long timestamp);
+  }
+
+  /** the timestamps smaller than it are in seconds. It is about the year 5138 in seconds */
+  private static final double SECONDS_THRESHOLD = 1E11;
+
+  /** the powers of ten which are exactly represented by double */
+  private static final double[] POWERS_OF_TEN = new double[23];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (var i = 1; i != POWERS_OF_TEN.length; ++i) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+  }
+
+  /**
+   * @param data the text
+   * @param length the number of bytes to parse
+   * @param prefix the prefix of sample names to parse. Other samples are skipped
+   * @param listener receives the samples
+   * @throws IllegalArgumentException if there is a malformed sample
+   */
+  static void parse(byte[] data, int length, String prefix, Listener listener) {
+    var prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+    var start = 0;
+    while (start < length) {
+      var end = start;
+      while (end < length && data[end] != '\n') end++;
+      var i = skipSpaces(data, start, end);
+      // the comments are HELP, TYPE, UNIT and EOF
+      if (i < end && data[i] != '#' && startsWith(data, i, end, prefixBytes))
+        parseSample(data, i, trimEnd(data, i, end), listener);
+      start = end + 1;
+    }
+  }
+
+  private static void parseSample(byte[] data, int start, int end, Listener listener) {
+    var i = start;
+    while (i < end && data[i] != '{' && !isSpace(data[i])) i++;
+    if (i == start) throw malformed(data, start, end);
+    var name = new String(data, start, i - start, StandardCharsets.US_ASCII);
+    Map<String, String> labels = Map.of();
+    i = skipSpaces(data, i, end);
+    if (i < end && data[i] == '{') {
+      labels = new HashMap<>();
+      i = parseLabels(data, i + 1, end, labels);
+      if (i < 0) throw malformed(data, start, end);
+    }
+    i = skipSpaces(data, i, end);
+    var valueEnd = i;
+    while (valueEnd < end && !isSpace(data[valueEnd])) valueEnd++;
+    if (valueEnd == i) throw malformed(data, start, end);
+    var value = parseDouble(data, i, valueEnd);
+    i = skipSpaces(data, valueEnd, end);
+    var timestamp = -1L;
+    if (i < end) {
+      // the timestamp of OpenMetrics is in seconds rather than milliseconds
+      var t = parseDouble(data, i, end);
+      timestamp = t < SECONDS_THRESHOLD ? Math.round(t * 1000) : (long) t;
+    }
+    listener.sample(name, labels, value, timestamp);
+  }
+
+  /** @return the index after the closing brace, or -1 if the labels are malformed */
+  private static int parseLabels(byte[] data, int start, int end, Map<String, String> labels) {
+    var i = start;
+    while (true) {
+      i = skipSpaces(data, i, end);
+      if (i >= end) return -1;
+      if (data[i] == '}') return i + 1;
+      var keyStart = i;
+      while (i < end && data[i] != '=' && !isSpace(data[i])) i++;
+      var key = new String(data, keyStart, i - keyStart, StandardCharsets.US_ASCII);
+      i = skipSpaces(data, i, end);
+      if (i >= end || data[i] != '=') return -1;
+      i = skipSpaces(data, i + 1, end);
+      if (i >= end || data[i] != '"') return -1;
+      var valueStart = ++i;
+      var escaped = false;
+      while (i < end && data[i] != '"') {
+        if (data[i] == '\\') {
+          escaped = true;
+          i++;
+        }
+        i++;
+      }
+      if (i >= end) return -1;
+      labels.put(
+          key,
+          escaped
+              ? unescape(data, valueStart, i)
+              : new String(data, valueStart, i - valueStart, StandardCharsets.UTF_8));
+      i = skipSpaces(data, i + 1, end);
+      if (i < end && data[i] == ',') i++;
+    }
+  }
+
+  private static String unescape(byte[] data, int start, int end) {
+    var raw = new String(data, start, end - start, StandardCharsets.UTF_8);
+    var result = new StringBuilder(raw.length());
+    for (var i = 0; i < raw.length(); i++) {
+      var c = raw.charAt(i);
+      if (c == '\\' && i + 1 < raw.length()) {
+        var next = raw.charAt(++i);
+        result.append(next == 'n' ? '\n' : next);
+      } else result.append(c);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Parse the plain decimals without creating string. The mantissa and the power of ten are exact
+   * in double, so the division is correctly rounded. Other forms, such as exponent, are parsed by
+   * {@link Double#parseDouble(String)}.
+   */
+  static double parseDouble(byte[] data, int start, int end) {
+    var i = start;
+    var negative = i < end && data[i] == '-';
+    if (negative) i++;
+    var mantissa = 0L;
+    var seen = false;
+    var digits = 0;
+    var fraction = -1;
+    for (; i < end; i++) {
+      var b = data[i];
+      if (b >= '0' && b <= '9') {
+        // leading zeros are not significant digits
+        if (mantissa != 0 || b != '0') digits++;
+        seen = true;
+        mantissa = mantissa * 10 + (b - '0');
+        if (fraction >= 0) fraction++;
+      } else if (b == '.' && fraction < 0) fraction = 0;
+      else break;
+    }
+    if (i == end && seen && digits <= 15 && fraction < POWERS_OF_TEN.length) {
+      var value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+      return negative ? -value : value;
+    }
+    var text = new String(data, start, end - start, StandardCharsets.US_ASCII);
+    // java does not accept the abbreviation of infinity
+    if (text.equals("+Inf") || text.equals("Inf")) return Double.POSITIVE_INFINITY;
+    if (text.equals("-Inf")) return Double.NEGATIVE_INFINITY;
+    try {
+      return Double.parseDouble(text);
+    } catch (NumberFormatException e) {
+      throw malformed(data, start, end);
+    }
+  }
+
+  private static boolean startsWith(byte[] data, int start, int end, byte[] prefix) {
+    if (end - start < prefix.length) return false;
+    for (var i = 0; i != prefix.length; ++i) if (data[start + i] != prefix[i]) return false;
+    return true;
+  }
+
+  private static int skipSpaces(byte[] data, int start, int end) {
+    var i = start;
+    while (i < end && isSpace(data[i])) i++;
+    return i;
+  }
+
+  private static int trimEnd(byte[] data, int start, int end) {
+    var i = end;
+    while (i > start && (isSpace(data[i - 1]) || data[i - 1] == '\r')) i--;
+    return i;
+  }
+
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t';
+  }
+
+  private static IllegalArgumentException malformed(byte[] data, int start, int end) {
+    return new IllegalArgumentException(
+        "malformed sample: " + new String(data, start, end - start, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.admin.ClusterInfo;
+
+/**
+ * A bounded cache of converted {@link ClusterInfo}. The producer creates a new {@link Cluster} for
+ * each metadata update and drops the old one, so the cache holds at most {@link #MAX_SIZE}
+ * clusters and evicts the least recently used one. A new cluster is converted from the latest
+ * cached one, and only the topics having different partitions are rebuilt.
+ *
+ * <p>The dispatchers should keep their own latest cluster info by {@link #local()}, so the
+ * producers in the same JVM do not take the lock of this cache for each record.
+ */
+public final class ClusterInfoCache {
+  static final int MAX_SIZE = 8;
+
+  private final Map<Cluster, ClusterInfo> cache =
+      new LinkedHashMap<>(MAX_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Cluster, ClusterInfo> eldest) {
+          return size() > MAX_SIZE;
+        }
+      };
+
+  // the producer sends records with same cluster most of the time, so the latest is checked first
+  private volatile Map.Entry<Cluster, ClusterInfo> latest;
+
+  /**
+   * @param cluster kafka cluster
+   * @return the cached cluster info, or the new cluster info converted from latest one
+   */
+  public ClusterInfo get(Cluster cluster) {
+    var current = latest;
+    if (current != null && current.getKey() == cluster) return current.getValue();
+    synchronized (this) {
+      var clusterInfo = get(cluster, latest == null ? null : latest.getValue());
+      latest = Map.entry(cluster, clusterInfo);
+      return clusterInfo;
+    }
+  }
+
+  /**
+   * @param cluster kafka cluster
+   * @param previous the cluster info to convert from. It can be null
+   * @return the cached cluster info, or the new cluster info converted from previous one
+   */
+  synchronized ClusterInfo get(Cluster cluster, ClusterInfo previous) {
+    var clusterInfo = cache.get(cluster);
+    if (clusterInfo == null) {
+      clusterInfo = ClusterInfo.of(cluster, previous);
+      cache.put(cluster, clusterInfo);
+    }
+    return clusterInfo;
+  }
+
+  /** @return a new holder of the latest cluster info, which falls back to this cache */
+  public Local local() {
+    return new Local(this);
+  }
+
+  /** @return the number of cached clusters */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /**
+   * The latest cluster info of a dispatcher. It is checked without lock, and the shared cache is
+   * used only if the cluster is changed. Hence, it is not evicted by the clusters of other
+   * producers.
+   */
+  public static final class Local {
+    private final ClusterInfoCache shared;
+    private volatile Map.Entry<Cluster, ClusterInfo> latest;
+
+    private Local(ClusterInfoCache shared) {
+      this.shared = shared;
+    }
+
+    /**
+     * @param cluster kafka cluster
+     * @return the latest cluster info, or the one got from the shared cache
+     */
+    public ClusterInfo get(Cluster cluster) {
+      var current = latest;
+      if (current != null && current.getKey() == cluster) return current.getValue();
+      // convert from the previous cluster of this dispatcher, which is likely to be similar
+      var clusterInfo = shared.get(cluster, current == null ? null : current.getValue());
+      latest = Map.entry(cluster, clusterInfo);
+      return clusterInfo;
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.admin.ReplicaInfo;
+import org.astraea.app.argument.DurationField;
+import org.astraea.app.common.Utils;
+import org.astraea.app.cost.CostFunction;
+
+/**
+ * This dispatcher maps the record key to partition by consistent hashing with bounded loads. Each
+ * available partition is put on a hash ring many times (virtual nodes). The key is sent to the
+ * first partition after the hash of key on the ring, so the same key goes to the same partition.
+ * If the leader of that partition is on a broker whose cost is larger than (1 + epsilon) * average
+ * cost, the key moves to the next partition on the ring which is not on an overloaded broker. Only
+ * the keys hashed to overloaded brokers are moved, and they come back once the broker cools down.
+ *
+ * <p>The costs are computed by the configured cost functions, and the format is same as {@link
+ * StrictCostDispatcher}. For example, `org.astraea.app.cost.BrokerInputCost=1,jmx.port=12345`.
+ * The records having no key are spread over the ring evenly.
+ *
+ * <p>The other configs are shown below.
+ *
+ * <ul>
+ *   <li>consistent.hash.epsilon: the epsilon of bounded loads. The smaller value moves more keys.
+ *       Default: 0.25
+ *   <li>consistent.hash.virtual.nodes: the number of virtual nodes of each partition. Default: 100
+ *   <li>round.robin.lease: the interval of refreshing costs. Default: 4s
+ * </ul>
+ */
+public class ConsistentHashDispatcher extends CostDispatcher {
+  public static final String EPSILON_KEY = "consistent.hash.epsilon";
+  public static final String VIRTUAL_NODES_KEY = "consistent.hash.virtual.nodes";
+
+  double epsilon = 0.25;
+
+  int virtualNodes = 100;
+
+  // the sorted ids of overloaded brokers. It is refreshed by background thread. The keys are not
+  // moved if the costs are stale
+  final CostRefresher<int[]> refresher =
+      CostRefresher.of(
+          Duration.ofSeconds(4),
+          Duration.ofSeconds(12),
+          this::overloadedBrokers,
+          ignored -> new int[0]);
+
+  private final AtomicInteger keylessCounter = new AtomicInteger();
+
+  private volatile Rings rings = new Rings(null);
+
+  @Override
+  public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
+    var ring = ring(topic, clusterInfo);
+    // just return first partition if there is no available partitions
+    if (ring.partitions.length == 0) return 0;
+
+    // just return the only one available partition
+    if (ring.partitions.length == 1) return ring.partitions[0];
+
+    var hash =
+        key.length == 0
+            // spread the records having no key over the ring
+            ? keylessCounter.getAndIncrement() * 0x9E3779B9
+            : org.apache.kafka.common.utils.Utils.murmur2(key);
+    return ring.partition(hash, refresher.get(clusterInfo));
+  }
+
+  /**
+   * @return the hash ring of topic. The rings are rebuilt only if the cluster info is changed.
+   */
+  Ring ring(String topic, ClusterInfo clusterInfo) {
+    var current = rings;
+    if (current.clusterInfo != clusterInfo) {
+      current = new Rings(clusterInfo);
+      rings = current;
+    }
+    var ring = current.rings.get(topic);
+    if (ring != null) return ring;
+    var partitionLeaders = clusterInfo.availableReplicaLeaders(topic);
+    ring = Ring.of(topic, partitionLeaders, virtualNodes);
+    addReceivers(partitionLeaders);
+    var previous = current.rings.putIfAbsent(topic, ring);
+    return previous == null ? ring : previous;
+  }
+
+  /** @return the sorted ids of overloaded brokers. It is called by background thread */
+  int[] overloadedBrokers(ClusterInfo clusterInfo) {
+    // no broker is overloaded until all receivers have mbeans
+    return clusterBean()
+        .map(clusterBean -> StrictCostDispatcher.weightedCost(functions, clusterInfo, clusterBean))
+        .map(costs -> overloadedBrokers(costs, epsilon))
+        .orElseGet(() -> new int[0]);
+  }
+
+  /**
+   * @param costs of brokers
+   * @param epsilon the tolerance of load
+   * @return the sorted ids of brokers whose cost is larger than (1 + epsilon) * average cost
+   */
+  static int[] overloadedBrokers(Map<Integer, Double> costs, double epsilon) {
+    var average = costs.values().stream().mapToDouble(d -> d).average().orElse(0);
+    if (average <= 0) return new int[0];
+    return costs.entrySet().stream()
+        .filter(e -> e.getValue() > (1 + epsilon) * average)
+        .mapToInt(Map.Entry::getKey)
+        .sorted()
+        .toArray();
+  }
+
+  @Override
+  public void configure(Configuration config) {
+    configure(
+        costFunctions(config),
+        config.integer(JMX_PORT),
+        PartitionerUtils.parseIdJMXPort(config),
+        config.string(EPSILON_KEY).map(Double::parseDouble).orElse(0.25),
+        config.integer(VIRTUAL_NODES_KEY).orElse(100),
+        config
+            .string(StrictCostDispatcher.ROUND_ROBIN_LEASE_KEY)
+            .map(DurationField::toDuration)
+            .orElse(Duration.ofSeconds(4)));
+  }
+
+  /**
+   * configure this ConsistentHashDispatcher. This method is extracted for testing.
+   *
+   * @param functions cost functions used to find the overloaded brokers
+   * @param jmxPortDefault jmx port by default
+   * @param customJmxPort jmx port for each node
+   * @param epsilon the tolerance of load
+   * @param virtualNodes the number of virtual nodes of each partition
+   * @param refreshInterval the interval of refreshing costs
+   */
+  void configure(
+      Map<CostFunction, Double> functions,
+      Optional<Integer> jmxPortDefault,
+      Map<Integer, Integer> customJmxPort,
+      double epsilon,
+      int virtualNodes,
+      Duration refreshInterval) {
+    if (epsilon < 0)
+      throw new IllegalArgumentException("epsilon should not be negative, but it is " + epsilon);
+    this.epsilon = epsilon;
+    this.virtualNodes = Utils.requirePositive(virtualNodes);
+    configureCosts(functions, jmxPortDefault, customJmxPort);
+    refresher.interval(refreshInterval);
+    refresher.staleTimeout(refreshInterval.multipliedBy(3));
+  }
+
+  @Override
+  public void close() {
+    refresher.close();
+    super.close();
+  }
+
+  /** The hash rings of topics. They are built from the same cluster info. */
+  private static final class Rings {
+    private final ClusterInfo clusterInfo;
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    private Rings(ClusterInfo clusterInfo) {
+      this.clusterInfo = clusterInfo;
+    }
+  }
+
+  /** The virtual nodes of partitions sorted by their hashes. */
+  static final class Ring {
+    final int[] partitions;
+    private final int[] hashes;
+    private final int[] nodePartitions;
+    private final int[] nodeBrokers;
+
+    /**
+     * @param topic to build ring
+     * @param partitionLeaders the leaders of available partitions
+     * @param virtualNodes the number of virtual nodes of each partition
+     * @return hash ring
+     */
+    static Ring of(String topic, List<ReplicaInfo> partitionLeaders, int virtualNodes) {
+      // the hash is put in the high bits, so the sorted values are ordered by hash
+      var nodes = new long[partitionLeaders.size() * virtualNodes];
+      for (var i = 0; i != partitionLeaders.size(); ++i)
+        for (var v = 0; v != virtualNodes; ++v) {
+          var name = topic + "-" + partitionLeaders.get(i).partition() + "#" + v;
+          var hash =
+              org.apache.kafka.common.utils.Utils.murmur2(name.getBytes(StandardCharsets.UTF_8));
+          nodes[i * virtualNodes + v] = ((long) hash << 32) | i;
+        }
+      Arrays.sort(nodes);
+      var hashes = new int[nodes.length];
+      var nodePartitions = new int[nodes.length];
+      var nodeBrokers = new int[nodes.length];
+      for (var i = 0; i != nodes.length; ++i) {
+        var leader = partitionLeaders.get((int) nodes[i]);
+        hashes[i] = (int) (nodes[i] >> 32);
+        nodePartitions[i] = leader.partition();
+        nodeBrokers[i] = leader.nodeInfo().id();
+      }
+      return new Ring(
+          partitionLeaders.stream().mapToInt(ReplicaInfo::partition).toArray(),
+          hashes,
+          nodePartitions,
+          nodeBrokers);
+    }
+
+    private Ring(int[] partitions, int[] hashes, int[] nodePartitions, int[] nodeBrokers) {
+      this.partitions = partitions;
+      this.hashes = hashes;
+      this.nodePartitions = nodePartitions;
+      this.nodeBrokers = nodeBrokers;
+    }
+
+    /**
+     * @param hash of key
+     * @param overloadedBrokers the sorted ids of overloaded brokers
+     * @return the first partition after the hash on the ring which is not on overloaded brokers.
+     *     If all brokers are overloaded, the first partition after the hash is returned.
+     */
+    int partition(int hash, int[] overloadedBrokers) {
+      var start = Arrays.binarySearch(hashes, hash);
+      if (start < 0) start = -start - 1;
+      if (start == hashes.length) start = 0;
+      if (overloadedBrokers.length == 0) return nodePartitions[start];
+      for (var i = 0; i != hashes.length; ++i) {
+        var index = (start + i) % hashes.length;
+        if (Arrays.binarySearch(overloadedBrokers, nodeBrokers[index]) < 0)
+          return nodePartitions[index];
+      }
+      return nodePartitions[start];
+    }
+  }
+}
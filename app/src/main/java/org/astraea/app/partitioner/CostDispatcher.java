@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.admin.ClusterBean;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.admin.NodeInfo;
+import org.astraea.app.admin.ReplicaInfo;
+import org.astraea.app.common.Utils;
+import org.astraea.app.cost.CostFunction;
+import org.astraea.app.cost.NodeLatencyCost;
+import org.astraea.app.metrics.collector.BeanCollector;
+import org.astraea.app.metrics.collector.Fetcher;
+import org.astraea.app.metrics.collector.Receiver;
+
+/**
+ * The base of dispatchers ranking the brokers by cost functions. It parses the cost functions and
+ * the JMX ports of brokers, and keeps a receiver of metrics for each leader broker it has seen. How
+ * the costs are used is up to the subclasses.
+ *
+ * <p>The format of configs is described by {@link StrictCostDispatcher}.
+ */
+public abstract class CostDispatcher implements Dispatcher {
+  public static final String JMX_PORT = "jmx.port";
+
+  private final BeanCollector beanCollector =
+      BeanCollector.builder().interval(Duration.ofSeconds(4)).build();
+
+  // The cost-functions we consider and the weight of them. It is visible for test
+  Map<CostFunction, Double> functions = Map.of();
+
+  // all-in-one fetcher referenced to cost functions
+  Optional<Fetcher> fetcher = Optional.empty();
+
+  Function<Integer, Optional<Integer>> jmxPortGetter = (id) -> Optional.empty();
+
+  // the receivers are read by the thread refreshing costs
+  final Map<Integer, Receiver> receivers = new ConcurrentSkipListMap<>();
+
+  // the latest cluster info of this dispatcher
+  private final ClusterInfoCache.Local clusterInfoCache = CLUSTER_CACHE.local();
+
+  @Override
+  public ClusterInfo clusterInfo(Cluster cluster) {
+    return clusterInfoCache.get(cluster);
+  }
+
+  // visible for testing
+  Receiver receiver(String host, int port, Fetcher fetcher) {
+    return beanCollector.register().host(host).port(port).fetcher(fetcher).build();
+  }
+
+  /** add new receivers for new brokers */
+  void addReceivers(List<ReplicaInfo> partitionLeaders) {
+    receivers.putAll(
+        fetcher
+            .map(
+                fetcher ->
+                    partitionLeaders.stream()
+                        .map(ReplicaInfo::nodeInfo)
+                        .filter(nodeInfo -> !receivers.containsKey(nodeInfo.id()))
+                        .distinct()
+                        .filter(nodeInfo -> jmxPortGetter.apply(nodeInfo.id()).isPresent())
+                        .collect(
+                            Collectors.toMap(
+                                NodeInfo::id,
+                                nodeInfo ->
+                                    receiver(
+                                        nodeInfo.host(),
+                                        jmxPortGetter.apply(nodeInfo.id()).get(),
+                                        fetcher))))
+            .orElse(Map.of()));
+  }
+
+  /**
+   * @return the metrics of all receivers. It is empty if any receiver has no mbeans, since the
+   *     receivers are built without waiting for mbeans
+   */
+  Optional<ClusterBean> clusterBean() {
+    if (receivers.values().stream().anyMatch(r -> r.current().isEmpty())) return Optional.empty();
+    return Optional.of(beanCollector.clusterBean(receivers));
+  }
+
+  /**
+   * set the cost functions and the jmx ports, and create the receiver of local mbeans.
+   *
+   * @param functions cost functions used by this dispatcher.
+   * @param jmxPortDefault jmx port by default
+   * @param customJmxPort jmx port for each node
+   */
+  void configureCosts(
+      Map<CostFunction, Double> functions,
+      Optional<Integer> jmxPortDefault,
+      Map<Integer, Integer> customJmxPort) {
+    this.functions = functions;
+    this.fetcher = Fetcher.of(this.functions.keySet());
+    this.jmxPortGetter = id -> Optional.ofNullable(customJmxPort.get(id)).or(() -> jmxPortDefault);
+
+    // put local mbean client first
+    this.fetcher.ifPresent(
+        f -> receivers.put(-1, beanCollector.register().local().fetcher(f).build()));
+  }
+
+  /**
+   * @param config that contains cost-function names and its corresponding weight
+   * @return the configured cost functions, or {@link NodeLatencyCost} if there is no cost function
+   */
+  static Map<CostFunction, Double> costFunctions(Configuration config) {
+    var configuredFunctions = parseCostFunctionWeight(config);
+    return configuredFunctions.isEmpty() ? Map.of(new NodeLatencyCost(), 1D) : configuredFunctions;
+  }
+
+  /**
+   * Helps parse cost-function names and weights. The format of the key and value is "<CostFunction
+   * name>"="<weight>". For example, {"org.astraea.cost.broker.BrokerInputCost", "20"} will be
+   * parsed to {(BrokerInputCost object), 20.0}.
+   *
+   * @param config that contains cost-function names and its corresponding weight
+   * @return pairs of cost-function object and its corresponding weight
+   */
+  public static Map<CostFunction, Double> parseCostFunctionWeight(Configuration config) {
+    return config.entrySet().stream()
+        .map(
+            nameAndWeight -> {
+              Class<?> name;
+              double weight;
+              try {
+                name = Class.forName(nameAndWeight.getKey());
+                weight = Double.parseDouble(nameAndWeight.getValue());
+                if (weight < 0.0)
+                  throw new IllegalArgumentException("Cost-function weight should not be negative");
+              } catch (ClassNotFoundException ignore) {
+                /* To delete all config option that is not for configuring cost-function. */
+                return null;
+              }
+              return Map.entry(name, weight);
+            })
+        .filter(Objects::nonNull)
+        .filter(e -> CostFunction.class.isAssignableFrom(e.getKey()))
+        .map(
+            e -> {
+              try {
+                return Map.entry(
+                    (CostFunction) e.getKey().getConstructor().newInstance(), e.getValue());
+              } catch (Exception ex) {
+                ex.printStackTrace();
+                throw new IllegalArgumentException(ex);
+              }
+            })
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  @Override
+  public void close() {
+    receivers.values().forEach(r -> Utils.swallowException(r::close));
+    receivers.clear();
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.common.Utils;
+
+/**
+ * Refresh the value computed from costs by a background thread. The computation may fetch metrics
+ * from remote JMX servers, so it should not be executed by the thread sending records. {@link
+ * #get(ClusterInfo)} reads the latest published value without blocking. If there is no value yet,
+ * or the latest value is older than the stale timeout (for example, a JMX server is unreachable),
+ * the fallback value is returned instead.
+ *
+ * <p>The staleness and the number of fallbacks are exposed by the platform mbean server as
+ * "org.astraea:type=CostRefresher,id={id}". See {@link Metrics}.
+ *
+ * @param <T> the type of value, such as the weights of brokers
+ */
+public final class CostRefresher<T> implements AutoCloseable {
+
+  /**
+   * @param interval between refreshes
+   * @param staleTimeout the max age of value. The older value is replaced by the fallback value
+   * @param updater computes the value from costs. It is executed by the background thread
+   * @param fallback computes the value used when there is no fresh value, such as the uniform
+   *     weights. It should be cheap since it is executed by the caller of {@link #get(ClusterInfo)}
+   * @return a started refresher
+   */
+  public static <T> CostRefresher<T> of(
+      Duration interval,
+      Duration staleTimeout,
+      Function<ClusterInfo, T> updater,
+      Function<ClusterInfo, T> fallback) {
+    return new CostRefresher<>(interval, staleTimeout, updater, fallback);
+  }
+
+  /** The metrics of a refresher. */
+  public interface Metrics {
+    /** @return the age of latest value in milliseconds */
+    long getStaleness();
+
+    /** @return the number of reads which get the fallback value */
+    long getFallbacks();
+  }
+
+  private static final class Value<T> {
+    private final ClusterInfo clusterInfo;
+    private final T value;
+    private final long timestamp;
+
+    private Value(ClusterInfo clusterInfo, T value, long timestamp) {
+      this.clusterInfo = clusterInfo;
+      this.value = value;
+      this.timestamp = timestamp;
+    }
+  }
+
+  private static final AtomicInteger IDS = new AtomicInteger();
+
+  private final Function<ClusterInfo, T> updater;
+  private final Function<ClusterInfo, T> fallback;
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            var thread = new Thread(r, "astraea-cost-refresher");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final long createdTime = System.currentTimeMillis();
+  private final AtomicBoolean firstRefresh = new AtomicBoolean(false);
+  private final LongAdder fallbacks = new LongAdder();
+  // visible for testing
+  final ObjectName objectName;
+
+  private volatile long staleTimeout;
+  private ScheduledFuture<?> schedule;
+  // the latest cluster info seen by the caller. It is used by the background refresh
+  private volatile ClusterInfo clusterInfo;
+  private volatile Value<T> latest;
+  private volatile Value<T> fallbackValue;
+
+  private CostRefresher(
+      Duration interval,
+      Duration staleTimeout,
+      Function<ClusterInfo, T> updater,
+      Function<ClusterInfo, T> fallback) {
+    this.updater = Objects.requireNonNull(updater);
+    this.fallback = Objects.requireNonNull(fallback);
+    staleTimeout(staleTimeout);
+    interval(interval);
+    var id = IDS.getAndIncrement();
+    this.objectName =
+        Utils.packException(() -> new ObjectName("org.astraea:type=CostRefresher,id=" + id));
+    Utils.swallowException(
+        () ->
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(new StandardMBean(metrics(), Metrics.class), objectName));
+  }
+
+  /**
+   * change the interval between refreshes. The next refresh happens after the new interval.
+   *
+   * @param interval between refreshes
+   */
+  public synchronized void interval(Duration interval) {
+    if (schedule != null) schedule.cancel(false);
+    schedule =
+        executor.scheduleWithFixedDelay(
+            this::refresh, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** @param staleTimeout the max age of value. The older value is replaced by the fallback value */
+  public void staleTimeout(Duration staleTimeout) {
+    this.staleTimeout = staleTimeout.toMillis();
+  }
+
+  /**
+   * @param clusterInfo current cluster info
+   * @return the latest value, or the fallback value if there is no fresh value. The first value is
+   *     computed by the background thread, so the caller gets the fallback value until it is done.
+   */
+  public T get(ClusterInfo clusterInfo) {
+    if (this.clusterInfo != clusterInfo) this.clusterInfo = clusterInfo;
+    var current = latest;
+    if (current != null && System.currentTimeMillis() - current.timestamp <= staleTimeout)
+      return current.value;
+    if (current == null && firstRefresh.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::refresh);
+      } catch (RejectedExecutionException e) {
+        // this refresher is closed
+      }
+    }
+    fallbacks.increment();
+    var f = fallbackValue;
+    if (f == null || f.clusterInfo != clusterInfo) {
+      f = new Value<>(clusterInfo, fallback.apply(clusterInfo), System.currentTimeMillis());
+      fallbackValue = f;
+    }
+    return f.value;
+  }
+
+  /** @return the age of latest value, or the age of this refresher if there is no value yet */
+  public Duration staleness() {
+    var current = latest;
+    return Duration.ofMillis(
+        System.currentTimeMillis() - (current == null ? createdTime : current.timestamp));
+  }
+
+  /** @return the number of reads which get the fallback value */
+  public long fallbacks() {
+    return fallbacks.sum();
+  }
+
+  private Metrics metrics() {
+    return new Metrics() {
+      @Override
+      public long getStaleness() {
+        return staleness().toMillis();
+      }
+
+      @Override
+      public long getFallbacks() {
+        return fallbacks();
+      }
+    };
+  }
+
+  // visible for testing
+  void refresh() {
+    var current = clusterInfo;
+    if (current == null) return;
+    try {
+      latest = new Value<>(current, updater.apply(current), System.currentTimeMillis());
+    } catch (RuntimeException e) {
+      // keep the previous value. It will be replaced by the fallback value if it gets stale
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    Utils.swallowException(
+        () -> ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName));
+  }
+}
@@ -17,7 +17,6 @@
 package org.astraea.app.partitioner;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.kafka.clients.producer.Partitioner;
 import org.apache.kafka.common.Cluster;
@@ -26,9 +25,11 @@ import org.astraea.app.admin.ClusterInfo;
 public interface Dispatcher extends Partitioner {
   /**
    * cache the cluster info to reduce the cost of converting cluster. Producer does not update
-   * Cluster frequently, so it is ok to cache it.
+   * Cluster frequently, so it is ok to cache it. The cache is bounded, and the new cluster is
+   * converted incrementally from the previous one. It is the fallback of {@link
+   * #clusterInfo(Cluster)}.
    */
-  ConcurrentHashMap<Cluster, ClusterInfo> CLUSTER_CACHE = new ConcurrentHashMap<>();
+  ClusterInfoCache CLUSTER_CACHE = new ClusterInfoCache();
 
   /**
    * Compute the partition for the given record.
@@ -40,6 +41,18 @@ public interface Dispatcher extends Partitioner {
    */
   int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo);
 
+  /**
+   * Convert the cluster passed by producer. The dispatchers holding {@link
+   * ClusterInfoCache#local()} should override this method, so the lock of shared cache is taken
+   * only if the cluster is changed.
+   *
+   * @param cluster kafka cluster
+   * @return the cluster info of cluster
+   */
+  default ClusterInfo clusterInfo(Cluster cluster) {
+    return CLUSTER_CACHE.get(cluster);
+  }
+
   /**
    * configure this dispatcher. This method is called only once.
    *
@@ -66,7 +79,7 @@ public interface Dispatcher extends Partitioner {
         topic,
         keyBytes == null ? new byte[0] : keyBytes,
         valueBytes == null ? new byte[0] : valueBytes,
-        CLUSTER_CACHE.computeIfAbsent(cluster, ignored -> ClusterInfo.of(cluster)));
+        clusterInfo(cluster));
   }
 
   @Override
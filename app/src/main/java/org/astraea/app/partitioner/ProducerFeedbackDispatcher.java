@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.admin.NodeInfo;
+import org.astraea.app.argument.DurationField;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.metrics.producer.HasProducerNodeMetrics;
+
+/**
+ * This dispatcher avoids the slow brokers by the metrics of producer itself. It does not need the
+ * JMX ports of brokers, since the metrics are read from the local mbeans of producer. The cost of a
+ * node is its average request latency multiplied by (1 + the requests in flight), and the weight of
+ * node is 1 / (1 + cost). The nodes having no metrics (for example, no request was sent to
+ * them) get the average weight. The weights are adapted every `feedback.interval` (default is
+ * 500ms).
+ *
+ * <p>The metrics of other producers in the same JVM are excluded by `client.id`, which is passed by
+ * producer automatically.
+ */
+public class ProducerFeedbackDispatcher extends StrictCostDispatcher {
+  public static final String FEEDBACK_INTERVAL_KEY = "feedback.interval";
+  public static final String CLIENT_ID_KEY = "client.id";
+
+  private final MBeanClient mBeanClient = MBeanClient.local();
+
+  // the client id of this producer. The metrics of all producers are used if it is empty
+  Optional<String> clientId = Optional.empty();
+
+  @Override
+  public void configure(Configuration config) {
+    clientId = config.string(CLIENT_ID_KEY);
+    // there is no cost function, so no receiver is created
+    configure(
+        Map.of(),
+        Optional.empty(),
+        Map.of(),
+        config
+            .string(FEEDBACK_INTERVAL_KEY)
+            .map(DurationField::toDuration)
+            .orElse(Duration.ofMillis(500)));
+  }
+
+  @Override
+  RoundRobin<Integer> newRoundRobin(ClusterInfo clusterInfo) {
+    return RoundRobin.smooth(
+        weights(clusterInfo, KafkaMetrics.Producer.nodes(mBeanClient), clientId));
+  }
+
+  /**
+   * @param clusterInfo current cluster info
+   * @param nodeMetrics the node metrics of producers
+   * @param clientId the producer to use. All producers are used if it is empty
+   * @return the weight of each node
+   */
+  static Map<Integer, Double> weights(
+      ClusterInfo clusterInfo,
+      Map<Integer, Collection<HasProducerNodeMetrics>> nodeMetrics,
+      Optional<String> clientId) {
+    Predicate<HasProducerNodeMetrics> isOwned =
+        m ->
+            clientId
+                .map(id -> id.equals(m.beanObject().properties().get("client-id")))
+                .orElse(true);
+    var weights = new HashMap<Integer, Double>();
+    nodeMetrics.forEach(
+        (id, metrics) -> {
+          var owned = metrics.stream().filter(isOwned).collect(Collectors.toList());
+          weights.put(id, 1 / (1 + cost(owned)));
+        });
+    var average =
+        weights.values().stream()
+            .filter(Double::isFinite)
+            .mapToDouble(w -> w)
+            .average()
+            .orElse(1);
+    return clusterInfo.nodes().stream()
+        .map(NodeInfo::id)
+        .distinct()
+        .collect(
+            Collectors.toMap(
+                id -> id,
+                id -> {
+                  var weight = weights.getOrDefault(id, Double.NaN);
+                  return Double.isFinite(weight) ? weight : average;
+                }));
+  }
+
+  /**
+   * @param metrics of a node
+   * @return the average request latency multiplied by (1 + requests in flight), or NaN if there is
+   *     no latency
+   */
+  static double cost(Collection<HasProducerNodeMetrics> metrics) {
+    var latency =
+        metrics.stream()
+            .mapToDouble(HasProducerNodeMetrics::requestLatencyAvg)
+            .filter(Double::isFinite)
+            .average()
+            .orElse(Double.NaN);
+    // the requests which are sent but not responded yet
+    var inFlight =
+        metrics.stream().mapToDouble(m -> Math.max(0, m.requestTotal() - m.responseTotal())).sum();
+    return latency * (1 + inFlight);
+  }
+}
@@ -16,12 +16,11 @@
  */
 package org.astraea.app.partitioner;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * a way to pick best target.
@@ -42,46 +41,45 @@ public interface RoundRobin<E> {
    */
   Optional<E> next(Set<E> availableTargets);
 
+  /**
+   * The smooth weighted round-robin. The weights are kept by primitive arrays, and each thread has
+   * its own current scores. Hence, {@link #next(Set)} neither allocates the intermediate maps nor
+   * contends with other threads. Each thread follows the smooth sequence, so the targets picked by
+   * all threads are still proportional to the scores.
+   */
   class SmoothRoundRobin<E> implements RoundRobin<E> {
 
-    private final Map<E, Double> effectiveScores;
-    private volatile Map<E, Double> currentScores;
+    private final List<E> targets;
+    private final double[] effectiveScores;
+    private final double sum;
+    private final ThreadLocal<double[]> currentScores;
 
     private SmoothRoundRobin(Map<E, Double> scores) {
-      this.effectiveScores = Collections.unmodifiableMap(scores);
-      this.currentScores =
-          scores.keySet().stream()
-              .collect(Collectors.toUnmodifiableMap(Function.identity(), ignored -> 0D));
+      this.targets = List.copyOf(scores.keySet());
+      this.effectiveScores = targets.stream().mapToDouble(scores::get).toArray();
+      this.sum = Arrays.stream(effectiveScores).sum();
+      this.currentScores = ThreadLocal.withInitial(() -> new double[effectiveScores.length]);
     }
 
     @Override
     public Optional<E> next(Set<E> availableTargets) {
       // no data no answer
-      if (effectiveScores.isEmpty() || availableTargets.isEmpty()) return Optional.empty();
+      if (effectiveScores.length == 0 || availableTargets.isEmpty()) return Optional.empty();
 
-      // 1) calculate the sum of all effective scores
-      var sum = effectiveScores.values().stream().mapToDouble(d -> d).sum();
+      var current = currentScores.get();
+      // 1) get the available target which has max value after adding the effective score
+      var max = -1;
+      for (var i = 0; i != current.length; ++i)
+        if (availableTargets.contains(targets.get(i))
+            && (max < 0
+                || current[i] + effectiveScores[i] > current[max] + effectiveScores[max]))
+          max = i;
+      if (max < 0) return Optional.empty();
       // 2) add effective score to each current score
-      var nextScores =
-          currentScores.entrySet().stream()
-              .collect(
-                  Collectors.toMap(
-                      Map.Entry::getKey,
-                      e -> effectiveScores.getOrDefault(e.getKey(), 0D) + e.getValue()));
-      // 3) get the E which has max value
-      var maxObj =
-          nextScores.entrySet().stream()
-              .filter(e -> availableTargets.contains(e.getKey()))
-              .max(Map.Entry.comparingByValue())
-              .map(Map.Entry::getKey);
-      // 4) subtract score from max (effective score)
-      maxObj.ifPresent(
-          o -> {
-            nextScores.put(o, nextScores.get(o) - sum);
-            // 5) update current scores by next scores
-            currentScores = Collections.unmodifiableMap(nextScores);
-          });
-      return maxObj;
+      for (var i = 0; i != current.length; ++i) current[i] += effectiveScores[i];
+      // 3) subtract the sum of all effective scores from max
+      current[max] -= sum;
+      return Optional.of(targets.get(max));
     }
   }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.admin.ClusterInfo;
+
+/**
+ * This dispatcher is a sticky version of {@link StrictCostDispatcher}. It keeps sending the records
+ * of a topic to the same partition until the producer creates a new batch for that partition (the
+ * previous batch is full or sent). The next partition is chosen by the smooth weighted round-robin
+ * over broker costs, as {@link StrictCostDispatcher} does. Hence, the batches get larger and the
+ * produce requests get fewer, while the traffic is still distributed by costs.
+ *
+ * <p>The configs are same as {@link StrictCostDispatcher}.
+ */
+public class StickyCostDispatcher extends StrictCostDispatcher {
+
+  /** The sticky partition and the table it is chosen from. */
+  private static final class Sticky {
+    private final PartitionTable table;
+    private final int partition;
+
+    private Sticky(PartitionTable table, int partition) {
+      this.table = table;
+      this.partition = partition;
+    }
+  }
+
+  // visible for testing
+  final ConcurrentMap<String, Sticky> stickies = new ConcurrentHashMap<>();
+
+  @Override
+  public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
+    var table = table(topic, clusterInfo);
+    var sticky = stickies.get(topic);
+    // the sticky partition is discarded if the cluster is changed
+    if (sticky != null && sticky.table == table) return sticky.partition;
+    var partition = super.partition(topic, key, value, clusterInfo);
+    stickies.put(topic, new Sticky(table, partition));
+    return partition;
+  }
+
+  /**
+   * The producer calls this method when it is going to create a new batch for the partition. The
+   * sticky partition is switched, so the following records are sent to the next partition.
+   */
+  @Override
+  public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+    super.onNewBatch(topic, cluster, prevPartition);
+    var sticky = stickies.get(topic);
+    // other thread may switch the partition already
+    if (sticky != null && sticky.partition == prevPartition) stickies.remove(topic, sticky);
+  }
+}
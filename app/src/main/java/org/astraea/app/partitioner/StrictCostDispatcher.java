@@ -17,25 +17,23 @@
 package org.astraea.app.partitioner;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import org.apache.kafka.common.Cluster;
 import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.admin.NodeInfo;
 import org.astraea.app.admin.ReplicaInfo;
 import org.astraea.app.argument.DurationField;
-import org.astraea.app.common.Utils;
 import org.astraea.app.cost.CostFunction;
 import org.astraea.app.cost.HasBrokerCost;
-import org.astraea.app.cost.NodeLatencyCost;
-import org.astraea.app.metrics.collector.BeanCollector;
-import org.astraea.app.metrics.collector.Fetcher;
-import org.astraea.app.metrics.collector.Receiver;
 
 /**
  * this dispatcher scores the nodes by multiples cost functions. Each function evaluate the target
@@ -51,88 +49,115 @@ import org.astraea.app.metrics.collector.Receiver;
  * <p>You can configure the cost functions you want to use. By giving the name of that cost function
  * and its weight. For example,
  * `org.astraea.cost.ThroughputCost=1,org.astraea.cost.broker.BrokerOutputCost=1`.
+ *
+ * <p>The costs are refreshed by a background thread every `round.robin.lease`, so the thread
+ * sending records never waits for the JMX servers. If the costs are not refreshed in
+ * `cost.stale.timeout` (default is three leases), all nodes get the same weight until the costs
+ * are refreshed again.
+ *
+ * <p>If the chosen broker leads many partitions of the topic, the records are sent to the same
+ * partition until the producer creates a new batch for it. It helps the producer to send fuller
+ * batches. The under-replicated partitions are avoided since they are more likely to be slow.
  */
-public class StrictCostDispatcher implements Dispatcher {
-  public static final String JMX_PORT = "jmx.port";
+public class StrictCostDispatcher extends CostDispatcher {
   public static final String ROUND_ROBIN_LEASE_KEY = "round.robin.lease";
-
-  private final BeanCollector beanCollector =
-      BeanCollector.builder().interval(Duration.ofSeconds(4)).build();
+  public static final String COST_STALE_TIMEOUT_KEY = "cost.stale.timeout";
 
   Duration roundRobinLease;
 
-  // The cost-functions we consider and the weight of them. It is visible for test
-  Map<CostFunction, Double> functions = Map.of();
-
-  // all-in-one fetcher referenced to cost functions
-  Optional<Fetcher> fetcher;
-
-  Function<Integer, Optional<Integer>> jmxPortGetter = (id) -> Optional.empty();
-
-  final Map<Integer, Receiver> receivers = new TreeMap<>();
+  // the round-robin is refreshed by background thread, so sending records is not blocked by jmx
+  final CostRefresher<RoundRobin<Integer>> refresher =
+      CostRefresher.of(
+          Duration.ofSeconds(4),
+          Duration.ofSeconds(12),
+          this::newRoundRobin,
+          StrictCostDispatcher::uniformRoundRobin);
 
   volatile RoundRobin<Integer> roundRobin;
-  volatile long timeToUpdateRoundRobin = -1;
-
-  // visible for testing
-  Receiver receiver(String host, int port, Fetcher fetcher) {
-    return beanCollector.register().host(host).port(port).fetcher(fetcher).build();
-  }
+  volatile Tables tables = new Tables(null);
 
   @Override
   public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
-    var partitionLeaders = clusterInfo.availableReplicaLeaders(topic);
+    var table = table(topic, clusterInfo);
     // just return first partition if there is no available partitions
-    if (partitionLeaders.isEmpty()) return 0;
+    if (table.partitions.length == 0) return 0;
 
     // just return the only one available partition
-    if (partitionLeaders.size() == 1) return partitionLeaders.iterator().next().partition();
-
-    // add new receivers for new brokers
-    receivers.putAll(
-        fetcher
-            .map(
-                fetcher ->
-                    partitionLeaders.stream()
-                        .map(ReplicaInfo::nodeInfo)
-                        .filter(nodeInfo -> !receivers.containsKey(nodeInfo.id()))
-                        .distinct()
-                        .filter(nodeInfo -> jmxPortGetter.apply(nodeInfo.id()).isPresent())
-                        .collect(
-                            Collectors.toMap(
-                                NodeInfo::id,
-                                nodeInfo ->
-                                    receiver(
-                                        nodeInfo.host(),
-                                        jmxPortGetter.apply(nodeInfo.id()).get(),
-                                        fetcher))))
-            .orElse(Map.of()));
+    if (table.partitions.length == 1) return table.partitions[0];
 
     tryToUpdateRoundRobin(clusterInfo);
 
-    return roundRobin
-        .next(partitionLeaders.stream().map(r -> r.nodeInfo().id()).collect(Collectors.toSet()))
-        .flatMap(
-            brokerId ->
-                // TODO: which partition is better when all of them are in same node?
-                partitionLeaders.stream()
-                    .filter(r -> r.nodeInfo().id() == brokerId)
-                    .map(ReplicaInfo::partition)
-                    .findAny())
-        .orElse(0);
+    var brokerId = roundRobin.next(table.brokers);
+    if (brokerId.isEmpty()) return 0;
+    var partitions = table.brokerPartitions.get(brokerId.get());
+    return partitions == null ? 0 : partitions.current();
   }
 
-  void tryToUpdateRoundRobin(ClusterInfo clusterInfo) {
-    if (roundRobin == null || System.currentTimeMillis() >= timeToUpdateRoundRobin) {
-      roundRobin =
-          newRoundRobin(
-              functions,
-              clusterInfo,
-              ClusterBean.of(
-                  receivers.entrySet().stream()
-                      .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().current()))));
-      timeToUpdateRoundRobin = System.currentTimeMillis() + roundRobinLease.toMillis();
+  /**
+   * The producer calls this method when it is going to create a new batch for the partition. The
+   * broker of that partition switches to its next partition, so the records are appended to an open
+   * batch as long as possible.
+   */
+  @Override
+  public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+    var table = tables.tables.get(topic);
+    if (table != null) table.brokerPartitions.values().forEach(p -> p.next(prevPartition));
+  }
+
+  /**
+   * @return the lookup table of topic. The tables are rebuilt only if the cluster info is changed,
+   *     so the hot path of sending records does not traverse the replicas.
+   */
+  PartitionTable table(String topic, ClusterInfo clusterInfo) {
+    var current = tables;
+    if (current.clusterInfo != clusterInfo) {
+      current = new Tables(clusterInfo);
+      tables = current;
     }
+    var table = current.tables.get(topic);
+    if (table != null) return table;
+    var partitionLeaders = clusterInfo.availableReplicaLeaders(topic);
+    table = new PartitionTable(partitionLeaders, underReplicatedPartitions(topic, clusterInfo));
+    // no need to fetch metrics if there is only one available partition
+    if (partitionLeaders.size() > 1) addReceivers(partitionLeaders);
+    var previous = current.tables.putIfAbsent(topic, table);
+    return previous == null ? table : previous;
+  }
+
+  /**
+   * @return the partitions having out-of-sync or offline replicas. The produce requests to them are
+   *     more likely to be slow or failed
+   */
+  static Set<Integer> underReplicatedPartitions(String topic, ClusterInfo clusterInfo) {
+    // ClusterInfo#replicas may return the replicas of all topics, so the topic is filtered
+    return clusterInfo.availableReplicas(topic).stream()
+        .filter(r -> r.topic().equals(topic))
+        .filter(r -> !r.inSync() || r.isOfflineReplica())
+        .map(ReplicaInfo::partition)
+        .collect(Collectors.toSet());
+  }
+
+  void tryToUpdateRoundRobin(ClusterInfo clusterInfo) {
+    roundRobin = refresher.get(clusterInfo);
+  }
+
+  /** @return the round-robin computed by the latest costs. It is called by background thread */
+  RoundRobin<Integer> newRoundRobin(ClusterInfo clusterInfo) {
+    // the receivers are built without waiting for mbeans, so the nodes get the same weight until
+    // all receivers have mbeans
+    return clusterBean()
+        .map(clusterBean -> newRoundRobin(functions, clusterInfo, clusterBean))
+        .orElseGet(() -> uniformRoundRobin(clusterInfo));
+  }
+
+  /**
+   * @param clusterInfo current cluster info
+   * @return the round-robin having same weight for all nodes. It is used when the costs are stale
+   */
+  static RoundRobin<Integer> uniformRoundRobin(ClusterInfo clusterInfo) {
+    return RoundRobin.smooth(
+        clusterInfo.nodes().stream()
+            .collect(Collectors.toMap(NodeInfo::id, ignored -> 1D, (a, b) -> a)));
   }
 
   /**
@@ -160,30 +185,38 @@ public class StrictCostDispatcher implements Dispatcher {
    */
   static RoundRobin<Integer> newRoundRobin(
       Map<CostFunction, Double> costFunctions, ClusterInfo clusterInfo, ClusterBean clusterBean) {
-    var weightedCost =
-        costFunctions.entrySet().stream()
-            .filter(e -> e.getKey() instanceof HasBrokerCost)
-            .flatMap(
-                functionWeight ->
-                    ((HasBrokerCost) functionWeight.getKey())
-                        .brokerCost(clusterInfo, clusterBean).value().entrySet().stream()
-                            .map(
-                                idAndCost ->
-                                    Map.entry(
-                                        idAndCost.getKey(),
-                                        idAndCost.getValue() * functionWeight.getValue())))
-            .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey, Map.Entry::getValue, Double::sum, HashMap::new));
-    return RoundRobin.smooth(costToScore(weightedCost));
+    return RoundRobin.smooth(costToScore(weightedCost(costFunctions, clusterInfo, clusterBean)));
+  }
+
+  /**
+   * sum the broker costs of cost functions by their weights.
+   *
+   * @param costFunctions used to calculate costs. Only {@link HasBrokerCost} is used
+   * @param clusterInfo used to calculate costs
+   * @param clusterBean used to calculate costs
+   * @return the weighted cost of each broker
+   */
+  static Map<Integer, Double> weightedCost(
+      Map<CostFunction, Double> costFunctions, ClusterInfo clusterInfo, ClusterBean clusterBean) {
+    return costFunctions.entrySet().stream()
+        .filter(e -> e.getKey() instanceof HasBrokerCost)
+        .flatMap(
+            functionWeight ->
+                ((HasBrokerCost) functionWeight.getKey())
+                    .brokerCost(clusterInfo, clusterBean).value().entrySet().stream()
+                        .map(
+                            idAndCost ->
+                                Map.entry(
+                                    idAndCost.getKey(),
+                                    idAndCost.getValue() * functionWeight.getValue())))
+        .collect(
+            Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Double::sum, HashMap::new));
   }
 
   @Override
   public void configure(Configuration config) {
-    var configuredFunctions = parseCostFunctionWeight(config);
-
     configure(
-        configuredFunctions.isEmpty() ? Map.of(new NodeLatencyCost(), 1D) : configuredFunctions,
+        costFunctions(config),
         config.integer(JMX_PORT),
         PartitionerUtils.parseIdJMXPort(config),
         config
@@ -192,6 +225,10 @@ public class StrictCostDispatcher implements Dispatcher {
             // The duration of updating beans is 4 seconds, so
             // the default duration of updating RR is 4 seconds.
             .orElse(Duration.ofSeconds(4)));
+    config
+        .string(COST_STALE_TIMEOUT_KEY)
+        .map(DurationField::toDuration)
+        .ifPresent(refresher::staleTimeout);
   }
 
   /**
@@ -200,65 +237,96 @@ public class StrictCostDispatcher implements Dispatcher {
    * @param functions cost functions used by this dispatcher.
    * @param jmxPortDefault jmx port by default
    * @param customJmxPort jmx port for each node
+   * @param roundRobinLease the interval of refreshing costs. The costs older than three leases are
+   *     replaced by uniform weights
    */
   void configure(
       Map<CostFunction, Double> functions,
       Optional<Integer> jmxPortDefault,
       Map<Integer, Integer> customJmxPort,
       Duration roundRobinLease) {
-    this.functions = functions;
-    this.fetcher = Fetcher.of(this.functions.keySet());
-    this.jmxPortGetter = id -> Optional.ofNullable(customJmxPort.get(id)).or(() -> jmxPortDefault);
-
-    // put local mbean client first
-    this.fetcher.ifPresent(
-        f -> receivers.put(-1, beanCollector.register().local().fetcher(f).build()));
+    configureCosts(functions, jmxPortDefault, customJmxPort);
     this.roundRobinLease = roundRobinLease;
+    refresher.interval(roundRobinLease);
+    refresher.staleTimeout(roundRobinLease.multipliedBy(3));
+  }
+
+  /** The lookup tables of topics. They are built from the same cluster info. */
+  static final class Tables {
+    private final ClusterInfo clusterInfo;
+    private final Map<String, PartitionTable> tables = new ConcurrentHashMap<>();
+
+    private Tables(ClusterInfo clusterInfo) {
+      this.clusterInfo = clusterInfo;
+    }
+  }
+
+  /** The available partitions of a topic and the leader partitions of each broker. */
+  static final class PartitionTable {
+    final int[] partitions;
+    final Set<Integer> brokers;
+    final Map<Integer, int[]> leaders;
+    final Map<Integer, BrokerPartitions> brokerPartitions;
+
+    PartitionTable(List<ReplicaInfo> partitionLeaders, Set<Integer> underReplicated) {
+      this.partitions = partitionLeaders.stream().mapToInt(ReplicaInfo::partition).toArray();
+      this.leaders =
+          partitionLeaders.stream()
+              .collect(
+                  Collectors.groupingBy(
+                      r -> r.nodeInfo().id(),
+                      Collectors.collectingAndThen(
+                          Collectors.toList(),
+                          rs -> rs.stream().mapToInt(ReplicaInfo::partition).toArray())));
+      this.brokers = Set.copyOf(leaders.keySet());
+      this.brokerPartitions =
+          leaders.entrySet().stream()
+              .collect(
+                  Collectors.toUnmodifiableMap(
+                      Map.Entry::getKey,
+                      e -> new BrokerPartitions(e.getValue(), underReplicated)));
+    }
   }
 
   /**
-   * Helps parse cost-function names and weights. The format of the key and value is "<CostFunction
-   * name>"="<weight>". For example, {"org.astraea.cost.broker.BrokerInputCost", "20"} will be
-   * parsed to {(BrokerInputCost object), 20.0}.
-   *
-   * @param config that contains cost-function names and its corresponding weight
-   * @return pairs of cost-function object and its corresponding weight
+   * The leader partitions of a broker. The current partition is kept until the producer creates a
+   * new batch for it, so the open batch gets filled before the records go to another partition. The
+   * under-replicated partitions are skipped unless all partitions of the broker are
+   * under-replicated.
    */
-  public static Map<CostFunction, Double> parseCostFunctionWeight(Configuration config) {
-    return config.entrySet().stream()
-        .map(
-            nameAndWeight -> {
-              Class<?> name;
-              double weight;
-              try {
-                name = Class.forName(nameAndWeight.getKey());
-                weight = Double.parseDouble(nameAndWeight.getValue());
-                if (weight < 0.0)
-                  throw new IllegalArgumentException("Cost-function weight should not be negative");
-              } catch (ClassNotFoundException ignore) {
-                /* To delete all config option that is not for configuring cost-function. */
-                return null;
-              }
-              return Map.entry(name, weight);
-            })
-        .filter(Objects::nonNull)
-        .filter(e -> CostFunction.class.isAssignableFrom(e.getKey()))
-        .map(
-            e -> {
-              try {
-                return Map.entry(
-                    (CostFunction) e.getKey().getConstructor().newInstance(), e.getValue());
-              } catch (Exception ex) {
-                ex.printStackTrace();
-                throw new IllegalArgumentException(ex);
-              }
-            })
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  static final class BrokerPartitions {
+    final int[] partitions;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    BrokerPartitions(int[] partitions, Set<Integer> underReplicated) {
+      var healthy = Arrays.stream(partitions).filter(p -> !underReplicated.contains(p)).toArray();
+      this.partitions = healthy.length == 0 ? partitions : healthy;
+    }
+
+    /** @return the partition which is receiving records */
+    int current() {
+      return partitions[index(cursor.get())];
+    }
+
+    /**
+     * switch to next partition if the previous partition is the current one.
+     *
+     * @param prevPartition the partition having a new batch
+     */
+    void next(int prevPartition) {
+      var c = cursor.get();
+      // other thread may switch the partition already
+      if (partitions[index(c)] == prevPartition) cursor.compareAndSet(c, c + 1);
+    }
+
+    private int index(int cursor) {
+      return (cursor & Integer.MAX_VALUE) % partitions.length;
+    }
   }
 
   @Override
   public void close() {
-    receivers.values().forEach(r -> Utils.swallowException(r::close));
-    receivers.clear();
+    refresher.close();
+    super.close();
   }
 }
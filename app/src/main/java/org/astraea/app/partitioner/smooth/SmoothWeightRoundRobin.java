@@ -17,10 +17,9 @@
 package org.astraea.app.partitioner.smooth;
 
 import java.time.Duration;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.cost.CostUtils;
@@ -49,22 +48,27 @@ import org.astraea.app.cost.Periodic;
  * ||----------6-----------||------ {9,-1,-1} ------||----Broker1----||----- { 2,-1,-1} -----||
  * ||----------7-----------||------ {7, 0, 0} ------||----Broker1----||----- { 0, 0, 0} -----||
  * ||======================||=======================||===============||======================||
+ *
+ * <p>Each thread owns its current weights, so choosing a broker takes no lock. The threads share
+ * the effective weights, so the brokers chosen by all threads still follow the weights.
  */
 public final class SmoothWeightRoundRobin
     extends Periodic<SmoothWeightRoundRobin.EffectiveWeightResult> {
-  private EffectiveWeightResult effectiveWeightResult;
-  private Map<Integer, Double> currentWeight;
+  // the brokers which can be chosen. They are sorted, so the tie goes to the smaller id
+  private final int[] ids;
+  private volatile EffectiveWeightResult effectiveWeightResult;
+  private final ThreadLocal<double[]> currentWeight;
 
-  private final Map<String, List<Integer>> brokersIDofTopic = new HashMap<>();
+  // the brokers of topics. They are rebuilt when the cluster info is changed
+  private volatile Topics topics = new Topics(null);
 
   public SmoothWeightRoundRobin(Map<Integer, Double> effectiveWeight) {
     effectiveWeightResult =
         new EffectiveWeightResult(
             effectiveWeight.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, ignored -> 1.0)));
-    currentWeight =
-        effectiveWeight.entrySet().stream()
-            .collect(Collectors.toMap(Map.Entry::getKey, ignored -> 0.0));
+    ids = effectiveWeight.keySet().stream().mapToInt(id -> id).sorted().toArray();
+    currentWeight = ThreadLocal.withInitial(() -> new double[ids.length]);
   }
 
   public synchronized void init(Map<Integer, Double> brokerScore) {
@@ -92,58 +96,66 @@ public final class SmoothWeightRoundRobin
   }
 
   /**
-   * Get the preferred ID, and update the state.
+   * Get the preferred ID, and update the state of current thread.
    *
    * @return the preferred ID
    */
-  public synchronized int getAndChoose(String topic, ClusterInfo clusterInfo) {
-    // TODO Update brokerID with ClusterInfo frequency.
-    var brokerID =
-        brokersIDofTopic.computeIfAbsent(
-            topic,
-            e ->
-                clusterInfo.availableReplicaLeaders(topic).stream()
-                    .map(replicaInfo -> replicaInfo.nodeInfo().id())
-                    .collect(Collectors.toList()));
-    this.currentWeight =
-        this.currentWeight.entrySet().stream()
-            .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey,
-                    e ->
-                        brokerID.contains(e.getKey())
-                            ? e.getValue() + effectiveWeightResult.effectiveWeight.get(e.getKey())
-                            : e.getValue()));
-    var maxID =
-        this.currentWeight.entrySet().stream()
-            .filter(entry -> brokerID.contains(entry.getKey()))
-            .max(Comparator.comparingDouble(Map.Entry::getValue))
-            .map(Map.Entry::getKey)
-            .orElse(0);
-    this.currentWeight =
-        this.currentWeight.entrySet().stream()
-            .collect(
-                Collectors.toMap(
-                    Map.Entry::getKey,
-                    e ->
-                        e.getKey().equals(maxID)
-                            ? e.getValue() - effectiveWeightResult.effectiveWeightSum(brokerID)
-                            : e.getValue()));
-    return maxID;
+  public int getAndChoose(String topic, ClusterInfo clusterInfo) {
+    var indexes = indexes(topic, clusterInfo);
+    if (indexes.length == 0) return 0;
+    var weights = effectiveWeightResult.weights;
+    var current = currentWeight.get();
+    var max = indexes[0];
+    var sum = 0D;
+    for (var index : indexes) {
+      current[index] += weights[index];
+      sum += weights[index];
+      if (current[index] > current[max]) max = index;
+    }
+    current[max] -= sum;
+    return ids[max];
+  }
+
+  /** @return the sorted indexes of brokers hosting the leaders of topic */
+  private int[] indexes(String topic, ClusterInfo clusterInfo) {
+    var current = topics;
+    if (current.clusterInfo != clusterInfo) {
+      current = new Topics(clusterInfo);
+      topics = current;
+    }
+    return current.indexes.computeIfAbsent(
+        topic,
+        t ->
+            clusterInfo.availableReplicaLeaders(t).stream()
+                .mapToInt(replicaInfo -> Arrays.binarySearch(ids, replicaInfo.nodeInfo().id()))
+                .filter(index -> index >= 0)
+                .distinct()
+                .sorted()
+                .toArray());
+  }
+
+  /** The brokers of topics. They are built from the same cluster info. */
+  private static final class Topics {
+    private final ClusterInfo clusterInfo;
+    private final Map<String, int[]> indexes = new ConcurrentHashMap<>();
+
+    private Topics(ClusterInfo clusterInfo) {
+      this.clusterInfo = clusterInfo;
+    }
   }
 
   public static class EffectiveWeightResult {
     private final Map<Integer, Double> effectiveWeight;
+    // the weights ordered by broker id. They are read by the threads choosing brokers
+    private final double[] weights;
 
     EffectiveWeightResult(Map<Integer, Double> effectiveWeight) {
       this.effectiveWeight = effectiveWeight;
-    }
-
-    double effectiveWeightSum(List<Integer> brokerID) {
-      return effectiveWeight.entrySet().stream()
-          .filter(entry -> brokerID.contains(entry.getKey()))
-          .mapToDouble(Map.Entry::getValue)
-          .sum();
+      this.weights =
+          effectiveWeight.entrySet().stream()
+              .sorted(Map.Entry.comparingByKey())
+              .mapToDouble(Map.Entry::getValue)
+              .toArray();
     }
   }
 }
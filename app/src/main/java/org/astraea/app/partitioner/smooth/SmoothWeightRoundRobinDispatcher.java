@@ -17,8 +17,6 @@
 package org.astraea.app.partitioner.smooth;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -27,91 +25,115 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.apache.kafka.common.Cluster;
-import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.admin.NodeInfo;
 import org.astraea.app.admin.ReplicaInfo;
 import org.astraea.app.common.Utils;
 import org.astraea.app.cost.NeutralIntegratedCost;
-import org.astraea.app.cost.Periodic;
-import org.astraea.app.metrics.HasBeanObject;
 import org.astraea.app.metrics.collector.BeanCollector;
 import org.astraea.app.metrics.collector.Receiver;
 import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.partitioner.ClusterInfoCache;
 import org.astraea.app.partitioner.Configuration;
+import org.astraea.app.partitioner.CostRefresher;
 import org.astraea.app.partitioner.Dispatcher;
 import org.astraea.app.partitioner.PartitionerUtils;
 
-public class SmoothWeightRoundRobinDispatcher extends Periodic<Map<Integer, Double>>
-    implements Dispatcher {
-  private final ConcurrentLinkedDeque<Integer> unusedPartitions = new ConcurrentLinkedDeque<>();
-  private final ConcurrentMap<String, BrokerNextCounter> topicCounter = new ConcurrentHashMap<>();
+/**
+ * This dispatcher chooses the broker by {@link SmoothWeightRoundRobin}, and then the leader
+ * partitions of that broker are used in turn. The weights are computed by {@link
+ * NeutralIntegratedCost} in the background, and the partition tables are rebuilt from each cluster
+ * info. Hence, the threads sending records share no lock.
+ */
+public class SmoothWeightRoundRobinDispatcher implements Dispatcher {
+  private final ConcurrentMap<String, ConcurrentLinkedDeque<Integer>> unusedPartitions =
+      new ConcurrentHashMap<>();
   private final BeanCollector beanCollector =
       BeanCollector.builder()
           .interval(Duration.ofSeconds(1))
-          .numberOfObjectsPerNode(1)
           .clientCreator(MBeanClient::jndi)
           .build();
   private final Optional<Integer> jmxPortDefault = Optional.empty();
   private final Map<Integer, Integer> jmxPorts = new TreeMap<>();
-  private final Map<Integer, Receiver> receivers = new TreeMap<>();
+  // the receivers are read by the thread refreshing costs
+  private final Map<Integer, Receiver> receivers = new ConcurrentSkipListMap<>();
 
-  private final Map<Integer, List<Integer>> hasPartitions = new TreeMap<>();
+  // the partition tables of topics. They are rebuilt when the cluster info is changed
+  private volatile Tables tables = new Tables(null);
 
   private SmoothWeightRoundRobin smoothWeightRoundRobinCal;
 
   private final NeutralIntegratedCost neutralIntegratedCost = new NeutralIntegratedCost();
 
-  private Map<Integer, Collection<HasBeanObject>> beans;
-  private List<ReplicaInfo> partitions;
+  // the costs are computed by background thread, so sending records is not blocked by jmx
+  private final CostRefresher<SmoothWeightRoundRobin> refresher =
+      CostRefresher.of(
+          Duration.ofSeconds(1),
+          Duration.ofSeconds(10),
+          this::refreshWeights,
+          SmoothWeightRoundRobinDispatcher::uniform);
+
+  // the latest cluster info of this dispatcher
+  private final ClusterInfoCache.Local clusterInfoCache = CLUSTER_CACHE.local();
 
   public static final String JMX_PORT = "jmx.port";
 
+  @Override
+  public ClusterInfo clusterInfo(Cluster cluster) {
+    return clusterInfoCache.get(cluster);
+  }
+
   @Override
   public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
-    var targetPartition = unusedPartitions.poll();
-    tryUpdateAfterOneSecond(
-        () -> {
-          refreshPartitionMetaData(clusterInfo, topic);
-          // fetch the latest beans for each node
-          beans =
-              receivers.entrySet().stream()
-                  .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().current()));
-
-          var compoundScore =
-              neutralIntegratedCost.brokerCost(clusterInfo, ClusterBean.of(beans)).value();
-
-          if (smoothWeightRoundRobinCal == null) {
-            smoothWeightRoundRobinCal = new SmoothWeightRoundRobin(compoundScore);
-          }
-          smoothWeightRoundRobinCal.init(compoundScore);
-
-          return compoundScore;
-        });
+    var table = table(topic, clusterInfo);
     // just return first partition if there is no available partitions
-    if (partitions.isEmpty()) return 0;
+    if (table.partitions.length == 0) return 0;
 
     // just return the only one available partition
-    if (partitions.size() == 1) return partitions.iterator().next().partition();
-
-    if (targetPartition == null) {
-      var targetBroker = smoothWeightRoundRobinCal.getAndChoose(topic, clusterInfo);
-      targetPartition =
-          hasPartitions
-              .get(targetBroker)
-              .get(
-                  nextValue(topic, clusterInfo, targetBroker)
-                      % hasPartitions.get(targetBroker).size());
+    if (table.partitions.length == 1) return table.partitions[0];
+
+    var unused = unusedPartitions.get(topic);
+    var targetPartition = unused == null ? null : unused.poll();
+    if (targetPartition != null) return targetPartition;
+
+    var targetBroker = refresher.get(clusterInfo).getAndChoose(topic, clusterInfo);
+    var partitions = table.leaders.get(targetBroker);
+    if (partitions == null) return table.partitions[0];
+    var counter = table.counters.get(targetBroker).getAndIncrement();
+    return partitions[(counter & Integer.MAX_VALUE) % partitions.length];
+  }
+
+  /** @return the round-robin weighted by the latest costs. It is called by background thread */
+  private SmoothWeightRoundRobin refreshWeights(ClusterInfo clusterInfo) {
+    // the receivers are built without waiting for mbeans, so the brokers get the same weight until
+    // all receivers have mbeans
+    if (receivers.values().stream().anyMatch(r -> r.current().isEmpty()))
+      return uniform(clusterInfo);
+    // fetch the latest beans for each node
+    var compoundScore =
+        neutralIntegratedCost.brokerCost(clusterInfo, beanCollector.clusterBean(receivers)).value();
+
+    if (smoothWeightRoundRobinCal == null) {
+      smoothWeightRoundRobinCal = new SmoothWeightRoundRobin(compoundScore);
     }
+    smoothWeightRoundRobinCal.init(compoundScore);
+    return smoothWeightRoundRobinCal;
+  }
 
-    return targetPartition;
+  /** @return the round-robin having same weight for all nodes. It is used if costs are stale */
+  private static SmoothWeightRoundRobin uniform(ClusterInfo clusterInfo) {
+    return new SmoothWeightRoundRobin(
+        clusterInfo.nodes().stream()
+            .collect(Collectors.toMap(NodeInfo::id, ignored -> 1D, (a, b) -> a)));
   }
 
   @Override
   public void close() {
+    refresher.close();
     receivers.values().forEach(r -> Utils.swallowException(r::close));
     receivers.clear();
   }
@@ -137,7 +159,7 @@ public class SmoothWeightRoundRobinDispatcher extends Periodic<Map<Integer, Doub
 
   @Override
   public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
-    unusedPartitions.add(prevPartition);
+    unusedPartitions.computeIfAbsent(topic, t -> new ConcurrentLinkedDeque<>()).add(prevPartition);
   }
 
   int jmxPort(int id) {
@@ -156,37 +178,60 @@ public class SmoothWeightRoundRobinDispatcher extends Periodic<Map<Integer, Doub
         .build();
   }
 
-  private int nextValue(String topic, ClusterInfo clusterInfo, int targetBroker) {
-    return topicCounter
-        .computeIfAbsent(topic, k -> new BrokerNextCounter(clusterInfo))
-        .brokerCounter
-        .get(targetBroker)
-        .getAndIncrement();
+  /**
+   * @return the partition table of topic. The table is built from the cluster info as a whole, so
+   *     the partitions of removed brokers never remain.
+   */
+  PartitionTable table(String topic, ClusterInfo clusterInfo) {
+    var current = tables;
+    if (current.clusterInfo != clusterInfo) {
+      current = new Tables(clusterInfo);
+      tables = current;
+    }
+    var table = current.tables.get(topic);
+    if (table != null) return table;
+    var partitionLeaders = clusterInfo.availableReplicaLeaders(topic);
+    partitionLeaders.stream()
+        .map(ReplicaInfo::nodeInfo)
+        .forEach(
+            nodeInfo ->
+                receivers.computeIfAbsent(
+                    nodeInfo.id(), id -> receiver(nodeInfo.host(), jmxPort(id))));
+    table = new PartitionTable(partitionLeaders);
+    var previous = current.tables.putIfAbsent(topic, table);
+    return previous == null ? table : previous;
   }
 
-  private void refreshPartitionMetaData(ClusterInfo clusterInfo, String topic) {
-    partitions = clusterInfo.availableReplicas(topic);
-    partitions.forEach(
-        p ->
-            hasPartitions
-                .computeIfAbsent(p.nodeInfo().id(), k -> new ArrayList<>())
-                .add(p.partition()));
+  /** The partition tables of topics. They are built from the same cluster info. */
+  private static final class Tables {
+    private final ClusterInfo clusterInfo;
+    private final Map<String, PartitionTable> tables = new ConcurrentHashMap<>();
 
-    partitions.stream()
-        .filter(p -> !receivers.containsKey(p.nodeInfo().id()))
-        .forEach(
-            p ->
-                receivers.put(
-                    p.nodeInfo().id(), receiver(p.nodeInfo().host(), jmxPort(p.nodeInfo().id()))));
+    private Tables(ClusterInfo clusterInfo) {
+      this.clusterInfo = clusterInfo;
+    }
   }
 
-  private static class BrokerNextCounter {
-    private final Map<Integer, AtomicInteger> brokerCounter;
-
-    BrokerNextCounter(ClusterInfo clusterInfo) {
-      brokerCounter =
-          clusterInfo.nodes().stream()
-              .collect(Collectors.toMap(NodeInfo::id, node -> new AtomicInteger(0)));
+  /** The available partitions of a topic and the leader partitions of each broker. */
+  static final class PartitionTable {
+    final int[] partitions;
+    final Map<Integer, int[]> leaders;
+    // the next partition of each broker
+    private final Map<Integer, AtomicInteger> counters;
+
+    PartitionTable(List<ReplicaInfo> partitionLeaders) {
+      this.partitions = partitionLeaders.stream().mapToInt(ReplicaInfo::partition).toArray();
+      this.leaders =
+          partitionLeaders.stream()
+              .collect(
+                  Collectors.groupingBy(
+                      r -> r.nodeInfo().id(),
+                      Collectors.collectingAndThen(
+                          Collectors.toList(),
+                          rs -> rs.stream().mapToInt(ReplicaInfo::partition).toArray())));
+      this.counters =
+          leaders.keySet().stream()
+              .collect(Collectors.toUnmodifiableMap(id -> id, id -> new AtomicInteger()));
     }
   }
 }
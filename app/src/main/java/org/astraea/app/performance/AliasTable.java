@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.SplittableRandom;
+
+/**
+ * Walker's alias method for sampling a discrete distribution in O(1). The table is built by Vose's
+ * algorithm in O(n), and it is kept by primitive arrays. This is immutable and thread-safe.
+ */
+final class AliasTable {
+
+  private final long[] values;
+  private final double[] probabilities;
+  private final int[] aliases;
+
+  /**
+   * @param values the values to sample
+   * @param weights the relative weights of values. They must be non-negative, and at least one of
+   *     them is positive
+   */
+  AliasTable(long[] values, double[] weights) {
+    if (values.length != weights.length)
+      throw new IllegalArgumentException("the number of values and weights must be equal");
+    if (values.length == 0) throw new IllegalArgumentException("there is no value");
+    var n = values.length;
+    var sum = 0D;
+    for (var w : weights) {
+      if (w < 0 || Double.isNaN(w))
+        throw new IllegalArgumentException("the weight must be non-negative, but it is " + w);
+      sum += w;
+    }
+    if (sum <= 0) throw new IllegalArgumentException("all weights are zero");
+
+    this.values = values.clone();
+    this.probabilities = new double[n];
+    this.aliases = new int[n];
+
+    // the stacks of indexes whose scaled weights are smaller/larger than 1
+    var scaled = new double[n];
+    var small = new int[n];
+    var large = new int[n];
+    var smallSize = 0;
+    var largeSize = 0;
+    for (var i = 0; i != n; ++i) {
+      scaled[i] = weights[i] * n / sum;
+      if (scaled[i] < 1) small[smallSize++] = i;
+      else large[largeSize++] = i;
+    }
+    while (smallSize > 0 && largeSize > 0) {
+      var less = small[--smallSize];
+      var more = large[--largeSize];
+      probabilities[less] = scaled[less];
+      aliases[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1;
+      if (scaled[more] < 1) small[smallSize++] = more;
+      else large[largeSize++] = more;
+    }
+    // the remaining are 1 if there is no rounding error
+    while (largeSize > 0) probabilities[large[--largeSize]] = 1;
+    while (smallSize > 0) probabilities[small[--smallSize]] = 1;
+  }
+
+  /**
+   * @param rand random generator
+   * @return a value picked by the weights
+   */
+  long sample(SplittableRandom rand) {
+    var index = rand.nextInt(values.length);
+    return rand.nextDouble() < probabilities[index] ? values[index] : values[aliases[index]];
+  }
+
+  /** @return the number of values */
+  int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.app.argument.DurationField;
+
+/**
+ * The changes of a simulated cluster over time. The timeline is loaded from a file, or it is built
+ * from the synthetic slowdowns. Each line of the file is an event in the format:
+ *
+ * <pre>{@code
+ * (time in ms),capacity,(broker id),(bytes per second)
+ * (time in ms),leader,(partition),(broker id)
+ * }</pre>
+ *
+ * For example, "5000,capacity,1,1048576" means broker 1 drains 1MiB per second after 5 seconds, and
+ * "8000,leader,3,2" means the leader of partition 3 moves to broker 2 after 8 seconds. The empty
+ * lines and the lines starting with "#" are skipped. The broker ids and partitions must exist in
+ * the simulated cluster, and the capacity must be positive.
+ */
+final class ClusterTimeline {
+
+  enum Type {
+    CAPACITY,
+    LEADER
+  }
+
+  /** A change of cluster. */
+  static final class Event {
+    final long millis;
+    final Type type;
+    /** the broker id of capacity event, or the partition of leader event */
+    final int id;
+    /** the bytes per second of capacity event, or the broker id of leader event */
+    final double value;
+
+    Event(long millis, Type type, int id, double value) {
+      this.millis = millis;
+      this.type = type;
+      this.id = id;
+      this.value = value;
+    }
+  }
+
+  static final ClusterTimeline EMPTY = new ClusterTimeline(List.of());
+
+  /**
+   * @param path of timeline file
+   * @param brokers the number of simulated brokers
+   * @param partitions the number of simulated partitions
+   * @return the timeline loaded from file
+   * @throws IOException if the file can't be read
+   * @throws IllegalArgumentException if any event is invalid. The message has the line number
+   */
+  static ClusterTimeline of(Path path, int brokers, int partitions) throws IOException {
+    try (var lines = Files.lines(path)) {
+      return of(lines, brokers, partitions);
+    }
+  }
+
+  static ClusterTimeline of(Stream<String> lines, int brokers, int partitions) {
+    var events = new ArrayList<Event>();
+    var lineNumber = 0;
+    for (var line : (Iterable<String>) lines::iterator) {
+      lineNumber++;
+      var trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+      try {
+        events.add(event(trimmed, brokers, partitions));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "invalid event at line " + lineNumber + ": \"" + trimmed + "\". " + e.getMessage(), e);
+      }
+    }
+    return new ClusterTimeline(events);
+  }
+
+  private static Event event(String line, int brokers, int partitions) {
+    var items = line.split(",");
+    if (items.length != 4)
+      throw new IllegalArgumentException(
+          "the event should have 4 fields, but it has " + items.length);
+    var event =
+        new Event(
+            Long.parseLong(items[0].trim()),
+            Type.valueOf(items[1].trim().toUpperCase()),
+            Integer.parseInt(items[2].trim()),
+            Double.parseDouble(items[3].trim()));
+    if (event.millis < 0)
+      throw new IllegalArgumentException("the time should be non-negative: " + event.millis);
+    if (event.type == Type.CAPACITY) {
+      checkBroker(event.id, brokers);
+      if (!(event.value > 0))
+        throw new IllegalArgumentException("the capacity should be positive: " + event.value);
+    } else {
+      if (event.id < 0 || event.id >= partitions)
+        throw new IllegalArgumentException(
+            "the partition should be in [0, " + partitions + "), but it is " + event.id);
+      if (event.value != Math.rint(event.value))
+        throw new IllegalArgumentException("the broker id should be integer: " + event.value);
+      checkBroker((int) event.value, brokers);
+    }
+    return event;
+  }
+
+  private static void checkBroker(int id, int brokers) {
+    if (id < 0 || id >= brokers)
+      throw new IllegalArgumentException(
+          "the broker id should be in [0, " + brokers + "), but it is " + id);
+  }
+
+  /**
+   * @param slowdowns the key is "(broker id)@(time)" and the value is the ratio of capacity. For
+   *     example, {"1@5s": "0.2"} means broker 1 runs at 20% capacity after 5 seconds
+   * @param capacity the normal bytes per second of brokers
+   * @param brokers the number of simulated brokers
+   * @return the timeline of slowdowns
+   */
+  static ClusterTimeline slowdowns(Map<String, String> slowdowns, double capacity, int brokers) {
+    return new ClusterTimeline(
+        slowdowns.entrySet().stream()
+            .map(
+                e -> {
+                  var items = e.getKey().split("@");
+                  if (items.length != 2)
+                    throw new IllegalArgumentException(
+                        "the slowdown should be \"(broker id)@(time)=(ratio)\", but it is "
+                            + e.getKey());
+                  var event =
+                      new Event(
+                          DurationField.toDuration(items[1].trim()).toMillis(),
+                          Type.CAPACITY,
+                          Integer.parseInt(items[0].trim()),
+                          capacity * Double.parseDouble(e.getValue()));
+                  checkBroker(event.id, brokers);
+                  if (!(event.value > 0))
+                    throw new IllegalArgumentException(
+                        "the ratio of slowdown should be positive, but it is " + e.getValue());
+                  return event;
+                })
+            .collect(Collectors.toList()));
+  }
+
+  private final List<Event> events;
+
+  private ClusterTimeline(List<Event> events) {
+    // the sort is stable, so the events of same time are applied in the order of file
+    var sorted = new ArrayList<>(events);
+    sorted.sort(Comparator.comparingLong(e -> e.millis));
+    this.events = List.copyOf(sorted);
+  }
+
+  /** @return the events sorted by time */
+  List<Event> events() {
+    return events;
+  }
+
+  /**
+   * @param other timeline
+   * @return a timeline having the events of both timelines
+   */
+  ClusterTimeline merge(ClusterTimeline other) {
+    return new ClusterTimeline(
+        Stream.concat(events.stream(), other.events.stream()).collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.app.admin.Admin;
+import org.astraea.app.common.DataUnit;
+import org.astraea.app.common.Utils;
+
+/**
+ * The coordinator of distributed run. One JVM can't saturate a large cluster, so the producers and
+ * consumers are run by many {@link Worker} processes. The coordinator starts all workers at the
+ * same time, and it merges the metrics reported by the workers into one report. The workers get
+ * their share of producers, consumers, records and partitions by the worker id. The run fails if a
+ * started worker does not report within {@link #REPORT_TIMEOUT}, since a dead remote worker would
+ * never send its last report.
+ */
+final class Coordinator implements AutoCloseable {
+
+  private static final Gson GSON = new Gson();
+  /** the workers start producing after this delay, so they start at the same time */
+  static final Duration START_DELAY = Duration.ofSeconds(1);
+  /** the workers report every second, so a worker is lost if it does not report in this time */
+  static final Duration REPORT_TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpServer server;
+  // the starting requests are blocked until all workers are ready, so the server needs many threads
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final int workers;
+  private final boolean hasConsumers;
+  private final Duration reportTimeout;
+  private final String groupId = "groupId-" + System.currentTimeMillis();
+  private final Set<Integer> readyWorkers = ConcurrentHashMap.newKeySet();
+  private final CountDownLatch ready;
+  private long startTime = -1;
+  // the reports of each worker in time order
+  private final List<List<Worker.Report>> reports;
+  // the time in ms of the latest report of each worker
+  private final AtomicLongArray reportTimes;
+
+  /**
+   * @param port to bind. Zero means a random port
+   * @param workers the number of workers
+   * @param hasConsumers true if the workers run consumers
+   */
+  Coordinator(int port, int workers, boolean hasConsumers) throws IOException {
+    this(port, workers, hasConsumers, REPORT_TIMEOUT);
+  }
+
+  // visible for test
+  Coordinator(int port, int workers, boolean hasConsumers, Duration reportTimeout)
+      throws IOException {
+    this.workers = workers;
+    this.hasConsumers = hasConsumers;
+    this.reportTimeout = reportTimeout;
+    this.reportTimes = new AtomicLongArray(workers);
+    this.ready = new CountDownLatch(workers);
+    this.reports =
+        IntStream.range(0, workers)
+            .<List<Worker.Report>>mapToObj(i -> new CopyOnWriteArrayList<>())
+            .collect(Collectors.toUnmodifiableList());
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    server.setExecutor(executor);
+    server.createContext(
+        "/join",
+        exchange ->
+            reply(
+                exchange,
+                () -> join(Integer.parseInt(exchange.getRequestURI().getQuery().split("=")[1]))));
+    server.createContext(
+        "/start",
+        exchange ->
+            reply(
+                exchange,
+                () -> start(Integer.parseInt(exchange.getRequestURI().getQuery().split("=")[1]))));
+    server.createContext(
+        "/report",
+        exchange ->
+            reply(
+                exchange,
+                () ->
+                    report(
+                        GSON.fromJson(
+                            new String(
+                                exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8),
+                            Worker.Report.class))));
+    server.start();
+  }
+
+  int port() {
+    return server.getAddress().getPort();
+  }
+
+  private Worker.Join join(int worker) {
+    check(worker);
+    var join = new Worker.Join();
+    join.groupId = groupId;
+    return join;
+  }
+
+  /** block until all workers are ready to produce */
+  private Worker.Start start(int worker) throws InterruptedException {
+    check(worker);
+    if (readyWorkers.add(worker)) ready.countDown();
+    ready.await();
+    var start = new Worker.Start();
+    synchronized (this) {
+      if (startTime < 0) startTime = System.currentTimeMillis() + START_DELAY.toMillis();
+      start.startTime = startTime;
+    }
+    return start;
+  }
+
+  private void check(int worker) {
+    if (worker < 0 || worker >= workers)
+      throw new IllegalArgumentException("the worker id must be in [0, " + workers + ")");
+  }
+
+  private Worker.Ack report(Worker.Report report) {
+    check(report.worker);
+    reports.get(report.worker).add(report);
+    reportTimes.set(report.worker, System.currentTimeMillis());
+    var ack = new Worker.Ack();
+    ack.consumedDone = consumedDone();
+    return ack;
+  }
+
+  /** @return true if all workers have finished producing and all records are consumed */
+  boolean consumedDone() {
+    var latest = new ArrayList<Worker.Report>();
+    for (var rs : reports) {
+      if (rs.isEmpty() || !rs.get(rs.size() - 1).producerDone) return false;
+      latest.add(rs.get(rs.size() - 1));
+    }
+    return !hasConsumers
+        || latest.stream().mapToLong(r -> r.consumedRecords).sum()
+            >= latest.stream().mapToLong(r -> r.producedRecords).sum();
+  }
+
+  /**
+   * @return the workers which have started producing but not reported within the timeout. The
+   *     workers which have sent the last report are not included
+   */
+  Set<Integer> lostWorkers() {
+    long start;
+    synchronized (this) {
+      start = startTime;
+    }
+    if (start < 0) return Set.of();
+    var now = System.currentTimeMillis();
+    return IntStream.range(0, workers)
+        .filter(i -> !done(reports.get(i)))
+        .filter(i -> now - Math.max(start, reportTimes.get(i)) > reportTimeout.toMillis())
+        .boxed()
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  /** @return true if all workers have sent the last report */
+  boolean done() {
+    return reports.stream().allMatch(Coordinator::done);
+  }
+
+  private static boolean done(List<Worker.Report> reports) {
+    return !reports.isEmpty() && reports.get(reports.size() - 1).done;
+  }
+
+  /**
+   * @return the merged cumulative metrics of each second. A worker which was done earlier
+   *     contributes its last report to the later seconds
+   */
+  List<Performance.Checkpoint> series() {
+    var seconds =
+        reports.stream()
+            .filter(rs -> !rs.isEmpty())
+            .mapToLong(rs -> Math.round(rs.get(rs.size() - 1).elapsed / 1000D))
+            .max()
+            .orElse(0);
+    var series = new ArrayList<Performance.Checkpoint>();
+    for (var second = 1; second <= seconds; ++second) {
+      var end = second * 1000L + 500;
+      series.add(
+          merge(
+              Duration.ofSeconds(second),
+              reports.stream()
+                  .map(
+                      rs ->
+                          rs.stream()
+                              .filter(r -> r.elapsed < end)
+                              .reduce((previous, next) -> next)
+                              .orElse(null))
+                  .filter(r -> r != null)
+                  .collect(Collectors.toUnmodifiableList())));
+    }
+    return series;
+  }
+
+  /** @return the merged metrics of the last reports */
+  Performance.Checkpoint total() {
+    var last =
+        reports.stream()
+            .filter(rs -> !rs.isEmpty())
+            .map(rs -> rs.get(rs.size() - 1))
+            .collect(Collectors.toUnmodifiableList());
+    return merge(
+        Duration.ofMillis(last.stream().mapToLong(r -> r.elapsed).max().orElse(0)), last);
+  }
+
+  private static Performance.Checkpoint merge(Duration elapsed, List<Worker.Report> reports) {
+    var producedBytes = 0L;
+    var consumedBytes = 0L;
+    var publishLatencies = Histogram.Snapshot.EMPTY;
+    var e2eLatencies = Histogram.Snapshot.EMPTY;
+    for (var report : reports) {
+      var checkpoint = report.checkpoint();
+      producedBytes += checkpoint.producedBytes;
+      consumedBytes += checkpoint.consumedBytes;
+      publishLatencies = publishLatencies.add(checkpoint.publishLatencies);
+      e2eLatencies = e2eLatencies.add(checkpoint.e2eLatencies);
+    }
+    return new Performance.Checkpoint(
+        elapsed, producedBytes, consumedBytes, publishLatencies, e2eLatencies);
+  }
+
+  @FunctionalInterface
+  private interface Action {
+    Object run() throws Exception;
+  }
+
+  private static void reply(HttpExchange exchange, Action action) throws IOException {
+    var code = 200;
+    String body;
+    try {
+      body = GSON.toJson(action.run());
+    } catch (Exception e) {
+      code = 500;
+      body = GSON.toJson(Map.of("message", String.valueOf(e.getMessage())));
+    }
+    var bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(code, bytes.length);
+    try (var output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Run the coordinator and the local workers, and then print the merged report.
+   *
+   * @param argument of coordinator
+   * @param args the command-line arguments passed to the local workers
+   */
+  static void execute(Performance.Argument argument, String[] args)
+      throws IOException, InterruptedException {
+    if (argument.traceFile != null || argument.searchSlo != null)
+      throw new IllegalArgumentException(
+          "the distributed run does not support trace replay and throughput search");
+    Worker.check(argument);
+    // the topic is created before starting workers to avoid the race of creation
+    try (var admin = Admin.of(argument.configs())) {
+      admin
+          .creator()
+          .numberOfReplicas(argument.replicas)
+          .numberOfPartitions(argument.partitions)
+          .topic(argument.topic)
+          .create();
+      Utils.waitFor(() -> admin.topicNames().contains(argument.topic));
+    }
+    var processes = new ArrayList<Process>();
+    try (var coordinator =
+        new Coordinator(argument.coordinatorPort, argument.workers, argument.consumers > 0)) {
+      System.out.println(
+          "coordinator is listening on port "
+              + coordinator.port()
+              + ". The remote workers should be started with \"--topic "
+              + argument.topic
+              + " --coordinator (host):"
+              + coordinator.port()
+              + "\"");
+      var localWorkers =
+          argument.localWorkers < 0
+              ? argument.workers
+              : Math.min(argument.localWorkers, argument.workers);
+      for (var id = 0; id < localWorkers; ++id)
+        processes.add(spawn(args, argument.topic, id, coordinator.port()));
+      while (!coordinator.done()) {
+        for (var process : processes)
+          if (!process.isAlive() && process.exitValue() != 0)
+            throw new IllegalStateException("a worker exits with code " + process.exitValue());
+        var lost = coordinator.lostWorkers();
+        if (!lost.isEmpty())
+          throw new IllegalStateException(
+              "the workers "
+                  + lost
+                  + " have not reported for "
+                  + REPORT_TIMEOUT.toSeconds()
+                  + " seconds");
+        Thread.sleep(1000);
+      }
+      for (var process : processes) process.waitFor();
+
+      var series = coordinator.series();
+      print(series, coordinator.total());
+      if (argument.CSVPath != null)
+        ReportFormat.writeDistributed(argument.reportFormat, argument.CSVPath, series);
+    } finally {
+      processes.forEach(Process::destroy);
+    }
+  }
+
+  /** start a worker process with the same arguments */
+  private static Process spawn(String[] args, String topic, int id, int port) throws IOException {
+    var command = new ArrayList<String>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(Performance.class.getName());
+    // the coordinator resolves the topic and writes the report
+    for (var i = 0; i < args.length; ++i) {
+      if (args[i].equals("--topic") || args[i].equals("--report.path")) i++;
+      else command.add(args[i]);
+    }
+    command.addAll(
+        List.of(
+            "--topic",
+            topic,
+            "--worker.id",
+            String.valueOf(id),
+            "--coordinator",
+            "localhost:" + port));
+    return new ProcessBuilder(command)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+  }
+
+  private static void print(List<Performance.Checkpoint> series, Performance.Checkpoint total) {
+    var previous =
+        new Performance.Checkpoint(
+            Duration.ZERO, 0, 0, Histogram.Snapshot.EMPTY, Histogram.Snapshot.EMPTY);
+    for (var current : series) {
+      System.out.println(
+          "Time: "
+              + current.elapsed.toSeconds()
+              + "sec, output: "
+              + DataUnit.Byte.of(current.producedBytes - previous.producedBytes)
+              + "/second, input: "
+              + DataUnit.Byte.of(current.consumedBytes - previous.consumedBytes)
+              + "/second, publish p99: "
+              + current.publishLatencies.subtract(previous.publishLatencies).percentile(99)
+              + " ms, end-to-end p99: "
+              + current.e2eLatencies.subtract(previous.e2eLatencies).percentile(99)
+              + " ms");
+      previous = current;
+    }
+    System.out.println("=============== distributed run complete ===============");
+    System.out.println("output: " + DataUnit.Byte.of(total.producedBytes));
+    System.out.println("input: " + DataUnit.Byte.of(total.consumedBytes));
+    System.out.println("publish latency: " + Tracker.percentiles(total.publishLatencies));
+    System.out.println("end-to-end latency: " + Tracker.percentiles(total.e2eLatencies));
+  }
+}
@@ -16,12 +16,21 @@
  */
 package org.astraea.app.performance;
 
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Random;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import org.astraea.app.common.DataSize;
 import org.astraea.app.common.DataUnit;
+import org.astraea.app.consumer.Header;
 
 @FunctionalInterface
 interface DataSupplier extends Supplier<DataSupplier.Data> {
@@ -33,11 +42,6 @@ interface DataSupplier extends Supplier<DataSupplier.Data> {
         return false;
       }
 
-      @Override
-      public boolean throttled() {
-        return false;
-      }
-
       @Override
       public byte[] key() {
         return key;
@@ -57,11 +61,6 @@ interface DataSupplier extends Supplier<DataSupplier.Data> {
           return true;
         }
 
-        @Override
-        public boolean throttled() {
-          return false;
-        }
-
         @Override
         public byte[] key() {
           throw new IllegalStateException("there is no data");
@@ -73,95 +72,217 @@ interface DataSupplier extends Supplier<DataSupplier.Data> {
         }
       };
 
-  Data THROTTLED_DATA =
-      new Data() {
-        @Override
-        public boolean done() {
-          return false;
-        }
-
-        @Override
-        public boolean throttled() {
-          return true;
-        }
-
-        @Override
-        public byte[] key() {
-          throw new IllegalStateException("it is throttled");
-        }
-
-        @Override
-        public byte[] value() {
-          throw new IllegalStateException("it is throttled");
-        }
-      };
-
   interface Data {
 
     /** @return true if there is no data. */
     boolean done();
 
-    /** @return true if there are some data, but it is throttled now. */
-    boolean throttled();
-
     /** @return true if there is accessible data */
     default boolean hasData() {
-      return !done() && !throttled();
+      return !done();
     }
 
-    /** @return key or throw exception if there is no data, or it is throttled now */
+    /** @return key or throw exception if there is no data */
     byte[] key();
 
-    /** @return value or throw exception if there is no data, or it is throttled now */
+    /** @return value or throw exception if there is no data */
     byte[] value();
+
+    /** @return the topic of this record, or empty if the producer decides the topic */
+    default Optional<String> topic() {
+      return Optional.empty();
+    }
+
+    /** @return the partition of this record, or -1 if the producer decides the partition */
+    default int partition() {
+      return -1;
+    }
+
+    default Collection<Header> headers() {
+      return List.of();
+    }
+
+    /**
+     * @return the intended send time of this record, or empty if the producer decides the time. If
+     *     it is present, the supplier has waited for the time already.
+     */
+    default OptionalLong timestamp() {
+      return OptionalLong.empty();
+    }
   }
 
+  /**
+   * @param exeTime to stop supplying data
+   * @param profile offers the phase of each record
+   * @param suppliers the data supplier of each phase
+   * @return a supplier which switches the data supplier when the phase changes
+   */
+  static DataSupplier of(ExeTime exeTime, LoadProfile profile, List<DataSupplier> suppliers) {
+    if (suppliers.size() != profile.phases().size())
+      throw new IllegalArgumentException("each phase should have a data supplier");
+    return new DataSupplier() {
+      private final AtomicLong dataCount = new AtomicLong(0);
+      // the profile starts when the first record is requested
+      private final AtomicLong startNanos = new AtomicLong(-1);
+
+      @Override
+      public Data get() {
+        startNanos.compareAndSet(-1, System.nanoTime());
+        var elapsed = Duration.ofNanos(System.nanoTime() - startNanos.get());
+        if (exeTime.percentage(dataCount.getAndIncrement(), elapsed.toMillis()) >= 100D)
+          return NO_MORE_DATA;
+        return suppliers.get(profile.phase(elapsed)).get();
+      }
+    };
+  }
+
+  /**
+   * Replay the records of a trace. The time gaps between records are divided by the speed, and
+   * {@link #get()} waits until the intended send time of next record.
+   *
+   * @param exeTime to stop replaying before the end of trace
+   * @param reader to read trace
+   * @param summary of the trace
+   * @param speed the multiplier of replay speed. For example, 2 means the trace is replayed in half
+   *     time
+   * @return a supplier which replays the trace
+   */
+  static DataSupplier replay(
+      ExeTime exeTime, TraceReader reader, TraceReader.Summary summary, double speed) {
+    if (speed <= 0)
+      throw new IllegalArgumentException("speed must be positive, but it is " + speed);
+    var random = new byte[Math.max(summary.maxValueSize, summary.maxHeadersSize)];
+    ThreadLocalRandom.current().nextBytes(random);
+    return new DataSupplier() {
+      private final AtomicLong dataCount = new AtomicLong(0);
+      // the replay starts when the first record is requested
+      private final AtomicLong startNanos = new AtomicLong(-1);
+      private final AtomicLong startMillis = new AtomicLong(-1);
+
+      byte[] key(TraceReader.Entry entry) {
+        if (entry.keySize == 0) return null;
+        if (!entry.hasKeyHash()) return Arrays.copyOf(random, entry.keySize);
+        // the same hash gets the same key, so the partitioner routes them to the same partition
+        var key = new byte[entry.keySize];
+        for (var i = 0; i != key.length; ++i) key[i] = (byte) (entry.keyHash >>> (8 * (i % 8)));
+        return key;
+      }
+
+      Collection<Header> headers(TraceReader.Entry entry) {
+        if (entry.headersSize == 0) return List.of();
+        return List.of(
+            Header.of(
+                TRACE_HEADER,
+                Arrays.copyOf(random, Math.max(0, entry.headersSize - TRACE_HEADER.length()))));
+      }
+
+      @Override
+      public Data get() {
+        if (startNanos.get() < 0 && startNanos.compareAndSet(-1, System.nanoTime()))
+          startMillis.set(System.currentTimeMillis());
+        var entry = reader.next();
+        var elapsed = System.nanoTime() - startNanos.get();
+        if (entry == null
+            || exeTime.percentage(
+                    dataCount.getAndIncrement(), TimeUnit.NANOSECONDS.toMillis(elapsed))
+                >= 100D) return NO_MORE_DATA;
+        var intended = (long) (entry.nanos / speed);
+        for (var remaining = intended - elapsed;
+            remaining > 0;
+            remaining = intended - (System.nanoTime() - startNanos.get())) {
+          LockSupport.parkNanos(remaining);
+          if (Thread.currentThread().isInterrupted()) return NO_MORE_DATA;
+        }
+        var key = key(entry);
+        var value = Arrays.copyOf(random, entry.valueSize);
+        var headers = headers(entry);
+        var timestamp = OptionalLong.of(startMillis.get() + TimeUnit.NANOSECONDS.toMillis(intended));
+        return new Data() {
+          @Override
+          public boolean done() {
+            return false;
+          }
+
+          @Override
+          public byte[] key() {
+            return key;
+          }
+
+          @Override
+          public byte[] value() {
+            return value;
+          }
+
+          @Override
+          public Optional<String> topic() {
+            return Optional.of(entry.topic);
+          }
+
+          @Override
+          public int partition() {
+            return entry.partition;
+          }
+
+          @Override
+          public Collection<Header> headers() {
+            return headers;
+          }
+
+          @Override
+          public OptionalLong timestamp() {
+            return timestamp;
+          }
+        };
+      }
+    };
+  }
+
+  /** the key of header which is used to fill the headers size of trace */
+  String TRACE_HEADER = "trace";
+
+  /** the number of records claimed by a thread at once. It reduces the contention of counting. */
+  int RECORD_BLOCK = 64;
+
   static DataSupplier of(
       ExeTime exeTime,
-      Supplier<Long> keyDistribution,
+      LongSupplier keyDistribution,
       DataSize valueSize,
-      Supplier<Long> valueDistribution,
-      DataSize throughput) {
+      LongSupplier valueDistribution) {
+    var maxSize = valueSize.measurement(DataUnit.Byte).intValue();
+    var keys = new KeyTable();
     return new DataSupplier() {
       private final long start = System.currentTimeMillis();
-      private final Random rand = new Random();
-      private final byte[] content = new byte[valueSize.measurement(DataUnit.Byte).intValue()];
       private final AtomicLong dataCount = new AtomicLong(0);
-      private long intervalStart = 0;
-      private long payloadBytes;
+      // each thread has its own values and block of record ids, so there is no lock
+      private final ThreadLocal<ValuePool> values =
+          ThreadLocal.withInitial(() -> new ValuePool(maxSize, ThreadLocalRandom.current()));
+      private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[] {0, 0});
 
-      synchronized boolean checkAndAdd(int payloadLength) {
-        if (System.currentTimeMillis() - intervalStart > 1000) {
-          intervalStart = System.currentTimeMillis();
-          payloadBytes = payloadLength;
-          return true;
-        } else if (payloadBytes < throughput.measurement(DataUnit.Byte).longValue()) {
-          payloadBytes += payloadLength;
-          return true;
-        } else {
-          return false;
-        }
+      byte[] value() {
+        // the sampled value is the size, so the shape of distribution is kept
+        var size = Math.max(0, Math.min(maxSize, valueDistribution.getAsLong()));
+        return values.get().value((int) size);
       }
 
-      byte[] value() {
-        // Randomly change one position of the content;
-        content[rand.nextInt(content.length)] = (byte) rand.nextInt(256);
-        return Arrays.copyOfRange(
-            content, (int) (valueDistribution.get() % content.length), content.length);
+      byte[] key() {
+        return keys.key(keyDistribution.getAsLong());
       }
 
-      public byte[] key() {
-        return (String.valueOf(keyDistribution.get())).getBytes();
+      /** @return the unique id of next record */
+      long nextRecord() {
+        var block = blocks.get();
+        if (block[0] == block[1]) {
+          block[0] = dataCount.getAndAdd(RECORD_BLOCK);
+          block[1] = block[0] + RECORD_BLOCK;
+        }
+        return block[0]++;
       }
 
       @Override
       public Data get() {
-        if (exeTime.percentage(dataCount.getAndIncrement(), System.currentTimeMillis() - start)
-            >= 100D) return NO_MORE_DATA;
-        var key = key();
-        var value = value();
-        if (checkAndAdd(value.length)) return data(key, value);
-        return THROTTLED_DATA;
+        if (exeTime.percentage(nextRecord(), System.currentTimeMillis() - start) >= 100D)
+          return NO_MORE_DATA;
+        return data(key(), value());
       }
     };
   }
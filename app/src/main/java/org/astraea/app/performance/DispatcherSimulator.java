@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import com.beust.jcommander.Parameter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.astraea.app.argument.BooleanField;
+import org.astraea.app.argument.DurationField;
+import org.astraea.app.argument.NonEmptyStringField;
+import org.astraea.app.argument.NonNegativeIntegerField;
+import org.astraea.app.argument.PathField;
+import org.astraea.app.argument.PositiveIntegerField;
+import org.astraea.app.argument.StringMapField;
+import org.astraea.app.common.DataSize;
+import org.astraea.app.common.DataUnit;
+import org.astraea.app.partitioner.StrictCostDispatcher;
+
+/**
+ * Evaluate a partitioner by a simulated cluster, so the partitioners can be compared on a laptop
+ * without kafka cluster. The simulated producer sends records to a topic, and each broker is a FIFO
+ * queue draining bytes at its capacity (see {@link SimulatedBroker}). The capacity of brokers and
+ * the leaders of partitions are changed by a {@link ClusterTimeline}.
+ *
+ * <p>The simulation runs in real time, since the cost-based partitioners refresh the metrics by
+ * background threads. Every {@link #TICK}, the broker metrics are published and the open batches
+ * are sent. The partitioner is asked for a new partition when the record does not fit into the open
+ * batch, as kafka producer does by {@link Partitioner#onNewBatch(String, Cluster, int)}.
+ */
+public class DispatcherSimulator {
+
+  static final String TOPIC = "simulation";
+
+  /** the interval of publishing the broker metrics and sending the batches */
+  static final Duration TICK = Duration.ofMillis(100);
+
+  // the client id of each simulation. It is used to separate the producer metrics of simulations
+  private static final AtomicInteger CLIENT_IDS = new AtomicInteger();
+
+  public static void main(String[] args) throws Exception {
+    var argument = org.astraea.app.argument.Argument.parse(new Argument(), args);
+    print(execute(argument), System.out);
+  }
+
+  /**
+   * @param argument of simulation
+   * @return the traffic and simulated latency of each broker
+   * @throws Exception if the partitioner can't be created or the timeline can't be read
+   */
+  static Report execute(Argument argument) throws Exception {
+    var capacity = argument.capacity.measurement(DataUnit.Byte).doubleValue();
+    var timeline = ClusterTimeline.slowdowns(argument.slowdowns, capacity, argument.brokers);
+    if (argument.timeline != null)
+      timeline =
+          ClusterTimeline.of(argument.timeline, argument.brokers, argument.partitions)
+              .merge(timeline);
+    var clientId = "simulator-" + CLIENT_IDS.getAndIncrement();
+    var brokers = new ArrayList<SimulatedBroker>(argument.brokers);
+    Partitioner partitioner = null;
+    try {
+      for (var id = 0; id != argument.brokers; ++id)
+        brokers.add(new SimulatedBroker(id, clientId, capacity, argument.jmx));
+      partitioner = partitioner(argument.partitioner, configs(argument, clientId, brokers));
+      return run(argument, timeline, partitioner, brokers);
+    } finally {
+      if (partitioner != null) partitioner.close();
+      brokers.forEach(SimulatedBroker::close);
+    }
+  }
+
+  private static Report run(
+      Argument argument,
+      ClusterTimeline timeline,
+      Partitioner partitioner,
+      List<SimulatedBroker> brokers) {
+    var recordSize = (int) argument.recordSize.measurement(DataUnit.Byte).longValue();
+    var batchSize = argument.batchSize.measurement(DataUnit.Byte).longValue();
+    var recordsPerTick =
+        argument.throughput.measurement(DataUnit.Byte).doubleValue()
+            / recordSize
+            * TICK.toNanos()
+            / TimeUnit.SECONDS.toNanos(1);
+    var random = new Random(0);
+    var keys =
+        IntStream.range(0, argument.keys)
+            .mapToObj(i -> String.valueOf(random.nextLong()).getBytes())
+            .toArray(byte[][]::new);
+    var value = new byte[recordSize];
+
+    var leaders = IntStream.range(0, argument.partitions).map(p -> p % brokers.size()).toArray();
+    var cluster = cluster(brokers, leaders);
+    var events = timeline.events();
+    var nextEvent = 0;
+    var batchBytes = new long[argument.partitions];
+    var targets = new int[(int) Math.ceil(recordsPerTick)];
+    var latency = new Histogram();
+    var threads = ManagementFactory.getThreadMXBean();
+    var cpuNanos = 0L;
+    var dispatched = 0L;
+    var pending = 0D;
+
+    var tickNanos = TICK.toNanos();
+    var start = System.nanoTime();
+    for (var elapsed = 0L; elapsed < argument.duration.toNanos(); elapsed += tickNanos) {
+      // apply the changes of cluster
+      var leaderChanged = false;
+      while (nextEvent < events.size()
+          && TimeUnit.MILLISECONDS.toNanos(events.get(nextEvent).millis) <= elapsed) {
+        var event = events.get(nextEvent++);
+        if (event.type == ClusterTimeline.Type.CAPACITY) {
+          brokers.get(event.id).capacity(event.value);
+        } else {
+          leaders[event.id] = (int) event.value;
+          leaderChanged = true;
+        }
+      }
+      if (leaderChanged) cluster = cluster(brokers, leaders);
+
+      // choose the partitions. Only this phase is counted as the cpu cost of partitioner
+      pending += recordsPerTick;
+      var count = (int) pending;
+      pending -= count;
+      var cpuStart = threads.getCurrentThreadCpuTime();
+      for (var i = 0; i != count; ++i) {
+        var key = keys.length == 0 ? null : keys[random.nextInt(keys.length)];
+        var partition = partitioner.partition(TOPIC, key, key, value, value, cluster);
+        if (batchBytes[partition] == 0 || batchBytes[partition] + recordSize > batchSize) {
+          partitioner.onNewBatch(TOPIC, cluster, partition);
+          partition = partitioner.partition(TOPIC, key, key, value, value, cluster);
+          if (batchBytes[partition] + recordSize > batchSize) batchBytes[partition] = 0;
+        }
+        batchBytes[partition] += recordSize;
+        targets[i] = partition;
+      }
+      cpuNanos += threads.getCurrentThreadCpuTime() - cpuStart;
+      dispatched += count;
+
+      // the records arrive evenly in the tick
+      var tickStart = start + elapsed;
+      for (var i = 0; i != count; ++i)
+        latency.record(
+            brokers
+                .get(leaders[targets[i]])
+                .append(tickStart + tickNanos * i / count, recordSize));
+      Arrays.fill(batchBytes, 0);
+      brokers.forEach(b -> b.publish(tickStart + tickNanos));
+
+      // wait for the next tick, so the background threads of partitioner see the metrics in time
+      var remaining = tickStart + tickNanos - System.nanoTime();
+      if (remaining > 0) LockSupport.parkNanos(remaining);
+    }
+    return new Report(
+        argument.partitioner,
+        brokers,
+        latency.snapshot(),
+        dispatched == 0 ? 0 : (double) cpuNanos / dispatched);
+  }
+
+  /** @return a cluster having a replica for each partition */
+  static Cluster cluster(List<SimulatedBroker> brokers, int[] leaders) {
+    var nodes =
+        brokers.stream()
+            .map(b -> new Node(b.id(), "localhost", 9092))
+            .collect(Collectors.toUnmodifiableList());
+    var leaderCounts = new int[brokers.size()];
+    var partitions = new ArrayList<PartitionInfo>(leaders.length);
+    for (var p = 0; p != leaders.length; ++p) {
+      var leader = nodes.get(leaders[p]);
+      leaderCounts[leaders[p]]++;
+      partitions.add(new PartitionInfo(TOPIC, p, leader, new Node[] {leader}, new Node[] {leader}));
+    }
+    brokers.forEach(b -> b.leaders(leaderCounts[b.id()]));
+    return new Cluster("simulation", nodes, partitions, Set.of(), Set.of());
+  }
+
+  /**
+   * @return the configs of partitioner. The JMX ports of simulated brokers and the client id of
+   *     simulated producer are added
+   */
+  static Map<String, String> configs(
+      Argument argument, String clientId, List<SimulatedBroker> brokers) throws IOException {
+    var configs = new HashMap<>(argument.configs);
+    brokers.forEach(
+        b ->
+            b.jmxPort()
+                .ifPresent(port -> configs.put("broker." + b.id() + ".jmx.port", port.toString())));
+    configs.put("client.id", clientId);
+    // some partitioners read the configs from the file
+    var file = Files.createTempFile("simulator", ".properties");
+    file.toFile().deleteOnExit();
+    var properties = new Properties();
+    properties.putAll(configs);
+    try (var output = Files.newOutputStream(file)) {
+      properties.store(output, null);
+    }
+    configs.put("partitioner.config", file.toString());
+    return configs;
+  }
+
+  static Partitioner partitioner(String className, Map<String, String> configs)
+      throws ReflectiveOperationException {
+    var partitioner =
+        (Partitioner) Class.forName(className).getDeclaredConstructor().newInstance();
+    partitioner.configure(configs);
+    return partitioner;
+  }
+
+  static void print(Report report, PrintStream output) {
+    output.println("partitioner: " + report.partitioner);
+    output.printf(
+        "records: %d, partitioner cpu: %.1f ns/record%n",
+        report.records(), report.cpuNanosPerRecord);
+    output.println(
+        "broker, capacity (MiB/s), records, bytes, share (%), max backlog (KiB), "
+            + "p50 latency (ms), p99 latency (ms)");
+    var total = Arrays.stream(report.bytes).sum();
+    for (var i = 0; i != report.bytes.length; ++i)
+      output.printf(
+          "%d, %.2f, %d, %d, %.2f, %d, %.3f, %.3f%n",
+          i,
+          report.capacities[i] / 1024 / 1024,
+          report.records[i],
+          report.bytes[i],
+          total == 0 ? 0 : report.bytes[i] * 100D / total,
+          report.maxBacklogs[i] / 1024,
+          report.latencies[i].percentile(50) / 1000D,
+          report.latencies[i].percentile(99) / 1000D);
+    output.printf(
+        "imbalance of bytes: max/mean=%.3f, gini=%.3f%n", report.maxMeanRatio(), report.gini());
+    output.println(
+        "latency (ms): "
+            + Histogram.PERCENTILES.stream()
+                .map(
+                    p ->
+                        String.format(
+                            "p%s=%.3f",
+                            Tracker.percentileName(p), report.latency.percentile(p) / 1000D))
+                .collect(Collectors.joining(", ")));
+  }
+
+  /** The traffic and simulated latency of each broker. */
+  static final class Report {
+    final String partitioner;
+    final double[] capacities;
+    final long[] records;
+    final long[] bytes;
+    final long[] maxBacklogs;
+    /** the simulated latencies in microseconds */
+    final Histogram.Snapshot[] latencies;
+
+    final Histogram.Snapshot latency;
+    /** the cpu time of partitioner on the sending thread. It is NaN if cpu time is unsupported */
+    final double cpuNanosPerRecord;
+
+    private Report(
+        String partitioner,
+        List<SimulatedBroker> brokers,
+        Histogram.Snapshot latency,
+        double cpuNanosPerRecord) {
+      this.partitioner = partitioner;
+      this.capacities = brokers.stream().mapToDouble(SimulatedBroker::capacity).toArray();
+      this.records = brokers.stream().mapToLong(SimulatedBroker::records).toArray();
+      this.bytes = brokers.stream().mapToLong(SimulatedBroker::bytes).toArray();
+      this.maxBacklogs = brokers.stream().mapToLong(SimulatedBroker::maxBacklog).toArray();
+      this.latencies =
+          brokers.stream().map(SimulatedBroker::latencies).toArray(Histogram.Snapshot[]::new);
+      this.latency = latency;
+      this.cpuNanosPerRecord = cpuNanosPerRecord;
+    }
+
+    long records() {
+      return Arrays.stream(records).sum();
+    }
+
+    /** @return the max bytes of brokers divided by the mean bytes */
+    double maxMeanRatio() {
+      return PartitionMetrics.maxMeanRatio(bytes);
+    }
+
+    /** @return the Gini coefficient of the bytes of brokers */
+    double gini() {
+      return PartitionMetrics.gini(bytes);
+    }
+  }
+
+  static class Argument {
+    @Parameter(
+        names = {"--partitioner"},
+        description = "String: the full class name of the partitioner to simulate",
+        validateWith = NonEmptyStringField.class)
+    String partitioner = StrictCostDispatcher.class.getName();
+
+    @Parameter(
+        names = {"--configs"},
+        description = "Map: the configs of partitioner. For example: --configs a=b,c=d",
+        converter = StringMapField.class,
+        validateWith = StringMapField.class)
+    Map<String, String> configs = Map.of();
+
+    @Parameter(
+        names = {"--brokers"},
+        description = "Integer: the number of simulated brokers",
+        validateWith = PositiveIntegerField.class,
+        converter = PositiveIntegerField.class)
+    int brokers = 3;
+
+    @Parameter(
+        names = {"--partitions"},
+        description = "Integer: the number of partitions. The leaders are spread by round-robin",
+        validateWith = PositiveIntegerField.class,
+        converter = PositiveIntegerField.class)
+    int partitions = 30;
+
+    @Parameter(
+        names = {"--duration"},
+        description = "Duration: the time to simulate. Default: 10s",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration duration = Duration.ofSeconds(10);
+
+    @Parameter(
+        names = {"--throughput"},
+        description = "DataSize: the bytes sent by the producer per second. Default: 20MiB",
+        converter = DataSize.Field.class)
+    DataSize throughput = DataUnit.MiB.of(20);
+
+    @Parameter(
+        names = {"--record.size"},
+        description = "DataSize: the size of each record. Default: 1KiB",
+        converter = DataSize.Field.class)
+    DataSize recordSize = DataUnit.KiB.of(1);
+
+    @Parameter(
+        names = {"--batch.size"},
+        description = "DataSize: the size of each batch. Default: 16KiB",
+        converter = DataSize.Field.class)
+    DataSize batchSize = DataUnit.KiB.of(16);
+
+    @Parameter(
+        names = {"--keys"},
+        description = "Integer: the number of distinct keys. The records have no key if it is 0",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int keys = 0;
+
+    @Parameter(
+        names = {"--broker.capacity"},
+        description = "DataSize: the bytes drained by each broker per second. Default: 10MiB",
+        converter = DataSize.Field.class)
+    DataSize capacity = DataUnit.MiB.of(10);
+
+    @Parameter(
+        names = {"--slowdowns"},
+        description =
+            "Map: the synthetic slowdowns of brokers. For example, --slowdowns 1@2s=0.2,1@6s=1"
+                + " means broker 1 runs at 20% capacity from 2s to 6s",
+        converter = StringMapField.class,
+        validateWith = StringMapField.class)
+    Map<String, String> slowdowns = Map.of();
+
+    @Parameter(
+        names = {"--timeline"},
+        description = "Path: the file of cluster timeline. See ClusterTimeline for the format",
+        validateWith = PathField.class,
+        converter = PathField.class)
+    Path timeline = null;
+
+    @Parameter(
+        names = {"--jmx"},
+        description = "Boolean: true to export the broker metrics by a JMX server per broker",
+        validateWith = BooleanField.class,
+        converter = BooleanField.class)
+    boolean jmx = true;
+  }
+}
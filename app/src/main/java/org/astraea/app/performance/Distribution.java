@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A random generator of long values. The {@link #getAsLong()} is the primitive version of {@link
+ * #get()} and it does not box the value. The implementations created by {@link DistributionType}
+ * are thread-safe, and each thread samples by its own random generator.
+ */
+@FunctionalInterface
+public interface Distribution extends Supplier<Long>, LongSupplier {
+
+  @Override
+  default Long get() {
+    return getAsLong();
+  }
+}
@@ -17,43 +17,51 @@
 package org.astraea.app.performance;
 
 import com.beust.jcommander.ParameterException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Random;
-import java.util.function.Supplier;
-import java.util.stream.IntStream;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
 import org.astraea.app.argument.Field;
 
 /**
- * Random distribution generator. Example: {@code Supplier<long> uniformDistribution =
- * Distribution.UNIFORM.create(100); while (true){ // the value will in range [0, 100)
- * uniformDistribution.get(); } }
+ * Random distribution generator. Example: {@code Distribution uniformDistribution =
+ * DistributionType.UNIFORM.create(100); while (true){ // the value will in range [0, 100)
+ * uniformDistribution.getAsLong(); } }
+ *
+ * <p>The distributions are sampled in O(1) (or O(1) expected) time, and each thread samples by its
+ * own random generator. Some distributions accept extra configs. See {@link #SEED_CONFIG} and
+ * others.
  */
 public enum DistributionType {
   FIXED("fixed") {
     @Override
-    public Supplier<Long> create(int n) {
-      return () -> (long) n;
+    public Distribution create(int n, Map<String, String> config) {
+      return () -> n;
     }
   },
 
   UNIFORM("uniform") {
     @Override
-    public Supplier<Long> create(int n) {
-      var rand = new Random();
-      return () -> (long) rand.nextInt(n);
+    public Distribution create(int n, Map<String, String> config) {
+      var rands = randoms(config);
+      return () -> rands.get().nextInt(n);
     }
   },
 
   /** A distribution for providing different random value every 2 seconds */
   LATEST("latest") {
     @Override
-    public Supplier<Long> create(int n) {
-      var rand = new Random();
+    public Distribution create(int n, Map<String, String> config) {
+      var seed = Long.parseLong(config.getOrDefault(SEED_CONFIG, "0"));
       return () -> {
         var time = System.currentTimeMillis();
-        rand.setSeed(time - time % 2000);
-        return (long) rand.nextInt(n);
+        // all threads get the same value in the same period
+        return Math.floorMod(mix(seed + time - time % 2000), n);
       };
     }
   },
@@ -64,34 +72,174 @@ public enum DistributionType {
    */
   ZIPFIAN("zipfian") {
     @Override
-    public Supplier<Long> create(int n) {
-      var cumulativeDensityTable = new ArrayList<Double>();
-      var rand = new Random();
-      var H_N = IntStream.range(1, n + 1).mapToDouble(k -> 1D / k).sum();
-      cumulativeDensityTable.add(1D / H_N);
-      IntStream.range(1, n)
-          .forEach(
-              i ->
-                  cumulativeDensityTable.add(
-                      cumulativeDensityTable.get(i - 1) + 1D / (i + 1) / H_N));
+    public Distribution create(int n, Map<String, String> config) {
+      var rands = randoms(config);
+      var sampler = new ZipfSampler(n, 1D);
+      return () -> sampler.sample(rands.get()) - 1;
+    }
+  },
+
+  /**
+   * Send {@link #HOTSPOT_TRAFFIC_CONFIG} (default: 0.8) of values to the first {@link
+   * #HOTSPOT_KEYS_CONFIG} (default: 0.2) of [0, n). The values in hot (or cold) set are uniform.
+   */
+  HOTSPOT("hotspot") {
+    @Override
+    public Distribution create(int n, Map<String, String> config) {
+      var traffic = Double.parseDouble(config.getOrDefault(HOTSPOT_TRAFFIC_CONFIG, "0.8"));
+      var keys = Double.parseDouble(config.getOrDefault(HOTSPOT_KEYS_CONFIG, "0.2"));
+      if (traffic < 0 || traffic > 1 || keys < 0 || keys > 1)
+        throw new IllegalArgumentException(
+            "the ratio of hotspot must be in [0, 1], but traffic: " + traffic + ", keys: " + keys);
+      var hot = Math.max(1, Math.min(n, (int) Math.ceil(n * keys)));
+      var rands = randoms(config);
+      return () -> {
+        var rand = rands.get();
+        if (hot == n || rand.nextDouble() < traffic) return rand.nextInt(hot);
+        return hot + rand.nextInt(n - hot);
+      };
+    }
+  },
+
+  /** Generate 0, 1, 2, ..., n - 1 and then start over. Each thread has its own sequence. */
+  SEQUENTIAL("sequential") {
+    @Override
+    public Distribution create(int n, Map<String, String> config) {
+      var sequences = ThreadLocal.withInitial(() -> new long[1]);
+      return () -> {
+        var sequence = sequences.get();
+        var value = sequence[0];
+        sequence[0] = value + 1 == n ? 0 : value + 1;
+        return value;
+      };
+    }
+  },
+
+  /**
+   * The exponential distribution in [0, n). The mean is {@link #MEAN_CONFIG} (default: n / 10).
+   * The smaller values are more likely.
+   */
+  EXPONENTIAL("exponential") {
+    @Override
+    public Distribution create(int n, Map<String, String> config) {
+      var mean = Double.parseDouble(config.getOrDefault(MEAN_CONFIG, String.valueOf(n / 10D)));
+      var rands = randoms(config);
+      return () -> clamp((long) (-Math.log(1D - rands.get().nextDouble()) * mean), n);
+    }
+  },
+
+  /**
+   * The normal distribution in [0, n). The mean is {@link #MEAN_CONFIG} (default: n / 2) and the
+   * standard deviation is {@link #STDDEV_CONFIG} (default: n / 6).
+   */
+  NORMAL("normal") {
+    @Override
+    public Distribution create(int n, Map<String, String> config) {
+      var mean = Double.parseDouble(config.getOrDefault(MEAN_CONFIG, String.valueOf(n / 2D)));
+      var stddev = Double.parseDouble(config.getOrDefault(STDDEV_CONFIG, String.valueOf(n / 6D)));
+      var rands = randoms(config);
       return () -> {
-        final double randNum = rand.nextDouble();
-        for (int i = 0; i < cumulativeDensityTable.size(); ++i) {
-          if (randNum < cumulativeDensityTable.get(i)) return (long) i;
-        }
-        return (long) cumulativeDensityTable.size() - 1L;
+        var rand = rands.get();
+        // Box-Muller transform
+        var gaussian =
+            Math.sqrt(-2 * Math.log(1D - rand.nextDouble()))
+                * Math.cos(2 * Math.PI * rand.nextDouble());
+        return clamp(Math.round(mean + gaussian * stddev), n);
       };
     }
+  },
+
+  /**
+   * The distribution loaded from the file {@link #FILE_CONFIG}. Each line of the file is "value
+   * weight" or "value,weight", and the lines starting with "#" are ignored. The n is not used.
+   */
+  HISTOGRAM("histogram") {
+    @Override
+    public Distribution create(int n, Map<String, String> config) {
+      var file = config.get(FILE_CONFIG);
+      if (file == null)
+        throw new IllegalArgumentException("the histogram distribution requires " + FILE_CONFIG);
+      var table = histogram(Path.of(file));
+      var rands = randoms(config);
+      return () -> table.sample(rands.get());
+    }
   };
 
+  /** the seed of random generators. The threads get the same sequences if the seed is fixed. */
+  public static final String SEED_CONFIG = "seed";
+
+  public static final String HOTSPOT_TRAFFIC_CONFIG = "traffic";
+  public static final String HOTSPOT_KEYS_CONFIG = "keys";
+  public static final String MEAN_CONFIG = "mean";
+  public static final String STDDEV_CONFIG = "stddev";
+  public static final String FILE_CONFIG = "file";
+
   public final String name;
 
-  abstract Supplier<Long> create(int n);
+  /**
+   * @param n the bound of values
+   * @param config extra configs of the distribution
+   * @return a thread-safe distribution
+   */
+  abstract Distribution create(int n, Map<String, String> config);
+
+  Distribution create(int n) {
+    return create(n, Map.of());
+  }
 
   DistributionType(String name) {
     this.name = name;
   }
 
+  /**
+   * @param config may include the seed
+   * @return the random generators of each thread. They are split from the seed.
+   */
+  private static ThreadLocal<SplittableRandom> randoms(Map<String, String> config) {
+    var seed =
+        config.containsKey(SEED_CONFIG)
+            ? new SplittableRandom(Long.parseLong(config.get(SEED_CONFIG)))
+            : new SplittableRandom();
+    return ThreadLocal.withInitial(
+        () -> {
+          synchronized (seed) {
+            return seed.split();
+          }
+        });
+  }
+
+  private static long clamp(long value, int n) {
+    return Math.max(0, Math.min(n - 1, value));
+  }
+
+  /** the finalizer of SplittableRandom. It maps the close numbers to scattered numbers. */
+  private static long mix(long value) {
+    var z = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return z ^ (z >>> 33);
+  }
+
+  static AliasTable histogram(Path file) {
+    try {
+      var values = new ArrayList<Long>();
+      var weights = new ArrayList<Double>();
+      for (var line : Files.readAllLines(file)) {
+        var trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+        var items = trimmed.split("[,\\s]+");
+        if (items.length != 2)
+          throw new IllegalArgumentException("the line should be \"value weight\": " + line);
+        values.add(Long.parseLong(items[0]));
+        weights.add(Double.parseDouble(items[1]));
+      }
+      return new AliasTable(
+          values.stream().mapToLong(v -> v).toArray(),
+          weights.stream().mapToDouble(w -> w).toArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   /**
    * convert(String): Accept lower-case name only e.g. "fixed", "uniform", "latest" and "zipfian"
    * are legal e.g. "Fixed" and "UNIFORM" are illegal
@@ -107,7 +255,11 @@ public enum DistributionType {
                   new ParameterException(
                       "Unknown distribution \""
                           + name
-                          + "\". use \"fixed\" \"uniform\", \"latest\", \"zipfian\"."));
+                          + "\". use "
+                          + Arrays.stream(DistributionType.values())
+                              .map(d -> "\"" + d.name + "\"")
+                              .collect(Collectors.joining(", "))
+                          + "."));
     }
   }
 }
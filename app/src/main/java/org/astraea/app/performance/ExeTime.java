@@ -18,6 +18,7 @@ package org.astraea.app.performance;
 
 import com.beust.jcommander.ParameterException;
 import java.time.Duration;
+import java.util.OptionalLong;
 import java.util.function.BiFunction;
 import java.util.regex.Pattern;
 import org.astraea.app.argument.DurationField;
@@ -30,10 +31,30 @@ interface ExeTime {
 
   double percentage(long records, long elapsedTime);
 
+  /** @return the number of records to run, or empty if this runs for a duration */
+  default OptionalLong records() {
+    return OptionalLong.empty();
+  }
+
   static ExeTime of(String exeTime) {
     if (exeTime.endsWith("records")) {
       final long records = Long.parseLong(exeTime.replace("records", ""));
-      return ExeTime.of((completeRecords, ignore) -> 100D * completeRecords / records, exeTime);
+      return new ExeTime() {
+        @Override
+        public double percentage(long completeRecords, long ignore) {
+          return 100D * completeRecords / records;
+        }
+
+        @Override
+        public OptionalLong records() {
+          return OptionalLong.of(records);
+        }
+
+        @Override
+        public String toString() {
+          return exeTime;
+        }
+      };
     }
     final Duration duration = new DurationField().convert(exeTime);
     return ExeTime.of((ignore, elapsedTime) -> 100D * elapsedTime / duration.toMillis(), exeTime);
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free and fixed-memory histogram of non-negative long values. The values are put into
+ * log-linear buckets (each power of two is split into {@link #SUB_BUCKETS} linear buckets), so the
+ * relative error of any reported percentile is smaller than 1 / {@link #SUB_BUCKETS}.
+ *
+ * <p>Each recording thread owns a private {@link Recorder}, so {@link #record(long)} never
+ * contends with other threads. The recorders are merged when {@link #snapshot()} is called.
+ */
+public final class Histogram {
+
+  private static final int SUB_BITS = 5;
+  /** the number of linear buckets per power of two */
+  static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /** the number of buckets used to cover [0, Long.MAX_VALUE] */
+  static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+  /** the percentiles shown by reports. */
+  public static final List<Double> PERCENTILES = List.of(50D, 90D, 99D, 99.9D, 99.99D);
+
+  /**
+   * @param value to put
+   * @return the index of bucket for the value. The negative value is counted as zero.
+   */
+  static int index(long value) {
+    return index(value, SUB_BITS);
+  }
+
+  /**
+   * @param value to put
+   * @param subBits the log2 of linear buckets per power of two. The fewer bits use fewer buckets
+   * @return the index of bucket for the value. The negative value is counted as zero.
+   */
+  static int index(long value, int subBits) {
+    if (value < 0) return 0;
+    if (value < 2L << subBits) return (int) value;
+    var shift = 63 - Long.numberOfLeadingZeros(value) - subBits;
+    return (shift << subBits) + (int) (value >>> shift);
+  }
+
+  /**
+   * @param index of bucket
+   * @return the largest value which is put into the bucket
+   */
+  static long highestValue(int index) {
+    return highestValue(index, SUB_BITS);
+  }
+
+  /**
+   * @param index of bucket
+   * @param subBits the log2 of linear buckets per power of two
+   * @return the largest value which is put into the bucket
+   */
+  static long highestValue(int index, int subBits) {
+    if (index < 2 << subBits) return index;
+    var shift = (index >> subBits) - 1;
+    var sub = (long) (index - (shift << subBits));
+    var next = (sub + 1) << shift;
+    // the last bucket overflows
+    return next <= 0 ? Long.MAX_VALUE : next - 1;
+  }
+
+  private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Recorder> local =
+      ThreadLocal.withInitial(
+          () -> {
+            var recorder = new Recorder();
+            recorders.add(recorder);
+            return recorder;
+          });
+
+  /**
+   * Add a value to the recorder of current thread.
+   *
+   * @param value to record
+   */
+  public void record(long value) {
+    local.get().record(value);
+  }
+
+  /** @return the merged view of all values recorded so far */
+  public Snapshot snapshot() {
+    var counts = new long[BUCKETS];
+    var count = 0L;
+    var sum = 0L;
+    var min = Long.MAX_VALUE;
+    var max = Long.MIN_VALUE;
+    for (var recorder : recorders) {
+      // read the count first so the buckets are never behind it
+      count += recorder.counts.get(BUCKETS);
+      sum += recorder.counts.get(BUCKETS + 1);
+      min = Math.min(min, recorder.counts.get(BUCKETS + 2));
+      max = Math.max(max, recorder.counts.get(BUCKETS + 3));
+      for (var i = 0; i != BUCKETS; ++i) counts[i] += recorder.counts.get(i);
+    }
+    return new Snapshot(counts, count, sum, min, max);
+  }
+
+  /**
+   * The buckets, count, sum, min and max of a single thread. Only the owner thread updates the
+   * array, so the plain read-and-lazySet is safe and costs no CAS.
+   */
+  private static final class Recorder {
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 4);
+
+    private Recorder() {
+      counts.set(BUCKETS + 2, Long.MAX_VALUE);
+      counts.set(BUCKETS + 3, Long.MIN_VALUE);
+    }
+
+    private void record(long value) {
+      var index = index(value);
+      counts.lazySet(index, counts.get(index) + 1);
+      counts.lazySet(BUCKETS + 1, counts.get(BUCKETS + 1) + value);
+      if (value < counts.get(BUCKETS + 2)) counts.lazySet(BUCKETS + 2, value);
+      if (value > counts.get(BUCKETS + 3)) counts.lazySet(BUCKETS + 3, value);
+      counts.lazySet(BUCKETS, counts.get(BUCKETS) + 1);
+    }
+  }
+
+  /** An immutable copy of histogram. */
+  public static final class Snapshot {
+
+    public static final Snapshot EMPTY =
+        new Snapshot(new long[BUCKETS], 0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    /**
+     * @param counts the count of each bucket
+     * @param sum of values
+     * @param min of values
+     * @param max of values
+     * @return a snapshot rebuilt from the buckets of other process
+     */
+    static Snapshot of(long[] counts, long sum, long min, long max) {
+      if (counts.length != BUCKETS)
+        throw new IllegalArgumentException("the number of buckets must be " + BUCKETS);
+      var count = 0L;
+      for (var c : counts) count += c;
+      return new Snapshot(counts.clone(), count, sum, min, max);
+    }
+
+    private Snapshot(long[] counts, long count, long sum, long min, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.min = min;
+      this.max = max;
+    }
+
+    /** @return the number of recorded values */
+    public long count() {
+      return count;
+    }
+
+    /** @return the sum of recorded values */
+    long sum() {
+      return sum;
+    }
+
+    /** @return a copy of the count of each bucket */
+    long[] counts() {
+      return counts.clone();
+    }
+
+    /** @return the average of recorded values, or zero if there is no value */
+    public double average() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** @return the minimum of recorded values, or zero if there is no value */
+    public long min() {
+      return count == 0 ? 0 : min;
+    }
+
+    /** @return the maximum of recorded values, or zero if there is no value */
+    public long max() {
+      return count == 0 ? 0 : max;
+    }
+
+    /**
+     * @param percentile in [0, 100]
+     * @return the value below which the given percentage of values fall, or zero if there is no
+     *     value
+     */
+    public long percentile(double percentile) {
+      if (percentile < 0 || percentile > 100)
+        throw new IllegalArgumentException(
+            "percentile must be in [0, 100], but it is " + percentile);
+      var total = 0L;
+      for (var c : counts) total += c;
+      if (total == 0) return 0;
+      var rank = Math.max(1, (long) Math.ceil(percentile / 100D * total));
+      var seen = 0L;
+      for (var i = 0; i != counts.length; ++i) {
+        seen += counts[i];
+        if (seen >= rank) return Math.max(min(), Math.min(max(), highestValue(i)));
+      }
+      return max();
+    }
+
+    /**
+     * Merge two snapshots. It is used to aggregate the histograms from many producers/consumers.
+     *
+     * @param other snapshot
+     * @return a snapshot having values of both snapshots
+     */
+    public Snapshot add(Snapshot other) {
+      var merged = new long[BUCKETS];
+      for (var i = 0; i != BUCKETS; ++i) merged[i] = counts[i] + other.counts[i];
+      return new Snapshot(
+          merged,
+          count + other.count,
+          sum + other.sum,
+          Math.min(min, other.min),
+          Math.max(max, other.max));
+    }
+
+    /**
+     * Compute the values recorded after the previous snapshot. The min and max of interval are
+     * estimated by the buckets since the exact extremes are not kept per interval.
+     *
+     * @param previous an earlier snapshot of the same histogram
+     * @return a snapshot having only the values recorded after previous one
+     */
+    public Snapshot subtract(Snapshot previous) {
+      var diff = new long[BUCKETS];
+      var first = -1;
+      var last = -1;
+      for (var i = 0; i != BUCKETS; ++i) {
+        diff[i] = Math.max(0, counts[i] - previous.counts[i]);
+        if (diff[i] > 0) {
+          if (first < 0) first = i;
+          last = i;
+        }
+      }
+      if (first < 0) return new Snapshot(diff, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+      return new Snapshot(
+          diff,
+          count - previous.count,
+          sum - previous.sum,
+          Math.max(min, first < 2 * SUB_BUCKETS ? first : highestValue(first - 1) + 1),
+          Math.min(max, highestValue(last)));
+    }
+  }
+}
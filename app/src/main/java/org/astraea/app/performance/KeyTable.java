@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The encoded keys of key ids. The keys are encoded once and then reused, so the key ids in [0,
+ * capacity) do not create new key for each record. This is thread-safe.
+ */
+final class KeyTable {
+
+  /** the default number of cached keys */
+  static final int CAPACITY = 1 << 20;
+
+  /**
+   * @param id key id
+   * @return the key in bytes. It is the decimal string of key id
+   */
+  static byte[] encode(long id) {
+    return String.valueOf(id).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private final AtomicReferenceArray<byte[]> keys;
+
+  KeyTable() {
+    this(CAPACITY);
+  }
+
+  KeyTable(int capacity) {
+    this.keys = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * @param id key id
+   * @return the encoded key. The returned array must not be modified by the caller
+   */
+  byte[] key(long id) {
+    if (id < 0 || id >= keys.length()) return encode(id);
+    var key = keys.get((int) id);
+    if (key == null) {
+      // it is fine that many threads encode the same key concurrently
+      key = encode(id);
+      keys.lazySet((int) id, key);
+    }
+    return key;
+  }
+}
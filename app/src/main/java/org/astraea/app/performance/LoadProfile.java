@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.astraea.app.argument.DurationField;
+import org.astraea.app.common.DataSize;
+
+/**
+ * A sequence of load phases. Each phase has its own duration, throughput, record size and
+ * distributions, so the shapes like ramp, spike and soak can be combined in a run. The profile file
+ * has a phase per line:
+ *
+ * <pre>{@code
+ * (name),(duration),(throughput)[-(throughput)][,(record size)[,(key dist.)[,(size dist.)]]]
+ * }</pre>
+ *
+ * For example:
+ *
+ * <pre>{@code
+ * ramp,5m,10MB-500MB
+ * spike,30s,1500MB
+ * soak,2h,500MB,2KiB,zipfian,fixed
+ * }</pre>
+ *
+ * The throughput of "ramp" grows linearly from 10MB/second to 500MB/second in 5 minutes. The
+ * omitted record size and distributions are the same as the global options. The empty lines and
+ * the lines starting with "#" are skipped.
+ */
+final class LoadProfile {
+
+  static final class Phase {
+    final String name;
+    final Duration duration;
+    /** the throughput at the beginning of phase */
+    final DataSize from;
+    /** the throughput at the end of phase */
+    final DataSize to;
+
+    final DataSize recordSize;
+    final DistributionType keyDistributionType;
+    final DistributionType sizeDistributionType;
+
+    Phase(
+        String name,
+        Duration duration,
+        DataSize from,
+        DataSize to,
+        DataSize recordSize,
+        DistributionType keyDistributionType,
+        DistributionType sizeDistributionType) {
+      if (duration.isNegative() || duration.isZero())
+        throw new IllegalArgumentException("the duration of phase " + name + " must be positive");
+      this.name = name;
+      this.duration = duration;
+      this.from = from;
+      this.to = to;
+      this.recordSize = recordSize;
+      this.keyDistributionType = keyDistributionType;
+      this.sizeDistributionType = sizeDistributionType;
+    }
+  }
+
+  /**
+   * @param file profile file
+   * @param argument offers the default record size and distributions
+   * @return load profile
+   */
+  static LoadProfile read(Path file, Performance.Argument argument) {
+    try {
+      return of(Files.readAllLines(file), argument);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static LoadProfile of(List<String> lines, Performance.Argument argument) {
+    var sizeField = new DataSize.Field();
+    var distributionField = new DistributionType.DistributionTypeField();
+    var phases = new ArrayList<Phase>();
+    for (var line : lines) {
+      if (line.isBlank() || line.trim().startsWith("#")) continue;
+      var fields = line.split(",");
+      if (fields.length < 3 || fields.length > 6)
+        throw new IllegalArgumentException("illegal phase: " + line);
+      for (var i = 0; i != fields.length; ++i) fields[i] = fields[i].trim();
+      var throughputs = fields[2].split("-");
+      if (throughputs.length > 2) throw new IllegalArgumentException("illegal phase: " + line);
+      var from = sizeField.convert(throughputs[0].trim());
+      phases.add(
+          new Phase(
+              fields[0],
+              DurationField.toDuration(fields[1]),
+              from,
+              throughputs.length == 1 ? from : sizeField.convert(throughputs[1].trim()),
+              fields.length > 3 ? sizeField.convert(fields[3]) : argument.recordSize,
+              fields.length > 4
+                  ? distributionField.convert(fields[4])
+                  : argument.keyDistributionType,
+              fields.length > 5
+                  ? distributionField.convert(fields[5])
+                  : argument.sizeDistributionType));
+    }
+    if (phases.isEmpty()) throw new IllegalArgumentException("the profile has no phase");
+    return new LoadProfile(phases);
+  }
+
+  /** The statistics of a phase. */
+  static final class PhaseResult {
+    final Phase phase;
+    /** the actual time of phase */
+    final Duration elapsed;
+
+    final long producedBytes;
+    final long consumedBytes;
+    final Histogram.Snapshot publishLatencies;
+    final Histogram.Snapshot e2eLatencies;
+
+    PhaseResult(Phase phase, Performance.Checkpoint start, Performance.Checkpoint end) {
+      this.phase = phase;
+      this.elapsed = end.elapsed.minus(start.elapsed);
+      this.producedBytes = end.producedBytes - start.producedBytes;
+      this.consumedBytes = end.consumedBytes - start.consumedBytes;
+      this.publishLatencies = end.publishLatencies.subtract(start.publishLatencies);
+      this.e2eLatencies = end.e2eLatencies.subtract(start.e2eLatencies);
+    }
+
+    /** @return the produced bytes per second */
+    double outputRate() {
+      return elapsed.toMillis() <= 0 ? 0 : producedBytes * 1000D / elapsed.toMillis();
+    }
+
+    /** @return the consumed bytes per second */
+    double inputRate() {
+      return elapsed.toMillis() <= 0 ? 0 : consumedBytes * 1000D / elapsed.toMillis();
+    }
+
+    @Override
+    public String toString() {
+      return "phase "
+          + phase.name
+          + " ("
+          + elapsed.toSeconds()
+          + " seconds)\n"
+          + String.format("  output throughput: %.3f MB/second%n", outputRate() / 1024D / 1024D)
+          + String.format("  input throughput: %.3f MB/second%n", inputRate() / 1024D / 1024D)
+          + "  publish latency: "
+          + Tracker.percentiles(publishLatencies)
+          + "\n  end-to-end latency: "
+          + Tracker.percentiles(e2eLatencies);
+    }
+  }
+
+  private final List<Phase> phases;
+
+  LoadProfile(List<Phase> phases) {
+    this.phases = List.copyOf(phases);
+  }
+
+  List<Phase> phases() {
+    return phases;
+  }
+
+  /** @return the total duration of all phases */
+  Duration duration() {
+    return phases.stream().map(p -> p.duration).reduce(Duration.ZERO, Duration::plus);
+  }
+
+  /** @return the end time of each phase except for the last one */
+  List<Duration> boundaries() {
+    var boundaries = new ArrayList<Duration>();
+    var end = Duration.ZERO;
+    for (var i = 0; i < phases.size() - 1; ++i) {
+      end = end.plus(phases.get(i).duration);
+      boundaries.add(end);
+    }
+    return boundaries;
+  }
+
+  /**
+   * @param checkpoints the checkpoints taken at the {@link #boundaries()} and the end of run
+   * @return the statistics of each phase. The phases which were not reached are excluded
+   */
+  List<PhaseResult> results(List<Performance.Checkpoint> checkpoints) {
+    var results = new ArrayList<PhaseResult>();
+    var start =
+        new Performance.Checkpoint(
+            Duration.ZERO, 0, 0, Histogram.Snapshot.EMPTY, Histogram.Snapshot.EMPTY);
+    for (var i = 0; i < checkpoints.size() && i < phases.size(); ++i) {
+      results.add(new PhaseResult(phases.get(i), start, checkpoints.get(i)));
+      start = checkpoints.get(i);
+    }
+    return results;
+  }
+
+  /**
+   * @param elapsed the time since the beginning of profile
+   * @return the index of phase at the time. The time after the profile belongs to the last phase
+   */
+  int phase(Duration elapsed) {
+    var end = Duration.ZERO;
+    for (var i = 0; i < phases.size() - 1; ++i) {
+      end = end.plus(phases.get(i).duration);
+      if (elapsed.compareTo(end) < 0) return i;
+    }
+    return phases.size() - 1;
+  }
+}
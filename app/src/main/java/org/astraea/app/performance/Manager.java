@@ -28,7 +28,8 @@ import org.astraea.app.common.DataUnit;
 public class Manager {
   private final ExeTime exeTime;
   private final List<Metrics> producerMetrics, consumerMetrics;
-  private final Supplier<Long> keyDistribution;
+  private final Distribution keyDistribution;
+  private final Supplier<Boolean> consumedDone;
 
   /**
    * Used to manage producing/consuming.
@@ -47,13 +48,31 @@ public class Manager {
    */
   public Manager(
       Performance.Argument argument, List<Metrics> producerMetrics, List<Metrics> consumerMetrics) {
+    this(argument, producerMetrics, consumerMetrics, null);
+  }
+
+  /**
+   * @param consumedDone decides whether all records are consumed. It is used by the distributed run
+   *     since the records of a worker may be consumed by other workers. Null means the local metrics
+   *     are compared.
+   */
+  Manager(
+      Performance.Argument argument,
+      List<Metrics> producerMetrics,
+      List<Metrics> consumerMetrics,
+      Supplier<Boolean> consumedDone) {
     if (argument.recordSize.greaterThan(DataUnit.Byte.of(Integer.MAX_VALUE)))
       throw new IllegalArgumentException(
           "Record size should be smaller than or equal to 2147483648 (Integer.MAX_VALUE) bytes");
     this.producerMetrics = producerMetrics;
     this.consumerMetrics = consumerMetrics;
     this.exeTime = argument.exeTime;
-    this.keyDistribution = argument.keyDistributionType.create(100000);
+    this.keyDistribution =
+        argument.keyDistributionType.create(100000, argument.keyDistributionConfig);
+    this.consumedDone =
+        consumedDone != null
+            ? consumedDone
+            : () -> consumerMetrics.size() == 0 || consumedRecords() >= producedRecords();
   }
 
   public long producedRecords() {
@@ -70,11 +89,11 @@ public class Manager {
 
   /** Check if we should keep consuming record. */
   public boolean consumedDone() {
-    return consumerMetrics.size() == 0 || consumedRecords() >= producedRecords();
+    return consumedDone.get();
   }
 
   /** Randomly choose a key according to the distribution. */
   public byte[] getKey() {
-    return (String.valueOf(keyDistribution.get())).getBytes();
+    return KeyTable.encode(keyDistribution.getAsLong());
   }
 }
@@ -16,71 +16,67 @@
  */
 package org.astraea.app.performance;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
-/** Used to record statistics. This is thread safe. */
+/**
+ * Used to record statistics. This is thread safe and lock-free. The latencies are kept by {@link
+ * Histogram} so the percentiles are available.
+ */
 public class Metrics implements BiConsumer<Long, Integer> {
-  private double avgLatency;
-  private long num;
-  private long max;
-  private long min;
-  private long bytes;
-  private long currentBytes;
-
-  public Metrics() {
-    avgLatency = 0;
-    num = 0;
-    max = 0;
-    min = Long.MAX_VALUE;
-    bytes = 0;
-    currentBytes = 0;
-  }
+  private final Histogram latencies = new Histogram();
+  private final LongAdder num = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  // the values which were reported by "clearAndGetXXX"
+  private final AtomicLong reportedBytes = new AtomicLong(0);
+  private final AtomicReference<Histogram.Snapshot> reportedLatencies =
+      new AtomicReference<>(Histogram.Snapshot.EMPTY);
 
   /** Simultaneously add latency and bytes. */
   @Override
-  public synchronized void accept(Long latency, Integer bytes) {
-    ++num;
-    putLatency(latency);
-    addBytes(bytes);
-  }
-
-  /** Add a new value to latency metric. */
-  private synchronized void putLatency(long latency) {
-    min = Math.min(min, latency);
-    max = Math.max(max, latency);
-    avgLatency += (((double) latency) - avgLatency) / (double) num;
-  }
-  /** Add a new value to bytes. */
-  private synchronized void addBytes(long bytes) {
-    this.currentBytes += bytes;
-    this.bytes += bytes;
+  public void accept(Long latency, Integer bytes) {
+    latencies.record(latency);
+    this.bytes.add(bytes);
+    num.increment();
   }
 
   /** @return Get the number of latency put. */
-  public synchronized long num() {
-    return num;
+  public long num() {
+    return num.sum();
   }
   /** @return Get the maximum of latency put. */
-  public synchronized long max() {
-    return max;
+  public long max() {
+    return latencies.snapshot().max();
   }
   /** @return Get the minimum of latency put. */
-  public synchronized long min() {
-    return min;
+  public long min() {
+    return latencies.snapshot().min();
   }
   /** @return Get the average latency. */
-  public synchronized double avgLatency() {
-    return avgLatency;
+  public double avgLatency() {
+    return latencies.snapshot().average();
+  }
+
+  /** @return all latencies put so far */
+  public Histogram.Snapshot latencies() {
+    return latencies.snapshot();
   }
 
   /** @return total send/received bytes */
-  public synchronized long bytes() {
-    return bytes;
+  public long bytes() {
+    return bytes.sum();
+  }
+
+  public long clearAndGetCurrentBytes() {
+    var total = bytes.sum();
+    return total - reportedBytes.getAndSet(total);
   }
 
-  public synchronized long clearAndGetCurrentBytes() {
-    var ans = currentBytes;
-    currentBytes = 0;
-    return ans;
+  /** @return the latencies put after last call of this method */
+  public Histogram.Snapshot clearAndGetCurrentLatencies() {
+    var total = latencies.snapshot();
+    return total.subtract(reportedLatencies.getAndSet(total));
   }
 }
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Per-partition statistics of a topic. The counters of each partition are {@link LongAdder}, so
+ * recording is lock-free and allocation-free. The end-to-end latencies of a partition are counted
+ * by the coarse buckets of {@link #LATENCY_SUB_BITS}, which are much smaller than a {@link
+ * Histogram}. The records of other topics are ignored.
+ */
+final class PartitionMetrics {
+
+  /**
+   * the log2 of linear buckets per power of two of partition latencies. The relative error of
+   * partition percentiles is smaller than 1/8
+   */
+  static final int LATENCY_SUB_BITS = 3;
+
+  /** the larger latencies (about 49 days in milliseconds) are put into the last bucket */
+  static final long MAX_LATENCY = (1L << 32) - 1;
+
+  /** the number of latency buckets of each partition */
+  static final int LATENCY_BUCKETS = Histogram.index(MAX_LATENCY, LATENCY_SUB_BITS) + 1;
+
+  /**
+   * @param topic to track
+   * @param leaders the leader broker of each partition
+   * @return the metrics of partitions. The partitions are from 0 to the max partition of leaders
+   */
+  static PartitionMetrics of(String topic, Map<Integer, Integer> leaders) {
+    var array = new int[leaders.keySet().stream().mapToInt(p -> p + 1).max().orElse(0)];
+    Arrays.fill(array, -1);
+    leaders.forEach((partition, leader) -> array[partition] = leader);
+    return new PartitionMetrics(topic, array);
+  }
+
+  private final String topic;
+  private final int[] leaders;
+  private final Counters[] counters;
+
+  private PartitionMetrics(String topic, int[] leaders) {
+    this.topic = topic;
+    this.leaders = leaders;
+    this.counters =
+        IntStream.range(0, leaders.length).mapToObj(i -> new Counters()).toArray(Counters[]::new);
+  }
+
+  private static final class Counters {
+    private final LongAdder producedRecords = new LongAdder();
+    private final LongAdder producedBytes = new LongAdder();
+    private final LongAdder consumedRecords = new LongAdder();
+    private final LongAdder consumedBytes = new LongAdder();
+    // a partition is read by a consumer at a time, so the buckets are rarely contended
+    private final AtomicLongArray e2eLatencies = new AtomicLongArray(LATENCY_BUCKETS);
+    private final LongAdder e2eLatencySum = new LongAdder();
+    private final LongAccumulator e2eLatencyMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator e2eLatencyMax = new LongAccumulator(Math::max, Long.MIN_VALUE);
+  }
+
+  /** @return the number of tracked partitions */
+  int partitions() {
+    return leaders.length;
+  }
+
+  /** Add a record acked by the broker. */
+  void produced(String topic, int partition, int bytes) {
+    if (!tracked(topic, partition)) return;
+    var c = counters[partition];
+    c.producedRecords.increment();
+    c.producedBytes.add(bytes);
+  }
+
+  /** Add a record received by the consumer. */
+  void consumed(String topic, int partition, long latency, int bytes) {
+    if (!tracked(topic, partition)) return;
+    var c = counters[partition];
+    c.e2eLatencies.incrementAndGet(
+        Histogram.index(Math.min(MAX_LATENCY, latency), LATENCY_SUB_BITS));
+    c.e2eLatencySum.add(latency);
+    c.e2eLatencyMin.accumulate(latency);
+    c.e2eLatencyMax.accumulate(latency);
+    c.consumedBytes.add(bytes);
+    c.consumedRecords.increment();
+  }
+
+  private boolean tracked(String topic, int partition) {
+    return partition >= 0 && partition < leaders.length && this.topic.equals(topic);
+  }
+
+  /** @return the statistics recorded so far */
+  Snapshot snapshot() {
+    var size = leaders.length;
+    var snapshot = new Snapshot(leaders.clone(), size);
+    for (var i = 0; i != size; ++i) {
+      var c = counters[i];
+      // read the consumed counters first, so the lag is never negative
+      snapshot.consumedRecords[i] = c.consumedRecords.sum();
+      snapshot.consumedBytes[i] = c.consumedBytes.sum();
+      for (var b = 0; b != LATENCY_BUCKETS; ++b)
+        snapshot.e2eLatencyCounts[i][b] = c.e2eLatencies.get(b);
+      snapshot.e2eLatencySum[i] = c.e2eLatencySum.sum();
+      snapshot.e2eLatencyMin[i] = c.e2eLatencyMin.get();
+      snapshot.e2eLatencyMax[i] = c.e2eLatencyMax.get();
+      snapshot.producedRecords[i] = c.producedRecords.sum();
+      snapshot.producedBytes[i] = c.producedBytes.sum();
+    }
+    return snapshot;
+  }
+
+  /**
+   * @param values to compare
+   * @return the max value divided by the mean value. It is 1 if the values are balanced, and it is
+   *     0 if all values are zero
+   */
+  static double maxMeanRatio(long[] values) {
+    var sum = sum(values);
+    if (sum == 0) return 0;
+    return Arrays.stream(values).max().orElse(0) * (double) values.length / sum;
+  }
+
+  /**
+   * @param values to compare
+   * @return the Gini coefficient of values. It is 0 if the values are balanced, and it is close to
+   *     1 if a single value takes all
+   */
+  static double gini(long[] values) {
+    var sum = sum(values);
+    if (sum == 0) return 0;
+    var sorted = values.clone();
+    Arrays.sort(sorted);
+    var weighted = 0D;
+    for (var i = 0; i != sorted.length; ++i) weighted += (i + 1D) * sorted[i];
+    var n = sorted.length;
+    return 2 * weighted / (n * (double) sum) - (n + 1D) / n;
+  }
+
+  private static long sum(long[] values) {
+    var sum = 0L;
+    for (var value : values) sum += value;
+    return sum;
+  }
+
+  /** An immutable copy of the statistics. The arrays are indexed by the partition. */
+  static final class Snapshot {
+    /** the leader broker of each partition, or -1 if it is unknown */
+    final int[] leaders;
+
+    final long[] producedRecords;
+    final long[] producedBytes;
+    final long[] consumedRecords;
+    final long[] consumedBytes;
+
+    private final long[][] e2eLatencyCounts;
+    private final long[] e2eLatencySum;
+    private final long[] e2eLatencyMin;
+    private final long[] e2eLatencyMax;
+
+    private Snapshot(int[] leaders, int size) {
+      this.leaders = leaders;
+      this.producedRecords = new long[size];
+      this.producedBytes = new long[size];
+      this.consumedRecords = new long[size];
+      this.consumedBytes = new long[size];
+      this.e2eLatencyCounts = new long[size][LATENCY_BUCKETS];
+      this.e2eLatencySum = new long[size];
+      this.e2eLatencyMin = new long[size];
+      this.e2eLatencyMax = new long[size];
+    }
+
+    int partitions() {
+      return leaders.length;
+    }
+
+    /**
+     * @param partition to get
+     * @return the end-to-end latencies of partition. The percentiles are the upper bounds of the
+     *     coarse buckets, and the sum, min and max are exact
+     */
+    Histogram.Snapshot e2eLatencies(int partition) {
+      var counts = new long[Histogram.BUCKETS];
+      var coarse = e2eLatencyCounts[partition];
+      // each coarse bucket ends at the end of a histogram bucket
+      for (var i = 0; i != coarse.length; ++i)
+        counts[Histogram.index(Histogram.highestValue(i, LATENCY_SUB_BITS))] += coarse[i];
+      return Histogram.Snapshot.of(
+          counts, e2eLatencySum[partition], e2eLatencyMin[partition], e2eLatencyMax[partition]);
+    }
+
+    /** @return the records which are acked by the brokers but not consumed yet */
+    long[] lags() {
+      return IntStream.range(0, partitions())
+          .mapToLong(i -> Math.max(0, producedRecords[i] - consumedRecords[i]))
+          .toArray();
+    }
+
+    /** @return the produced bytes of each partition since the previous snapshot */
+    long[] currentProducedBytes(Snapshot previous) {
+      return IntStream.range(0, partitions())
+          .mapToLong(
+              i -> producedBytes[i] - (i < previous.partitions() ? previous.producedBytes[i] : 0))
+          .toArray();
+    }
+
+    /** @return the sorted ids of leader brokers */
+    int[] brokers() {
+      return Arrays.stream(leaders).filter(id -> id >= 0).distinct().sorted().toArray();
+    }
+
+    /**
+     * @param partitionValues the values of partitions
+     * @return the sum of partition values of each broker. The order is the same as {@link
+     *     #brokers()}
+     */
+    long[] brokerValues(long[] partitionValues) {
+      var brokers = brokers();
+      var values = new long[brokers.length];
+      for (var i = 0; i != partitions(); ++i) {
+        var index = Arrays.binarySearch(brokers, leaders[i]);
+        if (index >= 0) values[index] += partitionValues[i];
+      }
+      return values;
+    }
+
+    /** @return the skew of values across partitions and leader brokers */
+    String skew(long[] partitionValues) {
+      var brokerValues = brokerValues(partitionValues);
+      return String.format(
+          "partitions max/mean %.2f gini %.3f, brokers max/mean %.2f gini %.3f",
+          maxMeanRatio(partitionValues),
+          gini(partitionValues),
+          maxMeanRatio(brokerValues),
+          gini(brokerValues));
+    }
+  }
+}
@@ -24,9 +24,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -35,13 +38,18 @@ import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
 import org.apache.kafka.common.errors.WakeupException;
 import org.astraea.app.admin.Admin;
 import org.astraea.app.admin.Compression;
+import org.astraea.app.admin.Replica;
 import org.astraea.app.admin.TopicPartition;
 import org.astraea.app.argument.CompressionField;
+import org.astraea.app.argument.DurationField;
 import org.astraea.app.argument.NonEmptyStringField;
+import org.astraea.app.argument.NonNegativeIntegerField;
 import org.astraea.app.argument.NonNegativeShortField;
 import org.astraea.app.argument.PathField;
+import org.astraea.app.argument.PositiveDoubleField;
 import org.astraea.app.argument.PositiveLongField;
 import org.astraea.app.argument.PositiveShortField;
+import org.astraea.app.argument.StringMapField;
 import org.astraea.app.common.DataSize;
 import org.astraea.app.common.DataUnit;
 import org.astraea.app.common.Utils;
@@ -76,31 +84,77 @@ import org.astraea.app.producer.Producer;
  *   <li>--recordSize: the record size in byte. Default: 1024
  * </ol>
  *
- * To avoid records being produced too fast, producer wait for one millisecond after each send.
+ * The producers send records evenly at the rate of "--throughput", and the latencies are measured
+ * from the intended send time so the stalls of producers are not hidden.
  */
 public class Performance {
   /** Used in Automation, to achieve the end of one Performance and then start another. */
   public static void main(String[] args)
       throws InterruptedException, IOException, ExecutionException {
-    execute(org.astraea.app.argument.Argument.parse(new Argument(), args));
+    var argument = org.astraea.app.argument.Argument.parse(new Argument(), args);
+    if (argument.workers > 0 && !argument.worker()) Coordinator.execute(argument, args);
+    else if (argument.searchSlo != null) ThroughputSearch.search(argument, args);
+    else execute(argument);
   }
 
-  private static DataSupplier dataSupplier(Performance.Argument argument) {
-    return DataSupplier.of(
+  private static DataSupplier dataSupplier(
+      Performance.Argument argument, TraceReader reader, TraceReader.Summary summary) {
+    if (reader != null)
+      return DataSupplier.replay(argument.exeTime, reader, summary, argument.traceSpeed);
+    var profile = argument.profile();
+    if (profile != null)
+      return DataSupplier.of(
+          argument.exeTime,
+          profile,
+          profile.phases().stream()
+              .map(
+                  phase ->
+                      dataSupplier(
+                          // the profile decides when to stop
+                          ExeTime.of((records, elapsed) -> 0D, "unlimited"),
+                          argument,
+                          phase.recordSize,
+                          phase.keyDistributionType,
+                          phase.sizeDistributionType))
+              .collect(Collectors.toUnmodifiableList()));
+    return dataSupplier(
         argument.exeTime,
-        argument.keyDistributionType.create(10000),
+        argument,
         argument.recordSize,
-        argument.sizeDistributionType.create(
-            argument.recordSize.measurement(DataUnit.Byte).intValue()),
-        argument.throughput);
+        argument.keyDistributionType,
+        argument.sizeDistributionType);
+  }
+
+  private static DataSupplier dataSupplier(
+      ExeTime exeTime,
+      Performance.Argument argument,
+      DataSize recordSize,
+      DistributionType keyDistributionType,
+      DistributionType sizeDistributionType) {
+    return DataSupplier.of(
+        exeTime,
+        keyDistributionType.create(10000, argument.keyDistributionConfig),
+        recordSize,
+        sizeDistributionType.create(
+            recordSize.measurement(DataUnit.Byte).intValue(), argument.sizeDistributionConfig));
+  }
+
+  private static Throttler throttler(Performance.Argument argument) {
+    // the trace decides the send time of records
+    if (argument.traceFile != null) return Throttler.UNLIMITED;
+    // each producer sends an even share of the throughput. The producers of distributed run are
+    // the producers of all workers
+    if (argument.profile() != null) return Throttler.of(argument.profile(), argument.producers);
+    return Throttler.of(argument.throughput.divide(argument.producers));
   }
 
   static List<ProducerExecutor> producerExecutors(
       Performance.Argument argument,
       List<? extends BiConsumer<Long, Integer>> observers,
+      PartitionMetrics partitionMetrics,
       DataSupplier dataSupplier,
       Supplier<Integer> partitionSupplier) {
-    return IntStream.range(0, argument.producers)
+    return IntStream.range(0, observers.size())
         .mapToObj(
             index ->
                 ProducerExecutor.of(
@@ -121,96 +175,231 @@ public class Performance {
                             .partitionClassName(argument.partitioner)
                             .build(),
                     observers.get(index),
+                    partitionMetrics,
                     partitionSupplier,
-                    dataSupplier))
+                    dataSupplier,
+                    throttler(argument)))
         .collect(Collectors.toUnmodifiableList());
   }
 
   public static Result execute(final Argument param)
       throws InterruptedException, IOException, ExecutionException {
-    List<Integer> partitions;
+    return execute(param, List.of());
+  }
+
+  /**
+   * @param param arguments
+   * @param checkpoints the elapsed times to take {@link Checkpoint}. The last checkpoint of result
+   *     is always taken after all producers and consumers are done. The boundaries of load phases
+   *     are used if it is empty.
+   * @return result
+   */
+  static Result execute(final Argument param, List<Duration> checkpoints)
+      throws InterruptedException, IOException, ExecutionException {
+    var profile = param.profile();
+    if (profile != null) {
+      // the run ends with the last phase
+      param.exeTime = ExeTime.of(profile.duration().toMillis() + "ms");
+      if (checkpoints.isEmpty()) checkpoints = profile.boundaries();
+    }
+    if (param.worker()) param.exeTime = Worker.share(param.exeTime, param.workers, param.workerId);
+    var summary =
+        param.traceFile == null ? null : TraceReader.summary(param.traceFile, param.partitions);
+    // replay the topics of trace instead of the specified topic
+    var topics = summary == null ? Set.of(param.topic) : summary.topics;
+    List<Integer> allPartitions;
+    PartitionMetrics partitionMetrics;
     try (var topicAdmin = Admin.of(param.configs())) {
-      topicAdmin
-          .creator()
-          .numberOfReplicas(param.replicas)
-          .numberOfPartitions(param.partitions)
-          .topic(param.topic)
-          .create();
-
-      Utils.waitFor(() -> topicAdmin.topicNames().contains(param.topic));
-      partitions = new ArrayList<>(partition(param, topicAdmin));
+      topics.forEach(
+          topic ->
+              topicAdmin
+                  .creator()
+                  .numberOfReplicas(param.replicas)
+                  .numberOfPartitions(param.partitions)
+                  .topic(topic)
+                  .create());
+
+      Utils.waitFor(() -> topicAdmin.topicNames().containsAll(topics));
+      allPartitions = summary == null ? new ArrayList<>(partition(param, topicAdmin)) : List.of(-1);
+      // the partitions of trace topics are not tracked
+      partitionMetrics =
+          PartitionMetrics.of(param.topic, summary == null ? leaders(param, topicAdmin) : Map.of());
     }
-
+    // the specified partitions are split by workers. All workers use all partitions if there are
+    // not enough partitions
+    var partitions =
+        param.worker()
+                && !allPartitions.equals(List.of(-1))
+                && allPartitions.size() >= param.workers
+            ? Worker.share(
+                allPartitions.stream().sorted().collect(Collectors.toUnmodifiableList()),
+                param.workers,
+                param.workerId)
+            : allPartitions;
+
+    // the producers and consumers are split by workers
+    var consumers =
+        param.worker()
+            ? (int) Worker.share(param.consumers, param.workers, param.workerId)
+            : param.consumers;
+    var producers =
+        param.worker()
+            ? (int) Worker.share(param.producers, param.workers, param.workerId)
+            : param.producers;
     var consumerMetrics =
-        IntStream.range(0, param.consumers)
+        IntStream.range(0, consumers)
             .mapToObj(i -> new Metrics())
             .collect(Collectors.toUnmodifiableList());
     var producerMetrics =
-        IntStream.range(0, param.producers)
+        IntStream.range(0, producers)
             .mapToObj(i -> new Metrics())
             .collect(Collectors.toUnmodifiableList());
 
-    var manager = new Manager(param, producerMetrics, consumerMetrics);
-    var groupId = "groupId-" + System.currentTimeMillis();
-    var consumerBalancerLatch = new CountDownLatch(param.consumers);
-    var dataSupplier = dataSupplier(param);
+    // the workers decide whether the records are consumed by the reply of coordinator
+    var consumedDone = new AtomicBoolean(false);
+    var manager =
+        new Manager(
+            param, producerMetrics, consumerMetrics, param.worker() ? consumedDone::get : null);
+    var groupId =
+        param.worker()
+            ? Worker.join(param.coordinator, param.workerId)
+            : "groupId-" + System.currentTimeMillis();
+    var consumerBalancerLatch = new CountDownLatch(consumers);
+    var reader = summary == null ? null : TraceReader.of(param.traceFile, param.partitions);
+    var dataSupplier = dataSupplier(param, reader, summary);
     Supplier<Integer> partitionSupplier =
         () -> partitions.isEmpty() ? -1 : partitions.get((int) (Math.random() * partitions.size()));
 
     var producerExecutors =
-        producerExecutors(param, producerMetrics, dataSupplier, partitionSupplier);
+        producerExecutors(
+            param, producerMetrics, partitionMetrics, dataSupplier, partitionSupplier);
 
     Supplier<Boolean> producerDone =
         () -> producerExecutors.stream().allMatch(ProducerExecutor::closed);
 
-    var tracker = new Tracker(producerMetrics, consumerMetrics, manager, producerDone);
+    var tracker =
+        new Tracker(producerMetrics, consumerMetrics, partitionMetrics, manager, producerDone);
 
+    // the coordinator writes the report of distributed run
     Collection<Executor> fileWriter =
-        (param.CSVPath != null)
+        (param.CSVPath != null && !param.worker())
             ? List.of(
                 ReportFormat.createFileWriter(
                     param.reportFormat, param.CSVPath, manager, producerDone, tracker))
             : List.of();
 
-    try (var consumersPool =
-        ThreadPool.builder()
-            .executors(
-                IntStream.range(0, param.consumers)
-                    .mapToObj(
-                        i ->
-                            consumerExecutor(
-                                Consumer.forTopics(Set.of(param.topic))
-                                    .bootstrapServers(param.bootstrapServers())
-                                    .groupId(groupId)
-                                    .configs(param.configs())
-                                    .isolation(param.isolation())
-                                    .consumerRebalanceListener(
-                                        ignore -> consumerBalancerLatch.countDown())
-                                    .build(),
-                                consumerMetrics.get(i),
-                                manager,
-                                producerDone))
-                    .collect(Collectors.toUnmodifiableList()))
-            .build()) {
+    var takenCheckpoints = new CopyOnWriteArrayList<Checkpoint>();
+    Collection<Executor> checkpointer =
+        checkpoints.isEmpty()
+            ? List.of()
+            : List.of(
+                checkpointer(
+                    checkpoints,
+                    producerMetrics,
+                    consumerMetrics,
+                    producerDone,
+                    takenCheckpoints));
+    Collection<Executor> reporter =
+        param.worker()
+            ? List.of(
+                Worker.reporter(
+                    param, producerMetrics, consumerMetrics, producerDone, consumedDone))
+            : List.of();
+
+    try (reader;
+        var consumersPool =
+            ThreadPool.builder()
+                .executors(
+                    IntStream.range(0, consumers)
+                        .mapToObj(
+                            i ->
+                                consumerExecutor(
+                                    Consumer.forTopics(topics)
+                                        .bootstrapServers(param.bootstrapServers())
+                                        .groupId(groupId)
+                                        .configs(param.configs())
+                                        .isolation(param.isolation())
+                                        .consumerRebalanceListener(
+                                            ignore -> consumerBalancerLatch.countDown())
+                                        .build(),
+                                    consumerMetrics.get(i),
+                                    partitionMetrics,
+                                    manager,
+                                    producerDone))
+                        .collect(Collectors.toUnmodifiableList()))
+                .build()) {
       // make sure all consumers get their partition assignment
       consumerBalancerLatch.await();
+      // all workers start producing at the same time
+      if (param.worker()) Worker.start(param.coordinator, param.workerId);
+      var start = System.nanoTime();
 
       try (var threadPool =
           ThreadPool.builder()
               .executors(producerExecutors)
               .executor(tracker)
               .executors(fileWriter)
+              .executors(checkpointer)
+              .executors(reporter)
               .build()) {
         threadPool.waitAll();
         consumersPool.waitAll();
-        return new Result(param.topic);
+        takenCheckpoints.add(
+            Checkpoint.of(
+                Duration.ofNanos(System.nanoTime() - start), producerMetrics, consumerMetrics));
+        if (param.worker())
+          Worker.report(
+              param.coordinator,
+              Worker.Report.of(
+                  param.workerId,
+                  true,
+                  true,
+                  producerMetrics,
+                  consumerMetrics,
+                  takenCheckpoints.get(takenCheckpoints.size() - 1)));
+        if (partitionMetrics.partitions() > 0) {
+          var partitionResult = partitionMetrics.snapshot();
+          Tracker.logPartitions(partitionResult);
+          if (param.CSVPath != null && !param.worker())
+            ReportFormat.writePartitions(param.reportFormat, param.CSVPath, partitionResult);
+        }
+        if (profile != null) {
+          var results = profile.results(takenCheckpoints);
+          results.forEach(System.out::println);
+          if (param.CSVPath != null && !param.worker())
+            ReportFormat.writePhases(param.reportFormat, param.CSVPath, results);
+        }
+        return new Result(param.topic, takenCheckpoints);
       }
     }
   }
 
+  static Executor checkpointer(
+      List<Duration> checkpoints,
+      List<Metrics> producerMetrics,
+      List<Metrics> consumerMetrics,
+      Supplier<Boolean> producerDone,
+      List<Checkpoint> taken) {
+    var start = new long[] {-1};
+    var remaining = new ArrayList<>(checkpoints);
+    remaining.sort(Duration::compareTo);
+    return () -> {
+      if (remaining.isEmpty() || producerDone.get()) return State.DONE;
+      // the elapsed time starts with the producers
+      if (start[0] < 0) start[0] = System.nanoTime();
+      var elapsed = Duration.ofNanos(System.nanoTime() - start[0]);
+      if (elapsed.compareTo(remaining.get(0)) >= 0) {
+        remaining.remove(0);
+        taken.add(Checkpoint.of(elapsed, producerMetrics, consumerMetrics));
+      } else Thread.sleep(Math.min(100, remaining.get(0).minus(elapsed).toMillis()));
+      return State.RUNNING;
+    };
+  }
+
   static Executor consumerExecutor(
       Consumer<byte[], byte[]> consumer,
       BiConsumer<Long, Integer> observer,
+      PartitionMetrics partitionMetrics,
       Manager manager,
       Supplier<Boolean> producerDone) {
     return new Executor() {
@@ -223,9 +412,10 @@ public class Performance {
                   record -> {
                     // record ene-to-end latency, and record input byte (header and timestamp size
                     // excluded)
-                    observer.accept(
-                        System.currentTimeMillis() - record.timestamp(),
-                        record.serializedKeySize() + record.serializedValueSize());
+                    var latency = System.currentTimeMillis() - record.timestamp();
+                    var bytes = record.serializedKeySize() + record.serializedValueSize();
+                    observer.accept(latency, bytes);
+                    partitionMetrics.consumed(record.topic(), record.partition(), latency, bytes);
                   });
           // Consumer reached the record upperbound or consumed all the record producer produced.
           return producerDone.get() && manager.consumedDone() ? State.DONE : State.RUNNING;
@@ -260,6 +450,17 @@ public class Performance {
     } else return Set.of(-1);
   }
 
+  /** @return the leader broker of each partition of the topic */
+  static Map<Integer, Integer> leaders(Argument param, Admin topicAdmin) {
+    return topicAdmin.replicas(Set.of(param.topic)).entrySet().stream()
+        .flatMap(
+            e ->
+                e.getValue().stream()
+                    .filter(Replica::leader)
+                    .map(r -> Map.entry(e.getKey().partition(), r.broker())))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
   private static boolean positiveSpecifyBroker(Argument param) {
     return param.specifyBroker.stream().allMatch(broker -> broker >= 0);
   }
@@ -343,17 +544,33 @@ public class Performance {
     @Parameter(
         names = {"--key.distribution"},
         description =
-            "String: Distribution name. Available distribution names: \"fixed\" \"uniform\", \"zipfian\", \"latest\". Default: uniform",
+            "String: Distribution name. Available distribution names: \"fixed\" \"uniform\", \"zipfian\", \"latest\", \"hotspot\", \"sequential\", \"exponential\", \"normal\", \"histogram\". Default: uniform",
         converter = DistributionType.DistributionTypeField.class)
     DistributionType keyDistributionType = DistributionType.UNIFORM;
 
+    @Parameter(
+        names = {"--key.distribution.config"},
+        description =
+            "Map: extra configs of key distribution. For example: --key.distribution.config seed=1,traffic=0.9,keys=0.1",
+        converter = StringMapField.class,
+        validateWith = StringMapField.class)
+    Map<String, String> keyDistributionConfig = Map.of();
+
     @Parameter(
         names = {"--size.distribution"},
         description =
-            "String: Distribution name. Available distribution names: \"uniform\", \"zipfian\", \"latest\", \"fixed\". Default: \"uniform\"",
+            "String: Distribution name. Available distribution names: \"uniform\", \"zipfian\", \"latest\", \"fixed\", \"hotspot\", \"sequential\", \"exponential\", \"normal\", \"histogram\". Default: \"uniform\"",
         converter = DistributionType.DistributionTypeField.class)
     DistributionType sizeDistributionType = DistributionType.UNIFORM;
 
+    @Parameter(
+        names = {"--size.distribution.config"},
+        description =
+            "Map: extra configs of size distribution. For example: --size.distribution.config mean=512,stddev=100",
+        converter = StringMapField.class,
+        validateWith = StringMapField.class)
+    Map<String, String> sizeDistributionConfig = Map.of();
+
     @Parameter(
         names = {"--specify.broker"},
         description =
@@ -363,10 +580,117 @@ public class Performance {
 
     @Parameter(
         names = {"--throughput"},
-        description = "dataSize: size output per second. e.g. \"500KiB\"",
+        description =
+            "dataSize: size output per second. e.g. \"500KiB\". The records are sent evenly at this rate",
         converter = DataSize.Field.class)
     DataSize throughput = DataUnit.GiB.of(500);
 
+    @Parameter(
+        names = {"--trace.file"},
+        description =
+            "String: the trace file to replay. Each line is \"time in ms,topic,partition or #key hash,key size,value size,headers size\". The options of topic, record size, distributions and throughput are ignored",
+        converter = PathField.class)
+    Path traceFile = null;
+
+    @Parameter(
+        names = {"--trace.speed"},
+        description =
+            "Double: the multiplier of trace replay speed. For example, 2 replays the trace in half time. Default: 1",
+        validateWith = PositiveDoubleField.class,
+        converter = PositiveDoubleField.class)
+    double traceSpeed = 1;
+
+    @Parameter(
+        names = {"--search.slo"},
+        description =
+            "Time: search the maximum throughput whose p99 publish and end-to-end latencies are within this SLO. e.g. \"50ms\". The \"--throughput\" becomes the upper bound of search. Default: (no search)",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration searchSlo = null;
+
+    @Parameter(
+        names = {"--search.start"},
+        description = "DataSize: the throughput of first search step. Default: 1MiB",
+        converter = DataSize.Field.class)
+    DataSize searchStart = DataUnit.MiB.of(1);
+
+    @Parameter(
+        names = {"--search.precision"},
+        description =
+            "DataSize: the search stops when the gap between passed and failed throughput is smaller than it. Default: 1MiB",
+        converter = DataSize.Field.class)
+    DataSize searchPrecision = DataUnit.MiB.of(1);
+
+    @Parameter(
+        names = {"--search.warmup"},
+        description =
+            "Time: the warm-up of each search step. The latencies of warm-up are excluded. Default: 10s",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration searchWarmup = Duration.ofSeconds(10);
+
+    @Parameter(
+        names = {"--search.duration"},
+        description = "Time: the measured time of each search step. Default: 30s",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration searchDuration = Duration.ofSeconds(30);
+
+    @Parameter(
+        names = {"--profile"},
+        description =
+            "String: the file of load phases. Each line is \"name,duration,throughput[-throughput][,record size[,key distribution[,size distribution]]]\". The options of run.until and throughput are ignored. Default: (no profile)",
+        converter = PathField.class)
+    Path profileFile = null;
+
+    private LoadProfile profile;
+
+    /** @return the load profile, or null if there is no profile file */
+    LoadProfile profile() {
+      if (profile == null && profileFile != null) profile = LoadProfile.read(profileFile, this);
+      return profile;
+    }
+
+    @Parameter(
+        names = {"--workers"},
+        description =
+            "Integer: the number of worker processes. The coordinator splits the throughput, records and specified partitions by the workers, and it merges the metrics of workers. Default: 0 (no worker)",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int workers = 0;
+
+    @Parameter(
+        names = {"--local.workers"},
+        description =
+            "Integer: the number of workers started by the coordinator on the local host. Other workers should be started by hand with \"--worker.id\" and \"--coordinator\". Default: all workers",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int localWorkers = -1;
+
+    @Parameter(
+        names = {"--coordinator.port"},
+        description = "Integer: the port of coordinator. Default: a random port",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int coordinatorPort = 0;
+
+    @Parameter(
+        names = {"--worker.id"},
+        description = "Integer: the id of this worker, in [0, workers). Default: (not a worker)",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int workerId = -1;
+
+    @Parameter(
+        names = {"--coordinator"},
+        description = "String: the host:port of coordinator which this worker reports to",
+        validateWith = NonEmptyStringField.class)
+    String coordinator = null;
+
+    boolean worker() {
+      return workerId >= 0;
+    }
+
     @Parameter(
         names = {"--report.path"},
         description = "String: A path to place the report. Default: (no report)",
@@ -380,15 +704,57 @@ public class Performance {
     ReportFormat reportFormat = ReportFormat.CSV;
   }
 
+  /** The totals of producers and consumers at a point of time. */
+  static class Checkpoint {
+    static Checkpoint of(Duration elapsed, List<Metrics> producers, List<Metrics> consumers) {
+      return new Checkpoint(
+          elapsed,
+          producers.stream().mapToLong(Metrics::bytes).sum(),
+          consumers.stream().mapToLong(Metrics::bytes).sum(),
+          producers.stream()
+              .map(Metrics::latencies)
+              .reduce(Histogram.Snapshot.EMPTY, Histogram.Snapshot::add),
+          consumers.stream()
+              .map(Metrics::latencies)
+              .reduce(Histogram.Snapshot.EMPTY, Histogram.Snapshot::add));
+    }
+
+    final Duration elapsed;
+    final long producedBytes;
+    final long consumedBytes;
+    final Histogram.Snapshot publishLatencies;
+    final Histogram.Snapshot e2eLatencies;
+
+    Checkpoint(
+        Duration elapsed,
+        long producedBytes,
+        long consumedBytes,
+        Histogram.Snapshot publishLatencies,
+        Histogram.Snapshot e2eLatencies) {
+      this.elapsed = elapsed;
+      this.producedBytes = producedBytes;
+      this.consumedBytes = consumedBytes;
+      this.publishLatencies = publishLatencies;
+      this.e2eLatencies = e2eLatencies;
+    }
+  }
+
   public static class Result {
     private final String topicName;
+    private final List<Checkpoint> checkpoints;
 
-    private Result(String topicName) {
+    private Result(String topicName, List<Checkpoint> checkpoints) {
       this.topicName = topicName;
+      this.checkpoints = List.copyOf(checkpoints);
     }
 
     public String topicName() {
       return topicName;
     }
+
+    /** @return the checkpoints in time order. The last one is taken at the end of run */
+    List<Checkpoint> checkpoints() {
+      return checkpoints;
+    }
   }
 }
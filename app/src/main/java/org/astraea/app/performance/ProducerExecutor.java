@@ -16,14 +16,13 @@
  */
 package org.astraea.app.performance;
 
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import org.astraea.app.common.Utils;
 import org.astraea.app.concurrent.Executor;
 import org.astraea.app.concurrent.State;
 import org.astraea.app.producer.Producer;
@@ -36,45 +35,31 @@ abstract class ProducerExecutor implements Executor {
       int batchSize,
       Producer<byte[], byte[]> producer,
       BiConsumer<Long, Integer> observer,
+      PartitionMetrics partitionMetrics,
       Supplier<Integer> partitionSupplier,
-      DataSupplier dataSupplier) {
+      DataSupplier dataSupplier,
+      Throttler throttler) {
     return new ProducerExecutor(topic, producer, partitionSupplier, observer, dataSupplier) {
 
       @Override
-      public State execute() {
+      public State execute() throws InterruptedException {
         var data =
             IntStream.range(0, batchSize)
                 .mapToObj(i -> dataSupplier.get())
+                .filter(DataSupplier.Data::hasData)
                 .collect(Collectors.toUnmodifiableList());
 
         // no more data
-        if (data.stream().allMatch(DataSupplier.Data::done)) return State.DONE;
-
-        // no data due to throttle
-        // TODO: we should return a precise sleep time
-        if (data.stream().allMatch(DataSupplier.Data::throttled)) {
-          Utils.sleep(Duration.ofSeconds(1));
-          return State.RUNNING;
-        }
-        return doSend(
-            senders(
-                data.stream()
-                    .filter(DataSupplier.Data::hasData)
-                    .collect(Collectors.toUnmodifiableList())));
+        if (data.isEmpty()) return State.DONE;
+
+        return doSend(senders(data));
       }
 
-      List<Sender<byte[], byte[]>> senders(List<DataSupplier.Data> data) {
-        return data.stream()
-            .map(
-                d ->
-                    producer
-                        .sender()
-                        .topic(topic)
-                        .partition(partitionSupplier.get())
-                        .key(d.key())
-                        .value(d.value())
-                        .timestamp(System.currentTimeMillis()))
-            .collect(Collectors.toList());
+      List<Sender<byte[], byte[]>> senders(List<DataSupplier.Data> data)
+          throws InterruptedException {
+        var senders = new ArrayList<Sender<byte[], byte[]>>(data.size());
+        for (var d : data) senders.add(sender(producer, topic, partitionSupplier, throttler, d));
+        return senders;
       }
 
       State doSend(List<Sender<byte[], byte[]>> senders) {
@@ -83,10 +68,12 @@ abstract class ProducerExecutor implements Executor {
             .forEach(
                 future ->
                     future.whenComplete(
-                        (m, e) ->
-                            observer.accept(
-                                System.currentTimeMillis() - m.timestamp(),
-                                m.serializedValueSize())));
+                        (m, e) -> {
+                          observer.accept(
+                              System.currentTimeMillis() - m.timestamp(), m.serializedValueSize());
+                          partitionMetrics.produced(
+                              m.topic(), m.partition(), m.serializedValueSize());
+                        }));
         return State.RUNNING;
       }
     };
@@ -96,46 +83,58 @@ abstract class ProducerExecutor implements Executor {
       String topic,
       Producer<byte[], byte[]> producer,
       BiConsumer<Long, Integer> observer,
+      PartitionMetrics partitionMetrics,
       Supplier<Integer> partitionSupplier,
-      DataSupplier dataSupplier) {
+      DataSupplier dataSupplier,
+      Throttler throttler) {
     return new ProducerExecutor(topic, producer, partitionSupplier, observer, dataSupplier) {
 
       @Override
-      public State execute() {
+      public State execute() throws InterruptedException {
         var data = dataSupplier.get();
         if (data.done()) return State.DONE;
-
-        // no data due to throttle
-        // TODO: we should return a precise sleep time
-        if (data.throttled()) {
-          Utils.sleep(Duration.ofSeconds(1));
-          return State.RUNNING;
-        }
-        return doSend(data.key(), data.value());
-      }
-
-      Sender<byte[], byte[]> sender(byte[] key, byte[] value) {
-        return producer
-            .sender()
-            .topic(topic)
-            .partition(partitionSupplier.get())
-            .key(key)
-            .value(value)
-            .timestamp(System.currentTimeMillis());
+        return doSend(data);
       }
 
-      State doSend(byte[] key, byte[] value) {
-        sender(key, value)
+      State doSend(DataSupplier.Data data) throws InterruptedException {
+        sender(producer, topic, partitionSupplier, throttler, data)
             .run()
             .whenComplete(
-                (m, e) ->
-                    observer.accept(
-                        System.currentTimeMillis() - m.timestamp(), m.serializedValueSize()));
+                (m, e) -> {
+                  observer.accept(
+                      System.currentTimeMillis() - m.timestamp(), m.serializedValueSize());
+                  partitionMetrics.produced(m.topic(), m.partition(), m.serializedValueSize());
+                });
         return State.RUNNING;
       }
     };
   }
 
+  /**
+   * The topic, partition and timestamp carried by the data (for example, the replayed trace)
+   * override the default ones.
+   */
+  private static Sender<byte[], byte[]> sender(
+      Producer<byte[], byte[]> producer,
+      String topic,
+      Supplier<Integer> partitionSupplier,
+      Throttler throttler,
+      DataSupplier.Data data)
+      throws InterruptedException {
+    return producer
+        .sender()
+        .topic(data.topic().orElse(topic))
+        .partition(data.partition() >= 0 ? data.partition() : partitionSupplier.get())
+        .key(data.key())
+        .value(data.value())
+        .headers(data.headers())
+        // the latency is measured from the intended send time
+        .timestamp(
+            data.timestamp().isPresent()
+                ? data.timestamp().getAsLong()
+                : throttler.acquire(data.value().length));
+  }
+
   private final String topic;
   private final Producer<byte[], byte[]> producer;
   private final Supplier<Integer> partitionSupplier;
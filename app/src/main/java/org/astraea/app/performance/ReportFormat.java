@@ -25,9 +25,13 @@ import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import org.astraea.app.common.DataUnit;
 import org.astraea.app.common.Utils;
 import org.astraea.app.concurrent.Executor;
@@ -75,7 +79,10 @@ public enum ReportFormat {
     switch (reportFormat) {
       case CSV:
         initCSVFormat(
-            writer, tracker.producerResult().bytes.size(), tracker.consumerResult().bytes.size());
+            writer,
+            tracker.producerResult().bytes.size(),
+            tracker.consumerResult().bytes.size(),
+            tracker.partitionResult().partitions());
         return new Executor() {
           @Override
           public State execute() throws InterruptedException {
@@ -110,12 +117,221 @@ public enum ReportFormat {
     }
   }
 
-  private static void initCSVFormat(BufferedWriter writer, int producerCounts, int consumerCounts)
+  /**
+   * Write the statistics of load phases to a file.
+   *
+   * @param reportFormat file format
+   * @param path the folder to place the file
+   * @param results of phases
+   */
+  public static void writePhases(
+      ReportFormat reportFormat, Path path, List<LoadProfile.PhaseResult> results)
+      throws IOException {
+    var filePath =
+        FileSystems.getDefault()
+            .getPath(
+                path.toString(),
+                "PerformancePhases"
+                    + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date())
+                    + reportFormat);
+    try (var writer = new BufferedWriter(new FileWriter(filePath.toFile()))) {
+      switch (reportFormat) {
+        case CSV:
+          writer.write("Phase, Duration (sec), Output throughput (/sec), Input throughput (/sec)");
+          for (var name : List.of("Publish", "End-to-end"))
+            for (var percentile : Histogram.PERCENTILES)
+              writer.write(
+                  ", " + name + " p" + Tracker.percentileName(percentile) + " latency (ms)");
+          writer.newLine();
+          for (var result : results) {
+            writer.write(result.phase.name + "," + result.elapsed.toSeconds());
+            writer.write("," + DataUnit.Byte.of((long) result.outputRate()));
+            writer.write("," + DataUnit.Byte.of((long) result.inputRate()));
+            for (var latencies : List.of(result.publishLatencies, result.e2eLatencies))
+              for (var percentile : Histogram.PERCENTILES)
+                writer.write("," + latencies.percentile(percentile));
+            writer.newLine();
+          }
+          return;
+        case JSON:
+          writer.write(
+              results.stream()
+                  .map(
+                      result ->
+                          String.format(
+                              "\"%s\": {\"duration\": %d, \"outputThroughput\": %.3f, "
+                                  + "\"inputThroughput\": %.3f, \"publishLatency\": %s, "
+                                  + "\"E2ELatency\": %s}",
+                              result.phase.name,
+                              result.elapsed.toSeconds(),
+                              result.outputRate() / 1024D / 1024D,
+                              result.inputRate() / 1024D / 1024D,
+                              toJSON(result.publishLatencies),
+                              toJSON(result.e2eLatencies)))
+                  .collect(Collectors.joining(", ", "{", "}")));
+          writer.newLine();
+          return;
+        default:
+          throw new IllegalArgumentException("Invalid format.");
+      }
+    }
+  }
+
+  /**
+   * Write the merged statistics of each second of a distributed run to a file.
+   *
+   * @param reportFormat file format
+   * @param path the folder to place the file
+   * @param series the cumulative statistics of each second
+   */
+  static void writeDistributed(
+      ReportFormat reportFormat, Path path, List<Performance.Checkpoint> series)
+      throws IOException {
+    var filePath =
+        FileSystems.getDefault()
+            .getPath(
+                path.toString(),
+                "PerformanceDistributed"
+                    + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date())
+                    + reportFormat);
+    // the statistics of each second are the difference of cumulative ones
+    var seconds = new ArrayList<Performance.Checkpoint>();
+    var previous =
+        new Performance.Checkpoint(
+            Duration.ZERO, 0, 0, Histogram.Snapshot.EMPTY, Histogram.Snapshot.EMPTY);
+    for (var current : series) {
+      seconds.add(
+          new Performance.Checkpoint(
+              current.elapsed,
+              current.producedBytes - previous.producedBytes,
+              current.consumedBytes - previous.consumedBytes,
+              current.publishLatencies.subtract(previous.publishLatencies),
+              current.e2eLatencies.subtract(previous.e2eLatencies)));
+      previous = current;
+    }
+    try (var writer = new BufferedWriter(new FileWriter(filePath.toFile()))) {
+      switch (reportFormat) {
+        case CSV:
+          writer.write("Time (sec), Output throughput (/sec), Input throughput (/sec)");
+          for (var name : List.of("Publish", "End-to-end"))
+            for (var percentile : Histogram.PERCENTILES)
+              writer.write(
+                  ", " + name + " p" + Tracker.percentileName(percentile) + " latency (ms)");
+          writer.newLine();
+          for (var second : seconds) {
+            writer.write(String.valueOf(second.elapsed.toSeconds()));
+            writer.write("," + DataUnit.Byte.of(second.producedBytes));
+            writer.write("," + DataUnit.Byte.of(second.consumedBytes));
+            for (var latencies : List.of(second.publishLatencies, second.e2eLatencies))
+              for (var percentile : Histogram.PERCENTILES)
+                writer.write("," + latencies.percentile(percentile));
+            writer.newLine();
+          }
+          return;
+        case JSON:
+          writer.write(
+              seconds.stream()
+                  .map(
+                      second ->
+                          String.format(
+                              "\"%ds\": {\"outputThroughput\": %.3f, "
+                                  + "\"inputThroughput\": %.3f, \"publishLatency\": %s, "
+                                  + "\"E2ELatency\": %s}",
+                              second.elapsed.toSeconds(),
+                              second.producedBytes / 1024D / 1024D,
+                              second.consumedBytes / 1024D / 1024D,
+                              toJSON(second.publishLatencies),
+                              toJSON(second.e2eLatencies)))
+                  .collect(Collectors.joining(", ", "{", "}")));
+          writer.newLine();
+          return;
+        default:
+          throw new IllegalArgumentException("Invalid format.");
+      }
+    }
+  }
+
+  /**
+   * Write the statistics of partitions to a file.
+   *
+   * @param reportFormat file format
+   * @param path the folder to place the file
+   * @param result of partitions
+   */
+  public static void writePartitions(
+      ReportFormat reportFormat, Path path, PartitionMetrics.Snapshot result) throws IOException {
+    var filePath =
+        FileSystems.getDefault()
+            .getPath(
+                path.toString(),
+                "PerformancePartitions"
+                    + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date())
+                    + reportFormat);
+    try (var writer = new BufferedWriter(new FileWriter(filePath.toFile()))) {
+      switch (reportFormat) {
+        case CSV:
+          writer.write(
+              "Partition, Leader, Produced records, Produced bytes, Consumed records, "
+                  + "Consumed bytes");
+          for (var percentile : Histogram.PERCENTILES)
+            writer.write(", End-to-end p" + Tracker.percentileName(percentile) + " latency (ms)");
+          writer.newLine();
+          for (var i = 0; i < result.partitions(); ++i) {
+            writer.write(i + "," + result.leaders[i]);
+            writer.write("," + result.producedRecords[i] + "," + result.producedBytes[i]);
+            writer.write("," + result.consumedRecords[i] + "," + result.consumedBytes[i]);
+            var latencies = result.e2eLatencies(i);
+            for (var percentile : Histogram.PERCENTILES)
+              writer.write("," + latencies.percentile(percentile));
+            writer.newLine();
+          }
+          return;
+        case JSON:
+          var brokerBytes = result.brokerValues(result.producedBytes);
+          writer.write(
+              IntStream.range(0, result.partitions())
+                  .mapToObj(
+                      i ->
+                          String.format(
+                              "\"%d\": {\"leader\": %d, \"producedRecords\": %d, "
+                                  + "\"producedBytes\": %d, \"consumedRecords\": %d, "
+                                  + "\"consumedBytes\": %d, \"E2ELatency\": %s}",
+                              i,
+                              result.leaders[i],
+                              result.producedRecords[i],
+                              result.producedBytes[i],
+                              result.consumedRecords[i],
+                              result.consumedBytes[i],
+                              toJSON(result.e2eLatencies(i))))
+                  .collect(Collectors.joining(", ", "{\"partitions\": {", "}")));
+          writer.write(
+              String.format(
+                  ", \"partitionSkew\": {\"maxMeanRatio\": %.3f, \"gini\": %.3f}"
+                      + ", \"brokerSkew\": {\"maxMeanRatio\": %.3f, \"gini\": %.3f}}",
+                  PartitionMetrics.maxMeanRatio(result.producedBytes),
+                  PartitionMetrics.gini(result.producedBytes),
+                  PartitionMetrics.maxMeanRatio(brokerBytes),
+                  PartitionMetrics.gini(brokerBytes)));
+          writer.newLine();
+          return;
+        default:
+          throw new IllegalArgumentException("Invalid format.");
+      }
+    }
+  }
+
+  private static void initCSVFormat(
+      BufferedWriter writer, int producerCounts, int consumerCounts, int partitionCounts)
       throws IOException {
     writer.write(
         "Time \\ Name, Consumed/Produced, Output throughput (/sec), Input throughput (/sec), "
             + "Publish max latency (ms), Publish min latency (ms), "
             + "End-to-end max latency (ms), End-to-end min latency (ms)");
+    for (var name : List.of("Publish", "End-to-end"))
+      for (var prefix : List.of(name, name + " cumulative"))
+        for (var percentile : Histogram.PERCENTILES)
+          writer.write(
+              ", " + prefix + " p" + Tracker.percentileName(percentile) + " latency (ms)");
     IntStream.range(0, producerCounts)
         .forEach(
             i -> {
@@ -142,6 +358,17 @@ public enum ReportFormat {
               } catch (IOException ignore) {
               }
             });
+    if (partitionCounts > 0)
+      writer.write(
+          ", Partition throughput max/mean, Partition throughput gini"
+              + ", Broker throughput max/mean, Broker throughput gini, Consumer lag (records)");
+    for (var i = 0; i < partitionCounts; ++i)
+      writer.write(
+          ",Partition["
+              + i
+              + "] current throughput (/sec), Partition["
+              + i
+              + "] consumer lag (records)");
     writer.newLine();
   }
 
@@ -163,6 +390,14 @@ public enum ReportFormat {
       writer.write("," + DataUnit.Byte.of(result.consumerResult.totalCurrentBytes()));
       writer.write("," + result.producerResult.maxLatency + "," + result.producerResult.minLatency);
       writer.write("," + result.consumerResult.maxLatency + "," + result.consumerResult.minLatency);
+      for (var latencies :
+          List.of(
+              result.producerResult.currentLatencies,
+              result.producerResult.latencies,
+              result.consumerResult.currentLatencies,
+              result.consumerResult.latencies))
+        for (var percentile : Histogram.PERCENTILES)
+          writer.write("," + latencies.percentile(percentile));
       for (int i = 0; i < result.producerResult.bytes.size(); ++i) {
         writer.write("," + DataUnit.Byte.of(result.producerResult.currentBytes.get(i)));
         writer.write("," + result.producerResult.averageLatencies.get(i));
@@ -171,6 +406,22 @@ public enum ReportFormat {
         writer.write("," + DataUnit.Byte.of(result.consumerResult.currentBytes.get(i)));
         writer.write("," + result.consumerResult.averageLatencies.get(i));
       }
+      var partitionResult = tracker.partitionResult();
+      if (partitionResult.partitions() > 0) {
+        var currentBytes = tracker.currentPartitionBytes();
+        var brokerBytes = partitionResult.brokerValues(currentBytes);
+        var lags = partitionResult.lags();
+        writer.write(
+            String.format(
+                ",%.3f,%.3f,%.3f,%.3f,%d",
+                PartitionMetrics.maxMeanRatio(currentBytes),
+                PartitionMetrics.gini(currentBytes),
+                PartitionMetrics.maxMeanRatio(brokerBytes),
+                PartitionMetrics.gini(brokerBytes),
+                LongStream.of(lags).sum()));
+        for (var i = 0; i < partitionResult.partitions(); ++i)
+          writer.write("," + DataUnit.Byte.of(currentBytes[i]) + "," + lags[i]);
+      }
       writer.newLine();
     } catch (IOException ignore) {
     }
@@ -200,6 +451,10 @@ public enum ReportFormat {
       writer.write(", \"publishMinLatency\": " + result.producerResult.minLatency);
       writer.write(", \"E2EMaxLatency\": " + result.consumerResult.maxLatency);
       writer.write(", \"E2EMinLatency\": " + result.consumerResult.minLatency);
+      writer.write(", \"publishLatency\": " + toJSON(result.producerResult.currentLatencies));
+      writer.write(", \"publishCumulativeLatency\": " + toJSON(result.producerResult.latencies));
+      writer.write(", \"E2ELatency\": " + toJSON(result.consumerResult.currentLatencies));
+      writer.write(", \"E2ECumulativeLatency\": " + toJSON(result.consumerResult.latencies));
 
       writer.write(", \"producerThroughput\": [");
       for (int i = 0; i < result.producerResult.bytes.size(); ++i) {
@@ -217,13 +472,42 @@ public enum ReportFormat {
       for (int i = 0; i < result.consumerResult.bytes.size(); ++i) {
         writer.write(result.consumerResult.averageLatencies.get(i) + ", ");
       }
-      writer.write("]}");
+      writer.write("]");
+      var partitionResult = tracker.partitionResult();
+      if (partitionResult.partitions() > 0) {
+        var currentBytes = tracker.currentPartitionBytes();
+        var brokerBytes = partitionResult.brokerValues(currentBytes);
+        writer.write(
+            String.format(
+                ", \"partitionSkew\": {\"maxMeanRatio\": %.3f, \"gini\": %.3f}"
+                    + ", \"brokerSkew\": {\"maxMeanRatio\": %.3f, \"gini\": %.3f}",
+                PartitionMetrics.maxMeanRatio(currentBytes),
+                PartitionMetrics.gini(currentBytes),
+                PartitionMetrics.maxMeanRatio(brokerBytes),
+                PartitionMetrics.gini(brokerBytes)));
+        writer.write(
+            LongStream.of(currentBytes)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(", ", ", \"partitionThroughput\": [", "]")));
+        writer.write(
+            LongStream.of(partitionResult.lags())
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(", ", ", \"partitionLag\": [", "]")));
+      }
+      writer.write("}");
       writer.newLine();
     } catch (IOException ignore) {
     }
     return producerDone.get() && manager.consumedDone();
   }
 
+  /** @return percentiles in the format {"p50": 1, "p90": 2, ...} */
+  private static String toJSON(Histogram.Snapshot latencies) {
+    return Histogram.PERCENTILES.stream()
+        .map(p -> "\"p" + Tracker.percentileName(p) + "\": " + latencies.percentile(p))
+        .collect(Collectors.joining(", ", "{", "}"));
+  }
+
   private static ProcessedResult processResult(Manager manager, Tracker tracker) {
     var producerResult = tracker.producerResult();
     var consumerResult = tracker.consumerResult();
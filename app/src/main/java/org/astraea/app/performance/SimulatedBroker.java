@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import org.astraea.app.common.Utils;
+
+/**
+ * A broker simulated by a FIFO queue which drains bytes at its capacity. The latency of a record is
+ * the time to drain the bytes queued before it, so a slow or overloaded broker gets longer latency.
+ *
+ * <p>The state is exposed by the mbeans used by the cost functions. The broker metrics (bytes in,
+ * produce time and leader count) are registered to a private mbean server, which is exported by a
+ * JMX server if it is enabled. The producer node metrics are registered to the platform mbean
+ * server, since the real producer exposes them in the local JVM.
+ *
+ * <p>This is NOT thread-safe. The simulator drives all brokers in a single thread.
+ */
+final class SimulatedBroker implements AutoCloseable {
+
+  private final int id;
+  private final String clientId;
+  private double capacity;
+  private double backlog;
+  private long lastDrain = -1;
+
+  private long records;
+  private long bytes;
+  private double maxBacklog;
+  private final Histogram latencies = new Histogram();
+
+  // the values of previous publish. They are used to compute the rates
+  private long publishedTime = -1;
+  private long publishedRecords;
+  private long publishedBytes;
+  private Histogram.Snapshot publishedLatencies = Histogram.Snapshot.EMPTY;
+
+  private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+  private final Optional<JMXConnectorServer> jmxServer;
+  private final Optional<Registry> registry;
+  private final Attributes bytesIn = new Attributes();
+  private final Attributes messagesIn = new Attributes();
+  private final Attributes produceTime = new Attributes();
+  private final Attributes leaderCount = new Attributes();
+  private final Attributes producerNode = new Attributes();
+  private final ObjectName producerNodeName;
+
+  /**
+   * @param id broker id
+   * @param clientId the client id of the simulated producer
+   * @param capacity the bytes drained per second
+   * @param jmx true if the broker metrics are exported by a JMX server
+   */
+  SimulatedBroker(int id, String clientId, double capacity, boolean jmx) {
+    this.id = id;
+    this.clientId = clientId;
+    capacity(capacity);
+    try {
+      server.registerMBean(
+          bytesIn, new ObjectName("kafka.server:type=BrokerTopicMetrics,name=BytesInPerSec"));
+      server.registerMBean(
+          messagesIn, new ObjectName("kafka.server:type=BrokerTopicMetrics,name=MessagesInPerSec"));
+      server.registerMBean(
+          produceTime,
+          new ObjectName("kafka.network:type=RequestMetrics,request=Produce,name=TotalTimeMs"));
+      server.registerMBean(
+          leaderCount, new ObjectName("kafka.server:type=ReplicaManager,name=LeaderCount"));
+      producerNodeName =
+          new ObjectName(
+              "kafka.producer:type=producer-node-metrics,client-id="
+                  + clientId
+                  + ",node-id=node-"
+                  + id);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(producerNode, producerNodeName);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    leaders(0);
+    publish(System.nanoTime());
+    if (jmx) {
+      try {
+        var port = freePort();
+        registry = Optional.of(LocateRegistry.createRegistry(port));
+        jmxServer =
+            Optional.of(
+                JMXConnectorServerFactory.newJMXConnectorServer(
+                    new JMXServiceURL(
+                        String.format(
+                            "service:jmx:rmi://localhost:%s/jndi/rmi://localhost:%s/jmxrmi",
+                            port, port)),
+                    null,
+                    server));
+        jmxServer.get().start();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    } else {
+      registry = Optional.empty();
+      jmxServer = Optional.empty();
+    }
+  }
+
+  int id() {
+    return id;
+  }
+
+  /** @return the port of JMX server */
+  Optional<Integer> jmxPort() {
+    return jmxServer.map(s -> s.getAddress().getPort());
+  }
+
+  /** @param capacity the bytes drained per second */
+  void capacity(double capacity) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("capacity must be positive, but it is " + capacity);
+    this.capacity = capacity;
+  }
+
+  double capacity() {
+    return capacity;
+  }
+
+  /** @param leaders the number of leader partitions hosted by this broker */
+  void leaders(int leaders) {
+    leaderCount.attributes = Map.of("Value", leaders);
+  }
+
+  /**
+   * Put a record into the queue.
+   *
+   * @param now the nanoseconds when the record arrives
+   * @param size of record
+   * @return the simulated latency in microseconds
+   */
+  long append(long now, int size) {
+    drain(now);
+    backlog += size;
+    maxBacklog = Math.max(maxBacklog, backlog);
+    records++;
+    bytes += size;
+    var latency = (long) (backlog / capacity * TimeUnit.SECONDS.toMicros(1));
+    latencies.record(latency);
+    return latency;
+  }
+
+  private void drain(long now) {
+    if (lastDrain >= 0 && now > lastDrain)
+      backlog = Math.max(0, backlog - capacity * (now - lastDrain) / TimeUnit.SECONDS.toNanos(1));
+    lastDrain = Math.max(lastDrain, now);
+  }
+
+  /**
+   * Update the mbeans by the records appended after previous publish.
+   *
+   * @param now the nanoseconds of publishing
+   */
+  void publish(long now) {
+    drain(now);
+    var seconds =
+        publishedTime < 0 ? 0 : (now - publishedTime) / (double) TimeUnit.SECONDS.toNanos(1);
+    var snapshot = latencies.snapshot();
+    var interval = snapshot.subtract(publishedLatencies);
+    var byteRate = seconds == 0 ? 0 : (bytes - publishedBytes) / seconds;
+    var recordRate = seconds == 0 ? 0 : (records - publishedRecords) / seconds;
+    bytesIn.attributes = meter(bytes, byteRate, "bytes");
+    messagesIn.attributes = meter(records, recordRate, "messages");
+
+    var time = new HashMap<String, Object>();
+    time.put("Count", snapshot.count());
+    time.put("Mean", interval.average() / 1000);
+    time.put("Max", interval.max() / 1000D);
+    time.put("Min", interval.min() / 1000D);
+    time.put("StdDev", 0D);
+    time.put("50thPercentile", interval.percentile(50) / 1000D);
+    time.put("75thPercentile", interval.percentile(75) / 1000D);
+    time.put("95thPercentile", interval.percentile(95) / 1000D);
+    time.put("98thPercentile", interval.percentile(98) / 1000D);
+    time.put("99thPercentile", interval.percentile(99) / 1000D);
+    time.put("999thPercentile", interval.percentile(99.9) / 1000D);
+    produceTime.attributes = Map.copyOf(time);
+
+    // each record is regarded as a request, and the queued records are in flight
+    var averageSize = records == 0 ? 1 : (double) bytes / records;
+    var inFlight = Math.ceil(backlog / averageSize);
+    var node = new HashMap<String, Object>();
+    node.put("incoming-byte-rate", 0D);
+    node.put("incoming-byte-total", 0D);
+    node.put("outgoing-byte-rate", byteRate);
+    node.put("outgoing-byte-total", (double) bytes);
+    node.put("request-latency-avg", interval.count() == 0 ? Double.NaN : interval.average() / 1000);
+    node.put("request-latency-max", interval.count() == 0 ? Double.NaN : interval.max() / 1000D);
+    node.put("request-rate", recordRate);
+    node.put("request-size-avg", averageSize);
+    node.put("request-size-max", averageSize);
+    node.put("request-total", (double) records);
+    node.put("response-rate", recordRate);
+    node.put("response-total", Math.max(0, records - inFlight));
+    producerNode.attributes = Map.copyOf(node);
+
+    publishedTime = now;
+    publishedRecords = records;
+    publishedBytes = bytes;
+    publishedLatencies = snapshot;
+  }
+
+  private static Map<String, Object> meter(long count, double rate, String eventType) {
+    return Map.of(
+        "Count",
+        count,
+        "MeanRate",
+        rate,
+        "OneMinuteRate",
+        rate,
+        "FiveMinuteRate",
+        rate,
+        "FifteenMinuteRate",
+        rate,
+        "EventType",
+        eventType,
+        "RateUnit",
+        TimeUnit.SECONDS);
+  }
+
+  long records() {
+    return records;
+  }
+
+  long bytes() {
+    return bytes;
+  }
+
+  /** @return the max bytes waiting in the queue */
+  long maxBacklog() {
+    return (long) maxBacklog;
+  }
+
+  /** @return the simulated latencies in microseconds */
+  Histogram.Snapshot latencies() {
+    return latencies.snapshot();
+  }
+
+  @Override
+  public void close() {
+    jmxServer.ifPresent(s -> Utils.swallowException(s::stop));
+    registry.ifPresent(
+        r -> Utils.swallowException(() -> UnicastRemoteObject.unexportObject(r, true)));
+    Utils.swallowException(
+        () -> ManagementFactory.getPlatformMBeanServer().unregisterMBean(producerNodeName));
+  }
+
+  private static int freePort() throws IOException {
+    try (var socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /** A read-only mbean whose attributes are replaced as a whole. */
+  private static final class Attributes implements DynamicMBean {
+    private volatile Map<String, Object> attributes = Map.of();
+
+    @Override
+    public Object getAttribute(String attribute) {
+      return attributes.get(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+      throw new UnsupportedOperationException("the simulated mbean is read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+      var current = attributes;
+      var list = new AttributeList();
+      for (var name : names)
+        if (current.containsKey(name)) list.add(new Attribute(name, current.get(name)));
+      return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+      return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+      throw new UnsupportedOperationException("the simulated mbean has no operation");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      List<MBeanAttributeInfo> infos = new ArrayList<>();
+      attributes.forEach(
+          (name, value) ->
+              infos.add(
+                  new MBeanAttributeInfo(
+                      name, value.getClass().getName(), name, true, false, false)));
+      return new MBeanInfo(
+          SimulatedBroker.class.getName(),
+          "simulated metrics",
+          infos.toArray(MBeanAttributeInfo[]::new),
+          null,
+          null,
+          null);
+    }
+  }
+}
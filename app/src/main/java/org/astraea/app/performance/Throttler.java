@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.astraea.app.common.DataSize;
+import org.astraea.app.common.DataUnit;
+
+/**
+ * An open-loop scheduler of sending records. Each record is assigned an intended send time which
+ * is computed by the target rate only, so the schedule does not drift when the producer is stalled.
+ * The caller should measure latency from the intended send time rather than the actual one.
+ * Otherwise, the stall is hidden from the latency (a.k.a. coordinated omission).
+ *
+ * <p>This is NOT thread-safe. Each producer should have its own throttler.
+ */
+@FunctionalInterface
+interface Throttler {
+
+  /** send records as soon as possible. */
+  Throttler UNLIMITED = bytes -> System.currentTimeMillis();
+
+  /**
+   * @param throughput the size of data sent per second
+   * @return a throttler which spreads the sends evenly over each second
+   */
+  static Throttler of(DataSize throughput) {
+    var bytesPerSecond = throughput.measurement(DataUnit.Byte).doubleValue();
+    if (bytesPerSecond <= 0)
+      throw new IllegalArgumentException("throughput must be positive, but it is " + throughput);
+    return of(TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+  }
+
+  /**
+   * @param nanosPerByte the time cost by sending one byte
+   * @return a throttler which delays each send by the size of previous records
+   */
+  static Throttler of(double nanosPerByte) {
+    return new Throttler() {
+      // the schedule starts from the first record rather than the creation
+      private long startNanos = -1;
+      private long startMillis = -1;
+      private long scheduledBytes = 0;
+
+      @Override
+      public long acquire(int bytes) throws InterruptedException {
+        if (startNanos < 0) {
+          startNanos = System.nanoTime();
+          startMillis = System.currentTimeMillis();
+        }
+        // use the total bytes rather than accumulating the deadlines to avoid rounding drift
+        var intended = startNanos + (long) (scheduledBytes * nanosPerByte);
+        scheduledBytes += bytes;
+        for (var remaining = intended - System.nanoTime();
+            remaining > 0;
+            remaining = intended - System.nanoTime()) {
+          LockSupport.parkNanos(remaining);
+          if (Thread.interrupted()) throw new InterruptedException();
+        }
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(intended - startNanos);
+      }
+    };
+  }
+
+  /**
+   * @param profile the throughput of phases
+   * @param producers the number of producers sharing the throughput
+   * @return a throttler which follows the throughput of each phase. The throughput of a ramp phase
+   *     changes linearly.
+   */
+  static Throttler of(LoadProfile profile, int producers) {
+    var phases = profile.phases();
+    // the bytes per nanosecond at the beginning and end of each phase
+    var from = new double[phases.size()];
+    var to = new double[phases.size()];
+    var durations = new long[phases.size()];
+    for (var i = 0; i != phases.size(); ++i) {
+      var phase = phases.get(i);
+      from[i] = phase.from.measurement(DataUnit.Byte).doubleValue() / producers / 1E9;
+      to[i] = phase.to.measurement(DataUnit.Byte).doubleValue() / producers / 1E9;
+      durations[i] = phase.duration.toNanos();
+    }
+    return new Throttler() {
+      // the schedule starts from the first record rather than the creation
+      private long startNanos = -1;
+      private long startMillis = -1;
+      private int phase = 0;
+      private long phaseStart = 0;
+      private long phaseBytes = 0;
+
+      @Override
+      public long acquire(int bytes) throws InterruptedException {
+        if (startNanos < 0) {
+          startNanos = System.nanoTime();
+          startMillis = System.currentTimeMillis();
+        }
+        var offset = offset(phaseBytes, from[phase], to[phase], durations[phase]);
+        while (offset >= durations[phase] && phase < durations.length - 1) {
+          // the bytes overflowing the phase are dropped, so each phase starts on time
+          phaseStart += durations[phase];
+          phase++;
+          phaseBytes = 0;
+          offset = offset(0, from[phase], to[phase], durations[phase]);
+        }
+        // the last phase keeps its final throughput until the end of run
+        if (offset >= durations[phase] && to[phase] > 0) offset += (long) (excess() / to[phase]);
+        var intended = startNanos + phaseStart + offset;
+        phaseBytes += bytes;
+        for (var remaining = intended - System.nanoTime();
+            remaining > 0;
+            remaining = intended - System.nanoTime()) {
+          LockSupport.parkNanos(remaining);
+          if (Thread.interrupted()) throw new InterruptedException();
+        }
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(intended - startNanos);
+      }
+
+      /** @return the bytes scheduled after the end of last phase */
+      private double excess() {
+        var total = (from[phase] + to[phase]) / 2 * durations[phase];
+        return Math.max(0, phaseBytes - total);
+      }
+    };
+  }
+
+  /**
+   * Solve the time of sending the bytes. The throughput changes linearly from "from" to "to" in the
+   * duration, so the sent bytes is a quadratic function of time.
+   *
+   * @return the nanoseconds since the beginning of phase, or a value not smaller than the duration
+   *     if the bytes can't be sent in the phase
+   */
+  static long offset(long bytes, double from, double to, long duration) {
+    if (from == to) return from <= 0 ? duration : Math.min(duration, Math.round(bytes / from));
+    var a = (to - from) / 2 / duration;
+    var discriminant = from * from + 4 * a * bytes;
+    if (discriminant < 0) return duration;
+    var offset = (Math.sqrt(discriminant) - from) / (2 * a);
+    return offset < 0 || offset > duration ? duration : Math.round(offset);
+  }
+
+  /**
+   * Wait for the intended time of sending the record.
+   *
+   * @param bytes the size of record to send
+   * @return the intended send time in milliseconds. It is earlier than current time if the caller
+   *     can't keep up with the rate.
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  long acquire(int bytes) throws InterruptedException;
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.astraea.app.admin.Admin;
+import org.astraea.app.common.DataSize;
+import org.astraea.app.common.DataUnit;
+
+/**
+ * Search the maximum sustainable throughput under a latency SLO. Each step runs the producers and
+ * consumers at a fixed throughput, and the step passes if the p99 publish and end-to-end latencies
+ * of the measured window are within the SLO. The measured window excludes the warm-up, and it is
+ * split into two halves to check the latency is not still growing (steady state). The throughput
+ * is doubled until a step fails, and then it is binary-searched between the last passed and the
+ * first failed steps.
+ */
+final class ThroughputSearch {
+
+  /** the percentile compared with the SLO */
+  static final double PERCENTILE = 99D;
+  /** the step fails if the producers can't achieve this ratio of the target throughput */
+  static final double ACHIEVED_RATIO = 0.9;
+  /** the second half of a steady step is allowed to be 50% slower than the first half */
+  static final double STEADY_RATIO = 1.5;
+
+  private ThroughputSearch() {}
+
+  /** The measurement of a step. */
+  static final class Step {
+    final DataSize target;
+    /** the produced bytes per second of measured window */
+    final DataSize achieved;
+
+    final Histogram.Snapshot publishLatencies;
+    final Histogram.Snapshot e2eLatencies;
+    final boolean steady;
+
+    Step(
+        DataSize target,
+        DataSize achieved,
+        Histogram.Snapshot publishLatencies,
+        Histogram.Snapshot e2eLatencies,
+        boolean steady) {
+      this.target = target;
+      this.achieved = achieved;
+      this.publishLatencies = publishLatencies;
+      this.e2eLatencies = e2eLatencies;
+      this.steady = steady;
+    }
+
+    boolean passed(Duration slo) {
+      return steady
+          && achieved.greaterEqualTo(bytes((long) (bytes(target) * ACHIEVED_RATIO)))
+          && publishLatencies.percentile(PERCENTILE) <= slo.toMillis()
+          && e2eLatencies.percentile(PERCENTILE) <= slo.toMillis();
+    }
+  }
+
+  /** Run a step at the given throughput. */
+  @FunctionalInterface
+  interface Runner {
+    Step run(DataSize throughput) throws InterruptedException, IOException, ExecutionException;
+  }
+
+  /**
+   * @param argument of search
+   * @param args the command-line arguments. Each step parses them to a new argument
+   * @return the step having the highest throughput which meets the SLO
+   */
+  static Optional<Step> search(Performance.Argument argument, String[] args)
+      throws InterruptedException, IOException, ExecutionException {
+    var index = new int[] {0};
+    var best =
+        search(
+            argument.searchSlo,
+            argument.searchStart,
+            argument.throughput,
+            argument.searchPrecision,
+            throughput -> {
+              var stepArgument =
+                  org.astraea.app.argument.Argument.parse(new Performance.Argument(), args);
+              // each step uses a new topic, so the records of previous steps are not consumed
+              stepArgument.topic = argument.topic + "-" + index[0]++;
+              stepArgument.throughput = throughput;
+              stepArgument.exeTime =
+                  ExeTime.of(argument.searchWarmup.plus(argument.searchDuration).toMillis() + "ms");
+              try {
+                var step = step(stepArgument, argument.searchWarmup, argument.searchDuration);
+                System.out.println(report(step, argument.searchSlo));
+                return step;
+              } finally {
+                // the topic of step is useless after the measurement
+                try (var admin = Admin.of(stepArgument.configs())) {
+                  admin.removeTopics(Set.of(stepArgument.topic));
+                }
+              }
+            });
+    System.out.println("=============== throughput search complete ===============");
+    System.out.println(
+        best.map(step -> "max sustainable " + report(step, argument.searchSlo))
+            .orElse("no throughput meets the SLO " + argument.searchSlo.toMillis() + " ms"));
+    return best;
+  }
+
+  /**
+   * @param slo the maximum p99 latency
+   * @param start the throughput of first step
+   * @param max the upper bound of throughput
+   * @param precision the search stops when the gap between passed and failed throughput is
+   *     smaller than it
+   * @param runner to run each step
+   * @return the step having the highest throughput which meets the SLO, or empty if even the
+   *     start throughput does not meet the SLO
+   */
+  static Optional<Step> search(
+      Duration slo, DataSize start, DataSize max, DataSize precision, Runner runner)
+      throws InterruptedException, IOException, ExecutionException {
+    var gap = Math.max(1, bytes(precision));
+    var high = bytes(max);
+    var low = 0L;
+    Step best = null;
+    // find the first failure by doubling the throughput
+    var failed = -1L;
+    for (var current = Math.min(high, bytes(start)); failed < 0; ) {
+      var step = runner.run(bytes(current));
+      if (!step.passed(slo)) failed = current;
+      else {
+        best = step;
+        low = current;
+        if (current == high) return Optional.of(best);
+        current = current > high / 2 ? high : current * 2;
+      }
+    }
+    while (failed - low > gap) {
+      var middle = low + (failed - low) / 2;
+      var step = runner.run(bytes(middle));
+      if (step.passed(slo)) {
+        best = step;
+        low = middle;
+      } else failed = middle;
+    }
+    return Optional.ofNullable(best);
+  }
+
+  /** Run a step and exclude the warm-up from the measurement. */
+  static Step step(Performance.Argument argument, Duration warmup, Duration duration)
+      throws InterruptedException, IOException, ExecutionException {
+    var middle = warmup.plus(duration.dividedBy(2));
+    var checkpoints = Performance.execute(argument, List.of(warmup, middle)).checkpoints();
+    // the run was stopped before the measured window
+    if (checkpoints.size() < 3)
+      return new Step(
+          argument.throughput,
+          DataUnit.Byte.of(0),
+          Histogram.Snapshot.EMPTY,
+          Histogram.Snapshot.EMPTY,
+          false);
+    return step(argument.throughput, checkpoints.get(0), checkpoints.get(1), checkpoints.get(2));
+  }
+
+  /**
+   * @param target throughput
+   * @param start the checkpoint at the end of warm-up
+   * @param middle the checkpoint at the middle of measured window
+   * @param end the checkpoint at the end of run
+   * @return the step measured between start and end
+   */
+  static Step step(
+      DataSize target,
+      Performance.Checkpoint start,
+      Performance.Checkpoint middle,
+      Performance.Checkpoint end) {
+    var firstPublish = middle.publishLatencies.subtract(start.publishLatencies);
+    var secondPublish = end.publishLatencies.subtract(middle.publishLatencies);
+    var firstE2e = middle.e2eLatencies.subtract(start.e2eLatencies);
+    var secondE2e = end.e2eLatencies.subtract(middle.e2eLatencies);
+    // the producers are done before the end checkpoint, so the first half is used to compute the
+    // achieved throughput
+    var seconds = middle.elapsed.minus(start.elapsed).toMillis() / 1000D;
+    var achieved =
+        seconds <= 0 ? 0 : (long) ((middle.producedBytes - start.producedBytes) / seconds);
+    return new Step(
+        target,
+        bytes(achieved),
+        end.publishLatencies.subtract(start.publishLatencies),
+        end.e2eLatencies.subtract(start.e2eLatencies),
+        steady(firstPublish, secondPublish) && steady(firstE2e, secondE2e));
+  }
+
+  /** @return true if the latency of second half does not grow much */
+  static boolean steady(Histogram.Snapshot first, Histogram.Snapshot second) {
+    // the tiny latencies are always steady since the bucket width dominates the growth
+    var p99 = Math.max(1, first.percentile(PERCENTILE));
+    return second.percentile(PERCENTILE) <= p99 * STEADY_RATIO + 1;
+  }
+
+  static String report(Step step, Duration slo) {
+    var lines = new ArrayList<String>();
+    lines.add(
+        "throughput: "
+            + step.target
+            + "/second (achieved "
+            + step.achieved
+            + "/second) "
+            + (step.passed(slo) ? "passed" : "failed")
+            + (step.steady ? "" : " (not steady)"));
+    lines.add("  publish latency: " + Tracker.percentiles(step.publishLatencies));
+    lines.add("  end-to-end latency: " + Tracker.percentiles(step.e2eLatencies));
+    return String.join("\n", lines);
+  }
+
+  private static long bytes(DataSize size) {
+    return size.measurement(DataUnit.Byte).longValue();
+  }
+
+  private static DataSize bytes(long bytes) {
+    return DataUnit.Byte.of(bytes);
+  }
+}
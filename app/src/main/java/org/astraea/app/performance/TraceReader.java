@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Read the records of a traffic trace. The trace file is a text file, and each line is a record in
+ * the format:
+ *
+ * <pre>{@code
+ * (time in ms),(topic),(partition or #key hash),(key size),(value size),(headers size)
+ * }</pre>
+ *
+ * For example, "0,orders,3,16,512,0" means the first record is sent to partition 3 of topic
+ * "orders", and "12.5,orders,#-9213,16,1024,30" means the record is sent after 12.5 milliseconds,
+ * and the partition is decided by the key whose hash is -9213. The empty lines and the lines
+ * starting with "#" are skipped. The lines must be sorted by time, and the partitions must be
+ * smaller than the partitions of topic.
+ *
+ * <p>The file is memory-mapped region by region and parsed in place, so the multi-GB traces are
+ * not loaded into heap. This is thread-safe.
+ */
+final class TraceReader implements Closeable {
+
+  /** the size of each mapped region. A line must be shorter than it. */
+  static final int REGION_SIZE = 64 * 1024 * 1024;
+
+  /** A record of trace. */
+  static final class Entry {
+    /** the time since the beginning of trace */
+    final long nanos;
+
+    final String topic;
+    /** the target partition, or -1 if the partition is decided by key hash */
+    final int partition;
+
+    final long keyHash;
+    final int keySize;
+    final int valueSize;
+    final int headersSize;
+
+    Entry(
+        long nanos,
+        String topic,
+        int partition,
+        long keyHash,
+        int keySize,
+        int valueSize,
+        int headersSize) {
+      this.nanos = nanos;
+      this.topic = topic;
+      this.partition = partition;
+      this.keyHash = keyHash;
+      this.keySize = keySize;
+      this.valueSize = valueSize;
+      this.headersSize = headersSize;
+    }
+
+    boolean hasKeyHash() {
+      return partition < 0;
+    }
+  }
+
+  /** The summary of whole trace. It is used to prepare topics and buffers before replaying. */
+  static final class Summary {
+    final Set<String> topics;
+    final long records;
+    final int maxKeySize;
+    final int maxValueSize;
+    final int maxHeadersSize;
+
+    Summary(
+        Set<String> topics, long records, int maxKeySize, int maxValueSize, int maxHeadersSize) {
+      this.topics = topics;
+      this.records = records;
+      this.maxKeySize = maxKeySize;
+      this.maxValueSize = maxValueSize;
+      this.maxHeadersSize = maxHeadersSize;
+    }
+  }
+
+  /**
+   * @param file trace file
+   * @param partitions the number of partitions of each topic
+   * @return the reader of trace
+   */
+  static TraceReader of(Path file, int partitions) {
+    return of(file, partitions, REGION_SIZE);
+  }
+
+  // visible for test
+  static TraceReader of(Path file, int partitions, int regionSize) {
+    try {
+      return new TraceReader(
+          FileChannel.open(file, StandardOpenOption.READ), partitions, regionSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Scan the whole trace.
+   *
+   * @param file trace file
+   * @param partitions the number of partitions of each topic
+   * @return the summary of trace
+   */
+  static Summary summary(Path file, int partitions) {
+    try (var reader = of(file, partitions)) {
+      var topics = new TreeSet<String>();
+      var records = 0L;
+      var maxKeySize = 0;
+      var maxValueSize = 0;
+      var maxHeadersSize = 0;
+      for (var entry = reader.next(); entry != null; entry = reader.next()) {
+        topics.add(entry.topic);
+        records++;
+        maxKeySize = Math.max(maxKeySize, entry.keySize);
+        maxValueSize = Math.max(maxValueSize, entry.valueSize);
+        maxHeadersSize = Math.max(maxHeadersSize, entry.headersSize);
+      }
+      return new Summary(Set.copyOf(topics), records, maxKeySize, maxValueSize, maxHeadersSize);
+    }
+  }
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int partitions;
+  private final int regionSize;
+  // the topic names are reused by all entries
+  private final Map<String, String> topics = new HashMap<>();
+  private MappedByteBuffer region;
+  private long regionStart = 0;
+  private long lineNumber = 0;
+  // the range of current line. It is used by the error messages
+  private int lineStart = 0;
+  private int lineEnd = 0;
+
+  private TraceReader(FileChannel channel, int partitions, int regionSize) throws IOException {
+    this.channel = channel;
+    this.fileSize = channel.size();
+    this.partitions = partitions;
+    this.regionSize = regionSize;
+    this.region = map(0);
+  }
+
+  private MappedByteBuffer map(long start) throws IOException {
+    regionStart = start;
+    return channel.map(
+        FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, fileSize - start));
+  }
+
+  /** @return next record, or null if there is no more record */
+  synchronized Entry next() {
+    try {
+      while (true) {
+        var start = region.position();
+        var end = lineEnd(start);
+        if (end < 0) {
+          // the line crosses the end of region, so the next region starts from this line
+          if (regionStart + region.limit() >= fileSize) {
+            if (start == region.limit()) return null;
+            // the last line has no line separator
+            end = region.limit();
+          } else {
+            if (start == 0)
+              throw new IllegalStateException(
+                  "the line " + (lineNumber + 1) + " is longer than " + regionSize);
+            region = map(regionStart + start);
+            continue;
+          }
+        }
+        region.position(Math.min(region.limit(), end + 1));
+        lineNumber++;
+        var entry = parse(start, end);
+        if (entry != null) return entry;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** @return the index of line separator, or -1 if the region has no more separator */
+  private int lineEnd(int start) {
+    for (var i = start; i < region.limit(); ++i) if (region.get(i) == '\n') return i;
+    return -1;
+  }
+
+  /** @return the entry parsed from [start, end), or null if the line is empty or a comment */
+  private Entry parse(int start, int end) {
+    // ignore the "\r" of windows line separator
+    if (end > start && region.get(end - 1) == '\r') end--;
+    while (start < end && region.get(start) == ' ') start++;
+    if (start == end || region.get(start) == '#') return null;
+    lineStart = start;
+    lineEnd = end;
+
+    var fields = new int[7];
+    var count = 0;
+    fields[count++] = start;
+    for (var i = start; i < end && count < fields.length; ++i)
+      if (region.get(i) == ',') fields[count++] = i + 1;
+    if (count != 6) throw illegalLine("should have 6 fields, but it has " + count);
+    fields[count] = end + 1;
+
+    var nanos = parseNanos(fields[0], fields[1] - 1);
+    var topic = parseTopic(fields[1], fields[2] - 1);
+    var partition = -1;
+    var keyHash = 0L;
+    if (region.get(fields[2]) == '#') keyHash = parseLong(fields[2] + 1, fields[3] - 1);
+    else partition = (int) parseLong(fields[2], fields[3] - 1);
+    if (partition < -1) throw illegalLine("has negative partition");
+    if (partition >= partitions)
+      throw illegalLine("has partition " + partition + ", but the topic has " + partitions);
+    return new Entry(
+        nanos,
+        topic,
+        partition,
+        keyHash,
+        (int) parseLong(fields[3], fields[4] - 1),
+        (int) parseLong(fields[4], fields[5] - 1),
+        (int) parseLong(fields[5], fields[6] - 1));
+  }
+
+  private String parseTopic(int start, int end) {
+    var topic = string(start, end).trim();
+    if (topic.isEmpty()) throw illegalLine("has no topic");
+    return topics.computeIfAbsent(topic, t -> t);
+  }
+
+  private String string(int start, int end) {
+    var bytes = new byte[end - start];
+    for (var i = 0; i != bytes.length; ++i) bytes[i] = region.get(start + i);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** @return the exception having the line number and the content of current line */
+  private IllegalArgumentException illegalLine(String reason) {
+    return new IllegalArgumentException(
+        "the line " + lineNumber + " \"" + string(lineStart, lineEnd) + "\" " + reason);
+  }
+
+  private long parseLong(int start, int end) {
+    var negative = false;
+    var value = 0L;
+    var digits = 0;
+    for (var i = start; i < end; ++i) {
+      var c = region.get(i);
+      if (c == ' ') continue;
+      if (c == '-' && digits == 0) negative = true;
+      else if (c >= '0' && c <= '9') {
+        value = value * 10 + (c - '0');
+        digits++;
+      } else throw illegalLine("has illegal number character: " + (char) c);
+    }
+    if (digits == 0) throw illegalLine("lacks number");
+    return negative ? -value : value;
+  }
+
+  /** parse the decimal milliseconds, such as "12.5", to nanoseconds */
+  private long parseNanos(int start, int end) {
+    // "-0.5" is parsed to 0 milliseconds and 0.5 milliseconds, so the sign is checked first
+    for (var i = start; i < end; ++i)
+      if (region.get(i) == '-') throw illegalLine("has negative time");
+    var dot = end;
+    for (var i = start; i < end; ++i)
+      if (region.get(i) == '.') {
+        dot = i;
+        break;
+      }
+    var nanos = parseLong(start, dot) * 1000_000L;
+    var scale = 100_000L;
+    for (var i = dot + 1; i < end && scale > 0; ++i, scale /= 10) {
+      var c = region.get(i);
+      if (c < '0' || c > '9') throw illegalLine("has illegal time character: " + (char) c);
+      nanos += (c - '0') * scale;
+    }
+    return nanos;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
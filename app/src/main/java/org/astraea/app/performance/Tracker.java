@@ -18,22 +18,32 @@ package org.astraea.app.performance;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.astraea.app.common.DataUnit;
 import org.astraea.app.concurrent.Executor;
 import org.astraea.app.concurrent.State;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.metrics.producer.HasProducerMetrics;
 
 /** Print out the given metrics. */
 public class Tracker implements Executor {
   private final List<Metrics> producerData;
   private final List<Metrics> consumerData;
+  private final PartitionMetrics partitionData;
   private final Manager manager;
   private final Supplier<Boolean> producerDone;
   // Snapshot of metrics
   private Result producerResult;
   private Result consumerResult;
+  private PartitionMetrics.Snapshot partitionResult;
+  private PartitionMetrics.Snapshot previousPartitionResult;
   long start = 0L;
 
   public Tracker(
@@ -41,10 +51,22 @@ public class Tracker implements Executor {
       List<Metrics> consumerData,
       Manager manager,
       Supplier<Boolean> producerDone) {
+    this(producerData, consumerData, PartitionMetrics.of("", Map.of()), manager, producerDone);
+  }
+
+  Tracker(
+      List<Metrics> producerData,
+      List<Metrics> consumerData,
+      PartitionMetrics partitionData,
+      Manager manager,
+      Supplier<Boolean> producerDone) {
     this.producerData = producerData;
     this.consumerData = consumerData;
+    this.partitionData = partitionData;
     this.producerResult = result(producerData);
     this.consumerResult = result(consumerData);
+    this.partitionResult = partitionData.snapshot();
+    this.previousPartitionResult = partitionResult;
     this.manager = manager;
     this.producerDone = producerDone;
   }
@@ -53,7 +75,12 @@ public class Tracker implements Executor {
   public State execute() throws InterruptedException {
     producerResult = result(producerData);
     consumerResult = result(consumerData);
-    if (logProducers(producerResult) & logConsumers(consumerResult)) return State.DONE;
+    previousPartitionResult = partitionResult;
+    partitionResult = partitionData.snapshot();
+    var producersDone = logProducers(producerResult);
+    var consumersDone = logConsumers(consumerResult);
+    if (producerResult.completedRecords > 0) logPartitions();
+    if (producersDone && consumersDone) return State.DONE;
     // Log after waiting for one second
     Thread.sleep(1000);
     return State.RUNNING;
@@ -92,6 +119,9 @@ public class Tracker implements Executor {
         "  current throughput: %s/second%n", DataUnit.Byte.of(result.totalCurrentBytes()));
     System.out.println("  publish max latency: " + result.maxLatency + " ms");
     System.out.println("  publish mim latency: " + result.minLatency + " ms");
+    System.out.println("  current publish latency: " + percentiles(result.currentLatencies));
+    System.out.println("  publish latency: " + percentiles(result.latencies));
+    logBatches(KafkaMetrics.Producer.producers(MBeanClient.local()).values());
     for (int i = 0; i < result.bytes.size(); ++i) {
       System.out.printf(
           "  producer[%d] average throughput: %.3f MB%n", i, avg(duration, result.bytes.get(i)));
@@ -102,6 +132,24 @@ public class Tracker implements Executor {
     return producerDone.get();
   }
 
+  /**
+   * Print the batches of producers in this process. The larger batches mean the fewer requests, so
+   * it is useful to compare the partitioners.
+   */
+  static void logBatches(Collection<HasProducerMetrics> producers) {
+    producers.stream()
+        .mapToDouble(HasProducerMetrics::batchSizeAvg)
+        .filter(Double::isFinite)
+        .average()
+        .ifPresent(
+            size -> System.out.println("  average batch size: " + DataUnit.Byte.of((long) size)));
+    producers.stream()
+        .mapToDouble(HasProducerMetrics::recordsPerRequestAvg)
+        .filter(Double::isFinite)
+        .average()
+        .ifPresent(records -> System.out.printf("  records per request: %.2f%n", records));
+  }
+
   private boolean logConsumers(Result result) {
     // there is no consumer, so we just complete this log.
     if (consumerData.isEmpty()) return true;
@@ -116,6 +164,8 @@ public class Tracker implements Executor {
         "  current throughput: %s/second%n", DataUnit.Byte.of(result.totalCurrentBytes()));
     System.out.println("  end-to-end max latency: " + result.maxLatency + " ms");
     System.out.println("  end-to-end mim latency: " + result.minLatency + " ms");
+    System.out.println("  current end-to-end latency: " + percentiles(result.currentLatencies));
+    System.out.println("  end-to-end latency: " + percentiles(result.latencies));
     for (int i = 0; i < result.bytes.size(); ++i) {
       System.out.printf(
           "  consumer[%d] average throughput: %.3f MB%n", i, avg(duration, result.bytes.get(i)));
@@ -128,6 +178,57 @@ public class Tracker implements Executor {
     return producerDone.get() && percentage >= 100D;
   }
 
+  private void logPartitions() {
+    if (partitionResult.partitions() == 0) return;
+    var lags = partitionResult.lags();
+    var maxLag = 0;
+    for (var i = 1; i < lags.length; ++i) if (lags[i] > lags[maxLag]) maxLag = i;
+    System.out.println("partitions:");
+    System.out.println(
+        "  current throughput skew: "
+            + partitionResult.skew(partitionResult.currentProducedBytes(previousPartitionResult)));
+    System.out.println("  throughput skew: " + partitionResult.skew(partitionResult.producedBytes));
+    if (!consumerData.isEmpty())
+      System.out.printf(
+          "  consumer lag: %d records, max: %d records (partition %d)%n",
+          LongStream.of(lags).sum(), lags[maxLag], maxLag);
+    System.out.println("\n");
+  }
+
+  /** Print the produced and consumed records, throughput and latency of each partition. */
+  static void logPartitions(PartitionMetrics.Snapshot result) {
+    System.out.println("partitions:");
+    for (var i = 0; i < result.partitions(); ++i)
+      System.out.printf(
+          "  partition[%d] leader: %d, produced: %d records (%s), consumed: %d records (%s), "
+              + "end-to-end latency: %s%n",
+          i,
+          result.leaders[i],
+          result.producedRecords[i],
+          DataUnit.Byte.of(result.producedBytes[i]),
+          result.consumedRecords[i],
+          DataUnit.Byte.of(result.consumedBytes[i]),
+          percentiles(result.e2eLatencies(i)));
+    System.out.println("  produced records skew: " + result.skew(result.producedRecords));
+    System.out.println("  produced bytes skew: " + result.skew(result.producedBytes));
+    System.out.println("  consumed bytes skew: " + result.skew(result.consumedBytes));
+    System.out.println("\n");
+  }
+
+  /** @return the percentiles in the format "p50: 1 ms, p90: 2 ms, ..." */
+  static String percentiles(Histogram.Snapshot latencies) {
+    return Histogram.PERCENTILES.stream()
+        .map(p -> "p" + percentileName(p) + ": " + latencies.percentile(p) + " ms")
+        .collect(Collectors.joining(", "));
+  }
+
+  /** @return the name of percentile. For example, "99" for 99D and "99.9" for 99.9D */
+  static String percentileName(double percentile) {
+    return percentile == Math.rint(percentile)
+        ? String.valueOf((long) percentile)
+        : String.valueOf(percentile);
+  }
+
   public Result producerResult() {
     return producerResult;
   }
@@ -136,28 +237,38 @@ public class Tracker implements Executor {
     return consumerResult;
   }
 
+  PartitionMetrics.Snapshot partitionResult() {
+    return partitionResult;
+  }
+
+  /** @return the produced bytes of each partition between the last two results */
+  long[] currentPartitionBytes() {
+    return partitionResult.currentProducedBytes(previousPartitionResult);
+  }
+
   private static Result result(List<Metrics> metrics) {
     var completed = 0;
     var bytes = new ArrayList<Long>();
     var currentBytes = new ArrayList<Long>();
     var averageLatencies = new ArrayList<Double>();
-    var max = 0L;
-    var min = Long.MAX_VALUE;
+    var latencies = Histogram.Snapshot.EMPTY;
+    var currentLatencies = Histogram.Snapshot.EMPTY;
     for (Metrics data : metrics) {
+      var latency = data.latencies();
       completed += data.num();
       bytes.add(data.bytes());
       currentBytes.add(data.clearAndGetCurrentBytes());
-      averageLatencies.add(data.avgLatency());
-      max = Math.max(max, data.max());
-      min = Math.min(min, data.min());
+      averageLatencies.add(latency.average());
+      latencies = latencies.add(latency);
+      currentLatencies = currentLatencies.add(data.clearAndGetCurrentLatencies());
     }
     return new Result(
         completed,
         Collections.unmodifiableList(bytes),
         Collections.unmodifiableList(currentBytes),
         Collections.unmodifiableList(averageLatencies),
-        min,
-        max);
+        latencies,
+        currentLatencies);
   }
 
   static class Result {
@@ -167,20 +278,26 @@ public class Tracker implements Executor {
     public final List<Double> averageLatencies;
     public final long minLatency;
     public final long maxLatency;
+    /** all latencies of all producers/consumers */
+    public final Histogram.Snapshot latencies;
+    /** the latencies of all producers/consumers since previous result */
+    public final Histogram.Snapshot currentLatencies;
 
     Result(
         long completedRecords,
         List<Long> bytes,
         List<Long> currentBytes,
         List<Double> averageLatencies,
-        long minLatency,
-        long maxLatency) {
+        Histogram.Snapshot latencies,
+        Histogram.Snapshot currentLatencies) {
       this.completedRecords = completedRecords;
       this.bytes = bytes;
       this.currentBytes = currentBytes;
       this.averageLatencies = averageLatencies;
-      this.minLatency = minLatency;
-      this.maxLatency = maxLatency;
+      this.minLatency = latencies.min();
+      this.maxLatency = latencies.max();
+      this.latencies = latencies;
+      this.currentLatencies = currentLatencies;
     }
 
     double averageBytes(Duration duration) {
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A pool of pre-generated random values. The first {@link #SIZE_CLASSES} different sizes get their
+ * own size classes, so a few sizes (for example, the sizes of a histogram) are kept exactly. The
+ * other sizes are rounded up to at most {@link #SIZE_CLASSES} size classes. Each size class keeps a
+ * few values of random content which are handed out in rotation. Hence, getting a value neither
+ * allocates nor copies memory.
+ *
+ * <p>The values must not be modified by the caller. This is NOT thread-safe, so each thread should
+ * have its own pool.
+ */
+final class ValuePool {
+
+  /** the maximum number of exact (or rounded) size classes */
+  static final int SIZE_CLASSES = 64;
+
+  /** the maximum number of values kept by each size class */
+  static final int ROTATION = 8;
+
+  /** the memory used by a pool is about this value */
+  static final long BUDGET_BYTES = 16 * 1024 * 1024;
+
+  private final Random rand;
+  private final int maxSize;
+  private final int granularity;
+  private final byte[][][] values;
+  private final int[] cursors;
+
+  // the sorted sizes having exact size classes
+  private final int[] exactSizes = new int[SIZE_CLASSES];
+  private final byte[][][] exactValues = new byte[SIZE_CLASSES][][];
+  private final int[] exactCursors = new int[SIZE_CLASSES];
+  private int exactCount = 0;
+
+  /**
+   * @param maxSize the maximum size of values
+   * @param rand used to generate the content
+   */
+  ValuePool(int maxSize, Random rand) {
+    if (maxSize < 0) throw new IllegalArgumentException("the size can't be negative: " + maxSize);
+    this.rand = rand;
+    this.maxSize = maxSize;
+    this.granularity = Math.max(1, (maxSize + SIZE_CLASSES - 1) / SIZE_CLASSES);
+    var classes = (maxSize + granularity - 1) / granularity + 1;
+    this.values = new byte[classes][][];
+    this.cursors = new int[classes];
+  }
+
+  /**
+   * @param size the expected size. It must be in [0, max size]
+   * @return a value of given size, or of the smallest size class which is not smaller than given
+   *     size if there are too many different sizes
+   */
+  byte[] value(int size) {
+    if (size < 0 || size > maxSize)
+      throw new IllegalArgumentException("the size: " + size + " is not in [0, " + maxSize + "]");
+    var exact = Arrays.binarySearch(exactSizes, 0, exactCount, size);
+    if (exact < 0 && exactCount < SIZE_CLASSES) exact = addExactSize(-exact - 1, size);
+    if (exact >= 0) return next(exactValues, exactCursors, exact);
+
+    var index = (size + granularity - 1) / granularity;
+    // the values of each size class are generated when they are used at first time
+    if (values[index] == null) values[index] = generate(Math.min(maxSize, index * granularity));
+    return next(values, cursors, index);
+  }
+
+  /** @return the index of new exact size class */
+  private int addExactSize(int index, int size) {
+    var moved = exactCount - index;
+    System.arraycopy(exactSizes, index, exactSizes, index + 1, moved);
+    System.arraycopy(exactValues, index, exactValues, index + 1, moved);
+    System.arraycopy(exactCursors, index, exactCursors, index + 1, moved);
+    exactSizes[index] = size;
+    exactValues[index] = generate(size);
+    exactCursors[index] = 0;
+    exactCount++;
+    return index;
+  }
+
+  private static byte[] next(byte[][][] values, int[] cursors, int index) {
+    var pool = values[index];
+    var cursor = cursors[index];
+    cursors[index] = cursor + 1 == pool.length ? 0 : cursor + 1;
+    return pool[cursor];
+  }
+
+  private byte[][] generate(int size) {
+    var classes = values.length + SIZE_CLASSES;
+    var count = (int) Math.max(1, Math.min(ROTATION, BUDGET_BYTES / classes / Math.max(1, size)));
+    var pool = new byte[count][size];
+    for (var value : pool) rand.nextBytes(value);
+    return pool;
+  }
+}
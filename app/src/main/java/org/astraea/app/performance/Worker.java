@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.astraea.app.common.Utils;
+import org.astraea.app.concurrent.Executor;
+import org.astraea.app.concurrent.State;
+
+/**
+ * The worker side of distributed run. A worker is a Performance process started with "--worker.id"
+ * and "--coordinator". It runs its share of producers, consumers, partitions and records, and it
+ * reports the cumulative metrics to {@link Coordinator} every second.
+ */
+final class Worker {
+
+  private static final Gson GSON = new Gson();
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+  private Worker() {}
+
+  /** the reply of joining */
+  static final class Join {
+    /** all workers use the same consumer group, so each record is consumed once */
+    String groupId;
+  }
+
+  /** the reply of starting */
+  static final class Start {
+    /** the time in ms to start producing */
+    long startTime;
+  }
+
+  /** the reply of reporting */
+  static final class Ack {
+    /** true if all workers have finished producing and all records are consumed */
+    boolean consumedDone;
+  }
+
+  /** The sparse buckets of {@link Histogram.Snapshot}. */
+  static final class Buckets {
+    int[] indexes;
+    long[] counts;
+    long sum;
+    long min;
+    long max;
+
+    static Buckets of(Histogram.Snapshot snapshot) {
+      var all = snapshot.counts();
+      var indexes = IntStream.range(0, all.length).filter(i -> all[i] > 0).toArray();
+      var buckets = new Buckets();
+      buckets.indexes = indexes;
+      buckets.counts = IntStream.of(indexes).mapToLong(i -> all[i]).toArray();
+      buckets.sum = snapshot.sum();
+      // the extremes of empty snapshot are kept so the merged extremes are correct
+      buckets.min = snapshot.count() == 0 ? Long.MAX_VALUE : snapshot.min();
+      buckets.max = snapshot.count() == 0 ? Long.MIN_VALUE : snapshot.max();
+      return buckets;
+    }
+
+    Histogram.Snapshot snapshot() {
+      var all = new long[Histogram.BUCKETS];
+      for (var i = 0; i != indexes.length; ++i) all[indexes[i]] = counts[i];
+      return Histogram.Snapshot.of(all, sum, min, max);
+    }
+  }
+
+  /** The cumulative metrics of a worker. */
+  static final class Report {
+    int worker;
+    /** the elapsed time since the start in ms */
+    long elapsed;
+    /** true if this is the last report of the worker */
+    boolean done;
+
+    boolean producerDone;
+    long producedRecords;
+    long consumedRecords;
+    long producedBytes;
+    long consumedBytes;
+    Buckets publishLatencies;
+    Buckets e2eLatencies;
+
+    static Report of(
+        int worker,
+        boolean done,
+        boolean producerDone,
+        List<Metrics> producerMetrics,
+        List<Metrics> consumerMetrics,
+        Performance.Checkpoint checkpoint) {
+      var report = new Report();
+      report.worker = worker;
+      report.elapsed = checkpoint.elapsed.toMillis();
+      report.done = done;
+      report.producerDone = producerDone;
+      report.producedRecords = producerMetrics.stream().mapToLong(Metrics::num).sum();
+      report.consumedRecords = consumerMetrics.stream().mapToLong(Metrics::num).sum();
+      report.producedBytes = checkpoint.producedBytes;
+      report.consumedBytes = checkpoint.consumedBytes;
+      report.publishLatencies = Buckets.of(checkpoint.publishLatencies);
+      report.e2eLatencies = Buckets.of(checkpoint.e2eLatencies);
+      return report;
+    }
+
+    Performance.Checkpoint checkpoint() {
+      return new Performance.Checkpoint(
+          Duration.ofMillis(elapsed),
+          producedBytes,
+          consumedBytes,
+          publishLatencies.snapshot(),
+          e2eLatencies.snapshot());
+    }
+  }
+
+  /** @return the consumer group shared by all workers */
+  static String join(String coordinator, int id) {
+    return GSON.fromJson(send(coordinator, "/join?worker=" + id, null), Join.class).groupId;
+  }
+
+  /** Wait for all workers to be ready, and then sleep until the start time of producing. */
+  static void start(String coordinator, int id) {
+    var start = GSON.fromJson(send(coordinator, "/start?worker=" + id, null), Start.class);
+    Utils.sleep(Duration.ofMillis(Math.max(0, start.startTime - System.currentTimeMillis())));
+  }
+
+  /** @return the reply of coordinator */
+  static Ack report(String coordinator, Report report) {
+    return GSON.fromJson(send(coordinator, "/report", GSON.toJson(report)), Ack.class);
+  }
+
+  /**
+   * @param consumedDone is updated by the reply of coordinator
+   * @return an executor reporting the metrics every second
+   */
+  static Executor reporter(
+      Performance.Argument argument,
+      List<Metrics> producerMetrics,
+      List<Metrics> consumerMetrics,
+      Supplier<Boolean> producerDone,
+      AtomicBoolean consumedDone) {
+    var start = new long[] {-1};
+    return () -> {
+      // the elapsed time starts with the producers
+      if (start[0] < 0) start[0] = System.nanoTime();
+      var done = producerDone.get();
+      var checkpoint =
+          Performance.Checkpoint.of(
+              Duration.ofNanos(System.nanoTime() - start[0]), producerMetrics, consumerMetrics);
+      var report =
+          Report.of(argument.workerId, false, done, producerMetrics, consumerMetrics, checkpoint);
+      consumedDone.set(report(argument.coordinator, report).consumedDone);
+      if (done && consumedDone.get()) return State.DONE;
+      Thread.sleep(1000);
+      return State.RUNNING;
+    };
+  }
+
+  /** @return the share of a worker. The elements are assigned by round-robin */
+  static <T> List<T> share(List<T> all, int workers, int id) {
+    var share = new ArrayList<T>();
+    for (var i = id; i < all.size(); i += workers) share.add(all.get(i));
+    return share;
+  }
+
+  /** @return the share of a worker. The count is split evenly */
+  static long share(long count, int workers, int id) {
+    return count / workers + (id < count % workers ? 1 : 0);
+  }
+
+  /** @return the share of a worker. The records are split evenly, and the duration is kept */
+  static ExeTime share(ExeTime exeTime, int workers, int id) {
+    var records = exeTime.records();
+    if (records.isEmpty()) return exeTime;
+    return ExeTime.of(share(records.getAsLong(), workers, id) + "records");
+  }
+
+  /**
+   * Check that each worker gets a part of the load. A worker having no producer or no record would
+   * finish at once, so the load would not be split as requested.
+   *
+   * @param argument of distributed run
+   */
+  static void check(Performance.Argument argument) {
+    if (argument.producers < argument.workers)
+      throw new IllegalArgumentException(
+          "each worker needs a producer, but there are "
+              + argument.producers
+              + " producers for "
+              + argument.workers
+              + " workers");
+    var records = argument.exeTime.records();
+    if (records.isPresent() && records.getAsLong() < argument.workers)
+      throw new IllegalArgumentException(
+          "each worker needs a record, but there are "
+              + records.getAsLong()
+              + " records for "
+              + argument.workers
+              + " workers");
+  }
+
+  private static String send(String coordinator, String path, String body) {
+    var builder = HttpRequest.newBuilder(URI.create("http://" + coordinator + path));
+    var request =
+        body == null
+            ? builder.GET().build()
+            : builder.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    try {
+      var response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200)
+        throw new IllegalStateException(
+            "coordinator " + coordinator + " replies " + response.statusCode());
+      return response.body();
+    } catch (IOException | InterruptedException e) {
+      throw new IllegalStateException("failed to connect coordinator " + coordinator, e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sample the zipfian distribution by the rejection-inversion method (W. Hormann and G. Derflinger,
+ * "Rejection-inversion to generate variates from monotone discrete distributions"). It costs O(1)
+ * time and no memory for any number of elements. This is immutable and thread-safe.
+ */
+final class ZipfSampler {
+
+  private final long numberOfElements;
+  private final double exponent;
+  private final double hIntegralX1;
+  private final double hIntegralNumberOfElements;
+  private final double s;
+
+  /**
+   * @param numberOfElements the number of elements. The sampled values are in [1,
+   *     numberOfElements]
+   * @param exponent the exponent of zipfian distribution. The PDF is proportional to 1 / k^exponent
+   */
+  ZipfSampler(long numberOfElements, double exponent) {
+    if (numberOfElements <= 0)
+      throw new IllegalArgumentException(
+          "the number of elements must be positive, but it is " + numberOfElements);
+    if (exponent <= 0)
+      throw new IllegalArgumentException("the exponent must be positive, but it is " + exponent);
+    this.numberOfElements = numberOfElements;
+    this.exponent = exponent;
+    this.hIntegralX1 = hIntegral(1.5) - 1D;
+    this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+    this.s = 2D - hIntegralInverse(hIntegral(2.5) - h(2));
+  }
+
+  /**
+   * @param rand random generator
+   * @return a value in [1, numberOfElements]
+   */
+  long sample(SplittableRandom rand) {
+    while (true) {
+      var u =
+          hIntegralNumberOfElements
+              + rand.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+      var x = hIntegralInverse(u);
+      var k = Math.max(1, Math.min(numberOfElements, (long) (x + 0.5)));
+      if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) return k;
+    }
+  }
+
+  /** @return H(x), the integral of h(x) */
+  private double hIntegral(double x) {
+    var logX = Math.log(x);
+    return helper2((1D - exponent) * logX) * logX;
+  }
+
+  /** @return h(x) = 1 / x^exponent */
+  private double h(double x) {
+    return Math.exp(-exponent * Math.log(x));
+  }
+
+  /** @return the inverse function of H(x) */
+  private double hIntegralInverse(double x) {
+    var t = Math.max(-1D, x * (1D - exponent));
+    return Math.exp(helper1(t) * x);
+  }
+
+  /** @return log(1 + x) / x, and it is accurate even if x is close to zero */
+  private static double helper1(double x) {
+    if (Math.abs(x) > 1e-8) return Math.log1p(x) / x;
+    return 1D - x * (1D / 2 - x * (1D / 3 - x * (1D / 4)));
+  }
+
+  /** @return (exp(x) - 1) / x, and it is accurate even if x is close to zero */
+  private static double helper2(double x) {
+    if (Math.abs(x) > 1e-8) return Math.expm1(x) / x;
+    return 1D + x * (1D / 2) * (1D + x * (1D / 3) * (1D + x * (1D / 4)));
+  }
+}
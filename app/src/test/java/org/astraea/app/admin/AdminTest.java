@@ -906,6 +906,18 @@ public class AdminTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testRemoveTopics() {
+    var topicName = Utils.randomString(10);
+    try (var admin = Admin.of(bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(1).create();
+      Utils.waitFor(() -> admin.topicNames().contains(topicName));
+      // the non-existent topic is ignored
+      admin.removeTopics(Set.of(topicName, Utils.randomString(10)));
+      Utils.waitFor(() -> !admin.topicNames().contains(topicName));
+    }
+  }
+
   @Test
   void testRemoveGroupWithDynamicMembers() {
     var groupId = Utils.randomString(10);
@@ -16,9 +16,11 @@
  */
 package org.astraea.app.admin;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
 import org.astraea.app.metrics.broker.HasValue;
 import org.astraea.app.metrics.jmx.BeanObject;
 import org.junit.jupiter.api.Assertions;
@@ -105,4 +107,41 @@ class ClusterBeanTest {
     Assertions.assertEquals(
         2, clusterBean.mapByReplica().get(TopicPartitionReplica.of("testBeans", 0, 2)).size());
   }
+
+  @Test
+  void testRate() {
+    var now = System.currentTimeMillis();
+    var name = KafkaMetrics.BrokerTopic.BytesInPerSec.metricName();
+    var metric = KafkaMetrics.BrokerTopic.BytesInPerSec.identity();
+    var window = Duration.ofSeconds(10);
+    // the beans are not sorted by time
+    var clusterBean =
+        ClusterBean.of(
+            Map.of(
+                1,
+                List.of(count(name, 3000, now), count(name, 1000, now - 2000)),
+                2,
+                List.of(count(name, 1000, now - 2000), count(name, 200, now)),
+                3,
+                List.of(count(name, 1000, now))));
+    Assertions.assertEquals(1000, clusterBean.rate(1, metric, window).getAsDouble());
+    // the counter is reset
+    Assertions.assertEquals(100, clusterBean.rate(2, metric, window).getAsDouble());
+    // there is only one sample
+    Assertions.assertTrue(clusterBean.rate(3, metric, window).isEmpty());
+    // the samples are out of window
+    Assertions.assertTrue(clusterBean.rate(1, metric, Duration.ofSeconds(1)).isEmpty());
+    // unknown broker and metric
+    Assertions.assertTrue(clusterBean.rate(4, metric, window).isEmpty());
+    Assertions.assertTrue(clusterBean.rate(1, "kafka.server:a=b", window).isEmpty());
+  }
+
+  private static BrokerTopicMetricsResult count(String name, long count, long timestamp) {
+    return new BrokerTopicMetricsResult(
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "BrokerTopicMetrics", "name", name),
+            Map.of("Count", count),
+            timestamp));
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.admin;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class KafkaClusterInfoTest {
+
+  private static PartitionInfo partition(String topic, int partition, Node leader, Node... nodes) {
+    return new PartitionInfo(topic, partition, leader, nodes, nodes);
+  }
+
+  @Test
+  void testConvert() {
+    var node0 = new Node(0, "host0", 9092);
+    var node1 = new Node(1, "host1", 9092);
+    var cluster =
+        new Cluster(
+            "aa",
+            List.of(node0, node1),
+            List.of(
+                partition("a", 0, node0, node0, node1),
+                partition("a", 1, node1, node0, node1),
+                partition("b", 0, node1, node1)),
+            Set.of(),
+            Set.of());
+    var clusterInfo = ClusterInfo.of(cluster);
+    Assertions.assertEquals(Set.of("a", "b"), clusterInfo.topics());
+    Assertions.assertEquals(2, clusterInfo.nodes().size());
+    Assertions.assertEquals(4, clusterInfo.availableReplicas("a").size());
+    Assertions.assertEquals(2, clusterInfo.availableReplicaLeaders("a").size());
+    Assertions.assertEquals(1, clusterInfo.availableReplicaLeaders("b").size());
+    Assertions.assertEquals(0, clusterInfo.availableReplicaLeaders("c").size());
+  }
+
+  @Test
+  void testIncrementalConversion() {
+    var node0 = new Node(0, "host0", 9092);
+    var node1 = new Node(1, "host1", 9092);
+    var previous =
+        ClusterInfo.of(
+            new Cluster(
+                "aa",
+                List.of(node0, node1),
+                List.of(partition("a", 0, node0, node0), partition("b", 0, node0, node0)),
+                Set.of(),
+                Set.of()));
+    // the leader of topic "b" is changed
+    var current =
+        ClusterInfo.of(
+            new Cluster(
+                "aa",
+                List.of(node0, node1),
+                List.of(partition("a", 0, node0, node0), partition("b", 0, node1, node1)),
+                Set.of(),
+                Set.of()),
+            previous);
+    Assertions.assertSame(previous.nodes(), current.nodes());
+    // the replicas of topic "a" are not converted again
+    Assertions.assertSame(previous.availableReplicas("a"), current.availableReplicas("a"));
+    Assertions.assertSame(
+        previous.availableReplicaLeaders("a"), current.availableReplicaLeaders("a"));
+    Assertions.assertNotSame(previous.availableReplicas("b"), current.availableReplicas("b"));
+    Assertions.assertEquals(1, current.availableReplicaLeaders("b").get(0).nodeInfo().id());
+  }
+}
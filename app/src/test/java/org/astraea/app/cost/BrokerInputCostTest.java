@@ -30,7 +30,6 @@ import org.astraea.app.metrics.jmx.BeanObject;
 import org.astraea.app.service.RequireBrokerCluster;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 
 public class BrokerInputCostTest extends RequireBrokerCluster {
   @Test
@@ -65,6 +64,23 @@ public class BrokerInputCostTest extends RequireBrokerCluster {
     Assertions.assertEquals(5000.0, scores.get(3));
   }
 
+  @Test
+  void testCounterReset() {
+    var name = KafkaMetrics.BrokerTopic.BytesInPerSec.metricName();
+    var now = System.currentTimeMillis();
+    // the broker is restarted after the second sample
+    Collection<HasBeanObject> beans =
+        List.of(
+            result(name, 1000, now - 2000),
+            result(name, 3000, now - 1000),
+            result(name, 500, now));
+    var scores =
+        new BrokerInputCost()
+            .brokerCost(ClusterInfo.EMPTY, ClusterBean.of(Map.of(1, beans)))
+            .value();
+    Assertions.assertEquals(1250.0, scores.get(1));
+  }
+
   @Test
   void testFetcher() {
     try (Receiver receiver =
@@ -94,23 +110,25 @@ public class BrokerInputCostTest extends RequireBrokerCluster {
     }
   }
 
-  private ClusterBean clusterBean(long in1, long in2, long in3) {
-    var BytesInPerSec1 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), in1);
-    var BytesInPerSec2 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), in2);
-    var BytesInPerSec3 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), in3);
-
-    Collection<HasBeanObject> broker1 = List.of(BytesInPerSec1);
-    Collection<HasBeanObject> broker2 = List.of(BytesInPerSec2);
-    Collection<HasBeanObject> broker3 = List.of(BytesInPerSec3);
+  /** @return the cluster bean whose rates of BytesInPerSec are the given values */
+  private static ClusterBean clusterBean(long in1, long in2, long in3) {
+    var name = KafkaMetrics.BrokerTopic.BytesInPerSec.metricName();
+    var now = System.currentTimeMillis();
+    Collection<HasBeanObject> broker1 =
+        List.of(result(name, 0, now - 1000), result(name, in1, now));
+    Collection<HasBeanObject> broker2 =
+        List.of(result(name, 0, now - 1000), result(name, in2, now));
+    Collection<HasBeanObject> broker3 =
+        List.of(result(name, 0, now - 1000), result(name, in3, now));
     return ClusterBean.of(Map.of(1, broker1, 2, broker2, 3, broker3));
   }
 
-  private BrokerTopicMetricsResult mockResult(String name, long count) {
-    var result = Mockito.mock(BrokerTopicMetricsResult.class);
-    var bean = Mockito.mock(BeanObject.class);
-    Mockito.when(result.beanObject()).thenReturn(bean);
-    Mockito.when(bean.properties()).thenReturn(Map.of("name", name));
-    Mockito.when(result.count()).thenReturn(count);
-    return result;
+  private static BrokerTopicMetricsResult result(String name, long count, long timestamp) {
+    return new BrokerTopicMetricsResult(
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "BrokerTopicMetrics", "name", name),
+            Map.of("Count", count),
+            timestamp));
   }
 }
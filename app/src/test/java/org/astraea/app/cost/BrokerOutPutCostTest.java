@@ -30,7 +30,6 @@ import org.astraea.app.metrics.jmx.BeanObject;
 import org.astraea.app.service.RequireBrokerCluster;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 
 public class BrokerOutPutCostTest extends RequireBrokerCluster {
   @Test
@@ -84,23 +83,25 @@ public class BrokerOutPutCostTest extends RequireBrokerCluster {
     }
   }
 
-  private ClusterBean clusterBean(long out1, long out2, long out3) {
-    var BytesInPerSec1 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), out1);
-    var BytesInPerSec2 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), out2);
-    var BytesInPerSec3 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), out3);
-
-    Collection<HasBeanObject> broker1 = List.of(BytesInPerSec1);
-    Collection<HasBeanObject> broker2 = List.of(BytesInPerSec2);
-    Collection<HasBeanObject> broker3 = List.of(BytesInPerSec3);
+  /** @return the cluster bean whose rates of BytesOutPerSec are the given values */
+  private static ClusterBean clusterBean(long out1, long out2, long out3) {
+    var name = KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName();
+    var now = System.currentTimeMillis();
+    Collection<HasBeanObject> broker1 =
+        List.of(result(name, 0, now - 1000), result(name, out1, now));
+    Collection<HasBeanObject> broker2 =
+        List.of(result(name, 0, now - 1000), result(name, out2, now));
+    Collection<HasBeanObject> broker3 =
+        List.of(result(name, 0, now - 1000), result(name, out3, now));
     return ClusterBean.of(Map.of(1, broker1, 2, broker2, 3, broker3));
   }
 
-  private BrokerTopicMetricsResult mockResult(String name, long count) {
-    var result = Mockito.mock(BrokerTopicMetricsResult.class);
-    var bean = Mockito.mock(BeanObject.class);
-    Mockito.when(result.beanObject()).thenReturn(bean);
-    Mockito.when(bean.properties()).thenReturn(Map.of("name", name));
-    Mockito.when(result.count()).thenReturn(count);
-    return result;
+  private static BrokerTopicMetricsResult result(String name, long count, long timestamp) {
+    return new BrokerTopicMetricsResult(
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "BrokerTopicMetrics", "name", name),
+            Map.of("Count", count),
+            timestamp));
   }
 }
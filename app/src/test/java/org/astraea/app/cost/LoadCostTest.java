@@ -26,47 +26,67 @@ import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
 import org.astraea.app.metrics.jmx.BeanObject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 
 public class LoadCostTest {
   @Test
   void testComputeLoad() {
     var loadCostFunction = new LoadCost();
-    var allBeans = clusterBean().all();
-    var load = loadCostFunction.computeLoad(allBeans);
+    var clusterBean = clusterBean();
+    var load = loadCostFunction.computeLoad(clusterBean);
 
-    Assertions.assertEquals(2, load.get(1));
-    Assertions.assertEquals(1, load.get(2));
-    Assertions.assertEquals(1, load.get(3));
+    // all windows have the same samples
+    Assertions.assertEquals(2 * LoadCost.WINDOWS.size(), load.get(1));
+    Assertions.assertEquals(LoadCost.WINDOWS.size(), load.get(2));
+    Assertions.assertEquals(LoadCost.WINDOWS.size(), load.get(3));
 
-    load = loadCostFunction.computeLoad(allBeans);
-
-    // count does not change so all broker get one more score
-    Assertions.assertEquals(3, load.get(1));
-    Assertions.assertEquals(2, load.get(2));
-    Assertions.assertEquals(2, load.get(3));
+    // the load is computed by the samples only
+    Assertions.assertEquals(load, loadCostFunction.computeLoad(clusterBean));
   }
 
-  private ClusterBean clusterBean() {
-    var BytesInPerSec1 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), 50000L);
-    var BytesInPerSec2 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), 100000L);
-    var BytesInPerSec3 = mockResult(KafkaMetrics.BrokerTopic.BytesInPerSec.metricName(), 200000L);
-    var BytesOutPerSec1 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), 210L);
-    var BytesOutPerSec2 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), 20L);
-    var BytesOutPerSec3 = mockResult(KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName(), 10L);
+  @Test
+  void testNoSamples() {
+    var name = KafkaMetrics.BrokerTopic.BytesInPerSec.metricName();
+    var now = System.currentTimeMillis();
+    Collection<HasBeanObject> beans = List.of(result(name, 100, now));
+    var load = new LoadCost().computeLoad(ClusterBean.of(Map.of(1, beans, 2, beans)));
+
+    // all brokers are idle
+    Assertions.assertEquals(LoadCost.WINDOWS.size(), load.get(1));
+    Assertions.assertEquals(LoadCost.WINDOWS.size(), load.get(2));
+  }
 
-    Collection<HasBeanObject> broker1 = List.of(BytesInPerSec1, BytesOutPerSec1);
-    Collection<HasBeanObject> broker2 = List.of(BytesInPerSec2, BytesOutPerSec2);
-    Collection<HasBeanObject> broker3 = List.of(BytesInPerSec3, BytesOutPerSec3);
+  private static ClusterBean clusterBean() {
+    var in = KafkaMetrics.BrokerTopic.BytesInPerSec.metricName();
+    var out = KafkaMetrics.BrokerTopic.BytesOutPerSec.metricName();
+    var now = System.currentTimeMillis();
+    // the rates are <1, 10000, 84> <2, 30000, 4> <3, 40000, 2>
+    Collection<HasBeanObject> broker1 =
+        List.of(
+            result(in, 0, now - 5000),
+            result(in, 50000, now),
+            result(out, 0, now - 5000),
+            result(out, 420, now));
+    Collection<HasBeanObject> broker2 =
+        List.of(
+            result(in, 0, now - 5000),
+            result(in, 150000, now),
+            result(out, 0, now - 5000),
+            result(out, 20, now));
+    Collection<HasBeanObject> broker3 =
+        List.of(
+            result(in, 0, now - 5000),
+            result(in, 200000, now),
+            result(out, 0, now - 5000),
+            result(out, 10, now));
     return ClusterBean.of(Map.of(1, broker1, 2, broker2, 3, broker3));
   }
 
-  private BrokerTopicMetricsResult mockResult(String name, long count) {
-    var result = Mockito.mock(BrokerTopicMetricsResult.class);
-    var bean = Mockito.mock(BeanObject.class);
-    Mockito.when(result.beanObject()).thenReturn(bean);
-    Mockito.when(bean.properties()).thenReturn(Map.of("name", name));
-    Mockito.when(result.count()).thenReturn(count);
-    return result;
+  private static BrokerTopicMetricsResult result(String name, long count, long timestamp) {
+    return new BrokerTopicMetricsResult(
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "BrokerTopicMetrics", "name", name),
+            Map.of("Count", count),
+            timestamp));
   }
 }
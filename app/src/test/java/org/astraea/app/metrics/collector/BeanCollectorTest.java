@@ -16,18 +16,20 @@
  */
 package org.astraea.app.metrics.collector;
 
+import static java.util.stream.Collectors.toList;
+
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.astraea.app.common.Utils;
-import org.astraea.app.concurrent.Executor;
-import org.astraea.app.concurrent.State;
-import org.astraea.app.concurrent.ThreadPool;
 import org.astraea.app.metrics.HasBeanObject;
 import org.astraea.app.metrics.KafkaMetrics;
 import org.astraea.app.metrics.jmx.BeanObject;
@@ -41,13 +43,6 @@ public class BeanCollectorTest {
   private final BiFunction<String, Integer, MBeanClient> clientCreator =
       (host, port) -> mbeanClient;
 
-  private static Executor executor(Runnable runnable) {
-    return () -> {
-      runnable.run();
-      return State.RUNNING;
-    };
-  }
-
   private static HasBeanObject createBeanObject() {
     var obj = new BeanObject("domain", Map.of(), Map.of());
     return () -> obj;
@@ -78,37 +73,36 @@ public class BeanCollectorTest {
   }
 
   @Test
-  void testNumberOfObjectsPerNode() {
+  void testLatestObjects() {
     var collector =
         BeanCollector.builder()
-            .numberOfObjectsPerNode(2)
-            .interval(Duration.ofMillis(1))
+            .interval(Duration.ofMillis(10))
+            .timeout(Duration.ofSeconds(10))
             .clientCreator(clientCreator)
             .build();
-
-    var receiver =
+    // each scrape takes a permit, so the test controls the number of scrapes
+    var permits = new Semaphore(0);
+    var objects = IntStream.range(0, 3).mapToObj(i -> createBeanObject()).collect(toList());
+    var count = new AtomicInteger();
+    try (var receiver =
         collector
             .register()
             .host("unknown")
             .port(100)
-            .fetcher(client -> List.of(createBeanObject()))
-            .build();
-
-    var c0 = receiver.current();
-    Assertions.assertEquals(1, c0.size());
-    var firstObject = c0.iterator().next();
-    Utils.sleep(Duration.ofSeconds(1));
-
-    var c1 = receiver.current();
-    Assertions.assertEquals(2, c1.size());
-    var secondObject = c1.stream().filter(o -> o != firstObject).findFirst().get();
-    Utils.sleep(Duration.ofSeconds(1));
-
-    var c2 = receiver.current();
-    Assertions.assertEquals(2, c2.size());
-    // the oldest element should be removed
-    Assertions.assertFalse(c2.contains(firstObject));
-    Assertions.assertTrue(c2.contains(secondObject));
+            .fetcher(
+                client -> {
+                  Utils.packException(() -> permits.acquire());
+                  return List.of(objects.get(count.getAndIncrement() % objects.size()));
+                })
+            .build()) {
+      // the receiver keeps the mbeans of latest scrape only
+      for (var object : objects) {
+        permits.release();
+        Utils.waitFor(() -> receiver.current().contains(object));
+        Assertions.assertEquals(List.of(object), receiver.current());
+      }
+      permits.release(100);
+    }
   }
 
   @Test
@@ -118,7 +112,7 @@ public class BeanCollectorTest {
     Assertions.assertThrows(
         NullPointerException.class, () -> BeanCollector.builder().clientCreator(null));
     Assertions.assertThrows(
-        IllegalArgumentException.class, () -> BeanCollector.builder().numberOfObjectsPerNode(-1));
+        IllegalArgumentException.class, () -> BeanCollector.builder().threads(-1));
   }
 
   @Test
@@ -129,35 +123,27 @@ public class BeanCollectorTest {
     Assertions.assertThrows(NullPointerException.class, () -> collector.register().fetcher(null));
   }
 
+  /** register the receivers of same node by three threads, and wait for their first mbeans */
   private List<Receiver> receivers(BeanCollector collector) {
-    var receivers = new ArrayList<Receiver>();
-    Runnable runnable =
-        () -> {
-          try {
-            var receiver =
-                collector
-                    .register()
-                    .host("unknown")
-                    .port(100)
-                    .fetcher(client -> List.of(createBeanObject()))
-                    .build();
-            synchronized (receivers) {
-              receivers.add(receiver);
-            }
-          } finally {
-            Utils.sleep(Duration.ofSeconds(1));
-          }
-        };
-
-    try (var pool =
-        ThreadPool.builder()
-            .executors(
-                IntStream.range(0, 3)
-                    .mapToObj(i -> executor(runnable))
-                    .collect(Collectors.toList()))
-            .build()) {
-      Utils.sleep(Duration.ofSeconds(1));
-    }
+    var start = new CountDownLatch(1);
+    var futures =
+        IntStream.range(0, 3)
+            .mapToObj(
+                i ->
+                    CompletableFuture.supplyAsync(
+                        () -> {
+                          Utils.packException(() -> start.await());
+                          return collector
+                              .register()
+                              .host("unknown")
+                              .port(100)
+                              .fetcher(client -> List.of(createBeanObject()))
+                              .build();
+                        }))
+            .collect(toList());
+    start.countDown();
+    var receivers = futures.stream().map(CompletableFuture::join).collect(toList());
+    Utils.waitFor(() -> receivers.stream().noneMatch(r -> r.current().isEmpty()));
     return receivers;
   }
 
@@ -166,7 +152,6 @@ public class BeanCollectorTest {
     var collector = BeanCollector.builder().clientCreator(clientCreator).build();
 
     var receivers = receivers(collector);
-    receivers.forEach(Receiver::current);
 
     Assertions.assertEquals(1, collector.nodes.size());
     Assertions.assertEquals(
@@ -188,31 +173,53 @@ public class BeanCollectorTest {
 
     var receivers = receivers(collector);
 
-    try (var pool =
-        ThreadPool.builder()
-            .executors(
-                receivers.stream()
-                    .map(receiver -> executor(receiver::current))
-                    .collect(Collectors.toList()))
-            .build()) {
-      Utils.sleep(Duration.ofSeconds(3));
-    }
+    // the concurrent reads never trigger the scrapes
+    CompletableFuture.allOf(
+            receivers.stream()
+                .map(
+                    receiver ->
+                        CompletableFuture.runAsync(
+                            () -> IntStream.range(0, 1000).forEach(i -> receiver.current())))
+                .toArray(CompletableFuture[]::new))
+        .join();
     receivers.forEach(r -> Assertions.assertEquals(1, r.current().size()));
   }
 
   @Test
   void testLargeInterval() {
-    testInterval(Duration.ofSeconds(100), List.of(1, 1, 1));
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofSeconds(100))
+            .clientCreator(clientCreator)
+            .build();
+    var count = new AtomicInteger();
+    try (var receiver =
+        collector
+            .register()
+            .host("unknown")
+            .port(100)
+            .fetcher(
+                client -> {
+                  count.incrementAndGet();
+                  return List.of(createBeanObject());
+                })
+            .build()) {
+      // the mbeans are fetched by background threads rather than current()
+      Utils.waitFor(() -> receiver.current().size() == 1);
+      // the node is scraped once when the receiver is built
+      Assertions.assertEquals(1, count.get());
+      Assertions.assertEquals(1, receiver.current().size());
+    }
   }
 
   @Test
-  void testSmallInterval() {
-    testInterval(Duration.ofMillis(100), List.of(1, 2, 3));
-  }
-
-  private void testInterval(Duration interval, List<Integer> expectedSizes) {
-    var collector = BeanCollector.builder().interval(interval).clientCreator(clientCreator).build();
-    var count = new AtomicInteger();
+  void testSmallInterval() throws InterruptedException {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofMillis(100))
+            .clientCreator(clientCreator)
+            .build();
+    var scrapes = new CountDownLatch(4);
     var receiver =
         collector
             .register()
@@ -220,23 +227,22 @@ public class BeanCollectorTest {
             .port(100)
             .fetcher(
                 client -> {
-                  count.incrementAndGet();
+                  scrapes.countDown();
                   return List.of(createBeanObject());
                 })
             .build();
-
-    for (var expect : expectedSizes) {
-      Assertions.assertEquals(expect, receiver.current().size());
-      Assertions.assertEquals(expect, count.get());
-      Utils.sleep(Duration.ofSeconds(1));
-    }
+    Assertions.assertTrue(scrapes.await(10, TimeUnit.SECONDS));
+    receiver.close();
+    // no mbeans are published after the receiver is closed
+    var size = receiver.current().size();
+    collector.statistics().forEach(s -> Assertions.assertTrue(s.successes() >= size));
   }
 
   @Test
   void testMultiplesReceiversData() {
     var collector =
         BeanCollector.builder()
-            .interval(Duration.ofSeconds(1))
+            .interval(Duration.ofSeconds(100))
             .clientCreator(clientCreator)
             .build();
 
@@ -258,16 +264,160 @@ public class BeanCollectorTest {
                               })
                           .build());
                 })
-            .collect(Collectors.toList());
+            .collect(toList());
 
-    Utils.sleep(Duration.ofSeconds(1));
-    receivers.forEach(e -> Assertions.assertEquals(0, e.getKey().get()));
-
-    Utils.sleep(Duration.ofSeconds(1));
-    receivers.forEach(e -> Assertions.assertEquals(1, e.getValue().current().size()));
+    Utils.waitFor(
+        () -> receivers.stream().allMatch(e -> e.getValue().current().size() == 1));
+    // each receiver is fetched once when it is built
     receivers.forEach(e -> Assertions.assertEquals(1, e.getKey().get()));
   }
 
+  @Test
+  void testNonBlockingCurrent() throws InterruptedException {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofMillis(100))
+            .timeout(Duration.ofSeconds(10))
+            .clientCreator(clientCreator)
+            .build();
+    var blocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var count = new AtomicInteger();
+    try (var receiver =
+        collector
+            .register()
+            .host("unknown")
+            .port(100)
+            .fetcher(
+                client -> {
+                  if (count.incrementAndGet() == 2) {
+                    blocked.countDown();
+                    Utils.packException(() -> release.await());
+                  }
+                  return List.of(createBeanObject());
+                })
+            .build()) {
+      Assertions.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+      // the scrape thread is blocked, but the latest mbeans are still readable
+      Utils.waitFor(() -> receiver.current().size() == 1);
+      var current = receiver.current();
+      release.countDown();
+      // the later scrapes replace the mbeans
+      Utils.waitFor(() -> receiver.current() != current);
+      Assertions.assertEquals(1, receiver.current().size());
+    }
+  }
+
+  @Test
+  void testCloseBlockedNode() throws Exception {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofMillis(100))
+            .timeout(Duration.ofSeconds(100))
+            .clientCreator(clientCreator)
+            .build();
+    var blocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    Fetcher fetcher =
+        client -> {
+          blocked.countDown();
+          Utils.packException(() -> release.await());
+          return List.of(createBeanObject());
+        };
+    try {
+      // the receiver is built without waiting for its first scrape
+      var receiver = collector.register().host("unknown").port(100).fetcher(fetcher).build();
+      Assertions.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(0, receiver.current().size());
+
+      // the blocked scrape does not block other receivers of the node
+      var other = collector.register().host("unknown").port(100).fetcher(fetcher).build();
+      CompletableFuture.runAsync(other::close).get(10, TimeUnit.SECONDS);
+      CompletableFuture.runAsync(receiver::close).get(10, TimeUnit.SECONDS);
+      Assertions.assertNull(collector.nodes.get("unknown:100").mBeanClient);
+
+      // the closed receiver gets no mbeans from the blocked scrape
+      release.countDown();
+      Utils.waitFor(() -> collector.statistics().get(0).successes() >= 1);
+      Assertions.assertEquals(0, receiver.current().size());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void testTimeout() {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofMillis(200))
+            .timeout(Duration.ofMillis(100))
+            .clientCreator(clientCreator)
+            .build();
+    var interrupted = new AtomicInteger();
+    try (var receiver =
+        collector
+            .register()
+            .host("unknown")
+            .port(100)
+            .fetcher(
+                client -> {
+                  try {
+                    TimeUnit.SECONDS.sleep(10);
+                  } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw new IllegalStateException(e);
+                  }
+                  return List.of(createBeanObject());
+                })
+            .build()) {
+      Assertions.assertEquals(0, receiver.current().size());
+      Utils.waitFor(() -> collector.statistics().get(0).failures() >= 2);
+      var statistics = collector.statistics().get(0);
+      Assertions.assertEquals(0, statistics.successes());
+      Assertions.assertTrue(statistics.lastError().isPresent());
+      Assertions.assertTrue(interrupted.get() >= 2);
+      Assertions.assertTrue(statistics.staleness().toMillis() >= 200);
+      // the broken client is closed
+      Mockito.verify(mbeanClient, Mockito.atLeast(2)).close();
+    }
+  }
+
+  @Test
+  void testStatistics() {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofMillis(200))
+            .clientCreator(clientCreator)
+            .build();
+    var count = new AtomicInteger();
+    try (var receiver =
+        collector
+            .register()
+            .host("unknown")
+            .port(100)
+            .fetcher(
+                client -> {
+                  // fail every other scrape
+                  if (count.incrementAndGet() % 2 == 0) throw new IllegalStateException("failed");
+                  Utils.sleep(Duration.ofMillis(10));
+                  return List.of(createBeanObject());
+                })
+            .build()) {
+      Utils.waitFor(() -> count.get() >= 4);
+      var statistics = collector.statistics();
+      Assertions.assertEquals(1, statistics.size());
+      Assertions.assertEquals("unknown", statistics.get(0).host());
+      Assertions.assertEquals(100, statistics.get(0).port());
+      Assertions.assertTrue(statistics.get(0).successes() >= 2);
+      Assertions.assertTrue(statistics.get(0).failures() >= 1);
+      Assertions.assertEquals(
+          "failed", statistics.get(0).lastError().map(Exception::getMessage).orElse(""));
+      Assertions.assertTrue(statistics.get(0).staleness().toMillis() < 1000);
+      // the mbeans are published before the scrape is counted
+      Assertions.assertEquals(1, receiver.current().size());
+    }
+  }
+
   @Test
   void testCreatedTimestamp() {
     var collector =
@@ -283,14 +433,46 @@ public class BeanCollectorTest {
             .port(100)
             .fetcher(client -> List.of(() -> obj))
             .build()) {
-      // wait for updating cache
-      Utils.sleep(Duration.ofSeconds(1));
+      Utils.waitFor(() -> !receiver.current().isEmpty());
       var objs = receiver.current();
       Assertions.assertEquals(1, objs.size());
       Assertions.assertEquals(obj.createdTimestamp(), objs.iterator().next().createdTimestamp());
     }
   }
 
+  @Test
+  void testTimeSeries() {
+    var collector =
+        BeanCollector.builder()
+            .interval(Duration.ofSeconds(100))
+            .clientCreator(clientCreator)
+            .build();
+    var key = TimeSeriesStore.Key.of("unknown:100", "domain:type=a", "Count");
+    try (var receiver =
+        collector
+            .register()
+            .host("unknown")
+            .port(100)
+            .fetcher(
+                Fetcher.of(
+                    client ->
+                        List.of(
+                            () ->
+                                new BeanObject(
+                                    "domain",
+                                    Map.of("type", "a"),
+                                    Map.of("Count", 10L, "MeanRate", 1.5D, "Unit", "s"))),
+                    Set.of("Count", "Unit")))
+            .build()) {
+      Utils.waitFor(() -> receiver.current().size() == 1);
+      // only the numeric attributes declared by fetcher are recorded
+      Assertions.assertEquals(Set.of(key), collector.timeSeries().keys());
+      Assertions.assertEquals(10, collector.timeSeries().latest(key).getAsDouble());
+    }
+    // the series are removed with the last receiver of node
+    Assertions.assertEquals(0, collector.timeSeries().keys().size());
+  }
+
   @Test
   void testLocal() {
     var collector =
@@ -304,10 +486,7 @@ public class BeanCollectorTest {
             .local()
             .fetcher(client -> List.of(KafkaMetrics.Host.jvmMemory(client)))
             .build()) {
-
-      // wait for updating cache
-      Utils.sleep(Duration.ofSeconds(1));
-      Assertions.assertNotEquals(0, receiver.current().size());
+      Utils.waitFor(() -> !receiver.current().isEmpty());
     }
   }
 }
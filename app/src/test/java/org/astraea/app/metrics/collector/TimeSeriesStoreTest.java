@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.collector;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.astraea.app.metrics.jmx.BeanObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TimeSeriesStoreTest {
+
+  private static final TimeSeriesStore.Key KEY =
+      TimeSeriesStore.Key.of("node", "kafka.server:type=a", "Count");
+
+  @Test
+  void testMetric() {
+    Assertions.assertEquals(
+        "kafka.server:name=BytesInPerSec,type=BrokerTopicMetrics",
+        TimeSeriesStore.metric(
+            "kafka.server", Map.of("type", "BrokerTopicMetrics", "name", "BytesInPerSec")));
+  }
+
+  @Test
+  void testRecordBeanObject() {
+    var store = TimeSeriesStore.builder().build();
+    var now = System.currentTimeMillis();
+    store.record(
+        "node",
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "a"),
+            Map.of("Count", 10L, "OneMinuteRate", 1.5D, "RateUnit", "SECONDS"),
+            now));
+    // the non-numeric attribute is ignored
+    Assertions.assertEquals(
+        Set.of("Count", "OneMinuteRate"),
+        store.keys("node").stream()
+            .map(TimeSeriesStore.Key::attribute)
+            .collect(Collectors.toSet()));
+    Assertions.assertEquals(10, store.latest(KEY).getAsDouble());
+    Assertions.assertEquals(Set.of(), store.keys("other"));
+
+    store.remove("node");
+    Assertions.assertEquals(0, store.keys().size());
+    Assertions.assertTrue(store.latest(KEY).isEmpty());
+  }
+
+  @Test
+  void testCapacity() {
+    var store = TimeSeriesStore.builder().capacity(3).build();
+    var now = System.currentTimeMillis();
+    for (var i = 0; i != 5; ++i) store.record(KEY, now - 5000 + i * 1000, i);
+    var samples = store.samples(KEY, Duration.ofMinutes(1));
+    Assertions.assertEquals(
+        List.of(2D, 3D, 4D),
+        samples.stream().map(TimeSeriesStore.Sample::value).collect(Collectors.toList()));
+    Assertions.assertEquals(now - 3000, samples.get(0).timestamp());
+  }
+
+  @Test
+  void testRecordAttributes() {
+    var store = TimeSeriesStore.builder().build();
+    store.record(
+        "node",
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "a"),
+            Map.of("Count", 10L, "OneMinuteRate", 1.5D, "RateUnit", "SECONDS")),
+        Set.of("Count", "RateUnit", "MeanRate"));
+    // only the numeric attributes in the set are recorded
+    Assertions.assertEquals(Set.of(KEY), store.keys());
+  }
+
+  @Test
+  void testGrowingCapacity() {
+    var store = TimeSeriesStore.builder().capacity(20).build();
+    var now = System.currentTimeMillis();
+    // the ring is grown several times before it is full
+    for (var i = 0; i != 50; ++i) {
+      store.record(KEY, now - 50000 + i * 1000, i);
+      var samples = store.samples(KEY, Duration.ofMinutes(1));
+      Assertions.assertEquals(Math.min(i + 1, 20), samples.size());
+      Assertions.assertEquals(Math.max(0, i - 19), samples.get(0).value());
+      Assertions.assertEquals(i, samples.get(samples.size() - 1).value());
+    }
+  }
+
+  @Test
+  void testOutOfOrderSamples() {
+    var store = TimeSeriesStore.builder().build();
+    var now = System.currentTimeMillis();
+    store.record(KEY, now, 1);
+    // the older sample is dropped
+    store.record(KEY, now - 1000, 2);
+    Assertions.assertEquals(1, store.samples(KEY, Duration.ofMinutes(1)).size());
+    // the sample having same time replaces the latest one
+    store.record(KEY, now, 3);
+    Assertions.assertEquals(1, store.samples(KEY, Duration.ofMinutes(1)).size());
+    Assertions.assertEquals(3, store.latest(KEY).getAsDouble());
+  }
+
+  @Test
+  void testWindow() {
+    var store = TimeSeriesStore.builder().build();
+    Assertions.assertTrue(store.rate(KEY, Duration.ofSeconds(10)).isEmpty());
+    var now = System.currentTimeMillis();
+    // a counter increasing 100 per second. The offset keeps the window stable while testing
+    for (var i = 0; i <= 20; ++i) store.record(KEY, now - 19500 + i * 1000, i * 100);
+
+    Assertions.assertEquals(11, store.samples(KEY, Duration.ofSeconds(10)).size());
+    Assertions.assertEquals(1000, store.delta(KEY, Duration.ofSeconds(10)).getAsDouble());
+    Assertions.assertEquals(100, store.rate(KEY, Duration.ofSeconds(10)).getAsDouble(), 0.001);
+    Assertions.assertEquals(1500, store.average(KEY, Duration.ofSeconds(10)).getAsDouble());
+    // the window is longer than the series
+    Assertions.assertEquals(2000, store.delta(KEY, Duration.ofMinutes(1)).getAsDouble());
+
+    // there is only one sample
+    var other = TimeSeriesStore.Key.of("node", "kafka.server:type=b", "Count");
+    store.record(other, now, 100);
+    Assertions.assertTrue(store.rate(other, Duration.ofMinutes(1)).isEmpty());
+    Assertions.assertTrue(store.delta(other, Duration.ofMinutes(1)).isEmpty());
+    Assertions.assertEquals(100, store.average(other, Duration.ofMinutes(1)).getAsDouble());
+  }
+
+  @Test
+  void testCounterReset() {
+    var store = TimeSeriesStore.builder().build();
+    var now = System.currentTimeMillis();
+    store.record(KEY, now - 3000, 1000);
+    store.record(KEY, now - 2000, 1200);
+    // the broker is restarted
+    store.record(KEY, now - 1000, 100);
+    store.record(KEY, now, 300);
+
+    Assertions.assertEquals(500, store.increase(KEY, Duration.ofSeconds(10)).getAsDouble());
+    Assertions.assertEquals(500D / 3, store.rate(KEY, Duration.ofSeconds(10)).getAsDouble(), 0.001);
+    // the delta is not aware of reset
+    Assertions.assertEquals(-700, store.delta(KEY, Duration.ofSeconds(10)).getAsDouble());
+  }
+
+  @Test
+  void testEwma() {
+    var store = TimeSeriesStore.builder().build();
+    var now = System.currentTimeMillis();
+    store.record(KEY, now - 2000, 0);
+    store.record(KEY, now - 1000, 100);
+    // the weight of new sample is a half
+    Assertions.assertEquals(50, store.ewma(KEY, Duration.ofSeconds(1)).getAsDouble(), 0.001);
+    store.record(KEY, now, 100);
+    Assertions.assertEquals(75, store.ewma(KEY, Duration.ofSeconds(1)).getAsDouble(), 0.001);
+    // the long half-life makes the average close to the first sample
+    Assertions.assertTrue(store.ewma(KEY, Duration.ofHours(1)).getAsDouble() < 1);
+  }
+
+  @Test
+  void testRollup() {
+    var store =
+        TimeSeriesStore.builder()
+            .capacity(10)
+            .rollup(Duration.ofMinutes(1), 60)
+            .rollup(Duration.ofSeconds(10), 60)
+            .build();
+    var now = System.currentTimeMillis();
+    // a counter increasing 10 per second for 30 minutes
+    var start = now - Duration.ofMinutes(30).toMillis();
+    for (var t = start; t <= now; t += 1000) store.record(KEY, t, (t - start) / 100D);
+
+    // the raw samples cover the last 9 seconds only
+    Assertions.assertEquals(10, store.samples(KEY, Duration.ofMinutes(1)).size());
+    Assertions.assertEquals(10, store.rate(KEY, Duration.ofSeconds(5)).getAsDouble(), 0.001);
+
+    // the 10 seconds rollup covers the last 10 minutes
+    var delta = store.delta(KEY, Duration.ofMinutes(5)).getAsDouble();
+    Assertions.assertEquals(3000, delta, 100);
+    Assertions.assertEquals(10, store.rate(KEY, Duration.ofMinutes(5)).getAsDouble(), 0.001);
+
+    // the 1 minute rollup covers the whole series
+    delta = store.delta(KEY, Duration.ofMinutes(20)).getAsDouble();
+    Assertions.assertEquals(12000, delta, 600);
+    Assertions.assertEquals(10, store.rate(KEY, Duration.ofMinutes(20)).getAsDouble(), 0.001);
+  }
+}
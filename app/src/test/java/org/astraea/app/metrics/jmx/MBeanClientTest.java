@@ -25,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.lang.management.ManagementFactory;
 import java.util.Collection;
 import java.util.Collections;
@@ -34,16 +36,28 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServer;
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import javax.management.remote.JMXConnectorServer;
 import javax.management.remote.JMXConnectorServerFactory;
 import javax.management.remote.JMXServiceURL;
+import org.astraea.app.common.Utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -66,6 +80,15 @@ class MBeanClientTest {
     }
   }
 
+  private void unregister(ObjectName name) {
+    registeredBeans.remove(name);
+    try {
+      mBeanServer.unregisterMBean(name);
+    } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private void clearRegisteredMBeans() {
     registeredBeans.forEach(
         (name, mbeans) -> {
@@ -451,6 +474,153 @@ class MBeanClientTest {
     }
   }
 
+  @Test
+  void testCachedQuery() throws Exception {
+    for (int i = 0; i < 5; i++)
+      register(
+          ObjectName.getInstance("com.example:type=cache" + i),
+          Utility.createReadOnlyDynamicMBean(Map.of("attribute", i)));
+
+    // count the requests sent to mbean server
+    var counts = new ConcurrentHashMap<String, AtomicInteger>();
+    var connection =
+        (MBeanServerConnection)
+            Proxy.newProxyInstance(
+                MBeanServerConnection.class.getClassLoader(),
+                new Class<?>[] {MBeanServerConnection.class},
+                (proxy, method, args) -> {
+                  var name = method.getName();
+                  counts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+                  try {
+                    return method.invoke(mBeanServer, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+    var executor = Executors.newFixedThreadPool(2);
+    var client =
+        new MBeanClientImpl(connection, executor, true) {
+          @Override
+          public String host() {
+            return "local";
+          }
+
+          @Override
+          public int port() {
+            return -1;
+          }
+
+          @Override
+          public void close() {
+            executor.shutdownNow();
+          }
+        };
+    var query = BeanQuery.builder().domainName("com.example").property("type", "cache*").build();
+    try {
+      assertEquals(5, client.queryBeans(query).size());
+      assertEquals(5, client.queryBeans(query).size());
+      // the names and attribute names are resolved once
+      assertEquals(1, counts.get("queryNames").get());
+      assertEquals(5, counts.get("getMBeanInfo").get());
+      assertEquals(10, counts.get("getAttributes").get());
+
+      // the local mbean server sends the notifications synchronously
+      register(
+          ObjectName.getInstance("com.example:type=cache5"),
+          Utility.createReadOnlyDynamicMBean(Map.of("attribute", 5)));
+      unregister(ObjectName.getInstance("com.example:type=cache0"));
+      var beans = client.queryBeans(query);
+      assertEquals(
+          IntStream.range(1, 6).boxed().collect(toSet()),
+          beans.stream().map(b -> b.attributes().get("attribute")).collect(toSet()));
+      assertEquals(1, counts.get("queryNames").get());
+      assertEquals(6, counts.get("getMBeanInfo").get());
+
+      client.clearCache();
+      assertEquals(5, client.queryBeans(query).size());
+      assertEquals(2, counts.get("queryNames").get());
+    } finally {
+      client.close();
+      mBeanServer.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, client.listener);
+    }
+  }
+
+  @Test
+  void testCloseFailsPendingQuery() throws Exception {
+    for (int i = 0; i < 3; i++)
+      register(
+          ObjectName.getInstance("com.example:type=pending" + i),
+          Utility.createReadOnlyDynamicMBean(Map.of("attribute", i)));
+
+    // the first fetch is blocked until the client is closed
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var connection =
+        (MBeanServerConnection)
+            Proxy.newProxyInstance(
+                MBeanServerConnection.class.getClassLoader(),
+                new Class<?>[] {MBeanServerConnection.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("getAttributes")) {
+                    started.countDown();
+                    release.await();
+                  }
+                  try {
+                    return method.invoke(mBeanServer, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+    var executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    var client =
+        new MBeanClientImpl(connection, executor, true) {
+          @Override
+          public String host() {
+            return "local";
+          }
+
+          @Override
+          public int port() {
+            return -1;
+          }
+
+          @Override
+          public void close() {
+            MBeanClientImpl.shutdown(executor);
+            release.countDown();
+          }
+        };
+    var query = BeanQuery.builder().domainName("com.example").property("type", "pending*").build();
+    try {
+      var result = CompletableFuture.supplyAsync(() -> client.queryBeans(query));
+      started.await();
+      client.close();
+      var e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertEquals(IllegalStateException.class, e.getCause().getClass());
+    } finally {
+      client.close();
+      mBeanServer.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, client.listener);
+    }
+  }
+
+  @Test
+  void testRemoteCacheRefresh() throws Exception {
+    var query = BeanQuery.builder().domainName("com.example").property("type", "refresh*").build();
+    try (var client = MBeanClient.of(jmxServer.getAddress())) {
+      assertEquals(0, client.queryBeans(query).size());
+
+      for (int i = 0; i < 10; i++)
+        register(
+            ObjectName.getInstance("com.example:type=refresh" + i),
+            Utility.createReadOnlyDynamicMBean(Map.of("attribute", i)));
+      // the remote notifications are delivered by background thread
+      Utils.waitFor(() -> client.queryBeans(query).size() == 10);
+
+      unregister(ObjectName.getInstance("com.example:type=refresh0"));
+      Utils.waitFor(() -> client.queryBeans(query).size() == 9);
+    }
+  }
+
   @Test
   void testLocal() {
     var client = MBeanClient.local();
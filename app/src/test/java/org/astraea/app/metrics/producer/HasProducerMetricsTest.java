@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.producer;
+
+import java.util.concurrent.ExecutionException;
+import org.astraea.app.common.Utils;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.producer.Producer;
+import org.astraea.app.service.RequireSingleBrokerCluster;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HasProducerMetricsTest extends RequireSingleBrokerCluster {
+
+  @Test
+  void testAttributes() throws ExecutionException, InterruptedException {
+    var topic = Utils.randomString(10);
+    try (var producer = Producer.of(bootstrapServers())) {
+      producer.sender().topic(topic).value(new byte[10]).run().toCompletableFuture().get();
+      var metrics = KafkaMetrics.Producer.producers(MBeanClient.local());
+      Assertions.assertEquals(1, metrics.size());
+      var producerMetrics = metrics.values().iterator().next();
+      Assertions.assertNotEquals(0D, producerMetrics.batchSizeAvg());
+      Assertions.assertNotEquals(0D, producerMetrics.batchSizeMax());
+      Assertions.assertEquals(1D, producerMetrics.compressionRateAvg());
+      Assertions.assertNotEquals(0D, producerMetrics.recordsPerRequestAvg());
+      Assertions.assertNotEquals(0D, producerMetrics.recordSendRate());
+      Assertions.assertNotEquals(0D, producerMetrics.requestRate());
+      Assertions.assertTrue(producerMetrics.recordQueueTimeAvg() >= 0);
+    }
+  }
+}
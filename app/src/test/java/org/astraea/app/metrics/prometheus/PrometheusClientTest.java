@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.astraea.app.common.Utils;
+import org.astraea.app.cost.BrokerInputCost;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.broker.HasValue;
+import org.astraea.app.metrics.collector.BeanCollector;
+import org.astraea.app.metrics.collector.TimeSeriesStore;
+import org.astraea.app.metrics.jmx.BeanQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PrometheusClientTest {
+
+  /** the output of jmx exporter using the config "kafka-2_0_0.yml" */
+  private static final String METRICS =
+      "# HELP jvm_memory_bytes_used Used bytes of a given JVM memory area.\n"
+          + "# TYPE jvm_memory_bytes_used gauge\n"
+          + "jvm_memory_bytes_used{area=\"heap\",} 1.0E8\n"
+          + "# TYPE kafka_server_brokertopicmetrics_bytesin_total counter\n"
+          + "kafka_server_brokertopicmetrics_bytesin_total 12345.0\n"
+          + "kafka_server_brokertopicmetrics_bytesin_total{topic=\"test\",} 100.0\n"
+          + "kafka_server_replicamanager_leadercount 3.0\n"
+          + "kafka_log_log_size{topic=\"test\",partition=\"0\",} 1024.0\n"
+          + "kafka_log_log_size{topic=\"test\",partition=\"1\",} 2048.0\n"
+          + "kafka_network_requestmetrics_totaltimems{request=\"Produce\",quantile=\"0.99\",}"
+          + " 12.5\n"
+          + "kafka_network_requestmetrics_totaltimems_count{request=\"Produce\",} 10.0\n"
+          + "kafka_server_kafkaserver_linux_disk_read_bytes 4096.0\n";
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile int status = 200;
+  private HttpServer server;
+
+  @BeforeEach
+  void setup() throws Exception {
+    server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext(
+        "/metrics",
+        exchange -> {
+          requests.incrementAndGet();
+          var body = METRICS.getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(status, body.length);
+          try (var output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  private PrometheusClient client(Duration maxAge) {
+    return PrometheusClient.builder()
+        .host("localhost")
+        .port(server.getAddress().getPort())
+        .maxAge(maxAge)
+        .build();
+  }
+
+  @Test
+  void testKafkaMetrics() {
+    try (var client = client(Duration.ofMinutes(1))) {
+      Assertions.assertEquals(12345, KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client).count());
+      Assertions.assertEquals(
+          3,
+          ((HasValue) KafkaMetrics.ReplicaManager.LeaderCount.fetch(client).iterator().next())
+              .value());
+      Assertions.assertEquals(
+          Map.of(0, 1024L, 1, 2048L), KafkaMetrics.TopicPartition.size(client, "test"));
+      Assertions.assertEquals(2, KafkaMetrics.TopicPartition.Size.fetch(client).size());
+      Assertions.assertEquals(4096L, KafkaMetrics.BrokerTopic.linuxDiskReadBytes(client));
+
+      var totalTimeMs = KafkaMetrics.Request.Produce.totalTimeMs(client);
+      Assertions.assertEquals(12.5, totalTimeMs.percentile99());
+      Assertions.assertEquals(10, totalTimeMs.count());
+
+      // the samples not converted by the mapping are skipped
+      Assertions.assertEquals(
+          Set.of("kafka.server", "kafka.log", "kafka.network"), Set.copyOf(client.listDomains()));
+      Assertions.assertThrows(
+          NoSuchElementException.class,
+          () -> KafkaMetrics.Host.jvmMemory(client));
+      // all queries reuse the first scrape
+      Assertions.assertEquals(1, requests.get());
+    }
+  }
+
+  @Test
+  void testQueryAttributes() {
+    try (var client = client(Duration.ofMinutes(1))) {
+      var query =
+          BeanQuery.builder()
+              .domainName("kafka.server")
+              .property("type", "BrokerTopicMetrics")
+              .property("name", "BytesInPerSec")
+              .property("topic", "test")
+              .build();
+      var bean = client.queryBean(query, Set.of("Count", "OneMinuteRate"));
+      Assertions.assertEquals(100L, bean.attributes().get("Count"));
+      Assertions.assertTrue(
+          bean.attributes().get("OneMinuteRate") instanceof NoSuchElementException);
+
+      var pattern =
+          BeanQuery.builder()
+              .domainName("kafka.server")
+              .property("type", "BrokerTopicMetrics")
+              .usePropertyListPattern()
+              .build();
+      Assertions.assertEquals(2, client.queryBeans(pattern).size());
+    }
+  }
+
+  @Test
+  void testMaxAge() throws InterruptedException {
+    try (var client = client(Duration.ZERO)) {
+      client.listDomains();
+      Thread.sleep(10);
+      client.listDomains();
+      Assertions.assertEquals(2, requests.get());
+    }
+  }
+
+  @Test
+  void testHttpError() {
+    status = 500;
+    try (var client = client(Duration.ZERO)) {
+      Assertions.assertThrows(UncheckedIOException.class, client::listDomains);
+    }
+  }
+
+  @Test
+  void testBeanCollector() {
+    var collector = BeanCollector.builder().clientCreator(PrometheusClient::kafka).build();
+    try (var receiver =
+        collector
+            .register()
+            .host("localhost")
+            .port(server.getAddress().getPort())
+            .fetcher(new BrokerInputCost().fetcher().get())
+            .build()) {
+      Utils.waitFor(() -> receiver.current().size() == 1);
+      var node = "localhost:" + server.getAddress().getPort();
+      var key =
+          TimeSeriesStore.Key.of(node, KafkaMetrics.BrokerTopic.BytesInPerSec.identity(), "Count");
+      Assertions.assertEquals(12345, collector.timeSeries().latest(key).getAsDouble());
+    }
+  }
+}
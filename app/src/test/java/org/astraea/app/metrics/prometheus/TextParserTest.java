@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.metrics.prometheus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TextParserTest {
+
+  private static List<Object[]> parse(String text, String prefix) {
+    var data = text.getBytes(StandardCharsets.UTF_8);
+    var samples = new ArrayList<Object[]>();
+    TextParser.parse(
+        data,
+        data.length,
+        prefix,
+        (name, labels, value, timestamp) ->
+            samples.add(new Object[] {name, labels, value, timestamp}));
+    return samples;
+  }
+
+  @Test
+  void testParse() {
+    var samples =
+        parse(
+            "# HELP a_total the help\n"
+                + "# TYPE a_total counter\n"
+                + "a_total 10.0\n"
+                + "a_total{topic=\"t\",partition=\"0\",} 1.5E3 1650000000000\n"
+                + "\n"
+                + "  b { k = \"q\\\"\\\\\\n\" } -0.25\r\n"
+                + "c NaN\n"
+                + "c{k=\"v\"} +Inf 1650000000.5\n"
+                + "# EOF",
+            "");
+    Assertions.assertEquals(5, samples.size());
+
+    Assertions.assertArrayEquals(new Object[] {"a_total", Map.of(), 10D, -1L}, samples.get(0));
+    Assertions.assertArrayEquals(
+        new Object[] {"a_total", Map.of("topic", "t", "partition", "0"), 1500D, 1650000000000L},
+        samples.get(1));
+    Assertions.assertArrayEquals(
+        new Object[] {"b", Map.of("k", "q\"\\\n"), -0.25D, -1L}, samples.get(2));
+    Assertions.assertTrue(Double.isNaN((double) samples.get(3)[2]));
+    // the timestamp of OpenMetrics is in seconds
+    Assertions.assertArrayEquals(
+        new Object[] {"c", Map.of("k", "v"), Double.POSITIVE_INFINITY, 1650000000500L},
+        samples.get(4));
+  }
+
+  @Test
+  void testPrefix() {
+    var samples = parse("jvm_a 1\nkafka_b 2\nkafka 3\n", "kafka_");
+    Assertions.assertEquals(1, samples.size());
+    Assertions.assertEquals("kafka_b", samples.get(0)[0]);
+  }
+
+  @Test
+  void testParseDouble() {
+    for (var text :
+        List.of(
+            "0",
+            "-0.0",
+            "12345",
+            "0.1",
+            "3.14159",
+            "123456789.123456",
+            "0.000000000000000000001",
+            "12345678901234567890",
+            "1e-7")) {
+      var data = text.getBytes(StandardCharsets.US_ASCII);
+      Assertions.assertEquals(
+          Double.parseDouble(text), TextParser.parseDouble(data, 0, data.length), text);
+    }
+    var data = "-Inf".getBytes(StandardCharsets.US_ASCII);
+    Assertions.assertEquals(Double.NEGATIVE_INFINITY, TextParser.parseDouble(data, 0, data.length));
+  }
+
+  @Test
+  void testMalformed() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> parse("a{k=\"v\" 1\n", ""));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> parse("a{k=v} 1\n", ""));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> parse("a\n", ""));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> parse("a abc\n", ""));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.admin.NodeInfo;
+import org.astraea.app.admin.ReplicaInfo;
+import org.astraea.app.cost.ReplicaLeaderCost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ConsistentHashDispatcherTest {
+
+  /** 12 partitions. The leader of partition i is broker (i % 3). */
+  private static List<ReplicaInfo> leaders() {
+    return IntStream.range(0, 12)
+        .mapToObj(
+            i -> ReplicaInfo.of("topic", i, NodeInfo.of(i % 3, "host", 9092), true, true, false))
+        .collect(Collectors.toList());
+  }
+
+  private static int hash(int key) {
+    return org.apache.kafka.common.utils.Utils.murmur2(
+        String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testBoundedLoads() {
+    var leaders = leaders();
+    var ring = ConsistentHashDispatcher.Ring.of("topic", leaders, 100);
+    var overloaded = new int[] {1};
+    var moved = 0;
+    for (var key = 0; key != 3000; ++key) {
+      var partition = ring.partition(hash(key), new int[0]);
+      // the key sticks to the partition
+      Assertions.assertEquals(partition, ring.partition(hash(key), new int[0]));
+
+      var newPartition = ring.partition(hash(key), overloaded);
+      Assertions.assertNotEquals(1, leaders.get(newPartition).nodeInfo().id());
+      // only the keys on overloaded broker are moved
+      if (leaders.get(partition).nodeInfo().id() != 1)
+        Assertions.assertEquals(partition, newPartition);
+      else moved++;
+    }
+    // about one third of keys are on the overloaded broker
+    Assertions.assertEquals(1000, moved, 200);
+
+    // all brokers are overloaded, so nothing is moved
+    Assertions.assertEquals(
+        ring.partition(hash(10), new int[0]), ring.partition(hash(10), new int[] {0, 1, 2}));
+  }
+
+  @Test
+  void testOverloadedBrokers() {
+    var costs = Map.of(0, 1D, 1, 2D, 2, 3D);
+    Assertions.assertArrayEquals(
+        new int[] {2}, ConsistentHashDispatcher.overloadedBrokers(costs, 0.25));
+    Assertions.assertArrayEquals(
+        new int[] {1, 2},
+        ConsistentHashDispatcher.overloadedBrokers(Map.of(0, 1D, 1, 3D, 2, 3D), 0));
+    Assertions.assertArrayEquals(new int[0], ConsistentHashDispatcher.overloadedBrokers(costs, 1));
+    Assertions.assertArrayEquals(
+        new int[0], ConsistentHashDispatcher.overloadedBrokers(Map.of(), 0.25));
+  }
+
+  @Test
+  void testPartition() {
+    var clusterInfo = Mockito.mock(ClusterInfo.class);
+    Mockito.when(clusterInfo.availableReplicaLeaders(Mockito.anyString())).thenReturn(leaders());
+    try (var dispatcher = new ConsistentHashDispatcher()) {
+      dispatcher.configure(
+          Map.of(new ReplicaLeaderCost.NoMetrics(), 1D),
+          Optional.empty(),
+          Map.of(),
+          0.25,
+          10,
+          Duration.ofSeconds(10));
+      var key = "key".getBytes(StandardCharsets.UTF_8);
+      var partition = dispatcher.partition("topic", key, new byte[0], clusterInfo);
+      for (var i = 0; i != 10; ++i)
+        Assertions.assertEquals(
+            partition, dispatcher.partition("topic", key, new byte[0], clusterInfo));
+
+      // the records having no key are spread over partitions
+      Assertions.assertTrue(
+          IntStream.range(0, 100)
+                  .map(i -> dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo))
+                  .distinct()
+                  .count()
+              > 1);
+    }
+  }
+
+  @Test
+  void testConfigure() {
+    try (var dispatcher = new ConsistentHashDispatcher()) {
+      dispatcher.configure(
+          Configuration.of(
+              Map.of(
+                  ConsistentHashDispatcher.EPSILON_KEY,
+                  "0.5",
+                  ConsistentHashDispatcher.VIRTUAL_NODES_KEY,
+                  "20")));
+      Assertions.assertEquals(0.5, dispatcher.epsilon);
+      Assertions.assertEquals(20, dispatcher.virtualNodes);
+      Assertions.assertEquals(1, dispatcher.functions.size());
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () ->
+              dispatcher.configure(
+                  Configuration.of(Map.of(ConsistentHashDispatcher.EPSILON_KEY, "-1"))));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.ObjectName;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CostRefresherTest {
+
+  @Test
+  void testRefreshInBackground() {
+    var count = new AtomicInteger();
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofMillis(100),
+            Duration.ofSeconds(10),
+            ignored -> count.incrementAndGet(),
+            ignored -> -1)) {
+      // the first value is computed by background thread, so the caller gets the fallback value
+      Assertions.assertEquals(-1, refresher.get(ClusterInfo.EMPTY));
+      Assertions.assertEquals(1, refresher.fallbacks());
+      Utils.waitFor(() -> count.get() > 1);
+      Assertions.assertTrue(refresher.get(ClusterInfo.EMPTY) > 1);
+      Assertions.assertEquals(1, refresher.fallbacks());
+    }
+  }
+
+  @Test
+  void testFirstValue() throws InterruptedException {
+    var computed = new CountDownLatch(1);
+    var thread = new AtomicBoolean(false);
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofSeconds(100),
+            Duration.ofSeconds(100),
+            ignored -> {
+              thread.set(Thread.currentThread().getName().equals("astraea-cost-refresher"));
+              computed.countDown();
+              return 1;
+            },
+            ignored -> -1)) {
+      Assertions.assertEquals(-1, refresher.get(ClusterInfo.EMPTY));
+      // the first refresh does not wait for the interval
+      Assertions.assertTrue(computed.await(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(thread.get());
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == 1);
+    }
+  }
+
+  @Test
+  void testFailedFirstValue() {
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofSeconds(100),
+            Duration.ofSeconds(100),
+            ignored -> {
+              throw new IllegalStateException("unreachable jmx server");
+            },
+            ignored -> -1)) {
+      // the exception of updater never reaches the caller
+      for (var i = 0; i != 10; ++i) Assertions.assertEquals(-1, refresher.get(ClusterInfo.EMPTY));
+      Assertions.assertEquals(10, refresher.fallbacks());
+    }
+  }
+
+  @Test
+  void testFallback() {
+    var fail = new AtomicBoolean(false);
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofMillis(50),
+            Duration.ofMillis(300),
+            ignored -> {
+              if (fail.get()) throw new IllegalStateException("unreachable jmx server");
+              return 1;
+            },
+            ignored -> -1)) {
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == 1);
+      var fallbacks = refresher.fallbacks();
+      fail.set(true);
+
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == -1);
+      Assertions.assertEquals(fallbacks + 1, refresher.fallbacks());
+      Assertions.assertTrue(refresher.staleness().toMillis() >= 300);
+
+      // the value is back after the refresh succeeds
+      fail.set(false);
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == 1);
+      Assertions.assertTrue(refresher.staleness().toMillis() < 300);
+    }
+  }
+
+  @Test
+  void testStaleTimeout() {
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofSeconds(100), Duration.ofSeconds(100), ignored -> 1, ignored -> -1)) {
+      refresher.get(ClusterInfo.EMPTY);
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == 1);
+      // the value is stale after the timeout is shortened
+      refresher.staleTimeout(Duration.ZERO);
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == -1);
+
+      // the refresh runs every new interval
+      refresher.staleTimeout(Duration.ofSeconds(100));
+      refresher.interval(Duration.ofMillis(10));
+      Utils.waitFor(() -> refresher.get(ClusterInfo.EMPTY) == 1);
+    }
+  }
+
+  @Test
+  void testMetrics() throws Exception {
+    var server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name;
+    try (var refresher =
+        CostRefresher.of(
+            Duration.ofSeconds(100), Duration.ofSeconds(100), ignored -> 1, ignored -> -1)) {
+      name = refresher.objectName;
+      refresher.get(ClusterInfo.EMPTY);
+      Assertions.assertEquals(1L, server.getAttribute(name, "Fallbacks"));
+      Assertions.assertTrue((Long) server.getAttribute(name, "Staleness") >= 0);
+    }
+    // the mbean is unregistered with the refresher
+    Assertions.assertFalse(server.isRegistered(name));
+  }
+}
@@ -21,7 +21,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
 import org.astraea.app.admin.ClusterInfo;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -66,8 +70,74 @@ public class DispatcherTest {
     var initialCount = Dispatcher.CLUSTER_CACHE.size();
     var cluster = new Cluster("aa", List.of(), List.of(), Set.of(), Set.of());
     dispatcher.partition("topic", "a", new byte[0], "v", new byte[0], cluster);
-    Assertions.assertEquals(initialCount + 1, Dispatcher.CLUSTER_CACHE.size());
+    var count = Math.min(initialCount + 1, ClusterInfoCache.MAX_SIZE);
+    Assertions.assertEquals(count, Dispatcher.CLUSTER_CACHE.size());
+    var clusterInfo = Dispatcher.CLUSTER_CACHE.get(cluster);
     dispatcher.partition("topic", "a", new byte[0], "v", new byte[0], cluster);
-    Assertions.assertEquals(initialCount + 1, Dispatcher.CLUSTER_CACHE.size());
+    Assertions.assertEquals(count, Dispatcher.CLUSTER_CACHE.size());
+    Assertions.assertSame(clusterInfo, Dispatcher.CLUSTER_CACHE.get(cluster));
+  }
+
+  @Test
+  void testBoundedClusterCache() {
+    var cache = new ClusterInfoCache();
+    var clusters = clusters(ClusterInfoCache.MAX_SIZE * 2);
+    var first = cache.get(clusters.get(0));
+    clusters.forEach(
+        cluster -> {
+          // the first cluster is used frequently, so it is not evicted
+          Assertions.assertSame(first, cache.get(clusters.get(0)));
+          var clusterInfo = cache.get(cluster);
+          Assertions.assertSame(clusterInfo, cache.get(cluster));
+          Assertions.assertEquals(
+              cluster.partitionsForTopic("topic").get(0).partition(),
+              clusterInfo.availableReplicaLeaders("topic").get(0).partition());
+          Assertions.assertTrue(cache.size() <= ClusterInfoCache.MAX_SIZE);
+        });
+    Assertions.assertEquals(ClusterInfoCache.MAX_SIZE, cache.size());
+    // the least recently used cluster is evicted and then converted again
+    var evicted = clusters.get(1);
+    var clusterInfo = cache.get(evicted);
+    Assertions.assertEquals(ClusterInfoCache.MAX_SIZE, cache.size());
+    Assertions.assertSame(clusterInfo, cache.get(evicted));
+    // the nodes are not changed, so they are reused
+    Assertions.assertSame(cache.get(clusters.get(0)).nodes(), cache.get(clusters.get(1)).nodes());
+  }
+
+  @Test
+  void testLocalClusterCache() {
+    var cache = new ClusterInfoCache();
+    var clusters = clusters(ClusterInfoCache.MAX_SIZE * 2 + 1);
+    var local0 = cache.local();
+    var local1 = cache.local();
+    var first = local0.get(clusters.get(0));
+    var second = local1.get(clusters.get(1));
+    // other producers use more clusters than the shared cache holds
+    clusters.subList(2, clusters.size() - 1).forEach(cache::get);
+    Assertions.assertEquals(ClusterInfoCache.MAX_SIZE, cache.size());
+    // the latest cluster info of each dispatcher is kept
+    Assertions.assertSame(first, local0.get(clusters.get(0)));
+    Assertions.assertSame(second, local1.get(clusters.get(1)));
+    // the new cluster is converted from the previous cluster info of dispatcher
+    var last = local0.get(clusters.get(clusters.size() - 1));
+    Assertions.assertSame(first.nodes(), last.nodes());
+    Assertions.assertSame(last, local0.get(clusters.get(clusters.size() - 1)));
+    Assertions.assertSame(second, local1.get(clusters.get(1)));
+  }
+
+  /** @return the clusters having one partition. The partition id is the index of cluster */
+  private static List<Cluster> clusters(int size) {
+    var node = new Node(0, "host", 9092);
+    return IntStream.range(0, size)
+        .mapToObj(
+            i ->
+                new Cluster(
+                    "aa",
+                    List.of(node),
+                    List.of(
+                        new PartitionInfo("topic", i, node, new Node[] {node}, new Node[] {node})),
+                    Set.of(),
+                    Set.of()))
+        .collect(Collectors.toList());
   }
 }
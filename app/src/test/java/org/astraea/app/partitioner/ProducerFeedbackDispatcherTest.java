@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.metrics.jmx.BeanObject;
+import org.astraea.app.metrics.producer.HasProducerNodeMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProducerFeedbackDispatcherTest {
+
+  /** @return the cluster having 3 nodes. The leader of partition i is node i. */
+  private static ClusterInfo clusterInfo() {
+    var nodes =
+        IntStream.range(0, 3)
+            .mapToObj(i -> new Node(i, "host" + i, 9092))
+            .collect(Collectors.toList());
+    return ClusterInfo.of(
+        new Cluster(
+            "aa",
+            nodes,
+            nodes.stream()
+                .map(n -> new PartitionInfo("topic", n.id(), n, new Node[] {n}, new Node[] {n}))
+                .collect(Collectors.toList()),
+            Set.of(),
+            Set.of()));
+  }
+
+  private static HasProducerNodeMetrics metrics(
+      String clientId, int nodeId, double latency, double requests, double responses) {
+    var bean =
+        new BeanObject(
+            "kafka.producer",
+            Map.of(
+                "type",
+                "producer-node-metrics",
+                "client-id",
+                clientId,
+                "node-id",
+                "node-" + nodeId),
+            Map.of(
+                "request-latency-avg",
+                latency,
+                "request-total",
+                requests,
+                "response-total",
+                responses));
+    return () -> bean;
+  }
+
+  @Test
+  void testCost() {
+    Assertions.assertEquals(
+        10, ProducerFeedbackDispatcher.cost(List.of(metrics("a", 0, 10, 5, 5))));
+    // one request is in flight
+    Assertions.assertEquals(
+        20, ProducerFeedbackDispatcher.cost(List.of(metrics("a", 0, 10, 5, 4))));
+    // the latency is averaged and the in-flight requests are summed
+    Assertions.assertEquals(
+        60,
+        ProducerFeedbackDispatcher.cost(
+            List.of(metrics("a", 0, 10, 5, 4), metrics("b", 0, 30, 5, 4))));
+    Assertions.assertTrue(Double.isNaN(ProducerFeedbackDispatcher.cost(List.of())));
+    Assertions.assertTrue(
+        Double.isNaN(ProducerFeedbackDispatcher.cost(List.of(metrics("a", 0, Double.NaN, 1, 1)))));
+  }
+
+  @Test
+  void testWeights() {
+    Map<Integer, Collection<HasProducerNodeMetrics>> nodeMetrics =
+        Map.of(0, List.of(metrics("a", 0, 1, 1, 1)), 1, List.of(metrics("a", 1, 3, 1, 1)));
+    var weights = ProducerFeedbackDispatcher.weights(clusterInfo(), nodeMetrics, Optional.empty());
+    Assertions.assertEquals(Set.of(0, 1, 2), weights.keySet());
+    Assertions.assertEquals(0.5, weights.get(0));
+    Assertions.assertEquals(0.25, weights.get(1));
+    // node 2 has no metrics, so it gets the average weight
+    Assertions.assertEquals(0.375, weights.get(2));
+  }
+
+  @Test
+  void testClientId() {
+    Map<Integer, Collection<HasProducerNodeMetrics>> nodeMetrics =
+        Map.of(0, List.of(metrics("a", 0, 1, 1, 1), metrics("b", 0, 99, 1, 1)));
+    var weights = ProducerFeedbackDispatcher.weights(clusterInfo(), nodeMetrics, Optional.of("a"));
+    Assertions.assertEquals(0.5, weights.get(0));
+    // there is no metrics of other nodes
+    Assertions.assertEquals(0.5, weights.get(1));
+    Assertions.assertEquals(0.5, weights.get(2));
+
+    // no metrics belong to the client
+    weights = ProducerFeedbackDispatcher.weights(clusterInfo(), nodeMetrics, Optional.of("c"));
+    Assertions.assertEquals(Map.of(0, 1D, 1, 1D, 2, 1D), weights);
+  }
+
+  @Test
+  void testConfigure() {
+    try (var dispatcher = new ProducerFeedbackDispatcher()) {
+      dispatcher.configure(
+          Configuration.of(
+              Map.of(
+                  ProducerFeedbackDispatcher.CLIENT_ID_KEY,
+                  "a",
+                  ProducerFeedbackDispatcher.FEEDBACK_INTERVAL_KEY,
+                  "1s")));
+      Assertions.assertEquals(Optional.of("a"), dispatcher.clientId);
+      // there is no producer metrics in this jvm, so all nodes are chosen evenly
+      var clusterInfo = clusterInfo();
+      var partitions =
+          IntStream.range(0, 30)
+              .mapToObj(i -> dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo))
+              .collect(Collectors.groupingBy(p -> p, Collectors.counting()));
+      Assertions.assertEquals(Map.of(0, 10L, 1, 10L, 2, 10L), partitions);
+    }
+  }
+}
@@ -19,6 +19,10 @@ package org.astraea.app.partitioner;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -47,4 +51,36 @@ public class RoundRobinTest {
     Assertions.assertEquals(Optional.of(1), rr.next(Set.of(0, 1)));
     Assertions.assertEquals(Optional.of(0), rr.next(Set.of(0, 1)));
   }
+
+  @Test
+  void testConcurrentSmoothRoundRobin() throws InterruptedException {
+    var scores = Map.of(0, 10D, 1, 5D, 2, 1D);
+    var sum = scores.values().stream().mapToDouble(d -> d).sum();
+    var threads = 8;
+    var loops = 16000;
+    var rr = RoundRobin.smooth(scores);
+    var counts = new AtomicLongArray(scores.size());
+    var errors = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(threads);
+    for (var t = 0; t != threads; ++t)
+      executor.execute(
+          () -> {
+            var local = new int[scores.size()];
+            for (var i = 0; i != loops; ++i)
+              rr.next(scores.keySet())
+                  .ifPresentOrElse(id -> local[id]++, errors::incrementAndGet);
+            // each thread follows the smooth sequence, so the error is smaller than 1 record
+            scores.forEach(
+                (id, score) -> {
+                  if (Math.abs(local[id] - loops * score / sum) > 1) errors.incrementAndGet();
+                  counts.addAndGet(id, local[id]);
+                });
+          });
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    Assertions.assertEquals(0, errors.get());
+    scores.forEach(
+        (id, score) ->
+            Assertions.assertEquals(threads * loops * score / sum, counts.get(id), threads));
+  }
 }
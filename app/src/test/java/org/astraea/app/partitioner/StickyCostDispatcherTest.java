@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.astraea.app.admin.ClusterBean;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.cost.BrokerCost;
+import org.astraea.app.cost.HasBrokerCost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StickyCostDispatcherTest {
+
+  /** @return the cluster having 3 partitions. The leader of partition i is broker i. */
+  private static Cluster cluster() {
+    var nodes =
+        IntStream.range(0, 3)
+            .mapToObj(i -> new Node(i, "host" + i, 9092))
+            .collect(Collectors.toList());
+    return new Cluster(
+        "aa",
+        nodes,
+        nodes.stream()
+            .map(n -> new PartitionInfo("topic", n.id(), n, new Node[] {n}, new Node[] {n}))
+            .collect(Collectors.toList()),
+        Set.of(),
+        Set.of());
+  }
+
+  private static StickyCostDispatcher dispatcher() {
+    var dispatcher = new StickyCostDispatcher();
+    var costFunction =
+        new HasBrokerCost() {
+          @Override
+          public BrokerCost brokerCost(ClusterInfo clusterInfo, ClusterBean clusterBean) {
+            // the scores are {0: 3, 1: 2, 2: 0}, so broker 0 and 1 are chosen alternately
+            return () -> Map.of(0, 0D, 1, 1D, 2, 3D);
+          }
+        };
+    dispatcher.configure(
+        Map.of(costFunction, 1D), Optional.empty(), Map.of(), Duration.ofSeconds(10));
+    return dispatcher;
+  }
+
+  @Test
+  void testStickyPartition() {
+    var cluster = cluster();
+    var clusterInfo = ClusterInfo.of(cluster);
+    try (var dispatcher = dispatcher()) {
+      StrictCostDispatcherTest.refresh(dispatcher, clusterInfo);
+      var partition = dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo);
+      Assertions.assertEquals(0, partition);
+      for (var i = 0; i != 10; ++i)
+        Assertions.assertEquals(
+            partition, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+
+      // the new batch is not for the sticky partition
+      dispatcher.onNewBatch("topic", cluster, 2);
+      Assertions.assertEquals(
+          partition, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+
+      // switch to next partition
+      dispatcher.onNewBatch("topic", cluster, partition);
+      Assertions.assertEquals(
+          1, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+      dispatcher.onNewBatch("topic", cluster, 1);
+      Assertions.assertEquals(
+          0, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+    }
+  }
+
+  @Test
+  void testClusterChanged() {
+    var cluster = cluster();
+    try (var dispatcher = dispatcher()) {
+      var clusterInfo = ClusterInfo.of(cluster);
+      StrictCostDispatcherTest.refresh(dispatcher, clusterInfo);
+      Assertions.assertEquals(
+          0, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+      // the partition 0 is offline
+      var newCluster =
+          new Cluster(
+              "aa",
+              cluster.nodes(),
+              List.of(
+                  new PartitionInfo(
+                      "topic",
+                      1,
+                      cluster.nodes().get(1),
+                      new Node[] {cluster.nodes().get(1)},
+                      new Node[] {cluster.nodes().get(1)})),
+              Set.of(),
+              Set.of());
+      Assertions.assertEquals(
+          1, dispatcher.partition("topic", new byte[0], new byte[0], ClusterInfo.of(newCluster)));
+    }
+  }
+}
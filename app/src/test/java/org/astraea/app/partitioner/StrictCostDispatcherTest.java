@@ -20,7 +20,13 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
 import org.astraea.app.admin.ClusterBean;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.admin.NodeInfo;
@@ -32,8 +38,10 @@ import org.astraea.app.cost.CostFunction;
 import org.astraea.app.cost.HasBrokerCost;
 import org.astraea.app.cost.NodeThroughputCost;
 import org.astraea.app.cost.ReplicaLeaderCost;
+import org.astraea.app.metrics.HasBeanObject;
 import org.astraea.app.metrics.collector.Fetcher;
 import org.astraea.app.metrics.collector.Receiver;
+import org.astraea.app.metrics.jmx.BeanObject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -268,6 +276,7 @@ public class StrictCostDispatcherTest {
     Mockito.when(clusterInfo.availableReplicaLeaders(Mockito.anyString()))
         .thenReturn(List.of(replicaInfo0, replicaInfo1));
 
+    refresh(dispatcher, clusterInfo);
     Assertions.assertEquals(
         partitionId, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
   }
@@ -280,6 +289,43 @@ public class StrictCostDispatcherTest {
     Assertions.assertEquals(1, dispatcher.receivers.size());
   }
 
+  @Test
+  void testUniformWeightsBeforeFirstBeans() {
+    var dispatcher = new StrictCostDispatcher();
+    var costFunction =
+        new HasBrokerCost() {
+          @Override
+          public BrokerCost brokerCost(ClusterInfo clusterInfo, ClusterBean clusterBean) {
+            return () -> Map.of(1, 10D, 2, 0D);
+          }
+        };
+    dispatcher.configure(
+        Map.of(costFunction, 1D), Optional.empty(), Map.of(), Duration.ofSeconds(10));
+    var receiver = Mockito.mock(Receiver.class);
+    Mockito.when(receiver.current()).thenReturn(List.of());
+    dispatcher.receivers.put(1, receiver);
+    var clusterInfo = Mockito.mock(ClusterInfo.class);
+    Mockito.when(clusterInfo.nodes())
+        .thenReturn(List.of(NodeInfo.of(1, "host", 1111), NodeInfo.of(2, "host2", 1111)));
+
+    // the costs are ignored until the receiver gets mbeans
+    var uniform = dispatcher.newRoundRobin(clusterInfo);
+    Assertions.assertEquals(
+        Set.of(1, 2),
+        IntStream.range(0, 4)
+            .mapToObj(i -> uniform.next(Set.of(1, 2)).get())
+            .collect(Collectors.toSet()));
+
+    var bean = new BeanObject("domain", Map.of(), Map.of());
+    Mockito.when(receiver.current()).thenReturn(List.<HasBeanObject>of(() -> bean));
+    var weighted = dispatcher.newRoundRobin(clusterInfo);
+    Assertions.assertEquals(
+        Set.of(2),
+        IntStream.range(0, 4)
+            .mapToObj(i -> weighted.next(Set.of(1, 2)).get())
+            .collect(Collectors.toSet()));
+  }
+
   @Test
   void testCostToScore() {
     var cost = Map.of(1, 100D, 2, 10D);
@@ -295,16 +341,153 @@ public class StrictCostDispatcherTest {
     Assertions.assertEquals(Duration.ofSeconds(2), dispatcher.roundRobinLease);
 
     var clusterInfo = Mockito.mock(ClusterInfo.class);
+    // the costs are not computed yet, so the caller gets the uniform rr
     dispatcher.tryToUpdateRoundRobin(clusterInfo);
+    var uniform = dispatcher.roundRobin;
+    Assertions.assertNotNull(uniform);
+    Assertions.assertEquals(1, dispatcher.refresher.fallbacks());
+
+    // the first rr is computed by background thread
+    Utils.waitFor(
+        () -> {
+          dispatcher.tryToUpdateRoundRobin(clusterInfo);
+          return dispatcher.roundRobin != uniform;
+        });
     var rr = dispatcher.roundRobin;
-    Assertions.assertNotNull(rr);
-    // the rr is not updated yet
-    dispatcher.tryToUpdateRoundRobin(clusterInfo);
-    Assertions.assertEquals(rr, dispatcher.roundRobin);
 
-    Utils.sleep(Duration.ofSeconds(3));
-    dispatcher.tryToUpdateRoundRobin(clusterInfo);
-    // rr is updated already
-    Assertions.assertNotEquals(rr, dispatcher.roundRobin);
+    // rr is updated by the background thread every lease
+    Utils.waitFor(
+        () -> {
+          dispatcher.tryToUpdateRoundRobin(clusterInfo);
+          return dispatcher.roundRobin != rr;
+        });
+  }
+
+  @Test
+  void testPartitionTable() {
+    var replicaInfo0 = ReplicaInfo.of("topic", 0, NodeInfo.of(10, "host", 11111), true, true, true);
+    var replicaInfo1 = ReplicaInfo.of("topic", 1, NodeInfo.of(10, "host", 11111), true, true, true);
+    var replicaInfo2 =
+        ReplicaInfo.of("topic", 2, NodeInfo.of(11, "host2", 11111), true, true, true);
+    var clusterInfo = Mockito.mock(ClusterInfo.class);
+    Mockito.when(clusterInfo.availableReplicaLeaders(Mockito.anyString()))
+        .thenReturn(List.of(replicaInfo0, replicaInfo1, replicaInfo2));
+    try (var dispatcher = new StrictCostDispatcher()) {
+      dispatcher.configure(
+          Map.of(new CostFunction() {}, 1D), Optional.empty(), Map.of(), Duration.ofSeconds(10));
+      var table = dispatcher.table("topic", clusterInfo);
+      Assertions.assertArrayEquals(new int[] {0, 1, 2}, table.partitions);
+      Assertions.assertEquals(Set.of(10, 11), table.brokers);
+      Assertions.assertArrayEquals(new int[] {0, 1}, table.leaders.get(10));
+      Assertions.assertArrayEquals(new int[] {2}, table.leaders.get(11));
+
+      // the table is reused until the cluster info is changed
+      for (var i = 0; i != 10; ++i)
+        dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo);
+      Assertions.assertSame(table, dispatcher.table("topic", clusterInfo));
+      Mockito.verify(clusterInfo, Mockito.times(1)).availableReplicaLeaders("topic");
+
+      var newClusterInfo = Mockito.mock(ClusterInfo.class);
+      Mockito.when(newClusterInfo.availableReplicaLeaders(Mockito.anyString()))
+          .thenReturn(List.of(replicaInfo2));
+      var newTable = dispatcher.table("topic", newClusterInfo);
+      Assertions.assertArrayEquals(new int[] {2}, newTable.partitions);
+      Assertions.assertEquals(
+          2, dispatcher.partition("topic", new byte[0], new byte[0], newClusterInfo));
+    }
+  }
+
+  @Test
+  void testBrokerPartitions() {
+    var partitions = new StrictCostDispatcher.BrokerPartitions(new int[] {0, 1, 2}, Set.of(1));
+    // the under-replicated partition is skipped
+    Assertions.assertArrayEquals(new int[] {0, 2}, partitions.partitions);
+    Assertions.assertEquals(0, partitions.current());
+    // the new batch is not for current partition
+    partitions.next(2);
+    Assertions.assertEquals(0, partitions.current());
+    partitions.next(0);
+    Assertions.assertEquals(2, partitions.current());
+    partitions.next(2);
+    Assertions.assertEquals(0, partitions.current());
+
+    // all partitions are under-replicated
+    Assertions.assertArrayEquals(
+        new int[] {0, 1},
+        new StrictCostDispatcher.BrokerPartitions(new int[] {0, 1}, Set.of(0, 1)).partitions);
+  }
+
+  @Test
+  void testUnderReplicatedPartitionsOfOtherTopic() {
+    var node = new Node(10, "host", 11111);
+    var follower = new Node(11, "host2", 11111);
+    var clusterInfo =
+        ClusterInfo.of(
+            new Cluster(
+                "aa",
+                List.of(node, follower),
+                List.of(
+                    new PartitionInfo(
+                        "topic", 0, node, new Node[] {node, follower}, new Node[] {node, follower}),
+                    new PartitionInfo(
+                        "topic", 1, node, new Node[] {node, follower}, new Node[] {node, follower}),
+                    new PartitionInfo(
+                        "other", 0, node, new Node[] {node, follower}, new Node[] {node, follower}),
+                    new PartitionInfo(
+                        "other", 1, node, new Node[] {node, follower}, new Node[] {node})),
+                Set.of(),
+                Set.of()));
+    // only the partition of other topic is out of sync
+    Assertions.assertEquals(
+        Set.of(), StrictCostDispatcher.underReplicatedPartitions("topic", clusterInfo));
+    Assertions.assertEquals(
+        Set.of(1), StrictCostDispatcher.underReplicatedPartitions("other", clusterInfo));
+  }
+
+  @Test
+  void testPartitionsInSameBroker() {
+    var node = new Node(10, "host", 11111);
+    var follower = new Node(11, "host2", 11111);
+    var cluster =
+        new Cluster(
+            "aa",
+            List.of(node, follower),
+            List.of(
+                new PartitionInfo(
+                    "topic", 0, node, new Node[] {node, follower}, new Node[] {node, follower}),
+                new PartitionInfo("topic", 1, node, new Node[] {node, follower}, new Node[] {node}),
+                new PartitionInfo(
+                    "topic", 2, node, new Node[] {node, follower}, new Node[] {node, follower})),
+            Set.of(),
+            Set.of());
+    var clusterInfo = ClusterInfo.of(cluster);
+    try (var dispatcher = new StrictCostDispatcher()) {
+      HasBrokerCost costFunction = (ignored0, ignored1) -> () -> Map.of(10, 1D, 11, 1D);
+      dispatcher.configure(
+          Map.of(costFunction, 1D), Optional.empty(), Map.of(), Duration.ofSeconds(10));
+      Assertions.assertEquals(
+          Set.of(1), StrictCostDispatcher.underReplicatedPartitions("topic", clusterInfo));
+      // keep sending records to the partition having open batch
+      for (var i = 0; i != 10; ++i)
+        Assertions.assertEquals(
+            0, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+      dispatcher.onNewBatch("topic", cluster, 0);
+      // partition 1 is under-replicated
+      Assertions.assertEquals(
+          2, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+      dispatcher.onNewBatch("topic", cluster, 2);
+      Assertions.assertEquals(
+          0, dispatcher.partition("topic", new byte[0], new byte[0], clusterInfo));
+    }
+  }
+
+  /** wait for the first costs, which are computed by background thread */
+  static void refresh(StrictCostDispatcher dispatcher, ClusterInfo clusterInfo) {
+    Utils.waitFor(
+        () -> {
+          var fallbacks = dispatcher.refresher.fallbacks();
+          dispatcher.refresher.get(clusterInfo);
+          return dispatcher.refresher.fallbacks() == fallbacks;
+        });
   }
 }
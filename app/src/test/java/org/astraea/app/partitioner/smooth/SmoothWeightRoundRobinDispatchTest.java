@@ -310,4 +310,18 @@ public class SmoothWeightRoundRobinDispatchTest extends RequireBrokerCluster {
     Assertions.assertEquals(3, smoothWeight.getAndChoose(topic, testCluster));
     Assertions.assertEquals(1, smoothWeight.getAndChoose(topic, testCluster));
   }
+
+  @Test
+  void testPartitionTable() {
+    var table =
+        new SmoothWeightRoundRobinDispatcher.PartitionTable(
+            List.of(
+                ReplicaInfo.of("test", 0, NodeInfo.of(1, "host", 1111), true, true, false),
+                ReplicaInfo.of("test", 1, NodeInfo.of(1, "host", 1111), true, true, false),
+                ReplicaInfo.of("test", 2, NodeInfo.of(2, "host2", 1111), true, true, false)));
+    Assertions.assertArrayEquals(new int[] {0, 1, 2}, table.partitions);
+    Assertions.assertEquals(Set.of(1, 2), table.leaders.keySet());
+    Assertions.assertArrayEquals(new int[] {0, 1}, table.leaders.get(1));
+    Assertions.assertArrayEquals(new int[] {2}, table.leaders.get(2));
+  }
 }
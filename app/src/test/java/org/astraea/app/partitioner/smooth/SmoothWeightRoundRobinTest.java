@@ -16,8 +16,17 @@
  */
 package org.astraea.app.partitioner.smooth;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
 import org.astraea.app.admin.ClusterInfo;
 import org.astraea.app.admin.NodeInfo;
 import org.astraea.app.admin.ReplicaInfo;
@@ -56,6 +65,67 @@ public class SmoothWeightRoundRobinTest {
     Assertions.assertEquals(1, smoothWeight.getAndChoose(topic, testCluster));
   }
 
+  @Test
+  void testConcurrentGetAndChoose() throws InterruptedException {
+    var topic = "test";
+    var smoothWeight = new SmoothWeightRoundRobin(Map.of(1, 1.0, 2, 1.0, 3, 1.0));
+    var clusterInfo = clusterInfo(1, 2, 3);
+    var counts = new ConcurrentHashMap<Integer, LongAdder>();
+    var threads =
+        IntStream.range(0, 8)
+            .mapToObj(
+                i ->
+                    new Thread(
+                        () -> {
+                          for (var j = 0; j != 3000; ++j)
+                            counts
+                                .computeIfAbsent(
+                                    smoothWeight.getAndChoose(topic, clusterInfo),
+                                    id -> new LongAdder())
+                                .increment();
+                        }))
+            .collect(Collectors.toList());
+    threads.forEach(Thread::start);
+    for (var t : threads) t.join();
+    // each thread has its own current weights, so the brokers are chosen evenly
+    Assertions.assertEquals(Set.of(1, 2, 3), counts.keySet());
+    counts.values().forEach(count -> Assertions.assertEquals(8000, count.sum()));
+  }
+
+  @Test
+  void testClusterInfoChanged() {
+    var topic = "test";
+    var smoothWeight = new SmoothWeightRoundRobin(Map.of(1, 1.0, 2, 1.0, 3, 1.0));
+    var clusterInfo = clusterInfo(1, 2, 3);
+    Assertions.assertEquals(1, smoothWeight.getAndChoose(topic, clusterInfo));
+    Assertions.assertEquals(2, smoothWeight.getAndChoose(topic, clusterInfo));
+
+    // the brokers of topic are rebuilt from the new cluster info
+    var newClusterInfo = clusterInfo(3);
+    for (var i = 0; i != 5; ++i)
+      Assertions.assertEquals(3, smoothWeight.getAndChoose(topic, newClusterInfo));
+
+    // the unknown brokers are never chosen
+    Assertions.assertEquals(0, smoothWeight.getAndChoose(topic, clusterInfo(4)));
+  }
+
+  /** @return the cluster info having a partition on each broker */
+  private static ClusterInfo clusterInfo(int... brokers) {
+    var nodes =
+        Arrays.stream(brokers)
+            .mapToObj(id -> new Node(id, "host" + id, 9092))
+            .collect(Collectors.toList());
+    return ClusterInfo.of(
+        new Cluster(
+            "aa",
+            nodes,
+            nodes.stream()
+                .map(n -> new PartitionInfo("test", n.id(), n, new Node[] {n}, new Node[] {n}))
+                .collect(Collectors.toList()),
+            Set.of(),
+            Set.of()));
+  }
+
   ClusterInfo mockResult() {
     var re1 = Mockito.mock(ReplicaInfo.class);
     var node1 = Mockito.mock(NodeInfo.class);
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.astraea.app.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CoordinatorTest {
+
+  private static Worker.Report report(
+      int worker, long elapsed, boolean done, long records, long consumedRecords, long latency) {
+    var producer = new Metrics();
+    for (var i = 0; i < records; ++i) producer.accept(latency, 10);
+    var consumer = new Metrics();
+    for (var i = 0; i < consumedRecords; ++i) consumer.accept(latency * 2, 10);
+    return Worker.Report.of(
+        worker,
+        done,
+        done,
+        List.of(producer),
+        List.of(consumer),
+        Performance.Checkpoint.of(
+            Duration.ofMillis(elapsed), List.of(producer), List.of(consumer)));
+  }
+
+  @Test
+  void testStartAllWorkersTogether() throws Exception {
+    try (var coordinator = new Coordinator(0, 2, true)) {
+      var address = "localhost:" + coordinator.port();
+      Assertions.assertNotNull(Worker.join(address, 0));
+      Assertions.assertEquals(Worker.join(address, 0), Worker.join(address, 1));
+
+      var first = CompletableFuture.runAsync(() -> Worker.start(address, 0));
+      // the first worker is blocked until the second worker is ready
+      Assertions.assertThrows(
+          Exception.class,
+          () -> first.get(Coordinator.START_DELAY.toMillis(), TimeUnit.MILLISECONDS));
+      var start = System.currentTimeMillis();
+      Worker.start(address, 1);
+      first.get(3, TimeUnit.SECONDS);
+      Assertions.assertTrue(System.currentTimeMillis() - start <= 2000);
+
+      Assertions.assertThrows(IllegalStateException.class, () -> Worker.join(address, 2));
+    }
+  }
+
+  @Test
+  void testLostWorkers() throws Exception {
+    try (var coordinator = new Coordinator(0, 2, true, Duration.ofMillis(500))) {
+      var address = "localhost:" + coordinator.port();
+      Worker.join(address, 0);
+      Worker.join(address, 1);
+      // the workers which are not started are not lost
+      Thread.sleep(1000);
+      Assertions.assertEquals(Set.of(), coordinator.lostWorkers());
+
+      var first = CompletableFuture.runAsync(() -> Worker.start(address, 0));
+      Worker.start(address, 1);
+      first.get(3, TimeUnit.SECONDS);
+      Worker.report(address, report(0, 1000, true, 10, 10, 1));
+      Worker.report(address, report(1, 1000, false, 10, 10, 1));
+      Assertions.assertEquals(Set.of(), coordinator.lostWorkers());
+
+      // the first worker is done, and the second worker stops reporting
+      Utils.waitFor(() -> coordinator.lostWorkers().equals(Set.of(1)));
+      Worker.report(address, report(1, 2000, false, 10, 10, 1));
+      Assertions.assertEquals(Set.of(), coordinator.lostWorkers());
+    }
+  }
+
+  @Test
+  void testMerge() throws Exception {
+    try (var coordinator = new Coordinator(0, 2, true)) {
+      var address = "localhost:" + coordinator.port();
+      Assertions.assertFalse(Worker.report(address, report(0, 1000, false, 10, 5, 1)).consumedDone);
+      Assertions.assertFalse(Worker.report(address, report(1, 1000, false, 20, 5, 3)).consumedDone);
+      // the second worker is still producing
+      Assertions.assertFalse(Worker.report(address, report(0, 2000, true, 10, 15, 1)).consumedDone);
+      Assertions.assertFalse(coordinator.done());
+      // all records are consumed
+      Assertions.assertTrue(Worker.report(address, report(1, 2000, true, 20, 15, 3)).consumedDone);
+      Assertions.assertTrue(coordinator.done());
+
+      var series = coordinator.series();
+      Assertions.assertEquals(2, series.size());
+      Assertions.assertEquals(300, series.get(0).producedBytes);
+      Assertions.assertEquals(100, series.get(0).consumedBytes);
+      Assertions.assertEquals(300, series.get(1).producedBytes);
+      Assertions.assertEquals(300, series.get(1).consumedBytes);
+
+      var total = coordinator.total();
+      Assertions.assertEquals(30, total.publishLatencies.count());
+      Assertions.assertEquals(1, total.publishLatencies.min());
+      Assertions.assertEquals(3, total.publishLatencies.max());
+      Assertions.assertEquals(6, total.e2eLatencies.max());
+    }
+  }
+
+  @Test
+  void testWriteReport() throws Exception {
+    var series =
+        List.of(
+            report(0, 1000, false, 10, 5, 1).checkpoint(),
+            report(0, 2000, true, 30, 30, 1).checkpoint());
+    for (var format : ReportFormat.values()) {
+      var path = Files.createTempDirectory("report");
+      ReportFormat.writeDistributed(format, path, series);
+      try (var files = Files.list(path)) {
+        var file = files.collect(Collectors.toList());
+        Assertions.assertEquals(1, file.size());
+        Assertions.assertTrue(file.get(0).toString().endsWith(format.toString()));
+        var content = Files.readString(file.get(0));
+        if (format == ReportFormat.JSON) {
+          Assertions.assertTrue(content.startsWith("{\"1s\": {"), content);
+          Assertions.assertTrue(content.contains("\"2s\": {"), content);
+        } else {
+          // a header and a line for each second
+          Assertions.assertEquals(3, content.lines().count(), content);
+          // the second line is the difference of cumulative statistics
+          Assertions.assertTrue(
+              content.lines().skip(2).findFirst().get().startsWith("2,200.000 Byte"), content);
+        }
+      }
+    }
+  }
+}
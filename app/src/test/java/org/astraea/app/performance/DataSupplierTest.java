@@ -16,7 +16,15 @@
  */
 package org.astraea.app.performance;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.astraea.app.common.DataUnit;
 import org.astraea.app.common.Utils;
 import org.junit.jupiter.api.Assertions;
@@ -31,8 +39,7 @@ public class DataSupplierTest {
             ExeTime.of("2s"),
             DistributionType.FIXED.create(10),
             DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(10),
-            DataUnit.KiB.of(100));
+            DistributionType.FIXED.create(10));
     Assertions.assertTrue(dataSupplier.get().hasData());
     Utils.sleep(Duration.ofSeconds(3));
     Assertions.assertFalse(dataSupplier.get().hasData());
@@ -45,8 +52,7 @@ public class DataSupplierTest {
             ExeTime.of("2records"),
             DistributionType.FIXED.create(10),
             DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(10),
-            DataUnit.KiB.of(100));
+            DistributionType.FIXED.create(10));
     Assertions.assertTrue(dataSupplier.get().hasData());
     Assertions.assertTrue(dataSupplier.get().hasData());
     Assertions.assertFalse(dataSupplier.get().hasData());
@@ -59,8 +65,7 @@ public class DataSupplierTest {
             ExeTime.of("10s"),
             DistributionType.FIXED.create(9),
             DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(10),
-            DataUnit.KiB.of(100));
+            DistributionType.FIXED.create(10));
     var data = dataSupplier.get();
     Assertions.assertTrue(data.hasData());
     // key content is fixed to "9", so the size is 1 byte
@@ -74,11 +79,10 @@ public class DataSupplierTest {
             ExeTime.of("10s"),
             DistributionType.FIXED.create(10),
             DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(0),
-            DataUnit.KiB.of(100));
+            DistributionType.FIXED.create(102400));
     var data = dataSupplier.get();
     Assertions.assertTrue(data.hasData());
-    // initial value size is 100KB and the distributed is fixed to zero, so the final size is 102400
+    // the distribution is fixed to the max size, so the final size is 102400
     Assertions.assertEquals(102400, data.value().length);
   }
 
@@ -89,29 +93,152 @@ public class DataSupplierTest {
             ExeTime.of("10s"),
             DistributionType.FIXED.create(10),
             DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(10),
-            DataUnit.KiB.of(100));
+            DistributionType.FIXED.create(10));
     var data = dataSupplier.get();
     Assertions.assertTrue(data.hasData());
-    // initial value size is 100KB and the distributed is fixed to 10, so the final size is between
-    // (102400 - 10, 102400 + 10)
-    Assertions.assertTrue(data.value().length >= 102400 - 10 && data.value().length <= 102400 + 10);
+    // the distribution is fixed to 10, so the final size is 10
+    Assertions.assertEquals(10, data.value().length);
   }
 
   @Test
-  void testThrottle() {
+  void testValueSizeLargerThanMaxSize() {
     var dataSupplier =
         DataSupplier.of(
             ExeTime.of("10s"),
             DistributionType.FIXED.create(10),
-            DataUnit.KiB.of(100),
-            DistributionType.FIXED.create(0),
-            DataUnit.KiB.of(150));
-    // total: 100KB, limit: 150KB -> no throttle
-    Assertions.assertTrue(dataSupplier.get().hasData());
-    // total: 200KB, limit: 150KB -> will throttle next data
-    Assertions.assertTrue(dataSupplier.get().hasData());
-    // throttled
+            DataUnit.Byte.of(100),
+            DistributionType.FIXED.create(1000));
+    // the size is capped by the max size
+    Assertions.assertEquals(100, dataSupplier.get().value().length);
+  }
+
+  @Test
+  void testHistogramValueSize() throws IOException {
+    var file = Files.createTempFile("histogram", ".txt");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, "# size weight\n10 1\n100 1\n1000 2\n");
+    var dataSupplier =
+        DataSupplier.of(
+            ExeTime.of("10s"),
+            DistributionType.FIXED.create(10),
+            DataUnit.Byte.of(1000),
+            DistributionType.HISTOGRAM.create(
+                1000, Map.of(DistributionType.FILE_CONFIG, file.toString())));
+    var sizes =
+        IntStream.range(0, 1000)
+            .mapToObj(i -> dataSupplier.get().value().length)
+            .collect(Collectors.toSet());
+    Assertions.assertEquals(Set.of(10, 100, 1000), sizes);
+  }
+
+  @Test
+  void testRecordLimitWithThreads() throws InterruptedException {
+    var dataSupplier =
+        DataSupplier.of(
+            ExeTime.of("1000records"),
+            DistributionType.UNIFORM.create(100),
+            DataUnit.KiB.of(1),
+            DistributionType.UNIFORM.create(1024));
+    var count = new AtomicLong();
+    var threads =
+        IntStream.range(0, 5)
+            .mapToObj(
+                i ->
+                    new Thread(
+                        () -> {
+                          while (dataSupplier.get().hasData()) count.incrementAndGet();
+                        }))
+            .collect(Collectors.toList());
+    threads.forEach(Thread::start);
+    for (var t : threads) t.join();
+    Assertions.assertEquals(1000, count.get());
+  }
+
+  @Test
+  void testReuseKey() {
+    var dataSupplier =
+        DataSupplier.of(
+            ExeTime.of("10s"),
+            DistributionType.FIXED.create(9),
+            DataUnit.KiB.of(1),
+            DistributionType.FIXED.create(0));
+    Assertions.assertSame(dataSupplier.get().key(), dataSupplier.get().key());
+  }
+
+  @Test
+  void testReplay() throws IOException {
+    var file = Files.createTempFile("trace", ".csv");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, "0,a,1,4,10,0\n200,b,#7,3,20,10\n400,a,2,0,30,0\n");
+    try (var reader = TraceReader.of(file, 3)) {
+      // replay the trace in double speed
+      var dataSupplier =
+          DataSupplier.replay(ExeTime.of("10s"), reader, TraceReader.summary(file, 3), 2);
+      var start = System.currentTimeMillis();
+      var first = dataSupplier.get();
+      Assertions.assertEquals("a", first.topic().get());
+      Assertions.assertEquals(1, first.partition());
+      Assertions.assertEquals(4, first.key().length);
+      Assertions.assertEquals(10, first.value().length);
+      Assertions.assertEquals(0, first.headers().size());
+
+      var second = dataSupplier.get();
+      Assertions.assertEquals("b", second.topic().get());
+      Assertions.assertEquals(-1, second.partition());
+      Assertions.assertArrayEquals(new byte[] {7, 0, 0}, second.key());
+      Assertions.assertEquals(20, second.value().length);
+      Assertions.assertEquals(1, second.headers().size());
+      Assertions.assertEquals(
+          100, second.timestamp().getAsLong() - first.timestamp().getAsLong(), 1);
+
+      var third = dataSupplier.get();
+      Assertions.assertNull(third.key());
+      Assertions.assertEquals(30, third.value().length);
+      Assertions.assertTrue(System.currentTimeMillis() - start >= 199);
+
+      Assertions.assertFalse(dataSupplier.get().hasData());
+    }
+  }
+
+  @Test
+  void testPhases() {
+    var phases =
+        List.of(
+            new LoadProfile.Phase(
+                "small",
+                Duration.ofMillis(300),
+                DataUnit.KB.of(1),
+                DataUnit.KB.of(1),
+                DataUnit.Byte.of(10),
+                DistributionType.FIXED,
+                DistributionType.FIXED),
+            new LoadProfile.Phase(
+                "large",
+                Duration.ofMillis(300),
+                DataUnit.KB.of(1),
+                DataUnit.KB.of(1),
+                DataUnit.Byte.of(100),
+                DistributionType.FIXED,
+                DistributionType.FIXED));
+    var profile = new LoadProfile(phases);
+    var dataSupplier =
+        DataSupplier.of(
+            ExeTime.of("600ms"),
+            profile,
+            phases.stream()
+                .map(
+                    phase ->
+                        DataSupplier.of(
+                            ExeTime.of("1h"),
+                            DistributionType.FIXED.create(10),
+                            phase.recordSize,
+                            DistributionType.FIXED.create(
+                                phase.recordSize.measurement(DataUnit.Byte).intValue())))
+                .collect(Collectors.toList()));
+    Assertions.assertEquals(10, dataSupplier.get().value().length);
+    Utils.sleep(Duration.ofMillis(350));
+    Assertions.assertEquals(100, dataSupplier.get().value().length);
+    Utils.sleep(Duration.ofMillis(300));
     Assertions.assertFalse(dataSupplier.get().hasData());
   }
 }
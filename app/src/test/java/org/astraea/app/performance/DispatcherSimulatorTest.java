@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.argument.Argument;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.partitioner.Dispatcher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DispatcherSimulatorTest {
+
+  /** send all records to partition 0 */
+  public static class FirstPartitionDispatcher implements Dispatcher {
+    @Override
+    public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
+      return 0;
+    }
+  }
+
+  /** send the records to partitions in turn */
+  public static class RoundRobinDispatcher implements Dispatcher {
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public int partition(String topic, byte[] key, byte[] value, ClusterInfo clusterInfo) {
+      return next.getAndIncrement() % clusterInfo.availableReplicaLeaders(topic).size();
+    }
+  }
+
+  @Test
+  void testArgument() {
+    var argument =
+        Argument.parse(
+            new DispatcherSimulator.Argument(),
+            new String[] {
+              "--partitioner",
+              RoundRobinDispatcher.class.getName(),
+              "--brokers",
+              "5",
+              "--duration",
+              "2s",
+              "--slowdowns",
+              "1@2s=0.5",
+              "--jmx",
+              "false"
+            });
+    Assertions.assertEquals(RoundRobinDispatcher.class.getName(), argument.partitioner);
+    Assertions.assertEquals(5, argument.brokers);
+    Assertions.assertEquals(Duration.ofSeconds(2), argument.duration);
+    Assertions.assertEquals(Map.of("1@2s", "0.5"), argument.slowdowns);
+    Assertions.assertFalse(argument.jmx);
+  }
+
+  @Test
+  void testTimeline() {
+    var timeline =
+        ClusterTimeline.of(
+                Stream.of("# comment", "", "5000,capacity,1,100", "3000,leader,2,0"), 3, 10)
+            .merge(ClusterTimeline.slowdowns(Map.of("0@1s", "0.5"), 1000, 3));
+    var events = timeline.events();
+    Assertions.assertEquals(3, events.size());
+    Assertions.assertEquals(1000, events.get(0).millis);
+    Assertions.assertEquals(ClusterTimeline.Type.CAPACITY, events.get(0).type);
+    Assertions.assertEquals(0, events.get(0).id);
+    Assertions.assertEquals(500, events.get(0).value);
+    Assertions.assertEquals(ClusterTimeline.Type.LEADER, events.get(1).type);
+    Assertions.assertEquals(2, events.get(1).id);
+    Assertions.assertEquals(100, events.get(2).value);
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> ClusterTimeline.of(Stream.of("1,capacity,1"), 3, 10));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> ClusterTimeline.slowdowns(Map.of("1", "0.5"), 1000, 3));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> ClusterTimeline.slowdowns(Map.of("3@1s", "0.5"), 1000, 3));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> ClusterTimeline.slowdowns(Map.of("1@1s", "0"), 1000, 3));
+  }
+
+  @Test
+  void testInvalidTimeline() {
+    for (var event :
+        List.of(
+            "1000,capacity,3,100",
+            "1000,capacity,-1,100",
+            "1000,capacity,1,0",
+            "1000,capacity,1,-100",
+            "1000,leader,10,0",
+            "1000,leader,-1,0",
+            "1000,leader,1,3",
+            "1000,leader,1,1.5",
+            "-1,leader,1,1",
+            "1000,unknown,1,1",
+            "a,capacity,1,100")) {
+      var e =
+          Assertions.assertThrows(
+              IllegalArgumentException.class,
+              () -> ClusterTimeline.of(Stream.of("# comment", "", event), 3, 10));
+      // the message has the line number and the line
+      Assertions.assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+      Assertions.assertTrue(e.getMessage().contains(event), e.getMessage());
+    }
+  }
+
+  @Test
+  void testImbalance() throws Exception {
+    var argument = new DispatcherSimulator.Argument();
+    argument.partitioner = FirstPartitionDispatcher.class.getName();
+    argument.duration = Duration.ofMillis(500);
+    argument.jmx = false;
+    var report = DispatcherSimulator.execute(argument);
+    Assertions.assertTrue(report.records() > 0);
+    // all records are sent to the leader of partition 0
+    Assertions.assertEquals(report.records(), report.records[0]);
+    Assertions.assertEquals(3, report.maxMeanRatio(), 0.001);
+
+    var output = new ByteArrayOutputStream();
+    DispatcherSimulator.print(report, new PrintStream(output));
+    Assertions.assertTrue(output.toString().contains(FirstPartitionDispatcher.class.getName()));
+  }
+
+  @Test
+  void testSlowdown() throws Exception {
+    var argument = new DispatcherSimulator.Argument();
+    argument.partitioner = RoundRobinDispatcher.class.getName();
+    argument.duration = Duration.ofSeconds(1);
+    argument.slowdowns = Map.of("1@0s", "0.1");
+    argument.jmx = false;
+    var report = DispatcherSimulator.execute(argument);
+    Assertions.assertEquals(1, report.maxMeanRatio(), 0.01);
+    Assertions.assertEquals(
+        argument.capacity.measurement(org.astraea.app.common.DataUnit.Byte).doubleValue() / 10,
+        report.capacities[1],
+        1);
+    // the slow broker can't drain the records in time
+    Assertions.assertTrue(
+        report.latencies[1].percentile(99) > report.latencies[0].percentile(99) * 10);
+    Assertions.assertTrue(report.maxBacklogs[1] > report.maxBacklogs[0]);
+  }
+
+  @Test
+  void testBrokerMetrics() throws Exception {
+    try (var broker = new SimulatedBroker(7, "testBrokerMetrics", 1000, true)) {
+      var now = System.nanoTime();
+      Assertions.assertEquals(1_000_000, broker.append(now, 1000));
+      Assertions.assertEquals(2_000_000, broker.append(now, 1000));
+      broker.publish(now + Duration.ofSeconds(1).toNanos());
+
+      try (var client = MBeanClient.jndi("localhost", broker.jmxPort().get())) {
+        Assertions.assertEquals(
+            2000, KafkaMetrics.BrokerTopic.BytesInPerSec.fetch(client).count());
+        Assertions.assertEquals(
+            2, KafkaMetrics.BrokerTopic.MessagesInPerSec.fetch(client).count());
+      }
+      var node = KafkaMetrics.Producer.node(MBeanClient.local(), 7).get("testBrokerMetrics");
+      Assertions.assertEquals(2, node.requestTotal());
+      // all queued bytes are drained after one second
+      Assertions.assertEquals(2, node.responseTotal());
+    }
+    // the producer metrics are removed
+    Assertions.assertEquals(0, KafkaMetrics.Producer.node(MBeanClient.local(), 7).size());
+  }
+}
@@ -16,7 +16,12 @@
  */
 package org.astraea.app.performance;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assertions;
@@ -59,4 +64,109 @@ public class DistributionTest {
     Assertions.assertTrue(distribution.get() < 5);
     Assertions.assertTrue(distribution.get() >= 0);
   }
+
+  @Test
+  void testZipfianIsSkewed() {
+    var distribution = DistributionType.ZIPFIAN.create(10000000);
+    var counts = new int[3];
+    var samples = 100000;
+    for (var i = 0; i < samples; ++i) {
+      var value = distribution.getAsLong();
+      Assertions.assertTrue(value >= 0 && value < 10000000);
+      if (value < counts.length) counts[(int) value]++;
+    }
+    // P(k) = 1 / k / H_N, and H_N is about 16.7 for N = 10^7
+    Assertions.assertEquals(samples / 16.7, counts[0], samples * 0.01);
+    Assertions.assertEquals(samples / 16.7 / 2, counts[1], samples * 0.01);
+    Assertions.assertEquals(samples / 16.7 / 3, counts[2], samples * 0.01);
+  }
+
+  @Test
+  void testHotspot() {
+    var distribution =
+        DistributionType.HOTSPOT.create(
+            100,
+            Map.of(
+                DistributionType.HOTSPOT_TRAFFIC_CONFIG, "0.9",
+                DistributionType.HOTSPOT_KEYS_CONFIG, "0.1"));
+    var hot = 0;
+    for (var i = 0; i < 10000; ++i) {
+      var value = distribution.getAsLong();
+      Assertions.assertTrue(value >= 0 && value < 100);
+      if (value < 10) hot++;
+    }
+    Assertions.assertEquals(9000, hot, 300);
+  }
+
+  @Test
+  void testSequential() {
+    var distribution = DistributionType.SEQUENTIAL.create(3);
+    Assertions.assertEquals(
+        List.of(0L, 1L, 2L, 0L, 1L),
+        IntStream.range(0, 5).mapToObj(i -> distribution.get()).collect(Collectors.toList()));
+  }
+
+  @Test
+  void testExponential() {
+    var distribution =
+        DistributionType.EXPONENTIAL.create(100000, Map.of(DistributionType.MEAN_CONFIG, "100"));
+    var sum = 0D;
+    for (var i = 0; i < 10000; ++i) sum += distribution.getAsLong();
+    // the values are floored, so the mean is about 99.5
+    Assertions.assertEquals(100, sum / 10000, 5);
+  }
+
+  @Test
+  void testNormal() {
+    var distribution = DistributionType.NORMAL.create(1000);
+    var sum = 0D;
+    for (var i = 0; i < 10000; ++i) {
+      var value = distribution.getAsLong();
+      Assertions.assertTrue(value >= 0 && value < 1000);
+      sum += value;
+    }
+    Assertions.assertEquals(500, sum / 10000, 10);
+  }
+
+  @Test
+  void testHistogram() throws IOException {
+    var file = Files.createTempFile("histogram", ".txt");
+    Files.writeString(file, "# value weight\n100 3\n200,1\n\n300 0\n");
+    var distribution =
+        DistributionType.HISTOGRAM.create(0, Map.of(DistributionType.FILE_CONFIG, file.toString()));
+    var count = 0;
+    for (var i = 0; i < 10000; ++i) {
+      var value = distribution.getAsLong();
+      Assertions.assertTrue(value == 100 || value == 200);
+      if (value == 100) count++;
+    }
+    Assertions.assertEquals(7500, count, 300);
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> DistributionType.HISTOGRAM.create(0));
+  }
+
+  @Test
+  void testSeed() {
+    for (var type : DistributionType.values()) {
+      // the latest distribution depends on time, and histogram requires a file
+      if (type == DistributionType.LATEST || type == DistributionType.HISTOGRAM) continue;
+      var first = type.create(1000, Map.of(DistributionType.SEED_CONFIG, "100"));
+      var second = type.create(1000, Map.of(DistributionType.SEED_CONFIG, "100"));
+      for (var i = 0; i < 10; ++i)
+        Assertions.assertEquals(first.getAsLong(), second.getAsLong(), type.name);
+    }
+  }
+
+  @Test
+  void testAliasTable() {
+    var table = new AliasTable(new long[] {10, 20, 30}, new double[] {1, 0, 3});
+    var rand = new SplittableRandom(1);
+    var counts = new int[3];
+    for (var i = 0; i < 10000; ++i) counts[(int) (table.sample(rand) / 10 - 1)]++;
+    Assertions.assertEquals(2500, counts[0], 300);
+    Assertions.assertEquals(0, counts[1]);
+    Assertions.assertEquals(7500, counts[2], 300);
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new AliasTable(new long[] {1}, new double[] {0}));
+  }
 }
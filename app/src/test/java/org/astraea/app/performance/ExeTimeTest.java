@@ -17,6 +17,7 @@
 package org.astraea.app.performance;
 
 import com.beust.jcommander.ParameterException;
+import java.util.OptionalLong;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -29,6 +30,7 @@ public class ExeTimeTest {
     var exeTime = field.convert("1000records");
     Assertions.assertEquals(0, exeTime.percentage(0, 10));
     Assertions.assertEquals(100D, exeTime.percentage(1000, 10));
+    Assertions.assertEquals(OptionalLong.of(1000), exeTime.records());
   }
 
   @Test
@@ -37,6 +39,7 @@ public class ExeTimeTest {
     var exeTime = field.convert("100ms");
     Assertions.assertEquals(0, exeTime.percentage(1000, 0));
     Assertions.assertEquals(100D, exeTime.percentage(1000, 100));
+    Assertions.assertEquals(OptionalLong.empty(), exeTime.records());
   }
 
   @Test
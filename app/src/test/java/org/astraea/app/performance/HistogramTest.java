@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+  @Test
+  void testIndex() {
+    for (long v = 0; v < 100000; ++v) {
+      var index = Histogram.index(v);
+      Assertions.assertTrue(v <= Histogram.highestValue(index));
+      if (index > 0) Assertions.assertTrue(v > Histogram.highestValue(index - 1));
+    }
+    Assertions.assertEquals(0, Histogram.index(-10));
+    Assertions.assertEquals(Histogram.BUCKETS - 1, Histogram.index(Long.MAX_VALUE));
+    Assertions.assertEquals(Long.MAX_VALUE, Histogram.highestValue(Histogram.BUCKETS - 1));
+  }
+
+  @Test
+  void testPercentile() {
+    var histogram = new Histogram();
+    Assertions.assertEquals(0, histogram.snapshot().percentile(99));
+    for (long v = 1; v <= 10000; ++v) histogram.record(v);
+    var snapshot = histogram.snapshot();
+    Assertions.assertEquals(10000, snapshot.count());
+    Assertions.assertEquals(1, snapshot.min());
+    Assertions.assertEquals(10000, snapshot.max());
+    Assertions.assertEquals(5000.5, snapshot.average());
+    for (var p : Histogram.PERCENTILES) {
+      var expected = p * 100;
+      var error = expected / Histogram.SUB_BUCKETS;
+      Assertions.assertEquals(expected, snapshot.percentile(p), error);
+    }
+    Assertions.assertEquals(10000, snapshot.percentile(100));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.percentile(101));
+  }
+
+  @Test
+  void testSubtractAndAdd() {
+    var histogram = new Histogram();
+    for (var i = 0; i < 100; ++i) histogram.record(10);
+    var first = histogram.snapshot();
+    for (var i = 0; i < 100; ++i) histogram.record(1000);
+    var second = histogram.snapshot();
+
+    var interval = second.subtract(first);
+    Assertions.assertEquals(100, interval.count());
+    Assertions.assertEquals(1000, interval.average());
+    Assertions.assertEquals(1000, interval.percentile(50), 1000D / Histogram.SUB_BUCKETS);
+
+    var merged = first.add(interval);
+    Assertions.assertEquals(second.count(), merged.count());
+    Assertions.assertEquals(second.percentile(50), merged.percentile(50));
+    Assertions.assertEquals(second.percentile(99), merged.percentile(99));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import org.astraea.app.common.DataUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LoadProfileTest {
+
+  private static LoadProfile profile() {
+    return LoadProfile.of(
+        List.of(
+            "# name,duration,throughput,record size,key,size",
+            "ramp, 5m, 10MB-500MB",
+            "",
+            "spike,30s,1500MB,2KiB",
+            "soak,2h,500MB,1KiB,zipfian,fixed"),
+        new Performance.Argument());
+  }
+
+  @Test
+  void testParse() {
+    var phases = profile().phases();
+    Assertions.assertEquals(3, phases.size());
+
+    var ramp = phases.get(0);
+    Assertions.assertEquals("ramp", ramp.name);
+    Assertions.assertEquals(Duration.ofMinutes(5), ramp.duration);
+    Assertions.assertEquals(DataUnit.MB.of(10), ramp.from);
+    Assertions.assertEquals(DataUnit.MB.of(500), ramp.to);
+    // the global options are used
+    Assertions.assertEquals(DataUnit.KiB.of(1), ramp.recordSize);
+    Assertions.assertEquals(DistributionType.UNIFORM, ramp.keyDistributionType);
+
+    var spike = phases.get(1);
+    Assertions.assertEquals(spike.from, spike.to);
+    Assertions.assertEquals(DataUnit.KiB.of(2), spike.recordSize);
+
+    var soak = phases.get(2);
+    Assertions.assertEquals(DistributionType.ZIPFIAN, soak.keyDistributionType);
+    Assertions.assertEquals(DistributionType.FIXED, soak.sizeDistributionType);
+  }
+
+  @Test
+  void testIllegalProfile() {
+    var argument = new Performance.Argument();
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> LoadProfile.of(List.of("# empty"), argument));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> LoadProfile.of(List.of("a,1s"), argument));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> LoadProfile.of(List.of("a,0s,1MB"), argument));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> LoadProfile.of(List.of("a,1s,1MB-2MB-3MB"), argument));
+  }
+
+  @Test
+  void testPhase() {
+    var profile = profile();
+    Assertions.assertEquals(Duration.ofMinutes(5).plusSeconds(30).plusHours(2), profile.duration());
+    Assertions.assertEquals(
+        List.of(Duration.ofMinutes(5), Duration.ofMinutes(5).plusSeconds(30)),
+        profile.boundaries());
+    Assertions.assertEquals(0, profile.phase(Duration.ZERO));
+    Assertions.assertEquals(0, profile.phase(Duration.ofMinutes(5).minusMillis(1)));
+    Assertions.assertEquals(1, profile.phase(Duration.ofMinutes(5)));
+    Assertions.assertEquals(2, profile.phase(Duration.ofMinutes(6)));
+    Assertions.assertEquals(2, profile.phase(Duration.ofHours(10)));
+  }
+
+  @Test
+  void testResults() {
+    var histogram = new Histogram();
+    histogram.record(10);
+    var first =
+        new Performance.Checkpoint(
+            Duration.ofSeconds(10), 1000, 500, histogram.snapshot(), Histogram.Snapshot.EMPTY);
+    histogram.record(100);
+    histogram.record(100);
+    var second =
+        new Performance.Checkpoint(
+            Duration.ofSeconds(20), 3000, 500, histogram.snapshot(), Histogram.Snapshot.EMPTY);
+
+    var results = profile().results(List.of(first, second));
+    // the last phase is not reached
+    Assertions.assertEquals(2, results.size());
+    Assertions.assertEquals("ramp", results.get(0).phase.name);
+    Assertions.assertEquals(100, results.get(0).outputRate());
+    Assertions.assertEquals(50, results.get(0).inputRate());
+    Assertions.assertEquals(10, results.get(0).publishLatencies.max());
+    Assertions.assertEquals(200, results.get(1).outputRate());
+    Assertions.assertEquals(0, results.get(1).inputRate());
+    Assertions.assertEquals(2, results.get(1).publishLatencies.count());
+    Assertions.assertEquals(100, results.get(1).publishLatencies.percentile(50));
+  }
+}
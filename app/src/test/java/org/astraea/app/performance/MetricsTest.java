@@ -17,6 +17,8 @@
 package org.astraea.app.performance;
 
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -26,18 +28,57 @@ public class MetricsTest {
   void testAverage() {
     Random rand = new Random();
     final int num = 1000;
-    double avg = 0.0;
+    long sum = 0;
     Metrics metrics = new Metrics();
 
     Assertions.assertEquals(0, metrics.avgLatency());
 
     for (int i = 0; i < num; ++i) {
       long next = rand.nextInt();
-      avg += ((double) next - avg) / (i + 1);
+      sum += next;
       metrics.accept(next, 0);
     }
 
-    Assertions.assertEquals(avg, metrics.avgLatency());
+    Assertions.assertEquals((double) sum / num, metrics.avgLatency());
+  }
+
+  @Test
+  void testLatencies() {
+    var metrics = new Metrics();
+    for (long i = 1; i <= 100; ++i) metrics.accept(i, 0);
+
+    Assertions.assertEquals(1, metrics.min());
+    Assertions.assertEquals(100, metrics.max());
+    Assertions.assertEquals(50, metrics.latencies().percentile(50));
+    Assertions.assertEquals(100, metrics.clearAndGetCurrentLatencies().count());
+    Assertions.assertEquals(0, metrics.clearAndGetCurrentLatencies().count());
+
+    metrics.accept(7L, 0);
+    var current = metrics.clearAndGetCurrentLatencies();
+    Assertions.assertEquals(1, current.count());
+    Assertions.assertEquals(7, current.percentile(99));
+    Assertions.assertEquals(101, metrics.latencies().count());
+  }
+
+  @Test
+  void testConcurrentAccept() throws InterruptedException {
+    var metrics = new Metrics();
+    var threads =
+        IntStream.range(0, 4)
+            .mapToObj(
+                i ->
+                    new Thread(
+                        () -> {
+                          for (var j = 0; j < 10000; ++j) metrics.accept(10L, 1);
+                        }))
+            .collect(Collectors.toList());
+    threads.forEach(Thread::start);
+    for (var t : threads) t.join();
+
+    Assertions.assertEquals(40000, metrics.num());
+    Assertions.assertEquals(40000, metrics.bytes());
+    Assertions.assertEquals(40000, metrics.latencies().count());
+    Assertions.assertEquals(10, metrics.latencies().percentile(99.99));
   }
 
   @Test
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PartitionMetricsTest {
+
+  @Test
+  void testRecord() {
+    var metrics = PartitionMetrics.of("a", Map.of(0, 1, 1, 2, 2, 1));
+    Assertions.assertEquals(3, metrics.partitions());
+    metrics.produced("a", 0, 10);
+    metrics.produced("a", 0, 10);
+    metrics.produced("a", 2, 30);
+    metrics.consumed("a", 0, 5, 10);
+    metrics.consumed("a", 2, 7, 30);
+    // other topics and unknown partitions are ignored
+    metrics.produced("b", 1, 100);
+    metrics.produced("a", 3, 100);
+    metrics.produced("a", -1, 100);
+
+    var snapshot = metrics.snapshot();
+    Assertions.assertArrayEquals(new long[] {2, 0, 1}, snapshot.producedRecords);
+    Assertions.assertArrayEquals(new long[] {20, 0, 30}, snapshot.producedBytes);
+    Assertions.assertArrayEquals(new long[] {1, 0, 1}, snapshot.consumedRecords);
+    Assertions.assertArrayEquals(new long[] {10, 0, 30}, snapshot.consumedBytes);
+    Assertions.assertArrayEquals(new long[] {1, 0, 0}, snapshot.lags());
+    Assertions.assertEquals(5, snapshot.e2eLatencies(0).max());
+    Assertions.assertEquals(0, snapshot.e2eLatencies(1).count());
+    Assertions.assertEquals(7, snapshot.e2eLatencies(2).max());
+    metrics.consumed("a", 0, 2, 10);
+    Assertions.assertEquals(3.5, metrics.snapshot().e2eLatencies(0).average());
+    Assertions.assertEquals(2, metrics.snapshot().e2eLatencies(0).min());
+
+    Assertions.assertArrayEquals(new int[] {1, 2}, snapshot.brokers());
+    Assertions.assertArrayEquals(new long[] {50, 0}, snapshot.brokerValues(snapshot.producedBytes));
+
+    metrics.produced("a", 1, 40);
+    Assertions.assertArrayEquals(
+        new long[] {0, 40, 0}, metrics.snapshot().currentProducedBytes(snapshot));
+  }
+
+  @Test
+  void testE2eLatencyPercentiles() {
+    var metrics = PartitionMetrics.of("a", Map.of(0, 1));
+    for (var latency = 1; latency <= 1000; ++latency) metrics.consumed("a", 0, latency, 1);
+    metrics.consumed("a", 0, Long.MAX_VALUE / 2, 1);
+    var latencies = metrics.snapshot().e2eLatencies(0);
+    Assertions.assertEquals(1001, latencies.count());
+    Assertions.assertEquals(1, latencies.min());
+    Assertions.assertEquals(Long.MAX_VALUE / 2, latencies.max());
+    // the relative error of coarse buckets is smaller than 1/8
+    for (var percentile : new double[] {50, 90, 99}) {
+      var expected = percentile * 10;
+      Assertions.assertTrue(latencies.percentile(percentile) >= expected);
+      Assertions.assertTrue(latencies.percentile(percentile) <= expected * 9 / 8);
+    }
+    // the huge latency is put into the last bucket
+    Assertions.assertEquals(PartitionMetrics.MAX_LATENCY, latencies.percentile(100));
+  }
+
+  @Test
+  void testUnknownLeader() {
+    var snapshot = PartitionMetrics.of("a", Map.of(1, 3)).snapshot();
+    Assertions.assertEquals(2, snapshot.partitions());
+    Assertions.assertEquals(-1, snapshot.leaders[0]);
+    Assertions.assertArrayEquals(new int[] {3}, snapshot.brokers());
+  }
+
+  @Test
+  void testSkew() {
+    Assertions.assertEquals(0, PartitionMetrics.maxMeanRatio(new long[] {0, 0}));
+    Assertions.assertEquals(0, PartitionMetrics.gini(new long[] {0, 0}));
+    Assertions.assertEquals(1, PartitionMetrics.maxMeanRatio(new long[] {5, 5, 5}));
+    Assertions.assertEquals(0, PartitionMetrics.gini(new long[] {5, 5, 5}), 1E-9);
+    Assertions.assertEquals(4, PartitionMetrics.maxMeanRatio(new long[] {0, 0, 0, 8}));
+    // a single partition takes all, so the gini is (n - 1) / n
+    Assertions.assertEquals(0.75, PartitionMetrics.gini(new long[] {8, 0, 0, 0}), 1E-9);
+    Assertions.assertEquals(0.25, PartitionMetrics.gini(new long[] {1, 3}), 1E-9);
+  }
+}
@@ -20,6 +20,7 @@ import com.beust.jcommander.ParameterException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -52,6 +53,7 @@ public class PerformanceTest extends RequireBrokerCluster {
         Performance.producerExecutors(
             argument,
             List.of(observer),
+            PartitionMetrics.of(topic, Map.of()),
             () ->
                 DataSupplier.data(
                     "key".getBytes(StandardCharsets.UTF_8),
@@ -74,6 +76,7 @@ public class PerformanceTest extends RequireBrokerCluster {
         Performance.producerExecutors(
             argument,
             List.of(observer),
+            PartitionMetrics.of(topic, Map.of()),
             () ->
                 DataSupplier.data(
                     "key".getBytes(StandardCharsets.UTF_8),
@@ -99,12 +102,14 @@ public class PerformanceTest extends RequireBrokerCluster {
   void testConsumerExecutor() throws InterruptedException, ExecutionException {
     Metrics metrics = new Metrics();
     var topicName = "testConsumerExecutor-" + System.currentTimeMillis();
+    var partitionMetrics = PartitionMetrics.of(topicName, Map.of(0, 0));
     var param = new Performance.Argument();
     param.sizeDistributionType = DistributionType.FIXED;
     try (Executor executor =
         Performance.consumerExecutor(
             Consumer.forTopics(Set.of(topicName)).bootstrapServers(bootstrapServers()).build(),
             metrics,
+            partitionMetrics,
             new Manager(param, List.of(), List.of()),
             () -> false)) {
       executor.execute();
@@ -119,6 +124,8 @@ public class PerformanceTest extends RequireBrokerCluster {
 
       Assertions.assertEquals(1, metrics.num());
       Assertions.assertNotEquals(1024, metrics.bytes());
+      Assertions.assertEquals(1, partitionMetrics.snapshot().consumedRecords[0]);
+      Assertions.assertEquals(metrics.bytes(), partitionMetrics.snapshot().consumedBytes[0]);
     }
   }
 
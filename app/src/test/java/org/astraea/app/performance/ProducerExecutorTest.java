@@ -18,6 +18,7 @@ package org.astraea.app.performance;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -141,8 +142,10 @@ public class ProducerExecutorTest extends RequireBrokerCluster {
                     1,
                     Producer.builder().bootstrapServers(bootstrapServers()).build(),
                     new Observer(),
+                    PartitionMetrics.of("", Map.of()),
                     new MyPartitionSupplier(),
-                    new MyDataSupplier()))),
+                    new MyDataSupplier(),
+                    Throttler.UNLIMITED))),
         Arguments.of(
             Named.of(
                 "transactional producer for topic: " + transactionalTopic,
@@ -151,7 +154,9 @@ public class ProducerExecutorTest extends RequireBrokerCluster {
                     10,
                     Producer.builder().bootstrapServers(bootstrapServers()).buildTransactional(),
                     new Observer(),
+                    PartitionMetrics.of("", Map.of()),
                     new MyPartitionSupplier(),
-                    new MyDataSupplier()))));
+                    new MyDataSupplier(),
+                    Throttler.UNLIMITED))));
   }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import org.astraea.app.common.DataSize;
+import org.astraea.app.common.DataUnit;
+import org.astraea.app.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ThrottlerTest {
+
+  @Test
+  void testSmoothRate() throws InterruptedException {
+    // 100KB per second, and each record is 1KB, so there is a record per 10ms
+    var throttler = Throttler.of(DataUnit.KB.of(100));
+    var start = System.currentTimeMillis();
+    var first = throttler.acquire(1000);
+    for (var i = 0; i < 49; ++i) throttler.acquire(1000);
+    var last = throttler.acquire(1000);
+    var elapsed = System.currentTimeMillis() - start;
+
+    Assertions.assertEquals(500, last - first, 1);
+    // the sends are spread over the second rather than bursting at the beginning
+    Assertions.assertTrue(elapsed >= 490, "elapsed: " + elapsed);
+    Assertions.assertTrue(elapsed < 1000, "elapsed: " + elapsed);
+  }
+
+  @Test
+  void testIntendedTimeIsNotDelayedByStall() throws InterruptedException {
+    var throttler = Throttler.of(DataUnit.KB.of(100));
+    var first = throttler.acquire(1000);
+    // the caller is stalled
+    Utils.sleep(Duration.ofMillis(300));
+    // the intended times are kept even if the caller is late, so the latency includes the stall
+    for (var i = 1; i <= 10; ++i) {
+      var intended = throttler.acquire(1000);
+      Assertions.assertEquals(first + i * 10, intended, 1);
+      Assertions.assertTrue(System.currentTimeMillis() - intended >= 200);
+    }
+  }
+
+  @Test
+  void testUnlimited() throws InterruptedException {
+    var start = System.currentTimeMillis();
+    for (var i = 0; i < 1000; ++i) Throttler.UNLIMITED.acquire(1024 * 1024);
+    Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+  }
+
+  @Test
+  void testIllegalThroughput() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Throttler.of(DataUnit.Byte.of(0)));
+  }
+
+  @Test
+  void testOffset() {
+    // constant rate: 1 byte per nanosecond
+    Assertions.assertEquals(100, Throttler.offset(100, 1, 1, 1000));
+    Assertions.assertEquals(1000, Throttler.offset(5000, 1, 1, 1000));
+    // ramp from 0 to 2 bytes per nanosecond in 1000 nanoseconds, so the bytes are t^2 / 1000
+    Assertions.assertEquals(100, Throttler.offset(10, 0, 2, 1000), 1);
+    Assertions.assertEquals(500, Throttler.offset(250, 0, 2, 1000), 1);
+    Assertions.assertEquals(1000, Throttler.offset(2000, 0, 2, 1000));
+    // ramp down from 2 to 0 bytes per nanosecond
+    Assertions.assertEquals(500, Throttler.offset(750, 2, 0, 1000), 1);
+    Assertions.assertEquals(1000, Throttler.offset(2000, 2, 0, 1000));
+    // idle phase
+    Assertions.assertEquals(1000, Throttler.offset(0, 0, 0, 1000));
+  }
+
+  @Test
+  void testProfile() throws InterruptedException {
+    var profile =
+        new LoadProfile(
+            List.of(
+                phase("slow", DataUnit.KB.of(10), DataUnit.KB.of(10)),
+                phase("fast", DataUnit.KB.of(100), DataUnit.KB.of(100))));
+    // 1KB records are sent per 100ms in the first phase, and per 10ms in the second phase
+    var throttler = Throttler.of(profile, 1);
+    var first = throttler.acquire(1000);
+    for (var i = 1; i < 5; ++i)
+      Assertions.assertEquals(first + i * 100, throttler.acquire(1000), 1);
+    Assertions.assertEquals(first + 500, throttler.acquire(1000), 1);
+    Assertions.assertEquals(first + 510, throttler.acquire(1000), 1);
+    Assertions.assertEquals(first + 520, throttler.acquire(1000), 1);
+  }
+
+  private static LoadProfile.Phase phase(String name, DataSize from, DataSize to) {
+    return new LoadProfile.Phase(
+        name,
+        Duration.ofMillis(500),
+        from,
+        to,
+        DataUnit.KB.of(1),
+        DistributionType.FIXED,
+        DistributionType.FIXED);
+  }
+}
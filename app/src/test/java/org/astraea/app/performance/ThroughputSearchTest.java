@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import org.astraea.app.common.DataSize;
+import org.astraea.app.common.DataUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ThroughputSearchTest {
+
+  private static Histogram.Snapshot latencies(long latency, int count) {
+    var histogram = new Histogram();
+    for (var i = 0; i < count; ++i) histogram.record(latency);
+    return histogram.snapshot();
+  }
+
+  /** the latency is 10 ms until the throughput exceeds the capacity */
+  private static ThroughputSearch.Step step(DataSize throughput, DataSize capacity) {
+    var latency = throughput.greaterThan(capacity) ? 100 : 10;
+    return new ThroughputSearch.Step(
+        throughput, throughput, latencies(latency, 100), latencies(latency, 100), true);
+  }
+
+  @Test
+  void testSearch() throws Exception {
+    var capacity = DataUnit.MiB.of(37);
+    var steps = new ArrayList<DataSize>();
+    var best =
+        ThroughputSearch.search(
+            Duration.ofMillis(50),
+            DataUnit.MiB.of(1),
+            DataUnit.GiB.of(500),
+            DataUnit.MiB.of(1),
+            throughput -> {
+              steps.add(throughput);
+              return step(throughput, capacity);
+            });
+    Assertions.assertTrue(best.isPresent());
+    Assertions.assertTrue(best.get().target.smallerEqualTo(capacity));
+    Assertions.assertTrue(best.get().target.greaterThan(DataUnit.MiB.of(36)));
+    // doubling from 1 MiB to 64 MiB, and then binary search between 32 MiB and 64 MiB
+    Assertions.assertEquals(DataUnit.MiB.of(64), steps.get(6));
+    Assertions.assertTrue(steps.size() <= 12, "steps: " + steps.size());
+  }
+
+  @Test
+  void testSearchStopsAtMax() throws Exception {
+    var best =
+        ThroughputSearch.search(
+            Duration.ofMillis(50),
+            DataUnit.MiB.of(1),
+            DataUnit.MiB.of(5),
+            DataUnit.MiB.of(1),
+            throughput -> step(throughput, DataUnit.GiB.of(1)));
+    Assertions.assertEquals(DataUnit.MiB.of(5), best.get().target);
+  }
+
+  @Test
+  void testNothingMeetsSlo() throws Exception {
+    var best =
+        ThroughputSearch.search(
+            Duration.ofMillis(5),
+            DataUnit.MiB.of(1),
+            DataUnit.GiB.of(1),
+            DataUnit.KiB.of(100),
+            throughput -> step(throughput, DataUnit.GiB.of(1)));
+    Assertions.assertTrue(best.isEmpty());
+  }
+
+  @Test
+  void testStep() {
+    var histogram = new Histogram();
+    for (var i = 0; i < 1000; ++i) histogram.record(500);
+    var warmup = histogram.snapshot();
+    var start = new Performance.Checkpoint(Duration.ofSeconds(10), 1000, 0, warmup, warmup);
+    for (var i = 0; i < 1000; ++i) histogram.record(10);
+    var firstHalf = histogram.snapshot();
+    var middle =
+        new Performance.Checkpoint(Duration.ofSeconds(20), 1000 + 10000, 0, firstHalf, firstHalf);
+    for (var i = 0; i < 1000; ++i) histogram.record(11);
+    var end =
+        new Performance.Checkpoint(
+            Duration.ofSeconds(30), 1000 + 20000, 0, histogram.snapshot(), histogram.snapshot());
+
+    var step = ThroughputSearch.step(DataUnit.KB.of(1), start, middle, end);
+    // the latencies of warm-up are excluded
+    Assertions.assertEquals(11, step.publishLatencies.percentile(99));
+    Assertions.assertEquals(2000, step.e2eLatencies.count());
+    Assertions.assertEquals(DataUnit.Byte.of(1000), step.achieved);
+    Assertions.assertTrue(step.steady);
+    Assertions.assertTrue(step.passed(Duration.ofMillis(50)));
+    Assertions.assertFalse(step.passed(Duration.ofMillis(5)));
+  }
+
+  @Test
+  void testSteady() {
+    Assertions.assertTrue(ThroughputSearch.steady(latencies(10, 100), latencies(14, 100)));
+    Assertions.assertFalse(ThroughputSearch.steady(latencies(10, 100), latencies(40, 100)));
+    // the tiny latencies are steady
+    Assertions.assertTrue(ThroughputSearch.steady(latencies(0, 100), latencies(2, 100)));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TraceReaderTest {
+
+  private static Path trace(String content) throws IOException {
+    var file = Files.createTempFile("trace", ".csv");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, content);
+    return file;
+  }
+
+  @Test
+  void testParse() throws IOException {
+    var file =
+        trace(
+            "# time,topic,partition,key,value,headers\n"
+                + "0,orders,3,16,512,0\n"
+                + "\n"
+                + "12.5,orders,#-9213,8,1024,30\r\n"
+                + "1000.000001, payments ,0,0,1,2");
+    try (var reader = TraceReader.of(file, 4)) {
+      var first = reader.next();
+      Assertions.assertEquals(0, first.nanos);
+      Assertions.assertEquals("orders", first.topic);
+      Assertions.assertEquals(3, first.partition);
+      Assertions.assertFalse(first.hasKeyHash());
+      Assertions.assertEquals(16, first.keySize);
+      Assertions.assertEquals(512, first.valueSize);
+      Assertions.assertEquals(0, first.headersSize);
+
+      var second = reader.next();
+      Assertions.assertEquals(12_500_000, second.nanos);
+      Assertions.assertTrue(second.hasKeyHash());
+      Assertions.assertEquals(-9213, second.keyHash);
+      Assertions.assertEquals(8, second.keySize);
+      Assertions.assertEquals(1024, second.valueSize);
+      Assertions.assertEquals(30, second.headersSize);
+      // the topic names are shared
+      Assertions.assertSame(first.topic, second.topic);
+
+      var third = reader.next();
+      Assertions.assertEquals(1_000_000_001, third.nanos);
+      Assertions.assertEquals("payments", third.topic);
+      Assertions.assertEquals(2, third.headersSize);
+
+      Assertions.assertNull(reader.next());
+      Assertions.assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void testSummary() throws IOException {
+    var summary = TraceReader.summary(trace("0,a,0,1,10,0\n1,b,#1,5,2,0\n2,a,1,0,3,7\n"), 2);
+    Assertions.assertEquals(Set.of("a", "b"), summary.topics);
+    Assertions.assertEquals(3, summary.records);
+    Assertions.assertEquals(5, summary.maxKeySize);
+    Assertions.assertEquals(10, summary.maxValueSize);
+    Assertions.assertEquals(7, summary.maxHeadersSize);
+  }
+
+  @Test
+  void testCrossRegions() throws IOException {
+    var file =
+        trace(
+            IntStream.range(0, 1000)
+                .mapToObj(i -> i + ",topic-" + i % 7 + "," + i % 3 + ",1," + i + ",0")
+                .collect(Collectors.joining("\n")));
+    // the small region makes most lines cross the end of regions
+    try (var reader = TraceReader.of(file, 3, 32)) {
+      for (var i = 0; i < 1000; ++i) {
+        var entry = reader.next();
+        Assertions.assertEquals(i * 1000_000L, entry.nanos);
+        Assertions.assertEquals("topic-" + i % 7, entry.topic);
+        Assertions.assertEquals(i % 3, entry.partition);
+        Assertions.assertEquals(i, entry.valueSize);
+      }
+      Assertions.assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void testIllegalLine() throws IOException {
+    for (var line :
+        List.of(
+            "0,topic,0,1,1",
+            "0,topic,0,1,x,1",
+            "-0.5,topic,0,1,1,1",
+            "-1,topic,0,1,1,1",
+            "0,topic,-2,1,1,1",
+            "0,topic,3,1,1,1",
+            "0, ,0,1,1,1")) {
+      try (var reader = TraceReader.of(trace("# comment\n" + line + "\n"), 3)) {
+        var e = Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+        // the message has the line number and the line
+        Assertions.assertTrue(e.getMessage().contains("line 2 \"" + line + "\""), e.getMessage());
+      }
+    }
+    try (var reader = TraceReader.of(trace("0,topic,0,1,1,1\n"), 3, 4)) {
+      Assertions.assertThrows(IllegalStateException.class, reader::next);
+    }
+    // the partitions of trace are checked by the summary
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceReader.summary(trace("0,topic,0,1,1,1\n0,topic,3,1,1,1\n"), 3));
+  }
+}
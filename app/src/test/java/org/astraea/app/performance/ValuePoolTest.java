@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ValuePoolTest {
+
+  @Test
+  void testExactSize() {
+    var pool = new ValuePool(102400, new Random());
+    Assertions.assertEquals(102390, pool.value(102390).length);
+    Assertions.assertEquals(1, pool.value(1).length);
+    Assertions.assertEquals(1601, pool.value(1601).length);
+    Assertions.assertEquals(102390, pool.value(102390).length);
+  }
+
+  @Test
+  void testSizeClass() {
+    var pool = new ValuePool(102400, new Random());
+    // use up the exact size classes
+    for (var i = 0; i < ValuePool.SIZE_CLASSES; ++i)
+      Assertions.assertEquals(i + 2, pool.value(i + 2).length);
+    // the granularity is 102400 / 64 = 1600
+    Assertions.assertEquals(102400, pool.value(102400).length);
+    Assertions.assertEquals(102400, pool.value(102390).length);
+    Assertions.assertEquals(1600, pool.value(1).length);
+    Assertions.assertEquals(3200, pool.value(1601).length);
+    Assertions.assertEquals(0, pool.value(0).length);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> pool.value(102401));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> pool.value(-1));
+  }
+
+  @Test
+  void testExactSizeForSmallValue() {
+    var pool = new ValuePool(10, new Random());
+    for (var size = 0; size <= 10; ++size) Assertions.assertEquals(size, pool.value(size).length);
+  }
+
+  @Test
+  void testRotation() {
+    var pool = new ValuePool(1024, new Random());
+    var values = new HashSet<byte[]>();
+    for (var i = 0; i < ValuePool.ROTATION * 3; ++i) values.add(pool.value(1024));
+    // the values are reused rather than created
+    Assertions.assertEquals(ValuePool.ROTATION, values.size());
+  }
+
+  @Test
+  void testBudget() {
+    var size = 10 * 1024 * 1024;
+    var pool = new ValuePool(size, new Random());
+    // the values are too big to keep many copies
+    Assertions.assertSame(pool.value(size), pool.value(size));
+  }
+}
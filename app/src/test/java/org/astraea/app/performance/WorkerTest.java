@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class WorkerTest {
+
+  @Test
+  void testShareList() {
+    var all = List.of(0, 1, 2, 3, 4, 5, 6);
+    Assertions.assertEquals(List.of(0, 3, 6), Worker.share(all, 3, 0));
+    Assertions.assertEquals(List.of(1, 4), Worker.share(all, 3, 1));
+    Assertions.assertEquals(List.of(2, 5), Worker.share(all, 3, 2));
+    Assertions.assertEquals(List.of(), Worker.share(List.of(0), 2, 1));
+  }
+
+  @Test
+  void testShareCount() {
+    Assertions.assertEquals(3, Worker.share(7, 3, 0));
+    Assertions.assertEquals(2, Worker.share(7, 3, 1));
+    Assertions.assertEquals(2, Worker.share(7, 3, 2));
+    Assertions.assertEquals(0, Worker.share(1, 2, 1));
+  }
+
+  @Test
+  void testCheck() {
+    var argument = new Performance.Argument();
+    argument.workers = 3;
+    argument.producers = 3;
+    argument.exeTime = ExeTime.of("3records");
+    Worker.check(argument);
+    // the consumers are not required by each worker
+    argument.consumers = 1;
+    Worker.check(argument);
+    argument.exeTime = ExeTime.of("10s");
+    Worker.check(argument);
+
+    // some workers would get no record
+    argument.exeTime = ExeTime.of("2records");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Worker.check(argument));
+    argument.exeTime = ExeTime.of("3records");
+    // some workers would get no producer
+    argument.producers = 2;
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Worker.check(argument));
+  }
+
+  @Test
+  void testShareExeTime() {
+    var exeTime = ExeTime.of("10records");
+    Assertions.assertEquals("4records", Worker.share(exeTime, 3, 0).toString());
+    Assertions.assertEquals("3records", Worker.share(exeTime, 3, 1).toString());
+    Assertions.assertEquals("3records", Worker.share(exeTime, 3, 2).toString());
+    // the duration is not split
+    var duration = ExeTime.of("10s");
+    Assertions.assertSame(duration, Worker.share(duration, 3, 1));
+  }
+
+  @Test
+  void testBuckets() {
+    var histogram = new Histogram();
+    for (var i = 0; i < 1000; ++i) histogram.record(i);
+    histogram.record(123456);
+    var snapshot = histogram.snapshot();
+    var copy = Worker.Buckets.of(snapshot).snapshot();
+    Assertions.assertEquals(snapshot.count(), copy.count());
+    Assertions.assertEquals(snapshot.min(), copy.min());
+    Assertions.assertEquals(snapshot.max(), copy.max());
+    Assertions.assertEquals(snapshot.average(), copy.average());
+    for (var p : Histogram.PERCENTILES)
+      Assertions.assertEquals(snapshot.percentile(p), copy.percentile(p));
+
+    var empty = Worker.Buckets.of(Histogram.Snapshot.EMPTY).snapshot();
+    Assertions.assertEquals(0, empty.count());
+    // the merged extremes are not polluted by the empty snapshot
+    Assertions.assertEquals(0, empty.add(snapshot).min());
+    Assertions.assertEquals(123456, empty.add(snapshot).max());
+  }
+
+  @Test
+  void testReport() {
+    var producer = new Metrics();
+    producer.accept(10L, 100);
+    producer.accept(20L, 100);
+    var consumer = new Metrics();
+    consumer.accept(30L, 100);
+    var checkpoint =
+        Performance.Checkpoint.of(Duration.ofMillis(1500), List.of(producer), List.of(consumer));
+    var report = Worker.Report.of(1, false, true, List.of(producer), List.of(consumer), checkpoint);
+    Assertions.assertEquals(2, report.producedRecords);
+    Assertions.assertEquals(1, report.consumedRecords);
+
+    var copy = report.checkpoint();
+    Assertions.assertEquals(Duration.ofMillis(1500), copy.elapsed);
+    Assertions.assertEquals(200, copy.producedBytes);
+    Assertions.assertEquals(100, copy.consumedBytes);
+    Assertions.assertEquals(20, copy.publishLatencies.max());
+    Assertions.assertEquals(30, copy.e2eLatencies.max());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.admin;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.bench.Synthetic;
+import org.astraea.app.metrics.HasBeanObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of converting the cluster metadata and the beans. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClusterInfoBenchmark {
+
+  @Param({"3", "30"})
+  int brokers;
+
+  @Param({"1", "10"})
+  int topics;
+
+  @Param({"10", "1000"})
+  int partitions;
+
+  private Cluster cluster;
+  private Map<Integer, Collection<HasBeanObject>> beans;
+
+  @Setup
+  public void setup() {
+    cluster = Synthetic.cluster(brokers, topics, partitions, Math.min(3, brokers));
+    beans = Synthetic.beans(cluster, 0);
+  }
+
+  @Benchmark
+  public ClusterInfo clusterInfo() {
+    return ClusterInfo.of(cluster);
+  }
+
+  @Benchmark
+  public ClusterBean clusterBean() {
+    return ClusterBean.of(beans);
+  }
+}
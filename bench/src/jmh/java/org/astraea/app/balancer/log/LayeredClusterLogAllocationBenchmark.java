@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.balancer.log;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.astraea.app.admin.TopicPartition;
+import org.astraea.app.bench.Synthetic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of the operations used by the plan generators. Each generated plan adds a layer, so the
+ * lookups go through all layers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LayeredClusterLogAllocationBenchmark {
+
+  @Param({"100", "10000"})
+  int partitions;
+
+  @Param({"1", "10"})
+  int layers;
+
+  private List<TopicPartition> topicPartitions;
+  private LayeredClusterLogAllocation allocation;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    var cluster = Synthetic.cluster(3, 1, partitions, 2);
+    allocation = LayeredClusterLogAllocation.of(Synthetic.allocation(cluster));
+    topicPartitions = allocation.topicPartitionStream().collect(Collectors.toList());
+    // each layer changes the leader of a partition
+    for (var i = 1; i < layers; ++i) {
+      allocation = LayeredClusterLogAllocation.of(allocation);
+      var tp = topicPartitions.get(i % topicPartitions.size());
+      allocation.letReplicaBecomeLeader(tp, allocation.logPlacements(tp).get(1).broker());
+    }
+  }
+
+  private TopicPartition nextPartition() {
+    next = (next + 1) % topicPartitions.size();
+    return topicPartitions.get(next);
+  }
+
+  @Benchmark
+  public List<LogPlacement> logPlacements() {
+    return allocation.logPlacements(nextPartition());
+  }
+
+  @Benchmark
+  public long topicPartitionStream() {
+    return allocation.topicPartitionStream().count();
+  }
+
+  /** move a replica to another broker and then move it back, so the allocation is unchanged. */
+  @Benchmark
+  public LayeredClusterLogAllocation migrateReplica() {
+    var tp = nextPartition();
+    var placements = allocation.logPlacements(tp);
+    var from = placements.get(placements.size() - 1).broker();
+    // the brokers are 0, 1 and 2, and the partition has two replicas
+    var to = 3 - from - placements.get(0).broker();
+    allocation.migrateReplica(tp, from, to);
+    allocation.migrateReplica(tp, to, from);
+    return allocation;
+  }
+
+  /** swap the leader and then swap it back, so the allocation is unchanged. */
+  @Benchmark
+  public LayeredClusterLogAllocation letReplicaBecomeLeader() {
+    var tp = nextPartition();
+    var leader = allocation.logPlacements(tp).get(0).broker();
+    allocation.letReplicaBecomeLeader(tp, allocation.logPlacements(tp).get(1).broker());
+    allocation.letReplicaBecomeLeader(tp, leader);
+    return allocation;
+  }
+
+  /** create a layer above the current allocation. It is done by each step of plan generator. */
+  @Benchmark
+  public LayeredClusterLogAllocation newLayer() {
+    return LayeredClusterLogAllocation.of(allocation);
+  }
+}
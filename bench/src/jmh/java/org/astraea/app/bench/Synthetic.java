@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.rmi.registry.LocateRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.astraea.app.admin.TopicPartition;
+import org.astraea.app.balancer.log.LogPlacement;
+import org.astraea.app.metrics.HasBeanObject;
+import org.astraea.app.metrics.KafkaMetrics;
+import org.astraea.app.metrics.broker.BrokerTopicMetricsResult;
+import org.astraea.app.metrics.broker.HasValue;
+import org.astraea.app.metrics.jmx.BeanObject;
+import org.astraea.app.metrics.jmx.MBeanClient;
+import org.astraea.app.metrics.producer.HasProducerNodeMetrics;
+
+/**
+ * The generators of synthetic clusters and metrics. All generators are deterministic for the same
+ * arguments, so the results of different runs are comparable.
+ */
+public final class Synthetic {
+
+  private Synthetic() {}
+
+  /** @return the name of i-th topic */
+  public static String topic(int index) {
+    return "topic-" + index;
+  }
+
+  /**
+   * @param brokers the number of brokers. The broker ids are from 0 to brokers - 1
+   * @param topics the number of topics
+   * @param partitions the number of partitions of each topic
+   * @param replicas the number of replicas of each partition
+   * @return a kafka cluster whose leaders and followers are spread by round-robin
+   */
+  public static Cluster cluster(int brokers, int topics, int partitions, int replicas) {
+    var nodes =
+        IntStream.range(0, brokers)
+            .mapToObj(id -> new Node(id, "localhost", 9092 + id))
+            .collect(Collectors.toUnmodifiableList());
+    var infos = new ArrayList<PartitionInfo>(topics * partitions);
+    for (var t = 0; t < topics; ++t)
+      for (var p = 0; p < partitions; ++p) {
+        var first = t + p;
+        var replicaNodes =
+            IntStream.range(0, Math.min(replicas, brokers))
+                .mapToObj(i -> nodes.get((first + i) % brokers))
+                .toArray(Node[]::new);
+        infos.add(new PartitionInfo(topic(t), p, replicaNodes[0], replicaNodes, replicaNodes));
+      }
+    return new Cluster("bench", nodes, infos, Set.of(), Set.of());
+  }
+
+  /** @return the log placements of cluster. The first placement of each partition is the leader */
+  public static Map<TopicPartition, List<LogPlacement>> allocation(Cluster cluster) {
+    return cluster.topics().stream()
+        .flatMap(topic -> cluster.partitionsForTopic(topic).stream())
+        .collect(
+            Collectors.toMap(
+                p -> new TopicPartition(p.topic(), p.partition()),
+                p ->
+                    Arrays.stream(p.replicas())
+                        .map(node -> LogPlacement.of(node.id(), "/tmp/log-" + node.id()))
+                        .collect(Collectors.toUnmodifiableList())));
+  }
+
+  /** @return the capacity of each broker. It is used by the replica cost functions */
+  public static Map<Integer, Integer> capacities(Cluster cluster, int capacity) {
+    return cluster.nodes().stream().collect(Collectors.toMap(Node::id, ignored -> capacity));
+  }
+
+  /**
+   * Generate the beans used by the cost functions. Each broker has two samples of the broker topic
+   * meters, leader count, producer node metrics, the size history of its replicas, and the
+   * operating system and memory beans of current JVM.
+   *
+   * @param cluster to generate beans
+   * @param seed of random values
+   * @return the beans of each broker
+   */
+  public static Map<Integer, Collection<HasBeanObject>> beans(Cluster cluster, long seed) {
+    var random = new Random(seed);
+    var now = System.currentTimeMillis();
+    var beans = new HashMap<Integer, Collection<HasBeanObject>>();
+    try (var client = MBeanClient.local()) {
+      var os = KafkaMetrics.Host.operatingSystem(client);
+      var memory = KafkaMetrics.Host.jvmMemory(client);
+      cluster
+          .nodes()
+          .forEach(
+              node -> {
+                var list = new ArrayList<HasBeanObject>();
+                list.add(os);
+                list.add(memory);
+                for (var metric :
+                    List.of(
+                        KafkaMetrics.BrokerTopic.BytesInPerSec,
+                        KafkaMetrics.BrokerTopic.BytesOutPerSec)) {
+                  // two samples are required to compute the rate of counter
+                  var count = (long) random.nextInt(1_000_000);
+                  for (var i = 0; i <= 1; ++i)
+                    list.add(
+                        new BrokerTopicMetricsResult(
+                            new BeanObject(
+                                "kafka.server",
+                                Map.of("type", "BrokerTopicMetrics", "name", metric.metricName()),
+                                Map.of(
+                                    "Count",
+                                    count * (i + 1),
+                                    "OneMinuteRate",
+                                    random.nextDouble() * 1_000_000),
+                                now - 5000L * (1 - i))));
+                }
+                list.add(
+                    HasValue.of(
+                        new BeanObject(
+                            "kafka.server",
+                            Map.of("type", "ReplicaManager", "name", "LeaderCount"),
+                            Map.of("Value", random.nextInt(1000)))));
+                var producerNode =
+                    new BeanObject(
+                        "kafka.producer",
+                        Map.of("type", "producer-node-metrics", "node-id", "node-" + node.id()),
+                        PRODUCER_NODE_ATTRIBUTES.stream()
+                            .collect(
+                                Collectors.toMap(name -> name, name -> random.nextDouble() * 100)));
+                list.add((HasProducerNodeMetrics) () -> producerNode);
+                beans.put(node.id(), list);
+              });
+    }
+    // the size of each replica in the past 5 seconds
+    cluster.topics().stream()
+        .flatMap(topic -> cluster.partitionsForTopic(topic).stream())
+        .forEach(
+            p -> {
+              var size = (long) random.nextInt(1_000_000);
+              for (var replica : p.replicas())
+                for (var second = 5; second >= 0; --second)
+                  beans
+                      .get(replica.id())
+                      .add(
+                          HasValue.of(
+                              new BeanObject(
+                                  "kafka.log",
+                                  Map.of(
+                                      "type",
+                                      "Log",
+                                      "name",
+                                      "Size",
+                                      "topic",
+                                      p.topic(),
+                                      "partition",
+                                      String.valueOf(p.partition())),
+                                  Map.of("Value", size * (6 - second)),
+                                  now - second * 1000L)));
+            });
+    return beans;
+  }
+
+  private static final List<String> PRODUCER_NODE_ATTRIBUTES =
+      List.of(
+          "incoming-byte-rate",
+          "incoming-byte-total",
+          "outgoing-byte-rate",
+          "outgoing-byte-total",
+          "request-latency-avg",
+          "request-latency-max",
+          "request-rate",
+          "request-size-avg",
+          "request-size-max",
+          "request-total",
+          "response-rate",
+          "response-total");
+
+  /** The broker topic meter registered to the platform mbean server. */
+  public interface MeterMBean {
+    long getCount();
+
+    double getOneMinuteRate();
+  }
+
+  /**
+   * Register the broker topic meters to the platform mbean server, so the dispatchers fetching the
+   * broker metrics through JMX work in the benchmark JVM.
+   */
+  public static void registerBrokerMeters() {
+    var server = ManagementFactory.getPlatformMBeanServer();
+    var random = new Random(0);
+    for (var metric :
+        List.of(KafkaMetrics.BrokerTopic.BytesInPerSec, KafkaMetrics.BrokerTopic.BytesOutPerSec)) {
+      var count = random.nextInt(1_000_000);
+      try {
+        var name =
+            new ObjectName("kafka.server:type=BrokerTopicMetrics,name=" + metric.metricName());
+        if (server.isRegistered(name)) continue;
+        server.registerMBean(
+            new StandardMBean(
+                new MeterMBean() {
+                  @Override
+                  public long getCount() {
+                    return count;
+                  }
+
+                  @Override
+                  public double getOneMinuteRate() {
+                    return count / 60D;
+                  }
+                },
+                MeterMBean.class),
+            name);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Start a JMX server of current JVM. The address is the same as the one used by the brokers, so
+   * the dispatchers can use it as the JMX server of all brokers.
+   *
+   * @return the started server
+   */
+  public static JMXConnectorServer jmxServer() {
+    try {
+      var port = freePort();
+      LocateRegistry.createRegistry(port);
+      var server =
+          JMXConnectorServerFactory.newJMXConnectorServer(
+              new JMXServiceURL(
+                  String.format(
+                      "service:jmx:rmi://localhost:%s/jndi/rmi://localhost:%s/jmxrmi", port, port)),
+              null,
+              ManagementFactory.getPlatformMBeanServer());
+      server.start();
+      return server;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (var server = new ServerSocket(0)) {
+      return server.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.cost;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.astraea.app.admin.ClusterBean;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.bench.Synthetic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of {@link HasBrokerCost#brokerCost(ClusterInfo, ClusterBean)} of each function. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BrokerCostBenchmark {
+
+  @Param({
+    "BrokerInputCost",
+    "BrokerOutputCost",
+    "CpuCost",
+    "MemoryCost",
+    "LoadCost",
+    "NodeLatencyCost",
+    "NodeThroughputCost",
+    "NeutralIntegratedCost",
+    "ReplicaLeaderCost",
+    "ReplicaDiskInCost",
+    "ReplicaSizeCost"
+  })
+  String function;
+
+  @Param({"3", "30"})
+  int brokers;
+
+  @Param({"10", "1000"})
+  int partitions;
+
+  private HasBrokerCost cost;
+  private ClusterInfo clusterInfo;
+  private ClusterBean clusterBean;
+
+  @Setup
+  public void setup() {
+    var cluster = Synthetic.cluster(brokers, 1, partitions, Math.min(3, brokers));
+    clusterInfo = ClusterInfo.of(cluster);
+    clusterBean = ClusterBean.of(Synthetic.beans(cluster, 0));
+    cost = create(function, Synthetic.capacities(cluster, 1000));
+  }
+
+  private static HasBrokerCost create(String function, Map<Integer, Integer> capacities) {
+    switch (function) {
+      case "BrokerInputCost":
+        return new BrokerInputCost();
+      case "BrokerOutputCost":
+        return new BrokerOutputCost();
+      case "CpuCost":
+        return new CpuCost();
+      case "MemoryCost":
+        return new MemoryCost();
+      case "LoadCost":
+        return new LoadCost();
+      case "NodeLatencyCost":
+        return new NodeLatencyCost();
+      case "NodeThroughputCost":
+        return new NodeThroughputCost();
+      case "NeutralIntegratedCost":
+        return new NeutralIntegratedCost();
+      case "ReplicaLeaderCost":
+        return new ReplicaLeaderCost();
+      case "ReplicaDiskInCost":
+        return new ReplicaDiskInCost(capacities);
+      case "ReplicaSizeCost":
+        return new ReplicaSizeCost(capacities);
+      default:
+        throw new IllegalArgumentException("unknown cost function: " + function);
+    }
+  }
+
+  @Benchmark
+  public Map<Integer, Double> brokerCost() {
+    return cost.brokerCost(clusterInfo, clusterBean).value();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.cost;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of {@link Normalizer} and {@link WeightProvider}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NormalizerBenchmark {
+
+  @Param({"minMax", "proportion", "TScore"})
+  String normalizer;
+
+  /** the number of values, which is the number of brokers in production */
+  @Param({"3", "30", "300"})
+  int size;
+
+  private Normalizer instance;
+  private List<Double> values;
+  private WeightProvider weightProvider;
+  private Map<String, List<Double>> metrics;
+
+  @Setup
+  public void setup() {
+    var random = new Random(0);
+    switch (normalizer) {
+      case "minMax":
+        instance = Normalizer.minMax(true);
+        break;
+      case "proportion":
+        instance = Normalizer.proportion();
+        break;
+      case "TScore":
+        instance = Normalizer.TScore();
+        break;
+      default:
+        throw new IllegalArgumentException("unknown normalizer: " + normalizer);
+    }
+    values = random.doubles(size).boxed().collect(Collectors.toUnmodifiableList());
+    weightProvider = WeightProvider.entropy(instance);
+    // the metrics used by NeutralIntegratedCost
+    metrics =
+        IntStream.range(0, 4)
+            .boxed()
+            .collect(
+                Collectors.toMap(
+                    i -> "metric-" + i,
+                    i -> random.doubles(size).boxed().collect(Collectors.toUnmodifiableList())));
+  }
+
+  @Benchmark
+  public Collection<Double> normalize() {
+    return instance.normalize(values);
+  }
+
+  @Benchmark
+  public Map<String, Double> weight() {
+    return weightProvider.weight(metrics);
+  }
+}
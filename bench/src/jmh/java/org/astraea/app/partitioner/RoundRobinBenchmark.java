@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of {@link RoundRobin#next(Set)}. The round-robin is shared by threads in production. The
+ * "map" implementation is the former smooth round-robin which copies the scores on each call. It is
+ * kept as the baseline of comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RoundRobinBenchmark {
+
+  @Param({"3", "30", "300"})
+  int targets;
+
+  @Param({"array", "map"})
+  String implementation;
+
+  private RoundRobin<Integer> roundRobin;
+  private Set<Integer> available;
+
+  @Setup
+  public void setup() {
+    var random = new Random(0);
+    Map<Integer, Double> scores =
+        IntStream.range(0, targets)
+            .boxed()
+            .collect(Collectors.toMap(i -> i, i -> random.nextDouble() * 100));
+    roundRobin =
+        implementation.equals("map") ? new MapRoundRobin<>(scores) : RoundRobin.smooth(scores);
+    available = Set.copyOf(scores.keySet());
+  }
+
+  @Benchmark
+  public Integer next() {
+    return roundRobin.next(available).orElse(-1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Integer nextByFourThreads() {
+    return roundRobin.next(available).orElse(-1);
+  }
+
+  private static class MapRoundRobin<E> implements RoundRobin<E> {
+    private final Map<E, Double> effectiveScores;
+    private volatile Map<E, Double> currentScores;
+
+    private MapRoundRobin(Map<E, Double> scores) {
+      this.effectiveScores = Collections.unmodifiableMap(scores);
+      this.currentScores =
+          scores.keySet().stream()
+              .collect(Collectors.toUnmodifiableMap(Function.identity(), ignored -> 0D));
+    }
+
+    @Override
+    public Optional<E> next(Set<E> availableTargets) {
+      if (effectiveScores.isEmpty() || availableTargets.isEmpty()) return Optional.empty();
+      var sum = effectiveScores.values().stream().mapToDouble(d -> d).sum();
+      var nextScores =
+          currentScores.entrySet().stream()
+              .collect(
+                  Collectors.toMap(
+                      Map.Entry::getKey,
+                      e -> effectiveScores.getOrDefault(e.getKey(), 0D) + e.getValue()));
+      var maxObj =
+          nextScores.entrySet().stream()
+              .filter(e -> availableTargets.contains(e.getKey()))
+              .max(Map.Entry.comparingByValue())
+              .map(Map.Entry::getKey);
+      maxObj.ifPresent(
+          o -> {
+            nextScores.put(o, nextScores.get(o) - sum);
+            currentScores = Collections.unmodifiableMap(nextScores);
+          });
+      return maxObj;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.bench.Synthetic;
+import org.astraea.app.cost.BrokerInputCost;
+import org.astraea.app.cost.NodeLatencyCost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of choosing a partition for each record by {@link StrictCostDispatcher}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StrictCostDispatcherBenchmark {
+
+  @Param({"3", "30"})
+  int brokers;
+
+  @Param({"10", "1000"})
+  int partitions;
+
+  private final byte[] key = new byte[10];
+  private final byte[] value = new byte[100];
+  private Cluster cluster;
+  private ClusterInfo clusterInfo;
+  private StrictCostDispatcher dispatcher;
+
+  @Setup
+  public void setup() {
+    Synthetic.registerBrokerMeters();
+    cluster = Synthetic.cluster(brokers, 1, partitions, 1);
+    clusterInfo = ClusterInfo.of(cluster);
+    dispatcher = new StrictCostDispatcher();
+    // the cost functions use the local mbeans only
+    dispatcher.configure(
+        Map.of(new NodeLatencyCost(), 1D, new BrokerInputCost(), 1D),
+        Optional.empty(),
+        Map.of(),
+        Duration.ofSeconds(4));
+    ThreadLocalRandom.current().nextBytes(key);
+  }
+
+  @TearDown
+  public void close() {
+    dispatcher.close();
+  }
+
+  @Benchmark
+  public int partition() {
+    return dispatcher.partition(Synthetic.topic(0), key, value, clusterInfo);
+  }
+
+  /** The path used by the producer. It includes the lookup of cached cluster info. */
+  @Benchmark
+  public int partitionByCluster() {
+    return dispatcher.partition(Synthetic.topic(0), null, key, null, value, cluster);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.partitioner.smooth;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.management.remote.JMXConnectorServer;
+import org.apache.kafka.common.Cluster;
+import org.astraea.app.admin.ClusterInfo;
+import org.astraea.app.bench.Synthetic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of choosing a partition for each record by {@link SmoothWeightRoundRobinDispatcher}.
+ * All brokers use the JMX server of benchmark JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SmoothWeightRoundRobinDispatcherBenchmark {
+
+  @Param({"3", "30"})
+  int brokers;
+
+  @Param({"10", "1000"})
+  int partitions;
+
+  private final byte[] key = new byte[10];
+  private final byte[] value = new byte[100];
+  private JMXConnectorServer jmxServer;
+  private Cluster cluster;
+  private ClusterInfo clusterInfo;
+  private SmoothWeightRoundRobinDispatcher dispatcher;
+
+  @Setup
+  public void setup() throws IOException {
+    Synthetic.registerBrokerMeters();
+    jmxServer = Synthetic.jmxServer();
+    cluster = Synthetic.cluster(brokers, 1, partitions, 1);
+    clusterInfo = ClusterInfo.of(cluster);
+    var config = Files.createTempFile("partitioner", ".config");
+    config.toFile().deleteOnExit();
+    Files.write(
+        config,
+        IntStream.range(0, brokers)
+            .mapToObj(id -> "broker." + id + ".jmx.port=" + jmxServer.getAddress().getPort())
+            .collect(Collectors.toList()));
+    dispatcher = new SmoothWeightRoundRobinDispatcher();
+    dispatcher.configure(Map.of("partitioner.config", config.toString()));
+    ThreadLocalRandom.current().nextBytes(key);
+  }
+
+  @TearDown
+  public void close() throws IOException {
+    dispatcher.close();
+    jmxServer.stop();
+  }
+
+  @Benchmark
+  public int partition() {
+    return dispatcher.partition(Synthetic.topic(0), key, value, clusterInfo);
+  }
+
+  /** The path used by the producer. It includes the lookup of cached cluster info. */
+  @Benchmark
+  public int partitionByCluster() {
+    return dispatcher.partition(Synthetic.topic(0), null, key, null, value, cluster);
+  }
+
+  /**
+   * The records per second of many threads sending records to the same dispatcher. Divide the score
+   * by the number of threads to get the records per second of each core.
+   */
+  @Benchmark
+  @Threads(8)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public int concurrentPartition() {
+    return dispatcher.partition(Synthetic.topic(0), key, value, clusterInfo);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.concurrent.TimeUnit;
+import org.astraea.app.common.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of generating records and recording the results. They are on the send path of each
+ * producer thread, so they must be much cheaper than the send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PerformanceBenchmark {
+
+  @Param({"uniform", "zipfian"})
+  String keyDistribution;
+
+  @Param({"1KiB", "100KiB"})
+  String recordSize;
+
+  private DataSupplier dataSupplier;
+  private Metrics metrics;
+
+  @Setup
+  public void setup() {
+    dataSupplier =
+        DataSupplier.of(
+            // much longer than a trial
+            ExeTime.of("1days"),
+            new DistributionType.DistributionTypeField().convert(keyDistribution).create(100000),
+            new DataSize.Field().convert(recordSize),
+            DistributionType.UNIFORM.create(1024));
+    metrics = new Metrics();
+  }
+
+  @Benchmark
+  public DataSupplier.Data get() {
+    return dataSupplier.get();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public DataSupplier.Data getByFourThreads() {
+    return dataSupplier.get();
+  }
+
+  @Benchmark
+  public Metrics accept() {
+    metrics.accept(10L, 1024);
+    return metrics;
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Metrics acceptByFourThreads() {
+    metrics.accept(10L, 1024);
+    return metrics;
+  }
+}